@@ -0,0 +1,12 @@
+package com.financeiro.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita as tarefas agendadas (@Scheduled), como o lançamento de parcelas vencidas.
+ */
+@Configuration
+@EnableScheduling
+public class AgendamentoConfig {
+}
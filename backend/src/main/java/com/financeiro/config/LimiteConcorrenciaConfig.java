@@ -0,0 +1,72 @@
+package com.financeiro.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financeiro.util.LimiteConcorrenciaAdaptativo;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Limite adaptativo de requisições simultâneas na frente do pool de conexões. Com
+ * virtual threads o Tomcat aceita requisições sem limite; o filtro segura o excesso
+ * antes da autenticação e do pool, que sinaliza congestionamento quando há threads
+ * esperando conexão.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.limite-concorrencia.habilitado", havingValue = "true", matchIfMissing = true)
+public class LimiteConcorrenciaConfig {
+
+    @Bean
+    public LimiteConcorrenciaAdaptativo limiteConcorrencia(@Value("${app.limite-concorrencia.inicial:20}") int inicial,
+                                                           @Value("${app.limite-concorrencia.minimo:5}") int minimo,
+                                                           @Value("${app.limite-concorrencia.maximo:200}") int maximo,
+                                                           MeterRegistry meterRegistry) {
+        LimiteConcorrenciaAdaptativo limite = new LimiteConcorrenciaAdaptativo(inicial, minimo, maximo);
+        Gauge.builder("concorrencia.limite", limite, LimiteConcorrenciaAdaptativo::getLimite)
+                .description("Requisições simultâneas admitidas")
+                .register(meterRegistry);
+        Gauge.builder("concorrencia.em.uso", limite, LimiteConcorrenciaAdaptativo::getEmUso)
+                .description("Requisições em andamento")
+                .register(meterRegistry);
+        Gauge.builder("concorrencia.aguardando", limite, LimiteConcorrenciaAdaptativo::getAguardando)
+                .description("Requisições esperando vaga")
+                .register(meterRegistry);
+        FunctionCounter.builder("concorrencia.rejeicoes", limite, LimiteConcorrenciaAdaptativo::getRejeitadas)
+                .description("Requisições recusadas com 503")
+                .register(meterRegistry);
+        return limite;
+    }
+
+    @Bean
+    public FilterRegistrationBean<LimiteConcorrenciaFilter> limiteConcorrenciaFilter(
+            LimiteConcorrenciaAdaptativo limite, DataSource dataSource, ObjectMapper objectMapper,
+            @Value("${app.limite-concorrencia.espera-maxima-ms:100}") long esperaMaximaMs) {
+        LimiteConcorrenciaFilter filtro = new LimiteConcorrenciaFilter(limite, () -> poolCongestionado(dataSource),
+                esperaMaximaMs, objectMapper);
+        FilterRegistrationBean<LimiteConcorrenciaFilter> registro = new FilterRegistrationBean<>(filtro);
+        registro.addUrlPatterns("/api/*");
+        // Antes da cadeia do Spring Security, que consulta o banco na autenticação
+        registro.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registro;
+    }
+
+    private static boolean poolCongestionado(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            return pool != null && pool.getThreadsAwaitingConnection() > 0;
+        }
+        return false;
+    }
+}
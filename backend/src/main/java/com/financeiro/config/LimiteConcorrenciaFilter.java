@@ -0,0 +1,105 @@
+package com.financeiro.config;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financeiro.exception.GlobalExceptionHandler.Problema;
+import com.financeiro.util.LimiteConcorrenciaAdaptativo;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Controle de admissão das requisições da API, que quase todas usam o banco. Acima do
+ * limite adaptativo a requisição espera brevemente por uma vaga e, sem vaga, recebe
+ * 503 com Retry-After em vez de acumular threads esperando conexão até o timeout.
+ *
+ * Exportação, inclusão em lote e importação de extrato ficam de fora: em streaming,
+ * cada uma ocupa uma vaga por minutos, e poucas delas bastariam para recusar toda a
+ * API. A duração delas também distorceria a latência usada para ajustar o limite.
+ */
+public class LimiteConcorrenciaFilter extends OncePerRequestFilter {
+
+    private static final long SEGUNDOS_PARA_NOVA_TENTATIVA = 1;
+
+    private final LimiteConcorrenciaAdaptativo limite;
+    private final BooleanSupplier poolCongestionado;
+    private final long esperaMaximaMs;
+    private final ObjectMapper objectMapper;
+
+    public LimiteConcorrenciaFilter(LimiteConcorrenciaAdaptativo limite, BooleanSupplier poolCongestionado,
+                                    long esperaMaximaMs, ObjectMapper objectMapper) {
+        this.limite = limite;
+        this.poolCongestionado = poolCongestionado;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.objectMapper = objectMapper;
+    }
+
+    // Login e cadastro já são limitados pelo pool de hash de senhas, e a latência do
+    // BCrypt distorceria a referência usada para as demais requisições
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String caminho = request.getRequestURI().substring(request.getContextPath().length());
+        String metodo = request.getMethod();
+        return caminho.equals("/api/usuarios/login")
+                || (caminho.equals("/api/usuarios") && "POST".equals(metodo))
+                || (caminho.equals("/api/transacoes/exportar") && "GET".equals(metodo))
+                || (caminho.equals("/api/transacoes/lote") && "POST".equals(metodo))
+                || (caminho.equals("/api/registros-importacao/importar") && "POST".equals(metodo));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        boolean admitida;
+        try {
+            admitida = limite.adquirir(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitida = false;
+        }
+        if (!admitida) {
+            rejeitar(response);
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        boolean sucesso = false;
+        try {
+            filterChain.doFilter(request, response);
+            sucesso = true;
+        } finally {
+            limite.liberar(sucesso ? System.nanoTime() - inicio : 0, TimeUnit.NANOSECONDS,
+                    poolCongestionado.getAsBoolean());
+        }
+    }
+
+    private void rejeitar(HttpServletResponse response) throws IOException {
+        var status = HttpStatus.SERVICE_UNAVAILABLE;
+
+        var problema = new Problema();
+        problema.setStatus(status.value());
+        problema.setTitulo("Servidor sobrecarregado. Tente novamente em instantes.");
+        problema.setDataHora(LocalDateTime.now());
+
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(SEGUNDOS_PARA_NOVA_TENTATIVA));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), problema);
+    }
+}
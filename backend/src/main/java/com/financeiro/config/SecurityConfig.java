@@ -17,8 +17,12 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import com.financeiro.security.CodificadorSenhasLimitado;
 import com.financeiro.security.JwtAuthenticationFilter;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+
 import java.util.Arrays;
 
 @Configuration
@@ -45,6 +49,10 @@ public class SecurityConfig {
             
             // Configuração de autorização
             .authorizeHttpRequests(auth -> {
+                // O despacho assíncrono que conclui uma resposta em streaming (exportação)
+                // pertence a uma requisição já autorizada e não traz o token de novo
+                auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll();
+                
                 // Endpoints públicos essenciais
                 auth.requestMatchers("/api/usuarios/login").permitAll()
                     .requestMatchers("/api/usuarios").permitAll(); // Para cadastro
@@ -104,9 +112,14 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        // BCrypt com força 12 para maior segurança (padrão é 10)
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(@Value("${app.senha.custo-bcrypt:12}") int custo,
+                                           @Value("${app.senha.threads:0}") int threads,
+                                           @Value("${app.senha.tamanho-fila:4}") int tamanhoFila,
+                                           MeterRegistry meterRegistry) {
+        // BCrypt com força 12 para maior segurança (padrão é 10), executado em pool limitado;
+        // por padrão metade dos processadores, para o hash nunca ocupar a CPU inteira
+        int threadsHash = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new CodificadorSenhasLimitado(new BCryptPasswordEncoder(custo), threadsHash, tamanhoFila, meterRegistry);
     }
 
     @Bean
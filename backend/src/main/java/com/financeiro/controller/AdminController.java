@@ -1,5 +1,6 @@
 package com.financeiro.controller;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,10 +15,16 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.financeiro.dto.ConciliacaoSaldosDTO;
 import com.financeiro.dto.UsuarioCadastroDTO;
 import com.financeiro.dto.UsuarioDTO;
+import com.financeiro.service.ConciliacaoSaldoService;
+import com.financeiro.service.ParcelaLancamentoService;
+import com.financeiro.service.ResumoMensalService;
+import com.financeiro.service.SaldoDiarioService;
 import com.financeiro.service.UsuarioService;
 
 import jakarta.validation.Valid;
@@ -29,6 +36,18 @@ public class AdminController {
     @Autowired
     private UsuarioService usuarioService;
     
+    @Autowired
+    private ResumoMensalService resumoMensalService;
+    
+    @Autowired
+    private ParcelaLancamentoService parcelaLancamentoService;
+    
+    @Autowired
+    private SaldoDiarioService saldoDiarioService;
+    
+    @Autowired
+    private ConciliacaoSaldoService conciliacaoSaldoService;
+    
     // Método auxiliar para verificar se o usuário atual é administrador
     private void verificarPermissaoAdmin() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -108,6 +127,34 @@ public class AdminController {
         return ResponseEntity.ok(usuarioService.promoverParaAdvogado(id));
     }
     
+    // Recalcula a tabela resumo_mensal a partir das transações (carga inicial ou correção)
+    @PostMapping("/resumo-mensal/reconstruir")
+    public ResponseEntity<Integer> reconstruirResumoMensal() {
+        verificarPermissaoAdmin();
+        return ResponseEntity.ok(resumoMensalService.reconstruir());
+    }
+    
+    // Recalcula os saldos diários de todas as instituições a partir das transações lançadas
+    @PostMapping("/saldos-diarios/reconstruir")
+    public ResponseEntity<Integer> reconstruirSaldosDiarios() {
+        verificarPermissaoAdmin();
+        return ResponseEntity.ok(saldoDiarioService.reconstruirTodas());
+    }
+    
+    // Confere o saldo atual das instituições com as transações lançadas; com corrigir=true ajusta os divergentes
+    @PostMapping("/saldos/conciliar")
+    public ResponseEntity<ConciliacaoSaldosDTO> conciliarSaldos(@RequestParam(defaultValue = "false") boolean corrigir) {
+        verificarPermissaoAdmin();
+        return ResponseEntity.ok(conciliacaoSaldoService.conciliar(corrigir));
+    }
+    
+    // Executa agora o lançamento das parcelas vencidas, sem esperar o agendamento noturno
+    @PostMapping("/parcelas/lancar")
+    public ResponseEntity<Integer> lancarParcelasVencidas() {
+        verificarPermissaoAdmin();
+        return ResponseEntity.ok(parcelaLancamentoService.lancarParcelasVencidas(LocalDate.now()));
+    }
+    
     @GetMapping("/verificar-permissao")
     public ResponseEntity<Boolean> verificarPermissaoAdministrador() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -1,8 +1,10 @@
 package com.financeiro.controller;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -16,7 +18,9 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.financeiro.dto.InstituicaoDTO;
+import com.financeiro.dto.SaldoDiarioDTO;
 import com.financeiro.service.InstituicaoService;
+import com.financeiro.service.SaldoDiarioService;
 
 import jakarta.validation.Valid;
 
@@ -27,6 +31,9 @@ public class InstituicaoController {
     @Autowired
     private InstituicaoService instituicaoService;
     
+    @Autowired
+    private SaldoDiarioService saldoDiarioService;
+    
     @GetMapping
     public ResponseEntity<List<InstituicaoDTO>> listar(
             @RequestParam(required = false) String tipo,
@@ -52,6 +59,23 @@ public class InstituicaoController {
         return ResponseEntity.ok(instituicaoService.buscarPorId(id));
     }
     
+    // Saldo ao fim do dia informado
+    @GetMapping("/{id}/saldo")
+    public ResponseEntity<SaldoDiarioDTO> buscarSaldo(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
+        return ResponseEntity.ok(saldoDiarioService.buscarSaldo(id, data));
+    }
+    
+    // Saldo ao fim de cada dia do período, para o gráfico da evolução do saldo
+    @GetMapping("/{id}/saldos")
+    public ResponseEntity<List<SaldoDiarioDTO>> listarSaldos(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        return ResponseEntity.ok(saldoDiarioService.listarSaldos(id, dataInicio, dataFim));
+    }
+    
     @PostMapping
     public ResponseEntity<InstituicaoDTO> criar(@Valid @RequestBody InstituicaoDTO dto) {
         return ResponseEntity.status(HttpStatus.CREATED).body(instituicaoService.salvar(dto));
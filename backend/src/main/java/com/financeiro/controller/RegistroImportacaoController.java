@@ -1,12 +1,16 @@
 package com.financeiro.controller;
 
+import java.io.IOException;
+import java.nio.charset.Charset;
 import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -16,9 +20,14 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
 import com.financeiro.dto.RegistroImportacaoDTO;
+import com.financeiro.dto.ResultadoImportacaoDTO;
+import com.financeiro.enums.FormatoExtrato;
+import com.financeiro.service.ImportacaoExtratoService;
 import com.financeiro.service.RegistroImportacaoService;
+import com.financeiro.service.UsuarioService;
 
 import jakarta.validation.Valid;
 
@@ -29,6 +38,12 @@ public class RegistroImportacaoController {
     @Autowired
     private RegistroImportacaoService registroImportacaoService;
     
+    @Autowired
+    private ImportacaoExtratoService importacaoExtratoService;
+    
+    @Autowired
+    private UsuarioService usuarioService;
+    
     @GetMapping
     public ResponseEntity<List<RegistroImportacaoDTO>> listar(
             @RequestParam(required = false) String banco,
@@ -46,6 +61,30 @@ public class RegistroImportacaoController {
         return ResponseEntity.ok(registroImportacaoService.listarTodos());
     }
     
+    /**
+     * Importa um extrato CSV ou OFX como transações do perfil na instituição informada.
+     * Cada lançamento recebe a categoria da regra de categorização do perfil que se
+     * aplica a ele, a sugerida pelo modelo aprendido do perfil quando a confiança é alta
+     * ou, por fim, a categoria (e subcategoria) indicada; sem ela o lançamento é
+     * rejeitado. O formato é deduzido da extensão do arquivo quando não informado.
+     * O perfil e a instituição devem ser do usuário autenticado. Reenviar um arquivo
+     * cuja importação falhou retoma a importação depois do último bloco gravado.
+     */
+    @PostMapping(value = "/importar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ResultadoImportacaoDTO> importar(
+            @RequestParam MultipartFile arquivo,
+            @RequestParam Long perfilId,
+            @RequestParam Long instituicaoId,
+            @RequestParam(required = false) Long categoriaId,
+            @RequestParam(required = false) Long subcategoriaId,
+            @RequestParam(required = false) FormatoExtrato formato,
+            @RequestParam(defaultValue = "UTF-8") Charset charset,
+            Authentication authentication) throws IOException {
+        Long usuarioId = usuarioService.buscarUsuarioPorEmail(authentication.getName()).getId();
+        return ResponseEntity.status(HttpStatus.CREATED).body(importacaoExtratoService.importar(
+                arquivo, usuarioId, perfilId, instituicaoId, categoriaId, subcategoriaId, formato, charset));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<RegistroImportacaoDTO> buscarPorId(@PathVariable Long id) {
         return ResponseEntity.ok(registroImportacaoService.buscarPorId(id));
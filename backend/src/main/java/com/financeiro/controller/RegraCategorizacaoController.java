@@ -0,0 +1,56 @@
+package com.financeiro.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.financeiro.dto.RegraCategorizacaoDTO;
+import com.financeiro.service.RegraCategorizacaoService;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/regras-categorizacao")
+public class RegraCategorizacaoController {
+
+    @Autowired
+    private RegraCategorizacaoService regraCategorizacaoService;
+    
+    @GetMapping
+    public ResponseEntity<List<RegraCategorizacaoDTO>> listar(@RequestParam Long perfilId) {
+        return ResponseEntity.ok(regraCategorizacaoService.listarPorPerfil(perfilId));
+    }
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<RegraCategorizacaoDTO> buscarPorId(@PathVariable Long id) {
+        return ResponseEntity.ok(regraCategorizacaoService.buscarPorId(id));
+    }
+    
+    @PostMapping
+    public ResponseEntity<RegraCategorizacaoDTO> criar(@Valid @RequestBody RegraCategorizacaoDTO dto) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(regraCategorizacaoService.salvar(dto));
+    }
+    
+    @PutMapping("/{id}")
+    public ResponseEntity<RegraCategorizacaoDTO> atualizar(@PathVariable Long id,
+                                                           @Valid @RequestBody RegraCategorizacaoDTO dto) {
+        return ResponseEntity.ok(regraCategorizacaoService.atualizar(id, dto));
+    }
+    
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> excluir(@PathVariable Long id) {
+        regraCategorizacaoService.excluir(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,11 +1,16 @@
 package com.financeiro.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,8 +21,17 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.financeiro.dto.FiltroTransacaoDTO;
+import com.financeiro.dto.PaginaDTO;
+import com.financeiro.dto.ResultadoLoteDTO;
+import com.financeiro.dto.SugestaoCategoriaDTO;
 import com.financeiro.dto.TransacaoDTO;
+import com.financeiro.enums.FormatoExportacao;
+import com.financeiro.service.SugestaoCategoriaService;
+import com.financeiro.service.TransacaoExportacaoService;
+import com.financeiro.service.TransacaoLoteService;
 import com.financeiro.service.TransacaoService;
 
 import jakarta.validation.Valid;
@@ -29,56 +43,59 @@ public class TransacaoController {
     @Autowired
     private TransacaoService transacaoService;
     
+    @Autowired
+    private TransacaoExportacaoService transacaoExportacaoService;
+    
+    @Autowired
+    private TransacaoLoteService transacaoLoteService;
+    
+    @Autowired
+    private SugestaoCategoriaService sugestaoCategoriaService;
+    
     @GetMapping
-    public ResponseEntity<List<TransacaoDTO>> listar(
-            @RequestParam(required = false) Long usuarioId,
-            @RequestParam(required = false) Long perfilId,
+    public ResponseEntity<PaginaDTO<TransacaoDTO>> listar(
+            FiltroTransacaoDTO filtro,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho) {
+        return ResponseEntity.ok(transacaoService.listar(filtro, cursor, tamanho));
+    }
+    
+    /**
+     * Exporta as transações do perfil em streaming. O corpo é escrito de forma assíncrona
+     * pelo Spring MVC, com o tempo limite de spring.mvc.async.request-timeout
+     * (app.exportacao.tempo-limite-ms).
+     */
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam Long perfilId,
+            @RequestParam(defaultValue = "CSV") FormatoExportacao formato) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formato.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transacoes-perfil-" + perfilId + "." + formato.getExtensao() + "\"")
+                .body(transacaoExportacaoService.exportarPorPerfil(perfilId, formato));
+    }
+    
+    // Parcelas futuras geradas a partir dos planos de parcelamento, ainda sem id
+    @GetMapping("/parcelas-futuras")
+    public ResponseEntity<List<TransacaoDTO>> listarParcelasFuturas(
+            @RequestParam Long perfilId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        return ResponseEntity.ok(transacaoService.listarParcelasFuturas(perfilId, dataInicio, dataFim));
+    }
+    
+    /**
+     * Categoria sugerida pelo modelo aprendido com as transações já categorizadas do perfil.
+     */
+    @GetMapping("/sugestao-categoria")
+    public ResponseEntity<SugestaoCategoriaDTO> sugerirCategoria(
+            @RequestParam Long perfilId,
+            @RequestParam String descricao,
+            @RequestParam(required = false) BigDecimal valor,
             @RequestParam(required = false) String tipo,
-            @RequestParam(required = false) Long categoriaId,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
-        
-        if (perfilId != null && tipo != null && categoriaId != null) {
-            return ResponseEntity.ok(transacaoService.listarPorPerfilTipoECategoria(perfilId, tipo, categoriaId));
-        }
-        
-        if (perfilId != null && tipo != null) {
-            return ResponseEntity.ok(transacaoService.listarPorPerfilETipo(perfilId, tipo));
-        }
-        
-        if (perfilId != null && categoriaId != null) {
-            return ResponseEntity.ok(transacaoService.listarPorPerfilECategoria(perfilId, categoriaId));
-        }
-        
-        if (perfilId != null && dataInicio != null && dataFim != null) {
-            return ResponseEntity.ok(transacaoService.listarPorPerfilEPeriodo(perfilId, dataInicio, dataFim));
-        }
-        
-        if (perfilId != null) {
-            return ResponseEntity.ok(transacaoService.listarPorPerfil(perfilId));
-        }
-        
-        if (usuarioId != null && tipo != null) {
-            return ResponseEntity.ok(transacaoService.listarPorUsuarioETipo(usuarioId, tipo));
-        }
-        
-        if (usuarioId != null && dataInicio != null && dataFim != null) {
-            return ResponseEntity.ok(transacaoService.listarPorUsuarioEPeriodo(usuarioId, dataInicio, dataFim));
-        }
-        
-        if (usuarioId != null) {
-            return ResponseEntity.ok(transacaoService.listarPorUsuario(usuarioId));
-        }
-        
-        if (tipo != null) {
-            return ResponseEntity.ok(transacaoService.listarPorTipo(tipo));
-        }
-        
-        if (dataInicio != null && dataFim != null) {
-            return ResponseEntity.ok(transacaoService.listarPorPeriodo(dataInicio, dataFim));
-        }
-        
-        return ResponseEntity.ok(transacaoService.listarTodas());
+            @RequestParam(required = false) Long instituicaoId) {
+        return ResponseEntity.ok(sugestaoCategoriaService.sugerir(perfilId, descricao, valor, tipo, instituicaoId));
     }
     
     @GetMapping("/{id}")
@@ -98,6 +115,14 @@ public class TransacaoController {
         }
     }
     
+    // Recebe um array JSON de transações, lido em streaming, e responde com o resultado de cada linha
+    @PostMapping(value = "/lote", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResultadoLoteDTO> criarEmLote(
+            @RequestParam Long perfilId,
+            InputStream corpo) throws IOException {
+        return ResponseEntity.ok(transacaoLoteService.importar(perfilId, corpo));
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<TransacaoDTO> atualizar(@PathVariable Long id, @Valid @RequestBody TransacaoDTO dto) {
         return ResponseEntity.ok(transacaoService.atualizar(id, dto));
@@ -108,4 +133,18 @@ public class TransacaoController {
         transacaoService.excluir(id);
         return ResponseEntity.noContent().build();
     }
+    
+    @PutMapping("/parcelamentos/{grupo}/parcelas/{numero}")
+    public ResponseEntity<TransacaoDTO> atualizarParcela(
+            @PathVariable String grupo,
+            @PathVariable Integer numero,
+            @Valid @RequestBody TransacaoDTO dto) {
+        return ResponseEntity.ok(transacaoService.atualizarParcela(grupo, numero, dto));
+    }
+    
+    @DeleteMapping("/parcelamentos/{grupo}/parcelas/{numero}")
+    public ResponseEntity<Void> excluirParcela(@PathVariable String grupo, @PathVariable Integer numero) {
+        transacaoService.excluirParcela(grupo, numero);
+        return ResponseEntity.noContent().build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.financeiro.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConciliacaoSaldosDTO {
+
+    private int instituicoesVerificadas;
+    private long transacoesProcessadas;
+    private int falhas; // instituições que não puderam ser verificadas (detalhes no log)
+    private long duracaoMs;
+    private List<Divergencia> divergencias;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Divergencia {
+        private Long instituicaoId;
+        private BigDecimal saldoAtual;
+        private BigDecimal saldoCalculado; // saldo inicial + receitas - despesas lançadas
+        private BigDecimal diferenca;      // saldo atual - saldo calculado
+        private boolean corrigida;
+    }
+}
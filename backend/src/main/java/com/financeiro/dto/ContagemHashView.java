@@ -0,0 +1,10 @@
+package com.financeiro.dto;
+
+/**
+ * Quantidade de transações existentes com o mesmo hash de conteúdo.
+ */
+public record ContagemHashView(
+        String hash,
+        Long quantidade
+) {
+}
@@ -0,0 +1,16 @@
+package com.financeiro.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Dados de uma transação categorizada usados no treino do modelo de sugestão.
+ */
+public record ExemploCategoriaView(
+        String descricao,
+        BigDecimal valor,
+        String tipo,
+        Long instituicaoId,
+        Long categoriaId,
+        Long subcategoriaId
+) {
+}
@@ -0,0 +1,44 @@
+package com.financeiro.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Filtros opcionais da listagem de transações. Todos os campos preenchidos
+ * são combinados com AND em uma única consulta.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FiltroTransacaoDTO {
+
+    private Long perfilId;
+
+    private Long usuarioId;
+
+    private String tipo; // Receita ou Despesa
+
+    private Long categoriaId;
+
+    private Long subcategoriaId;
+
+    private Long instituicaoId;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dataInicio;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dataFim;
+
+    private BigDecimal valorMinimo;
+
+    private BigDecimal valorMaximo;
+
+    private String grupoParcelamento;
+}
@@ -0,0 +1,13 @@
+package com.financeiro.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Receitas menos despesas lançadas de uma instituição em um dia.
+ */
+public record MovimentoDiarioView(
+        LocalDate data,
+        BigDecimal valor
+) {
+}
@@ -0,0 +1,22 @@
+package com.financeiro.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDTO<T> {
+
+    private List<T> itens;
+
+    // Token opaco para buscar a próxima página; nulo quando não há mais itens
+    private String proximoCursor;
+
+    private boolean possuiMais;
+}
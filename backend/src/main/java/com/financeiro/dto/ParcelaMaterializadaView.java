@@ -0,0 +1,10 @@
+package com.financeiro.dto;
+
+/**
+ * Parcela de um plano de parcelamento que já existe como linha em transacoes.
+ */
+public record ParcelaMaterializadaView(
+        String grupoParcelamento,
+        Integer parcelaAtual
+) {
+}
@@ -0,0 +1,16 @@
+package com.financeiro.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Dados mínimos de uma parcela vencida ainda não lançada no saldo da instituição.
+ */
+public record ParcelaPendenteView(
+        Long id,
+        LocalDate data,
+        Long instituicaoId,
+        String tipo,
+        BigDecimal valor
+) {
+}
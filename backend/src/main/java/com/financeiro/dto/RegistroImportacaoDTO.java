@@ -2,6 +2,8 @@ package com.financeiro.dto;
 
 import java.time.LocalDate;
 
+import com.financeiro.enums.StatusImportacao;
+
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PastOrPresent;
@@ -28,4 +30,11 @@ public class RegistroImportacaoDTO {
     
     @NotBlank(message = "O nome do arquivo é obrigatório")
     private String nomeArquivo;
+    
+    private Long linhasImportadas;
+    private Long linhasRejeitadas;
+    private Long linhasDuplicadas;
+    private Long duracaoMs;
+    private StatusImportacao status;
+    private Long ultimaLinhaGravada;
 }
\ No newline at end of file
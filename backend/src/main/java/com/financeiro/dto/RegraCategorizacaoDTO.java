@@ -0,0 +1,51 @@
+package com.financeiro.dto;
+
+import java.math.BigDecimal;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegraCategorizacaoDTO {
+    
+    private Long id;
+    
+    @NotNull(message = "O ID do perfil é obrigatório")
+    private Long perfilId;
+    
+    @Size(max = 255, message = "A palavra-chave deve ter no máximo 255 caracteres")
+    private String palavraChave;
+    
+    @DecimalMin(value = "0.00", message = "O valor mínimo não pode ser negativo")
+    private BigDecimal valorMinimo;
+    
+    @DecimalMin(value = "0.00", message = "O valor máximo não pode ser negativo")
+    private BigDecimal valorMaximo;
+    
+    @Pattern(regexp = "Receita|Despesa", message = "O tipo deve ser Receita ou Despesa")
+    private String tipo;
+    
+    private Long instituicaoId;
+    
+    private String instituicaoNome;
+    
+    @NotNull(message = "O ID da categoria é obrigatório")
+    private Long categoriaId;
+    
+    private String categoriaNome;
+    
+    private Long subcategoriaId;
+    
+    private String subcategoriaNome;
+    
+    private Integer prioridade;
+    
+    private Boolean ativa;
+}
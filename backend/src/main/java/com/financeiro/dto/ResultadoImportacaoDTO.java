@@ -0,0 +1,26 @@
+package com.financeiro.dto;
+
+import java.util.List;
+
+import com.financeiro.dto.ResultadoLoteDTO.ResultadoLinha;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoImportacaoDTO {
+    
+    private Long registroImportacaoId;
+    private long lidas;
+    private long inseridas;
+    private long rejeitadas;
+    private long duplicadas;
+    private long duracaoMs;
+    private long linhasPorSegundo;
+    private List<ResultadoLinha> erros; // rejeitadas e duplicadas, só as primeiras; indice é a linha do arquivo
+}
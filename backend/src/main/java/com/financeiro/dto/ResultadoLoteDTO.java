@@ -0,0 +1,29 @@
+package com.financeiro.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoLoteDTO {
+    
+    private int recebidas;
+    private int inseridas;
+    private int rejeitadas;
+    private List<ResultadoLinha> erros; // só as linhas rejeitadas, as primeiras; indice é a posição no array
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ResultadoLinha {
+        private int indice; // posição no array enviado, a partir de 0
+        private Long id;    // id da transação criada, quando inserida
+        private String erro;
+    }
+}
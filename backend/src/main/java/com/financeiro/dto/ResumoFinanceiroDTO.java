@@ -28,5 +28,16 @@ public class ResumoFinanceiroDTO {
         private String categoriaNome;
         private String tipo;
         private BigDecimal valor;
+        private List<ResumoSubcategoria> subcategorias;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ResumoSubcategoria {
+        private Long subcategoriaId;
+        private String subcategoriaNome;
+        private BigDecimal valor;
     }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.financeiro.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoDiarioDTO {
+    
+    private Long instituicaoId;
+    
+    private LocalDate data;
+    
+    private BigDecimal saldo; // saldo ao fim do dia
+}
@@ -0,0 +1,16 @@
+package com.financeiro.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Linha do agrupamento de valores por tipo, categoria e subcategoria usado no resumo financeiro.
+ */
+public record SomaCategoriaView(
+        String tipo,
+        Long categoriaId,
+        String categoriaNome,
+        Long subcategoriaId,
+        String subcategoriaNome,
+        BigDecimal valor
+) {
+}
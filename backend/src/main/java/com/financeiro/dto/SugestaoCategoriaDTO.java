@@ -0,0 +1,23 @@
+package com.financeiro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SugestaoCategoriaDTO {
+    
+    private Long categoriaId;
+    
+    private String categoriaNome;
+    
+    private Long subcategoriaId;
+    
+    private String subcategoriaNome;
+    
+    private Double confianca; // probabilidade estimada pelo modelo, entre 0 e 1
+    
+    private Long exemplos; // transações que o modelo do perfil já aprendeu
+}
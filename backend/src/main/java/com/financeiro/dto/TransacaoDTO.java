@@ -32,8 +32,7 @@ public class TransacaoDTO {
     @NotBlank(message = "O tipo é obrigatório")
     private String tipo; // Receita ou Despesa
     
-    @NotNull(message = "O ID da categoria é obrigatório")
-    private Long categoriaId;
+    private Long categoriaId; // se ausente, aplicam-se as regras de categorização do perfil
     
     private Long subcategoriaId;
     
@@ -46,6 +45,8 @@ public class TransacaoDTO {
     
     private Long perfilDestinoId;
     
+    private Long instituicaoDestinoId; // instituição da entrada na transferência; se ausente, a de origem
+    
     private Long transacaoRelacionadaId;
     
     private String categoriaNome;
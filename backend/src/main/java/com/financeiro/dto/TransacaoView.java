@@ -1,24 +1,41 @@
 package com.financeiro.dto;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 
 /**
  * Record para visualização simplificada de transações.
  * Records são um recurso introduzido no Java 16 e aprimorado no Java 21
  * que simplifica a criação de classes imutáveis para transferência de dados.
+ *
+ * É preenchido diretamente por uma expressão construtora da consulta, com apenas
+ * as colunas usadas na listagem, sem carregar as entidades associadas.
  */
 public record TransacaoView(
         Long id,
+        LocalDate data,
         String descricao,
-        Double valor,
+        BigDecimal valor,
         String tipo,
-        LocalDate data,
-        String categoria,
-        String subcategoria,
-        String instituicao
+        Long categoriaId,
+        String categoriaNome,
+        Long subcategoriaId,
+        String subcategoriaNome,
+        Long instituicaoId,
+        String instituicaoNome,
+        Long perfilId,
+        String perfilNome,
+        Boolean transferenciaEntrePerfis,
+        Long perfilDestinoId,
+        String perfilDestinoNome,
+        Long transacaoRelacionadaId,
+        Integer parcelaAtual,
+        Integer totalParcelas,
+        String grupoParcelamento,
+        Boolean ehParcelada
 ) {
     // Os records automaticamente geram:
     // - Construtor com todos os campos
     // - Métodos getters (com nome igual ao do campo)
     // - equals(), hashCode() e toString()
-}
\ No newline at end of file
+}
@@ -8,13 +8,17 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
@@ -31,10 +35,15 @@ import com.financeiro.enums.StatusCaso;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@NamedEntityGraph(name = "Caso.clienteAdvogado", attributeNodes = {
+    @NamedAttributeNode("cliente"),
+    @NamedAttributeNode("advogado")
+})
 public class Caso {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "casos_seq")
+    @SequenceGenerator(name = "casos_seq", sequenceName = "casos_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "O número do processo é obrigatório")
@@ -75,12 +84,12 @@ public class Caso {
     private String observacoes;
     
     @NotNull(message = "O cliente é obrigatório")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cliente_id", nullable = false)
     private Cliente cliente;
     
     @NotNull(message = "O advogado é obrigatório")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "advogado_id", nullable = false)
     private Usuario advogado;
     
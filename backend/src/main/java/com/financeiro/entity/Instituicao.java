@@ -2,12 +2,15 @@ package com.financeiro.entity;
 
 import java.math.BigDecimal;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -23,7 +26,8 @@ import lombok.NoArgsConstructor;
 public class Instituicao {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "instituicoes_seq")
+    @SequenceGenerator(name = "instituicoes_seq", sequenceName = "instituicoes_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "O nome é obrigatório")
@@ -35,9 +39,11 @@ public class Instituicao {
     @NotNull(message = "O saldo inicial é obrigatório")
     private BigDecimal saldoInicial;
     
+    // Alterado somente por InstituicaoRepository.ajustarSaldo; o save da entidade não sobrescreve o saldo
+    @Column(precision = 19, scale = 2, updatable = false)
     private BigDecimal saldoAtual;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "perfil_id")
     @NotNull(message = "O perfil é obrigatório")
     private Perfil perfil;
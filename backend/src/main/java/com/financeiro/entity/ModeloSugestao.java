@@ -0,0 +1,48 @@
+package com.financeiro.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Lob;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Última versão gravada do modelo de sugestão de categorias do perfil, comprimida.
+ */
+@Entity
+@Table(name = "modelos_sugestao_categoria")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModeloSugestao {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "modelos_sugestao_categoria_seq")
+    @SequenceGenerator(name = "modelos_sugestao_categoria_seq", sequenceName = "modelos_sugestao_categoria_seq", allocationSize = 50)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "perfil_id", nullable = false, unique = true)
+    private Perfil perfil;
+    
+    @Lob
+    @Column(nullable = false)
+    private byte[] dados;
+    
+    @Column(nullable = false)
+    private Long exemplos;
+    
+    @Column(name = "data_atualizacao", nullable = false)
+    private LocalDateTime dataAtualizacao;
+}
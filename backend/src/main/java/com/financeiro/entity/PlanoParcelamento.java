@@ -0,0 +1,122 @@
+package com.financeiro.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.hibernate.annotations.BatchSize;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compra parcelada. Só as parcelas já lançadas (ou editadas individualmente) existem
+ * como linhas em transacoes; as demais são geradas a partir do plano quando consultadas.
+ */
+@Entity
+@Table(name = "planos_parcelamento", indexes = {
+    @Index(name = "idx_planos_parcelamento_proxima", columnList = "data_proxima_parcela, id"),
+    @Index(name = "idx_planos_parcelamento_perfil", columnList = "perfil_id, data_proxima_parcela"),
+    @Index(name = "idx_planos_parcelamento_perfil_ultima", columnList = "perfil_id, data_ultima_parcela, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+// Referências copiadas para as parcelas virtuais exibidas ao usuário
+@NamedEntityGraph(name = "PlanoParcelamento.referencias", attributeNodes = {
+    @NamedAttributeNode("categoria"),
+    @NamedAttributeNode("subcategoria"),
+    @NamedAttributeNode("instituicao"),
+    @NamedAttributeNode("perfil")
+})
+public class PlanoParcelamento {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "planos_parcelamento_seq")
+    @SequenceGenerator(name = "planos_parcelamento_seq", sequenceName = "planos_parcelamento_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "grupo_parcelamento", nullable = false, unique = true)
+    private String grupoParcelamento;
+    
+    @Column(nullable = false)
+    private String descricao; // sem o sufixo "(i/N)"
+    
+    @Column(name = "valor_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal valorTotal;
+    
+    @Column(name = "valor_parcela", nullable = false, precision = 19, scale = 2)
+    private BigDecimal valorParcela;
+    
+    @Column(name = "total_parcelas", nullable = false)
+    private Integer totalParcelas;
+    
+    @Column(name = "data_inicio", nullable = false)
+    private LocalDate dataInicio;
+    
+    @Column(nullable = false)
+    private String tipo;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "categoria_id", nullable = false)
+    private Categoria categoria;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "subcategoria_id")
+    private Subcategoria subcategoria;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "instituicao_id", nullable = false)
+    private Instituicao instituicao;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "perfil_id", nullable = false)
+    private Perfil perfil;
+    
+    // Próxima parcela a ser lançada pelo agendamento; as anteriores já existem em transacoes
+    @Column(name = "proxima_parcela", nullable = false)
+    private Integer proximaParcela;
+    
+    // Vencimento da próxima parcela, ou nulo quando todas já foram lançadas
+    @Column(name = "data_proxima_parcela")
+    private LocalDate dataProximaParcela;
+    
+    @Column(name = "data_ultima_parcela", nullable = false)
+    private LocalDate dataUltimaParcela;
+    
+    // Parcelas excluídas pelo usuário, que não devem mais ser geradas
+    @ElementCollection
+    @CollectionTable(name = "planos_parcelamento_excluidas", joinColumns = @JoinColumn(name = "plano_id"))
+    @Column(name = "numero_parcela")
+    @BatchSize(size = 100)
+    private Set<Integer> parcelasExcluidas = new HashSet<>();
+    
+    @Version
+    private Long versao;
+    
+    public LocalDate dataParcela(int numero) {
+        return dataInicio.plusMonths(numero - 1);
+    }
+}
@@ -2,7 +2,12 @@ package com.financeiro.entity;
 
 import java.time.LocalDate;
 
+import com.financeiro.enums.StatusImportacao;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -37,4 +42,26 @@ public class RegistroImportacao {
     
     @NotBlank(message = "O nome do arquivo é obrigatório")
     private String nomeArquivo;
+    
+    // Resultado da importação do arquivo; nulos nos registros apenas informativos
+    @Column(name = "linhas_importadas")
+    private Long linhasImportadas;
+    
+    @Column(name = "linhas_rejeitadas")
+    private Long linhasRejeitadas;
+    
+    @Column(name = "linhas_duplicadas")
+    private Long linhasDuplicadas;
+    
+    @Column(name = "duracao_ms")
+    private Long duracaoMs;
+    
+    // Nulo nos registros apenas informativos e nos anteriores ao controle de situação
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private StatusImportacao status;
+    
+    // Última linha do arquivo coberta por um bloco já gravado; a retomada continua dela
+    @Column(name = "ultima_linha_gravada")
+    private Long ultimaLinhaGravada;
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.financeiro.entity;
+
+import java.math.BigDecimal;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Regra de categorização automática de um perfil. Todos os critérios informados
+ * precisam ser atendidos; entre as regras que se aplicam vence a de maior prioridade.
+ */
+@Entity
+@Table(name = "regras_categorizacao", indexes = {
+    @Index(name = "idx_regras_categorizacao_perfil", columnList = "perfil_id, ativa")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@NamedEntityGraph(name = "RegraCategorizacao.referencias", attributeNodes = {
+    @NamedAttributeNode("instituicao"),
+    @NamedAttributeNode("categoria"),
+    @NamedAttributeNode("subcategoria")
+})
+public class RegraCategorizacao {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "regras_categorizacao_seq")
+    @SequenceGenerator(name = "regras_categorizacao_seq", sequenceName = "regras_categorizacao_seq", allocationSize = 50)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "perfil_id", nullable = false)
+    private Perfil perfil;
+    
+    // Trecho procurado na descrição, sem diferenciar maiúsculas, acentos e pontuação
+    @Column(name = "palavra_chave")
+    private String palavraChave;
+    
+    @Column(name = "valor_minimo", precision = 19, scale = 2)
+    private BigDecimal valorMinimo;
+    
+    @Column(name = "valor_maximo", precision = 19, scale = 2)
+    private BigDecimal valorMaximo;
+    
+    private String tipo; // Receita ou Despesa; vazio aceita os dois
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "instituicao_id")
+    private Instituicao instituicao;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "categoria_id", nullable = false)
+    private Categoria categoria;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "subcategoria_id")
+    private Subcategoria subcategoria;
+    
+    @Column(nullable = false)
+    private Integer prioridade = 0;
+    
+    @Column(nullable = false)
+    private Boolean ativa = true;
+}
@@ -0,0 +1,62 @@
+package com.financeiro.entity;
+
+import java.math.BigDecimal;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Totais mensais pré-agregados das transações, mantidos por delta a cada escrita
+ * para que os resumos de meses completos não precisem varrer a tabela de transações.
+ */
+@Entity
+@Table(name = "resumo_mensal", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_resumo_mensal_chave",
+            columnNames = {"perfil_id", "ano_mes", "tipo", "categoria_id", "subcategoria_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoMensal {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "resumo_mensal_seq")
+    @SequenceGenerator(name = "resumo_mensal_seq", sequenceName = "resumo_mensal_seq", allocationSize = 50)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "perfil_id", nullable = false)
+    private Perfil perfil;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "categoria_id", nullable = false)
+    private Categoria categoria;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "subcategoria_id")
+    private Subcategoria subcategoria;
+    
+    @Column(nullable = false)
+    private String tipo; // Receita ou Despesa
+    
+    @Column(name = "ano_mes", nullable = false)
+    private Integer anoMes; // AAAAMM
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal valor;
+    
+    @Column(nullable = false)
+    private Long quantidade;
+}
@@ -0,0 +1,54 @@
+package com.financeiro.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Movimento acumulado de uma instituição até o fim de cada dia em que houve transação
+ * lançada. O saldo em uma data é o saldo inicial mais o acumulado da última linha até
+ * ela; uma escrita retroativa soma seu delta na linha do dia e em todas as seguintes.
+ */
+@Entity
+@Table(name = "saldos_diarios", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_saldos_diarios_instituicao_data", columnNames = {"instituicao_id", "data"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoDiario {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "saldos_diarios_seq")
+    @SequenceGenerator(name = "saldos_diarios_seq", sequenceName = "saldos_diarios_seq", allocationSize = 50)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "instituicao_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Instituicao instituicao;
+    
+    @Column(nullable = false)
+    private LocalDate data;
+    
+    // Receitas menos despesas lançadas de todas as transações até a data, inclusive
+    @Column(name = "movimento_acumulado", nullable = false, precision = 19, scale = 2)
+    private BigDecimal movimentoAcumulado;
+}
@@ -3,11 +3,13 @@ package com.financeiro.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -23,13 +25,14 @@ import lombok.NoArgsConstructor;
 public class Subcategoria {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "subcategorias_seq")
+    @SequenceGenerator(name = "subcategorias_seq", sequenceName = "subcategorias_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "O nome é obrigatório")
     private String nome;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "categoria_id")
     @NotNull(message = "A categoria é obrigatória")
     @JsonIgnore
@@ -3,35 +3,71 @@ package com.financeiro.entity;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
+import org.hibernate.annotations.ColumnDefault;
+
+import com.financeiro.entity.listener.DeduplicacaoTransacaoListener;
+import com.financeiro.util.HashConteudoTransacao;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.PastOrPresent;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "transacoes")
+@Table(name = "transacoes", indexes = {
+    // Índices compostos alinhados aos filtros mais comuns da listagem, terminando em (data, id)
+    // para que a paginação por cursor percorra o índice sem ordenação adicional
+    @Index(name = "idx_transacoes_perfil_data", columnList = "perfil_id, data, id"),
+    @Index(name = "idx_transacoes_perfil_tipo_data", columnList = "perfil_id, tipo, data, id"),
+    @Index(name = "idx_transacoes_perfil_categoria_data", columnList = "perfil_id, categoria_id, data, id"),
+    @Index(name = "idx_transacoes_usuario_data", columnList = "usuario_id, data, id"),
+    @Index(name = "idx_transacoes_instituicao_data", columnList = "instituicao_id, data, id"),
+    @Index(name = "idx_transacoes_data", columnList = "data, id"),
+    @Index(name = "idx_transacoes_grupo_parcelamento", columnList = "grupo_parcelamento"),
+    @Index(name = "idx_transacoes_pendentes", columnList = "lancada, data, id"),
+    @Index(name = "idx_transacoes_registro_importacao", columnList = "registro_importacao_id"),
+    @Index(name = "idx_transacoes_perfil_hash", columnList = "perfil_id, hash_conteudo")
+})
+@EntityListeners(DeduplicacaoTransacaoListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+// Referências exibidas no detalhe da transação (nomes de categoria, instituição e perfis)
+@NamedEntityGraph(name = "Transacao.detalhe", attributeNodes = {
+    @NamedAttributeNode("categoria"),
+    @NamedAttributeNode("subcategoria"),
+    @NamedAttributeNode("instituicao"),
+    @NamedAttributeNode("perfil"),
+    @NamedAttributeNode("perfilDestino")
+})
 public class Transacao {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transacoes_seq")
+    @SequenceGenerator(name = "transacoes_seq", sequenceName = "transacoes_seq", allocationSize = 50)
     private Long id;
     
+    // Sem @PastOrPresent aqui: as parcelas de um parcelamento têm datas futuras. A
+    // restrição para lançamentos informados pelo usuário fica no TransacaoDTO
     @NotNull(message = "A data é obrigatória")
-    @PastOrPresent(message = "A data não pode ser futura")
     private LocalDate data;
     
     @NotBlank(message = "A descrição é obrigatória")
@@ -44,26 +80,26 @@ public class Transacao {
     @NotBlank(message = "O tipo é obrigatório")
     private String tipo; // Receita ou Despesa
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "categoria_id")
     @NotNull(message = "A categoria é obrigatória")
     private Categoria categoria;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "subcategoria_id")
     private Subcategoria subcategoria;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "instituicao_id")
     @NotNull(message = "A instituição é obrigatória")
     private Instituicao instituicao;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id")
     @NotNull(message = "O usuário é obrigatório")
     private Usuario usuario;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "perfil_id")
     @NotNull(message = "O perfil é obrigatório")
     private Perfil perfil;
@@ -71,11 +107,11 @@ public class Transacao {
     @Column(name = "transferencia_entre_perfis")
     private Boolean transferenciaEntrePerfis = false;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "perfil_destino_id")
     private Perfil perfilDestino;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "transacao_relacionada_id")
     private Transacao transacaoRelacionada;
     
@@ -91,4 +127,28 @@ public class Transacao {
     
     @Column(name = "eh_parcelada")
     private Boolean ehParcelada = false;
+    
+    // Indica se o valor já foi aplicado ao saldo da instituição. Parcelas futuras ficam
+    // pendentes até vencerem e são lançadas por ParcelaLancamentoService
+    @Column(nullable = false)
+    @ColumnDefault("true")
+    private Boolean lancada = true;
+    
+    // Importação de extrato que originou a transação, quando houver
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "registro_importacao_id")
+    private RegistroImportacao registroImportacao;
+    
+    // Impressão digital do conteúdo, para reconhecer lançamentos já existentes ao importar extratos
+    @Column(name = "hash_conteudo", length = HashConteudoTransacao.TAMANHO)
+    private String hashConteudo;
+    
+    @PrePersist
+    @PreUpdate
+    public void atualizarHashConteudo() {
+        if (perfil != null && instituicao != null && data != null && valor != null) {
+            hashConteudo = HashConteudoTransacao.calcular(perfil.getId(), instituicao.getId(), data, valor,
+                    tipo, descricao);
+        }
+    }
 }
\ No newline at end of file
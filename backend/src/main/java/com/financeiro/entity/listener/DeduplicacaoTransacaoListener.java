@@ -0,0 +1,31 @@
+package com.financeiro.entity.listener;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import com.financeiro.entity.Transacao;
+import com.financeiro.service.DeduplicacaoTransacaoService;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Mantém os filtros de Bloom de deduplicação a par de toda transação gravada, qualquer
+ * que seja o caminho de escrita. Instanciado pelo Spring (SpringBeanContainer do Hibernate).
+ */
+@Component
+public class DeduplicacaoTransacaoListener {
+
+    @Autowired
+    @Lazy
+    private DeduplicacaoTransacaoService deduplicacaoTransacaoService;
+
+    @PostPersist
+    @PostUpdate
+    public void registrar(Transacao transacao) {
+        if (transacao.getHashConteudo() != null && transacao.getPerfil() != null) {
+            deduplicacaoTransacaoService.registrar(transacao.getPerfil().getId(), transacao.getHashConteudo());
+        }
+    }
+}
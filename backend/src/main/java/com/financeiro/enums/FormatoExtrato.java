@@ -0,0 +1,33 @@
+package com.financeiro.enums;
+
+import java.util.Locale;
+
+import com.financeiro.exception.NegocioException;
+
+public enum FormatoExtrato {
+    CSV("csv"),
+    OFX("ofx");
+
+    private final String extensao;
+
+    FormatoExtrato(String extensao) {
+        this.extensao = extensao;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+
+    // Usado quando o formato não é informado na importação
+    public static FormatoExtrato deNomeArquivo(String nomeArquivo) {
+        if (nomeArquivo != null) {
+            String nome = nomeArquivo.toLowerCase(Locale.ROOT);
+            for (FormatoExtrato formato : values()) {
+                if (nome.endsWith("." + formato.extensao)) {
+                    return formato;
+                }
+            }
+        }
+        throw new NegocioException("Não foi possível identificar o formato do extrato; informe CSV ou OFX");
+    }
+}
@@ -0,0 +1,17 @@
+package com.financeiro.enums;
+
+public enum StatusImportacao {
+    EM_ANDAMENTO("Em andamento"),
+    CONCLUIDA("Concluída"),
+    FALHOU("Falhou");
+    
+    private final String descricao;
+    
+    StatusImportacao(String descricao) {
+        this.descricao = descricao;
+    }
+    
+    public String getDescricao() {
+        return descricao;
+    }
+}
@@ -43,6 +43,21 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return handleExceptionInternal(ex, problema, new HttpHeaders(), status, request);
     }
     
+    @ExceptionHandler(ServicoSobrecarregadoException.class)
+    public ResponseEntity<Object> handleServicoSobrecarregado(ServicoSobrecarregadoException ex, WebRequest request) {
+        var status = HttpStatus.SERVICE_UNAVAILABLE;
+        
+        var problema = new Problema();
+        problema.setStatus(status.value());
+        problema.setTitulo(ex.getMessage());
+        problema.setDataHora(LocalDateTime.now());
+        
+        var headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getSegundosParaNovaTentativa()));
+        
+        return handleExceptionInternal(ex, problema, headers, status, request);
+    }
+    
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex,
             HttpHeaders headers, HttpStatusCode status, WebRequest request) {
@@ -0,0 +1,25 @@
+package com.financeiro.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Rejeição imediata de uma requisição quando um recurso limitado do servidor está
+ * saturado. É respondida com 503 e o cabeçalho Retry-After.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServicoSobrecarregadoException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long segundosParaNovaTentativa;
+
+    public ServicoSobrecarregadoException(String mensagem, long segundosParaNovaTentativa) {
+        super(mensagem);
+        this.segundosParaNovaTentativa = segundosParaNovaTentativa;
+    }
+
+    public long getSegundosParaNovaTentativa() {
+        return segundosParaNovaTentativa;
+    }
+}
@@ -5,6 +5,7 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -18,16 +19,20 @@ import com.financeiro.enums.StatusCaso;
 @Repository
 public interface CasoRepository extends JpaRepository<Caso, Long> {
     
+    @EntityGraph("Caso.clienteAdvogado")
     List<Caso> findByAdvogadoOrderByDataCadastroDesc(Usuario advogado);
     
+    @EntityGraph("Caso.clienteAdvogado")
     List<Caso> findByClienteOrderByDataCadastroDesc(Cliente cliente);
     
+    @EntityGraph("Caso.clienteAdvogado")
     List<Caso> findByAdvogadoAndStatusOrderByDataCadastroDesc(Usuario advogado, StatusCaso status);
     
     Optional<Caso> findByNumeroProcesso(String numeroProcesso);
     
     boolean existsByNumeroProcesso(String numeroProcesso);
     
+    @EntityGraph("Caso.clienteAdvogado")
     @Query("SELECT c FROM Caso c WHERE c.advogado = :advogado AND " +
            "(LOWER(c.numeroProcesso) LIKE LOWER(CONCAT('%', :termo, '%')) OR " +
            "LOWER(c.descricao) LIKE LOWER(CONCAT('%', :termo, '%')) OR " +
@@ -46,13 +51,18 @@ public interface CasoRepository extends JpaRepository<Caso, Long> {
     @Query("SELECT SUM(c.honorariosPagos) FROM Caso c WHERE c.advogado = :advogado")
     BigDecimal somarHonorariosPagosPorAdvogado(@Param("advogado") Usuario advogado);
     
+    @EntityGraph("Caso.clienteAdvogado")
     @Query("SELECT c FROM Caso c WHERE c.advogado = :advogado AND " +
            "c.dataInicio BETWEEN :dataInicio AND :dataFim")
     List<Caso> findByAdvogadoAndPeriodo(@Param("advogado") Usuario advogado, 
                                        @Param("dataInicio") LocalDate dataInicio, 
                                        @Param("dataFim") LocalDate dataFim);
     
+    @EntityGraph("Caso.clienteAdvogado")
     @Query("SELECT c FROM Caso c WHERE c.advogado = :advogado AND " +
            "c.valorHonorarios > c.honorariosPagos")
     List<Caso> findCasosComHonorariosEmAberto(@Param("advogado") Usuario advogado);
+    
+    @EntityGraph("Caso.clienteAdvogado")
+    Optional<Caso> findDetalhadoById(Long id);
 }
\ No newline at end of file
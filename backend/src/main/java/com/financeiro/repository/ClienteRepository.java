@@ -3,6 +3,7 @@ package com.financeiro.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,12 +15,14 @@ import com.financeiro.entity.Usuario;
 @Repository
 public interface ClienteRepository extends JpaRepository<Cliente, Long> {
     
+    @EntityGraph("Cliente.advogadoCasos")
     List<Cliente> findByAdvogadoOrderByNomeAsc(Usuario advogado);
     
     Optional<Cliente> findByCpfCnpj(String cpfCnpj);
     
     boolean existsByCpfCnpj(String cpfCnpj);
     
+    @EntityGraph("Cliente.advogadoCasos")
     @Query("SELECT c FROM Cliente c WHERE c.advogado = :advogado AND " +
            "(LOWER(c.nome) LIKE LOWER(CONCAT('%', :termo, '%')) OR " +
            "c.cpfCnpj LIKE CONCAT('%', :termo, '%') OR " +
@@ -29,7 +32,12 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
     @Query("SELECT COUNT(c) FROM Cliente c WHERE c.advogado = :advogado")
     Long contarClientesPorAdvogado(@Param("advogado") Usuario advogado);
     
+    @EntityGraph("Cliente.advogadoCasos")
     List<Cliente> findByAdvogadoAndCidadeIgnoreCase(Usuario advogado, String cidade);
     
+    @EntityGraph("Cliente.advogadoCasos")
     List<Cliente> findByAdvogadoAndEstadoIgnoreCase(Usuario advogado, String estado);
-}
\ No newline at end of file
+    
+    @EntityGraph("Cliente.advogadoCasos")
+    Optional<Cliente> findDetalhadoById(Long id);
+}
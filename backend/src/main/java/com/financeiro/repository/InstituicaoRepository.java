@@ -1,13 +1,21 @@
 package com.financeiro.repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.financeiro.entity.Instituicao;
 import com.financeiro.entity.Perfil;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface InstituicaoRepository extends JpaRepository<Instituicao, Long> {
     
@@ -18,4 +26,17 @@ public interface InstituicaoRepository extends JpaRepository<Instituicao, Long>
     List<Instituicao> findByPerfilAndTipo(Perfil perfil, String tipo);
     
     boolean existsByNome(String nome);
+    
+    @Query("SELECT i.id FROM Instituicao i ORDER BY i.id")
+    List<Long> listarIds();
+    
+    // Soma o delta no próprio banco: atualizações concorrentes da mesma conta não se perdem
+    @Modifying
+    @Query("UPDATE Instituicao i SET i.saldoAtual = i.saldoAtual + :delta WHERE i.id = :id")
+    int ajustarSaldo(@Param("id") Long id, @Param("delta") BigDecimal delta);
+    
+    // SELECT ... FOR UPDATE em ordem de id, para que transações concorrentes não se travem mutuamente
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Instituicao i WHERE i.id IN :ids ORDER BY i.id")
+    List<Instituicao> bloquearEmOrdem(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.financeiro.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.financeiro.entity.ModeloSugestao;
+
+@Repository
+public interface ModeloSugestaoRepository extends JpaRepository<ModeloSugestao, Long> {
+    
+    Optional<ModeloSugestao> findByPerfilId(Long perfilId);
+}
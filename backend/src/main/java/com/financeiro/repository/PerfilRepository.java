@@ -1,17 +1,28 @@
 package com.financeiro.repository;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.financeiro.entity.Perfil;
 import com.financeiro.entity.Usuario;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface PerfilRepository extends JpaRepository<Perfil, Long> {
     
     List<Perfil> findByUsuario(Usuario usuario);
     
     List<Perfil> findByUsuarioId(Long usuarioId);
+    
+    // SELECT ... FOR UPDATE: serializa as escritas no resumo mensal do perfil
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Perfil p WHERE p.id = :id")
+    Optional<Perfil> bloquear(@Param("id") Long id);
 }
\ No newline at end of file
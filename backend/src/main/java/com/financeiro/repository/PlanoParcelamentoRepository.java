@@ -0,0 +1,57 @@
+package com.financeiro.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.financeiro.entity.PlanoParcelamento;
+
+@Repository
+public interface PlanoParcelamentoRepository extends JpaRepository<PlanoParcelamento, Long>,
+        JpaSpecificationExecutor<PlanoParcelamento>, PlanoParcelamentoRepositoryCustom {
+    
+    @Override
+    @EntityGraph("PlanoParcelamento.referencias")
+    List<PlanoParcelamento> findAll(Specification<PlanoParcelamento> especificacao);
+    
+    Optional<PlanoParcelamento> findByGrupoParcelamento(String grupoParcelamento);
+    
+    List<PlanoParcelamento> findByDataProximaParcelaIsNotNull();
+    
+    // Planos do perfil com parcelas ainda não lançadas, para a exportação
+    @EntityGraph("PlanoParcelamento.referencias")
+    List<PlanoParcelamento> findByPerfilIdAndDataProximaParcelaIsNotNull(Long perfilId);
+    
+    // Planos com parcelas ainda não lançadas que podem cair no período
+    @EntityGraph("PlanoParcelamento.referencias")
+    @Query("SELECT p FROM PlanoParcelamento p WHERE p.perfil.id = :perfilId " +
+           "AND p.dataProximaParcela <= :dataFim AND p.dataUltimaParcela >= :dataInicio")
+    List<PlanoParcelamento> buscarAbertosPorPerfilEPeriodo(@Param("perfilId") Long perfilId,
+                                                          @Param("dataInicio") LocalDate dataInicio,
+                                                          @Param("dataFim") LocalDate dataFim);
+    
+    @EntityGraph("PlanoParcelamento.referencias")
+    @Query("SELECT p FROM PlanoParcelamento p WHERE p.perfil.usuario.id = :usuarioId " +
+           "AND p.dataProximaParcela <= :dataFim AND p.dataUltimaParcela >= :dataInicio")
+    List<PlanoParcelamento> buscarAbertosPorUsuarioEPeriodo(@Param("usuarioId") Long usuarioId,
+                                                           @Param("dataInicio") LocalDate dataInicio,
+                                                           @Param("dataFim") LocalDate dataFim);
+    
+    // Planos com parcela vencida, em ordem (data da próxima parcela, id) a partir do cursor
+    @Query("SELECT p FROM PlanoParcelamento p WHERE p.dataProximaParcela <= :hoje " +
+           "AND (p.dataProximaParcela > :dataCursor OR (p.dataProximaParcela = :dataCursor AND p.id > :idCursor)) " +
+           "ORDER BY p.dataProximaParcela, p.id")
+    List<PlanoParcelamento> buscarComParcelaVencida(@Param("hoje") LocalDate hoje,
+                                                   @Param("dataCursor") LocalDate dataCursor,
+                                                   @Param("idCursor") Long idCursor,
+                                                   Limit limite);
+}
@@ -0,0 +1,16 @@
+package com.financeiro.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.financeiro.entity.PlanoParcelamento;
+
+public interface PlanoParcelamentoRepositoryCustom {
+
+    /**
+     * Busca até {@code limite} planos ordenados por (data da última parcela, id)
+     * decrescente, com as referências do grafo PlanoParcelamento.referencias.
+     */
+    List<PlanoParcelamento> buscarPorUltimaParcela(Specification<PlanoParcelamento> especificacao, int limite);
+}
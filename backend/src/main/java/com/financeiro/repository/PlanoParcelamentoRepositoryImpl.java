@@ -0,0 +1,35 @@
+package com.financeiro.repository;
+
+import java.util.List;
+
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.financeiro.entity.PlanoParcelamento;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+
+public class PlanoParcelamentoRepositoryImpl implements PlanoParcelamentoRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<PlanoParcelamento> buscarPorUltimaParcela(Specification<PlanoParcelamento> especificacao, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PlanoParcelamento> query = cb.createQuery(PlanoParcelamento.class);
+        Root<PlanoParcelamento> root = query.from(PlanoParcelamento.class);
+
+        query.where(especificacao.toPredicate(root, query, cb));
+        query.orderBy(cb.desc(root.get("dataUltimaParcela")), cb.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph("PlanoParcelamento.referencias"))
+                .setMaxResults(limite)
+                .getResultList();
+    }
+}
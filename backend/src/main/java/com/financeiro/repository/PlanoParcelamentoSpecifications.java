@@ -0,0 +1,74 @@
+package com.financeiro.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.financeiro.dto.FiltroTransacaoDTO;
+import com.financeiro.entity.PlanoParcelamento;
+
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Os filtros da listagem de transações aplicados aos planos de parcelamento, para
+ * buscar só os planos que podem ter parcelas virtuais no resultado. O valor é o da
+ * parcela e o período é conferido contra as parcelas ainda não lançadas.
+ */
+public final class PlanoParcelamentoSpecifications {
+
+    private PlanoParcelamentoSpecifications() {
+    }
+
+    public static Specification<PlanoParcelamento> comFiltro(FiltroTransacaoDTO filtro, LocalDate dataFim) {
+        return (root, query, cb) -> {
+            List<Predicate> predicados = new ArrayList<>();
+
+            predicados.add(cb.lessThanOrEqualTo(root.get("dataProximaParcela"), dataFim));
+            if (filtro.getDataInicio() != null) {
+                predicados.add(cb.greaterThanOrEqualTo(root.get("dataUltimaParcela"), filtro.getDataInicio()));
+            }
+            if (filtro.getPerfilId() != null) {
+                predicados.add(cb.equal(root.get("perfil").get("id"), filtro.getPerfilId()));
+            }
+            if (filtro.getUsuarioId() != null) {
+                predicados.add(cb.equal(root.get("usuario").get("id"), filtro.getUsuarioId()));
+            }
+            if (filtro.getTipo() != null) {
+                predicados.add(cb.equal(root.get("tipo"), filtro.getTipo()));
+            }
+            if (filtro.getCategoriaId() != null) {
+                predicados.add(cb.equal(root.get("categoria").get("id"), filtro.getCategoriaId()));
+            }
+            if (filtro.getSubcategoriaId() != null) {
+                predicados.add(cb.equal(root.get("subcategoria").get("id"), filtro.getSubcategoriaId()));
+            }
+            if (filtro.getInstituicaoId() != null) {
+                predicados.add(cb.equal(root.get("instituicao").get("id"), filtro.getInstituicaoId()));
+            }
+            if (filtro.getValorMinimo() != null) {
+                predicados.add(cb.greaterThanOrEqualTo(root.get("valorParcela"), filtro.getValorMinimo()));
+            }
+            if (filtro.getValorMaximo() != null) {
+                predicados.add(cb.lessThanOrEqualTo(root.get("valorParcela"), filtro.getValorMaximo()));
+            }
+            if (filtro.getGrupoParcelamento() != null) {
+                predicados.add(cb.equal(root.get("grupoParcelamento"), filtro.getGrupoParcelamento()));
+            }
+
+            return cb.and(predicados.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Planos depois do informado na ordem de {@code buscarPorUltimaParcela}, para buscar
+     * o lote seguinte. Sem plano, não restringe nada.
+     */
+    public static Specification<PlanoParcelamento> depoisDe(PlanoParcelamento plano) {
+        return (root, query, cb) -> plano == null ? null : cb.or(
+                cb.lessThan(root.get("dataUltimaParcela"), plano.getDataUltimaParcela()),
+                cb.and(cb.equal(root.get("dataUltimaParcela"), plano.getDataUltimaParcela()),
+                        cb.lessThan(root.get("id"), plano.getId())));
+    }
+}
@@ -2,8 +2,12 @@ package com.financeiro.repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.financeiro.entity.RegistroImportacao;
@@ -16,4 +20,13 @@ public interface RegistroImportacaoRepository extends JpaRepository<RegistroImpo
     List<RegistroImportacao> findByDataExtracaoBetween(LocalDate dataInicio, LocalDate dataFim);
     
     boolean existsByNomeArquivo(String nomeArquivo);
+    
+    Optional<RegistroImportacao> findFirstByNomeArquivoOrderByIdDesc(String nomeArquivo);
+    
+    // Gravado na mesma transação do bloco: a retomada nunca repete nem pula linhas já gravadas
+    @Modifying
+    @Query("UPDATE RegistroImportacao r SET r.ultimaLinhaGravada = :ultimaLinha, " +
+           "r.linhasImportadas = COALESCE(r.linhasImportadas, 0) + :inseridas WHERE r.id = :id")
+    void registrarProgresso(@Param("id") Long id, @Param("ultimaLinha") long ultimaLinha,
+                            @Param("inseridas") long inseridas);
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.financeiro.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.financeiro.entity.RegraCategorizacao;
+
+@Repository
+public interface RegraCategorizacaoRepository extends JpaRepository<RegraCategorizacao, Long> {
+    
+    @EntityGraph("RegraCategorizacao.referencias")
+    List<RegraCategorizacao> findByPerfilIdOrderByPrioridadeDescIdAsc(Long perfilId);
+    
+    List<RegraCategorizacao> findByPerfilIdAndAtivaTrue(Long perfilId);
+}
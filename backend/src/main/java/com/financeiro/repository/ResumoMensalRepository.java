@@ -0,0 +1,64 @@
+package com.financeiro.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.financeiro.dto.SomaCategoriaView;
+import com.financeiro.entity.ResumoMensal;
+
+@Repository
+public interface ResumoMensalRepository extends JpaRepository<ResumoMensal, Long> {
+    
+    @Modifying
+    @Query("UPDATE ResumoMensal r SET r.valor = r.valor + :valor, r.quantidade = r.quantidade + :quantidade " +
+           "WHERE r.perfil.id = :perfilId AND r.anoMes = :anoMes AND r.tipo = :tipo " +
+           "AND r.categoria.id = :categoriaId AND r.subcategoria.id = :subcategoriaId")
+    int acumular(@Param("perfilId") Long perfilId, @Param("anoMes") Integer anoMes, @Param("tipo") String tipo,
+                 @Param("categoriaId") Long categoriaId, @Param("subcategoriaId") Long subcategoriaId,
+                 @Param("valor") BigDecimal valor, @Param("quantidade") long quantidade);
+    
+    @Modifying
+    @Query("UPDATE ResumoMensal r SET r.valor = r.valor + :valor, r.quantidade = r.quantidade + :quantidade " +
+           "WHERE r.perfil.id = :perfilId AND r.anoMes = :anoMes AND r.tipo = :tipo " +
+           "AND r.categoria.id = :categoriaId AND r.subcategoria IS NULL")
+    int acumularSemSubcategoria(@Param("perfilId") Long perfilId, @Param("anoMes") Integer anoMes, @Param("tipo") String tipo,
+                                @Param("categoriaId") Long categoriaId,
+                                @Param("valor") BigDecimal valor, @Param("quantidade") long quantidade);
+    
+    String SOMA_POR_CATEGORIA = "SELECT new com.financeiro.dto.SomaCategoriaView(" +
+           "r.tipo, c.id, c.nome, s.id, s.nome, SUM(r.valor)) " +
+           "FROM ResumoMensal r JOIN r.categoria c LEFT JOIN r.subcategoria s ";
+    
+    String AGRUPAMENTO_POR_CATEGORIA = " GROUP BY r.tipo, c.id, c.nome, s.id, s.nome";
+    
+    @Query(SOMA_POR_CATEGORIA +
+           "WHERE r.perfil.usuario.id = :usuarioId AND r.anoMes BETWEEN :anoMesInicio AND :anoMesFim" +
+           AGRUPAMENTO_POR_CATEGORIA)
+    List<SomaCategoriaView> somarPorCategoria(@Param("usuarioId") Long usuarioId,
+                                             @Param("anoMesInicio") Integer anoMesInicio,
+                                             @Param("anoMesFim") Integer anoMesFim);
+    
+    @Query(SOMA_POR_CATEGORIA +
+           "WHERE r.perfil.id = :perfilId AND r.anoMes BETWEEN :anoMesInicio AND :anoMesFim" +
+           AGRUPAMENTO_POR_CATEGORIA)
+    List<SomaCategoriaView> somarPorPerfilECategoria(@Param("perfilId") Long perfilId,
+                                                    @Param("anoMesInicio") Integer anoMesInicio,
+                                                    @Param("anoMesFim") Integer anoMesFim);
+    
+    @Modifying
+    @Query("DELETE FROM ResumoMensal r")
+    int excluirTodos();
+    
+    @Modifying
+    @Query("INSERT INTO ResumoMensal (perfil, categoria, subcategoria, tipo, anoMes, valor, quantidade) " +
+           "SELECT p, c, s, t.tipo, YEAR(t.data) * 100 + MONTH(t.data), SUM(t.valor), COUNT(t) " +
+           "FROM Transacao t JOIN t.perfil p JOIN t.categoria c LEFT JOIN t.subcategoria s " +
+           "GROUP BY p, c, s, t.tipo, YEAR(t.data) * 100 + MONTH(t.data)")
+    int reconstruirAPartirDasTransacoes();
+}
@@ -0,0 +1,65 @@
+package com.financeiro.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.financeiro.dto.MovimentoDiarioView;
+import com.financeiro.entity.SaldoDiario;
+
+@Repository
+public interface SaldoDiarioRepository extends JpaRepository<SaldoDiario, Long> {
+    
+    // Acumulado da última linha até a data (inclusive): buscas no índice único (instituicao_id, data)
+    @Query("SELECT s.movimentoAcumulado FROM SaldoDiario s WHERE s.instituicao.id = :instituicaoId " +
+           "AND s.data = (SELECT MAX(u.data) FROM SaldoDiario u WHERE u.instituicao.id = :instituicaoId AND u.data <= :data)")
+    Optional<BigDecimal> buscarAcumuladoAte(@Param("instituicaoId") Long instituicaoId, @Param("data") LocalDate data);
+    
+    @Query("SELECT s.movimentoAcumulado FROM SaldoDiario s WHERE s.instituicao.id = :instituicaoId " +
+           "AND s.data = (SELECT MAX(u.data) FROM SaldoDiario u WHERE u.instituicao.id = :instituicaoId AND u.data < :data)")
+    Optional<BigDecimal> buscarAcumuladoAntesDe(@Param("instituicaoId") Long instituicaoId, @Param("data") LocalDate data);
+    
+    List<SaldoDiario> findByInstituicaoIdAndDataBetweenOrderByDataAsc(Long instituicaoId, LocalDate dataInicio,
+                                                                       LocalDate dataFim);
+    
+    @Query("SELECT s.data FROM SaldoDiario s WHERE s.instituicao.id = :instituicaoId AND s.data IN :datas")
+    List<LocalDate> buscarDatasExistentes(@Param("instituicaoId") Long instituicaoId,
+                                          @Param("datas") Collection<LocalDate> datas);
+    
+    // Soma o delta nos dias de [inicio, fim): os dias entre dois movimentos de um mesmo lote
+    @Modifying
+    @Query("UPDATE SaldoDiario s SET s.movimentoAcumulado = s.movimentoAcumulado + :delta " +
+           "WHERE s.instituicao.id = :instituicaoId AND s.data >= :inicio AND s.data < :fim")
+    int acumularNoPeriodo(@Param("instituicaoId") Long instituicaoId, @Param("inicio") LocalDate inicio,
+                          @Param("fim") LocalDate fim, @Param("delta") BigDecimal delta);
+    
+    // Soma o delta no dia e nos seguintes: uma escrita retroativa se propaga até o último dia
+    @Modifying
+    @Query("UPDATE SaldoDiario s SET s.movimentoAcumulado = s.movimentoAcumulado + :delta " +
+           "WHERE s.instituicao.id = :instituicaoId AND s.data >= :inicio")
+    int acumularAPartirDe(@Param("instituicaoId") Long instituicaoId, @Param("inicio") LocalDate inicio,
+                          @Param("delta") BigDecimal delta);
+    
+    @Modifying
+    @Query("DELETE FROM SaldoDiario s WHERE s.instituicao.id = :instituicaoId")
+    int excluirPorInstituicao(@Param("instituicaoId") Long instituicaoId);
+    
+    @Query("SELECT new com.financeiro.dto.MovimentoDiarioView(t.data, " +
+           "SUM(CASE WHEN t.tipo = 'Receita' THEN t.valor ELSE -t.valor END)) " +
+           "FROM Transacao t WHERE t.instituicao.id = :instituicaoId AND t.lancada = true " +
+           "GROUP BY t.data ORDER BY t.data")
+    List<MovimentoDiarioView> somarMovimentoDiario(@Param("instituicaoId") Long instituicaoId);
+    
+    // Instituições com transações lançadas e ainda sem nenhuma linha de saldo diário
+    @Query("SELECT DISTINCT t.instituicao.id FROM Transacao t WHERE t.lancada = true " +
+           "AND NOT EXISTS (SELECT 1 FROM SaldoDiario s WHERE s.instituicao = t.instituicao)")
+    List<Long> buscarInstituicoesSemSaldoDiario();
+}
@@ -1,20 +1,42 @@
 package com.financeiro.repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.financeiro.dto.ContagemHashView;
+import com.financeiro.dto.ExemploCategoriaView;
+import com.financeiro.dto.ParcelaMaterializadaView;
+import com.financeiro.dto.ParcelaPendenteView;
+import com.financeiro.dto.SomaCategoriaView;
+import com.financeiro.dto.TransacaoView;
 import com.financeiro.entity.Categoria;
 import com.financeiro.entity.Instituicao;
 import com.financeiro.entity.Perfil;
 import com.financeiro.entity.Transacao;
 import com.financeiro.entity.Usuario;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
-public interface TransacaoRepository extends JpaRepository<Transacao, Long> {
+public interface TransacaoRepository extends JpaRepository<Transacao, Long>, JpaSpecificationExecutor<Transacao>,
+        TransacaoRepositoryCustom {
     
     List<Transacao> findByUsuario(Usuario usuario);
     
@@ -46,15 +68,122 @@ public interface TransacaoRepository extends JpaRepository<Transacao, Long> {
     @Query("SELECT t FROM Transacao t WHERE t.perfil = ?1 AND t.tipo = ?2 AND t.data BETWEEN ?3 AND ?4")
     List<Transacao> buscarTransacoesPorPerfilTipoEPeriodo(Perfil perfil, String tipo, LocalDate dataInicio, LocalDate dataFim);
     
-    @Query("SELECT SUM(t.valor) FROM Transacao t WHERE t.usuario = ?1 AND t.tipo = ?2 AND t.data BETWEEN ?3 AND ?4")
-    Double calcularSomaPorTipoEPeriodo(Usuario usuario, String tipo, LocalDate dataInicio, LocalDate dataFim);
-    
-    @Query("SELECT SUM(t.valor) FROM Transacao t WHERE t.perfil = ?1 AND t.tipo = ?2 AND t.data BETWEEN ?3 AND ?4")
-    Double calcularSomaPorPerfilTipoEPeriodo(Perfil perfil, String tipo, LocalDate dataInicio, LocalDate dataFim);
-    
-    @Query("SELECT SUM(t.valor) FROM Transacao t WHERE t.usuario = ?1 AND t.categoria = ?2 AND t.data BETWEEN ?3 AND ?4")
-    Double calcularSomaPorCategoriaEPeriodo(Usuario usuario, Categoria categoria, LocalDate dataInicio, LocalDate dataFim);
-    
-    @Query("SELECT SUM(t.valor) FROM Transacao t WHERE t.perfil = ?1 AND t.categoria = ?2 AND t.data BETWEEN ?3 AND ?4")
-    Double calcularSomaPorPerfilCategoriaEPeriodo(Perfil perfil, Categoria categoria, LocalDate dataInicio, LocalDate dataFim);
-}
\ No newline at end of file
+    /**
+     * Percorre as transações de um perfil em ordem cronológica sem materializar o resultado.
+     * Cada linha vira uma TransacaoView, sem entidades no contexto de persistência.
+     * Deve ser consumido dentro de uma transação e fechado ao final, o que encerra o cursor JDBC.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.financeiro.dto.TransacaoView(t.id, t.data, t.descricao, t.valor, t.tipo, " +
+           "c.id, c.nome, s.id, s.nome, i.id, i.nome, p.id, p.nome, t.transferenciaEntrePerfis, " +
+           "pd.id, pd.nome, t.transacaoRelacionada.id, t.parcelaAtual, t.totalParcelas, " +
+           "t.grupoParcelamento, t.ehParcelada) " +
+           "FROM Transacao t JOIN t.categoria c LEFT JOIN t.subcategoria s JOIN t.instituicao i " +
+           "JOIN t.perfil p LEFT JOIN t.perfilDestino pd " +
+           "WHERE p.id = :perfilId ORDER BY t.data, t.id")
+    Stream<TransacaoView> streamVisoesPorPerfil(@Param("perfilId") Long perfilId);
+    
+    String SOMA_POR_CATEGORIA = "SELECT new com.financeiro.dto.SomaCategoriaView(" +
+           "t.tipo, c.id, c.nome, s.id, s.nome, SUM(t.valor)) " +
+           "FROM Transacao t JOIN t.categoria c LEFT JOIN t.subcategoria s ";
+    
+    String AGRUPAMENTO_POR_CATEGORIA = " GROUP BY t.tipo, c.id, c.nome, s.id, s.nome ORDER BY c.id, s.id";
+    
+    // Escopo do usuário: transações dos perfis dele, o mesmo critério do resumo_mensal
+    @Query(SOMA_POR_CATEGORIA +
+           "WHERE t.perfil.usuario.id = :usuarioId AND t.data BETWEEN :dataInicio AND :dataFim" +
+           AGRUPAMENTO_POR_CATEGORIA)
+    List<SomaCategoriaView> somarPorCategoriaEPeriodo(@Param("usuarioId") Long usuarioId,
+                                                     @Param("dataInicio") LocalDate dataInicio,
+                                                     @Param("dataFim") LocalDate dataFim);
+    
+    @Query(SOMA_POR_CATEGORIA +
+           "WHERE t.perfil.id = :perfilId AND t.data BETWEEN :dataInicio AND :dataFim" +
+           AGRUPAMENTO_POR_CATEGORIA)
+    List<SomaCategoriaView> somarPorPerfilCategoriaEPeriodo(@Param("perfilId") Long perfilId,
+                                                           @Param("dataInicio") LocalDate dataInicio,
+                                                           @Param("dataFim") LocalDate dataFim);
+    
+    /**
+     * Parcelas vencidas até a data informada e ainda não lançadas no saldo, em ordem
+     * (data, id) a partir do cursor, percorrendo o índice idx_transacoes_pendentes.
+     */
+    @Query("SELECT new com.financeiro.dto.ParcelaPendenteView(t.id, t.data, t.instituicao.id, t.tipo, t.valor) " +
+           "FROM Transacao t " +
+           "WHERE t.lancada = false AND t.data <= :hoje " +
+           "AND (t.data > :dataCursor OR (t.data = :dataCursor AND t.id > :idCursor)) " +
+           "ORDER BY t.data, t.id")
+    List<ParcelaPendenteView> buscarParcelasPendentes(@Param("hoje") LocalDate hoje,
+                                                     @Param("dataCursor") LocalDate dataCursor,
+                                                     @Param("idCursor") Long idCursor,
+                                                     Limit limite);
+    
+    /**
+     * Relê as parcelas do bloco que continuam pendentes e vencidas, bloqueando-as até o fim
+     * da transação: as lançadas, excluídas ou adiadas por outra operação desde a leitura do
+     * bloco ficam de fora e as alteradas vêm com os valores atuais.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.financeiro.dto.ParcelaPendenteView(t.id, t.data, t.instituicao.id, t.tipo, t.valor) " +
+           "FROM Transacao t WHERE t.id IN :ids AND t.lancada = false AND t.data <= :hoje ORDER BY t.id")
+    List<ParcelaPendenteView> bloquearParcelasPendentes(@Param("ids") Collection<Long> ids, @Param("hoje") LocalDate hoje);
+    
+    // A condição lancada = false torna a marcação idempotente: o retorno indica quantas foram de fato lançadas
+    @Modifying
+    @Query("UPDATE Transacao t SET t.lancada = true WHERE t.id IN :ids AND t.lancada = false")
+    int marcarComoLancadas(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT new com.financeiro.dto.ParcelaMaterializadaView(t.grupoParcelamento, t.parcelaAtual) " +
+           "FROM Transacao t WHERE t.grupoParcelamento IN :grupos")
+    List<ParcelaMaterializadaView> buscarParcelasMaterializadas(@Param("grupos") Collection<String> grupos);
+    
+    Optional<Transacao> findByGrupoParcelamentoAndParcelaAtual(String grupoParcelamento, Integer parcelaAtual);
+    
+    long countByPerfilIdAndHashConteudoIsNotNull(Long perfilId);
+    
+    // Carga do filtro de Bloom do perfil; deve ser consumido dentro de uma transação e fechado ao final
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.hashConteudo FROM Transacao t WHERE t.perfil.id = :perfilId AND t.hashConteudo IS NOT NULL")
+    Stream<String> streamHashesPorPerfil(@Param("perfilId") Long perfilId);
+    
+    /**
+     * Quantas transações do perfil já existem com cada hash, desconsiderando as criadas
+     * pela importação em andamento.
+     */
+    @Query("SELECT new com.financeiro.dto.ContagemHashView(t.hashConteudo, COUNT(t)) FROM Transacao t " +
+           "WHERE t.perfil.id = :perfilId AND t.hashConteudo IN :hashes " +
+           "AND (t.registroImportacao IS NULL OR t.registroImportacao.id <> :registroImportacaoId) " +
+           "GROUP BY t.hashConteudo")
+    List<ContagemHashView> contarPorHash(@Param("perfilId") Long perfilId,
+                                         @Param("hashes") Collection<String> hashes,
+                                         @Param("registroImportacaoId") Long registroImportacaoId);
+    
+    // Histórico do perfil para o primeiro treino do modelo de sugestão, sem transferências e parcelas
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.financeiro.dto.ExemploCategoriaView(t.descricao, t.valor, t.tipo, t.instituicao.id, " +
+           "t.categoria.id, s.id) FROM Transacao t LEFT JOIN t.subcategoria s " +
+           "WHERE t.perfil.id = :perfilId AND t.grupoParcelamento IS NULL " +
+           "AND (t.transferenciaEntrePerfis IS NULL OR t.transferenciaEntrePerfis = false)")
+    Stream<ExemploCategoriaView> streamExemplosCategoria(@Param("perfilId") Long perfilId);
+    
+    /**
+     * Valores com sinal (receitas positivas, despesas negativas) das transações lançadas da
+     * instituição, para a conciliação do saldo. Deve ser consumido dentro de uma transação
+     * e fechado ao final.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT CASE WHEN t.tipo = 'Receita' THEN t.valor ELSE -t.valor END FROM Transacao t " +
+           "WHERE t.instituicao.id = :instituicaoId AND t.lancada = true")
+    Stream<BigDecimal> streamValoresLancados(@Param("instituicaoId") Long instituicaoId);
+    
+    // Transações gravadas antes da coluna hash_conteudo, em ordem de id a partir do cursor
+    @Query("SELECT t FROM Transacao t WHERE t.hashConteudo IS NULL AND t.id > :idCursor ORDER BY t.id")
+    List<Transacao> buscarSemHashConteudo(@Param("idCursor") Long idCursor, Limit limite);
+    
+    // Transação com as referências exibidas no detalhe, carregadas na mesma consulta
+    @EntityGraph("Transacao.detalhe")
+    Optional<Transacao> findDetalhadaById(Long id);
+}
@@ -0,0 +1,17 @@
+package com.financeiro.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.financeiro.dto.TransacaoView;
+import com.financeiro.entity.Transacao;
+
+public interface TransacaoRepositoryCustom {
+
+    /**
+     * Busca transações como projeções planas, ordenadas por (data, id) decrescente,
+     * sem hidratar as entidades associadas.
+     */
+    List<TransacaoView> buscarVisoes(Specification<Transacao> especificacao, int limite);
+}
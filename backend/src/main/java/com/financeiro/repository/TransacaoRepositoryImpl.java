@@ -0,0 +1,70 @@
+package com.financeiro.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.financeiro.dto.TransacaoView;
+import com.financeiro.entity.Categoria;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.entity.Perfil;
+import com.financeiro.entity.Subcategoria;
+import com.financeiro.entity.Transacao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+
+public class TransacaoRepositoryImpl implements TransacaoRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TransacaoView> buscarVisoes(Specification<Transacao> especificacao, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TransacaoView> query = cb.createQuery(TransacaoView.class);
+        Root<Transacao> root = query.from(Transacao.class);
+
+        // Joins apenas para ler os nomes; os ids vêm das próprias chaves estrangeiras
+        Join<Transacao, Categoria> categoria = root.join("categoria", JoinType.LEFT);
+        Join<Transacao, Subcategoria> subcategoria = root.join("subcategoria", JoinType.LEFT);
+        Join<Transacao, Instituicao> instituicao = root.join("instituicao", JoinType.LEFT);
+        Join<Transacao, Perfil> perfil = root.join("perfil", JoinType.LEFT);
+        Join<Transacao, Perfil> perfilDestino = root.join("perfilDestino", JoinType.LEFT);
+
+        query.select(cb.construct(TransacaoView.class,
+                root.get("id"),
+                root.get("data"),
+                root.get("descricao"),
+                root.get("valor"),
+                root.get("tipo"),
+                categoria.get("id"),
+                categoria.get("nome"),
+                subcategoria.get("id"),
+                subcategoria.get("nome"),
+                instituicao.get("id"),
+                instituicao.get("nome"),
+                perfil.get("id"),
+                perfil.get("nome"),
+                root.get("transferenciaEntrePerfis"),
+                perfilDestino.get("id"),
+                perfilDestino.get("nome"),
+                root.get("transacaoRelacionada").get("id"),
+                root.get("parcelaAtual"),
+                root.get("totalParcelas"),
+                root.get("grupoParcelamento"),
+                root.get("ehParcelada")));
+
+        query.where(especificacao.toPredicate(root, query, cb));
+        query.orderBy(cb.desc(root.get("data")), cb.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+}
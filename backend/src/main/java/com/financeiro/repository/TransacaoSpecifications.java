@@ -0,0 +1,74 @@
+package com.financeiro.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.financeiro.dto.FiltroTransacaoDTO;
+import com.financeiro.entity.Transacao;
+import com.financeiro.util.CursorTransacao;
+
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Predicados dinâmicos para consultas de transações. Cada filtro informado vira
+ * uma condição na mesma cláusula WHERE, comparando as chaves estrangeiras
+ * diretamente para não gerar joins desnecessários.
+ */
+public final class TransacaoSpecifications {
+
+    private TransacaoSpecifications() {
+    }
+
+    public static Specification<Transacao> comFiltro(FiltroTransacaoDTO filtro) {
+        return (root, query, cb) -> {
+            List<Predicate> predicados = new ArrayList<>();
+
+            if (filtro.getPerfilId() != null) {
+                predicados.add(cb.equal(root.get("perfil").get("id"), filtro.getPerfilId()));
+            }
+            if (filtro.getUsuarioId() != null) {
+                predicados.add(cb.equal(root.get("usuario").get("id"), filtro.getUsuarioId()));
+            }
+            if (filtro.getTipo() != null) {
+                predicados.add(cb.equal(root.get("tipo"), filtro.getTipo()));
+            }
+            if (filtro.getCategoriaId() != null) {
+                predicados.add(cb.equal(root.get("categoria").get("id"), filtro.getCategoriaId()));
+            }
+            if (filtro.getSubcategoriaId() != null) {
+                predicados.add(cb.equal(root.get("subcategoria").get("id"), filtro.getSubcategoriaId()));
+            }
+            if (filtro.getInstituicaoId() != null) {
+                predicados.add(cb.equal(root.get("instituicao").get("id"), filtro.getInstituicaoId()));
+            }
+            if (filtro.getDataInicio() != null) {
+                predicados.add(cb.greaterThanOrEqualTo(root.get("data"), filtro.getDataInicio()));
+            }
+            if (filtro.getDataFim() != null) {
+                predicados.add(cb.lessThanOrEqualTo(root.get("data"), filtro.getDataFim()));
+            }
+            if (filtro.getValorMinimo() != null) {
+                predicados.add(cb.greaterThanOrEqualTo(root.get("valor"), filtro.getValorMinimo()));
+            }
+            if (filtro.getValorMaximo() != null) {
+                predicados.add(cb.lessThanOrEqualTo(root.get("valor"), filtro.getValorMaximo()));
+            }
+            if (filtro.getGrupoParcelamento() != null) {
+                predicados.add(cb.equal(root.get("grupoParcelamento"), filtro.getGrupoParcelamento()));
+            }
+
+            return cb.and(predicados.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Restringe às transações posteriores ao cursor na ordem (data, id) decrescente.
+     */
+    public static Specification<Transacao> aposCursor(CursorTransacao cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("data"), cursor.data()),
+                cb.and(cb.equal(root.get("data"), cursor.data()), cb.lessThan(root.get("id"), cursor.id())));
+    }
+}
@@ -0,0 +1,162 @@
+package com.financeiro.security;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.financeiro.exception.ServicoSobrecarregadoException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * Executa o hash e a verificação de senhas de outro PasswordEncoder em um pool fixo
+ * de threads de plataforma com fila limitada. As requisições rodam em virtual threads
+ * sem limite; sem o pool, uma rajada de logins ocuparia com BCrypt todas as threads
+ * portadoras e pararia as demais requisições. Com a fila cheia a operação é recusada
+ * na hora com {@link ServicoSobrecarregadoException} (503).
+ */
+public class CodificadorSenhasLimitado implements PasswordEncoder, ApplicationListener<ApplicationReadyEvent>,
+        AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CodificadorSenhasLimitado.class);
+
+    private static final long SEGUNDOS_PARA_NOVA_TENTATIVA = 1;
+
+    // Faixa aceitável para o tempo de um hash no hardware atual: abaixo dela o custo é
+    // fraco contra força bruta, acima dela o login limita demais a vazão
+    private static final long TEMPO_MINIMO_HASH_MS = 100;
+    private static final long TEMPO_MAXIMO_HASH_MS = 1000;
+    // Hashes descartados antes da medição, enquanto o JIT ainda compila o BCrypt
+    private static final int AQUECIMENTO_CUSTO = 2;
+    private static final int MEDICOES_CUSTO = 5;
+
+    private final PasswordEncoder codificador;
+    private final ThreadPoolExecutor executor;
+    private final Timer tempoCodificacao;
+    private final Timer tempoVerificacao;
+    private final Timer tempoFila;
+    private final AtomicLong custoMedidoMs = new AtomicLong(-1);
+
+    public CodificadorSenhasLimitado(PasswordEncoder codificador, int threads, int tamanhoFila,
+                                     MeterRegistry meterRegistry) {
+        this.codificador = codificador;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(tamanhoFila), new CustomizableThreadFactory("senhas-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        // executor.queued, executor.active etc. com a tag name=senhas
+        new ExecutorServiceMetrics(executor, "senhas", Tags.empty()).bindTo(meterRegistry);
+        this.tempoCodificacao = Timer.builder("senhas.hash").tag("operacao", "codificar").register(meterRegistry);
+        this.tempoVerificacao = Timer.builder("senhas.hash").tag("operacao", "verificar").register(meterRegistry);
+        this.tempoFila = Timer.builder("senhas.fila").register(meterRegistry);
+        // Tempo mediano de um hash medido na inicialização; -1 até a medição terminar
+        meterRegistry.gauge("senhas.hash.custo_medido_ms", custoMedidoMs);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executar(() -> codificador.encode(rawPassword), tempoCodificacao);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executar(() -> codificador.matches(rawPassword, encodedPassword), tempoVerificacao);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return codificador.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Valida o custo configurado no hardware atual ao final da inicialização, no próprio
+     * pool: publica o tempo medido e avisa se ele estiver fora da faixa aceitável.
+     */
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        executor.execute(() -> {
+            long mediana = medirCusto();
+            custoMedidoMs.set(mediana);
+            long capacidade = executor.getMaximumPoolSize() * 1000L / Math.max(1, mediana);
+            if (mediana < TEMPO_MINIMO_HASH_MS) {
+                log.warn("Hash de senha leva {} ms (mínimo recomendado {} ms): aumente o custo do BCrypt",
+                        mediana, TEMPO_MINIMO_HASH_MS);
+            } else if (mediana > TEMPO_MAXIMO_HASH_MS) {
+                log.warn("Hash de senha leva {} ms (máximo recomendado {} ms): reduza o custo do BCrypt",
+                        mediana, TEMPO_MAXIMO_HASH_MS);
+            } else {
+                log.info("Hash de senha leva {} ms; capacidade de ~{} logins/s com {} thread(s)",
+                        mediana, capacidade, executor.getMaximumPoolSize());
+            }
+        });
+    }
+
+    /**
+     * Micro-benchmark do hash com o custo configurado, na thread atual: descarta os
+     * primeiros hashes (aquecimento) e devolve a mediana, em ms, das medições seguintes.
+     */
+    long medirCusto() {
+        for (int i = 0; i < AQUECIMENTO_CUSTO; i++) {
+            codificador.encode("aquecimento-de-custo-" + i);
+        }
+        long[] tempos = new long[MEDICOES_CUSTO];
+        for (int i = 0; i < MEDICOES_CUSTO; i++) {
+            long inicio = System.nanoTime();
+            codificador.encode("medicao-de-custo-" + i);
+            tempos[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        }
+        Arrays.sort(tempos);
+        return tempos[MEDICOES_CUSTO / 2];
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> T executar(Callable<T> operacao, Timer tempoOperacao) {
+        long enfileirado = System.nanoTime();
+        Future<T> resultado;
+        try {
+            resultado = executor.submit(() -> {
+                tempoFila.record(System.nanoTime() - enfileirado, TimeUnit.NANOSECONDS);
+                return tempoOperacao.recordCallable(operacao);
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ServicoSobrecarregadoException(
+                    "Servidor ocupado processando outras autenticações. Tente novamente em instantes.",
+                    SEGUNDOS_PARA_NOVA_TENTATIVA);
+        }
+
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            resultado.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando o hash da senha", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error erro) {
+                throw erro;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
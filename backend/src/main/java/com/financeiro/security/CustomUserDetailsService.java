@@ -1,30 +1,90 @@
 package com.financeiro.security;
 
+import java.time.Duration;
 import java.util.ArrayList;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.financeiro.entity.Usuario;
 import com.financeiro.repository.UsuarioRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Usuários do login e das requisições autenticadas por token. Os das requisições ficam
+ * em cache, e o UsuarioService invalida a entrada em cada alteração ou exclusão do
+ * cadastro que faz. Um usuário alterado ou excluído por outro caminho (direto no banco,
+ * por exemplo) continua autenticado pelos tokens já emitidos até a entrada expirar, o
+ * que leva até VALIDADE_USUARIO_AUTENTICADO (10 minutos).
+ */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
+    // Rede de segurança para alterações feitas fora do UsuarioService, que não invalida o cache
+    private static final Duration VALIDADE_USUARIO_AUTENTICADO = Duration.ofMinutes(10);
+
     private final UsuarioRepository usuarioRepository;
+    private final Cache<String, UserDetails> usuariosAutenticados;
 
-    public CustomUserDetailsService(UsuarioRepository usuarioRepository) {
+    public CustomUserDetailsService(UsuarioRepository usuarioRepository,
+                                    @Value("${app.cache.usuarios.tamanho-maximo:10000}") long tamanhoMaximo,
+                                    MeterRegistry meterRegistry) {
         this.usuarioRepository = usuarioRepository;
+        this.usuariosAutenticados = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(VALIDADE_USUARIO_AUTENTICADO)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usuariosAutenticados, "usuariosAutenticados");
     }
 
+    // Usado no login: sempre consulta o banco, pois o hash da senha precisa estar atualizado
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        Usuario usuario = usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado com o email: " + email));
-
+        Usuario usuario = buscar(email);
         return new User(usuario.getEmail(), usuario.getSenhaHash(), new ArrayList<>());
     }
-}
\ No newline at end of file
+
+    /**
+     * Usuário de uma requisição autenticada por token, mantido em cache até ser
+     * invalidado por uma alteração no cadastro. Não carrega o hash da senha, que
+     * não é usado nessa autenticação.
+     */
+    public UserDetails carregarUsuarioAutenticado(String email) throws UsernameNotFoundException {
+        return usuariosAutenticados.get(email, e -> {
+            Usuario usuario = buscar(e);
+            return new User(usuario.getEmail(), "", new ArrayList<>());
+        });
+    }
+
+    /**
+     * Remove o usuário do cache. Dentro de uma transação também remove após o commit,
+     * para que uma leitura concorrente não deixe no cache o cadastro anterior.
+     */
+    public void invalidar(String email) {
+        usuariosAutenticados.invalidate(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    usuariosAutenticados.invalidate(email);
+                }
+            });
+        }
+    }
+
+    private Usuario buscar(String email) {
+        return usuarioRepository.findByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado com o email: " + email));
+    }
+}
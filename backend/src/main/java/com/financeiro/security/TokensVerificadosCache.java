@@ -0,0 +1,76 @@
+package com.financeiro.security;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache dos tokens JWT já verificados. Cada entrada guarda o email do token e expira
+ * junto com ele, de modo que a assinatura só é conferida na primeira requisição com
+ * o token. Tokens inválidos nunca entram no cache.
+ */
+@Component
+public class TokensVerificadosCache {
+
+    public record TokenVerificado(String email, long expiracao) {
+    }
+
+    private final Cache<String, TokenVerificado> cache;
+
+    public TokensVerificadosCache(@Value("${app.cache.tokens.tamanho-maximo:10000}") long tamanhoMaximo,
+                                  MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfter(new Expiry<String, TokenVerificado>() {
+                    @Override
+                    public long expireAfterCreate(String token, TokenVerificado verificado, long agora) {
+                        long restante = verificado.expiracao() - System.currentTimeMillis();
+                        return restante > 0 ? TimeUnit.MILLISECONDS.toNanos(restante) : 0;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, TokenVerificado verificado, long agora,
+                                                  long duracaoAtual) {
+                        return duracaoAtual;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, TokenVerificado verificado, long agora,
+                                                long duracaoAtual) {
+                        return duracaoAtual;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tokensVerificados");
+    }
+
+    /**
+     * Devolve o token verificado, validando-o com a função informada na primeira vez.
+     * Exceções da validação (token expirado, assinatura inválida etc.) são propagadas.
+     */
+    public TokenVerificado obter(String token, Function<String, Claims> validar) {
+        TokenVerificado verificado = cache.get(token, t -> {
+            Claims claims = validar.apply(t);
+            Date expiracao = claims.getExpiration();
+            return new TokenVerificado(claims.getSubject(), expiracao != null ? expiracao.getTime() : Long.MAX_VALUE);
+        });
+        // A expiração do cache é aproximada; a do token é conferida a cada uso
+        if (verificado.expiracao() <= System.currentTimeMillis()) {
+            cache.invalidate(token);
+            return null;
+        }
+        return verificado;
+    }
+}
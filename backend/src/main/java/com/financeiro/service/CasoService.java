@@ -61,7 +61,7 @@ public class CasoService {
     }
     
     public CasoDTO buscarCasoPorId(Long id, Long advogadoId) {
-        Caso caso = casoRepository.findById(id)
+        Caso caso = casoRepository.findDetalhadoById(id)
             .orElseThrow(() -> new RuntimeException("Caso não encontrado"));
         
         if (!caso.getAdvogado().getId().equals(advogadoId)) {
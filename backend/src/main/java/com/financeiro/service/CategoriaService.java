@@ -25,6 +25,9 @@ public class CategoriaService {
     @Autowired
     private SubcategoriaService subcategoriaService;
     
+    @Autowired
+    private DadosReferenciaCache dadosReferencia;
+    
     public List<CategoriaDTO> listarTodas() {
         return categoriaRepository.findAll().stream()
                 .map(this::converterParaDTO)
@@ -92,6 +95,7 @@ public class CategoriaService {
         categoria.setTipo(dto.getTipo());
         
         categoria = categoriaRepository.save(categoria);
+        dadosReferencia.invalidarCategoria(id);
         
         return converterParaDTO(categoria);
     }
@@ -102,6 +106,7 @@ public class CategoriaService {
         }
         
         categoriaRepository.deleteById(id);
+        dadosReferencia.invalidarCategoria(id);
     }
     
     private CategoriaDTO converterParaDTO(Categoria categoria) {
@@ -111,8 +116,11 @@ public class CategoriaService {
         dto.setTipo(categoria.getTipo());
         dto.setPerfilId(categoria.getPerfil() != null ? categoria.getPerfil().getId() : null);
         
-        // Buscar subcategorias relacionadas
-        List<SubcategoriaDTO> subcategorias = subcategoriaService.listarPorCategoria(categoria.getId());
+        // Subcategorias pela coleção da entidade: em listagens são carregadas em lote
+        List<SubcategoriaDTO> subcategorias = categoria.getSubcategorias() == null ? List.of()
+                : categoria.getSubcategorias().stream()
+                        .map(subcategoriaService::converterParaDTO)
+                        .collect(Collectors.toList());
         dto.setSubcategorias(subcategorias);
         
         return dto;
@@ -33,7 +33,7 @@ public class ClienteService {
     }
     
     public ClienteDTO buscarClientePorId(Long id, Long advogadoId) {
-        Cliente cliente = clienteRepository.findById(id)
+        Cliente cliente = clienteRepository.findDetalhadoById(id)
             .orElseThrow(() -> new RuntimeException("Cliente não encontrado"));
         
         if (!cliente.getAdvogado().getId().equals(advogadoId)) {
@@ -0,0 +1,263 @@
+package com.financeiro.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.financeiro.dto.ConciliacaoSaldosDTO;
+import com.financeiro.dto.ConciliacaoSaldosDTO.Divergencia;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.exception.NegocioException;
+import com.financeiro.repository.InstituicaoRepository;
+import com.financeiro.repository.TransacaoRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Confere o saldo atual de cada instituição com saldo inicial + receitas - despesas das
+ * transações lançadas. As transações de cada instituição são percorridas por cursor e
+ * somadas em centavos (long), em um ForkJoinPool cujo paralelismo limita quantas conexões
+ * do banco a conciliação ocupa ao mesmo tempo.
+ *
+ * A primeira soma é feita sem bloqueio; só as instituições divergentes são conferidas de
+ * novo com a instituição bloqueada (as escritas de transação também a bloqueiam), o que
+ * descarta diferenças causadas por escritas concorrentes e permite corrigir o saldo com
+ * segurança.
+ */
+@Service
+public class ConciliacaoSaldoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ConciliacaoSaldoService.class);
+
+    private record Resultado(long transacoes, Divergencia divergencia) {
+    }
+
+    private record Soma(Instituicao instituicao, long transacoes, long movimentoEmCentavos) {
+
+        long calculadoEmCentavos() {
+            return Math.addExact(centavos(instituicao.getSaldoInicial()), movimentoEmCentavos);
+        }
+
+        long diferencaEmCentavos() {
+            return Math.subtractExact(centavos(instituicao.getSaldoAtual()), calculadoEmCentavos());
+        }
+    }
+
+    private final AtomicBoolean emExecucao = new AtomicBoolean();
+    private final AtomicLong divergentesUltimaExecucao = new AtomicLong();
+    private final AtomicLong diferencaUltimaExecucao = new AtomicLong();
+
+    private final Timer duracao;
+    private final Counter transacoesProcessadas;
+    private final Counter instituicoesVerificadas;
+    private final Counter divergenciasDetectadas;
+    private final Counter divergenciasCorrigidas;
+
+    @Autowired
+    private InstituicaoRepository instituicaoRepository;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.conciliacao.threads:4}")
+    private int threads;
+
+    @Value("${app.conciliacao.corrigir-agendada:false}")
+    private boolean corrigirAgendada;
+
+    public ConciliacaoSaldoService(MeterRegistry meterRegistry) {
+        duracao = Timer.builder("saldos.conciliacao")
+                .description("Duração de cada conciliação completa dos saldos")
+                .register(meterRegistry);
+        transacoesProcessadas = Counter.builder("saldos.conciliacao.transacoes")
+                .description("Transações somadas pela conciliação")
+                .register(meterRegistry);
+        instituicoesVerificadas = Counter.builder("saldos.conciliacao.instituicoes").register(meterRegistry);
+        divergenciasDetectadas = Counter.builder("saldos.conciliacao.divergencias")
+                .tag("resultado", "detectada").register(meterRegistry);
+        divergenciasCorrigidas = Counter.builder("saldos.conciliacao.divergencias")
+                .tag("resultado", "corrigida").register(meterRegistry);
+        Gauge.builder("saldos.conciliacao.divergentes", divergentesUltimaExecucao, AtomicLong::get)
+                .description("Instituições com saldo divergente na última conciliação")
+                .register(meterRegistry);
+        Gauge.builder("saldos.conciliacao.diferenca", diferencaUltimaExecucao, centavos -> centavos.get() / 100.0)
+                .description("Soma das diferenças absolutas de saldo na última conciliação")
+                .baseUnit("reais")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Execução agendada: se já houver uma conciliação em andamento (manual ou agendada),
+     * esta é ignorada. A decisão vem só do compareAndSet, sem consulta prévia ao estado.
+     */
+    @Scheduled(cron = "${app.conciliacao.cron:0 30 3 * * *}")
+    public void conciliarAgendado() {
+        if (!emExecucao.compareAndSet(false, true)) {
+            log.warn("Conciliação agendada ignorada: já existe uma conciliação em andamento");
+            return;
+        }
+        ConciliacaoSaldosDTO resultado = executar(corrigirAgendada);
+        log.info("Conciliação de saldos concluída: {} instituição(ões), {} transação(ões), {} divergência(s) em {} ms",
+                resultado.getInstituicoesVerificadas(), resultado.getTransacoesProcessadas(),
+                resultado.getDivergencias().size(), resultado.getDuracaoMs());
+    }
+
+    /**
+     * Concilia todas as instituições. Com corrigir, o saldo atual das divergentes é
+     * ajustado para o valor calculado; sem, elas são apenas relatadas.
+     */
+    public ConciliacaoSaldosDTO conciliar(boolean corrigir) {
+        if (!emExecucao.compareAndSet(false, true)) {
+            throw new NegocioException("Já existe uma conciliação de saldos em andamento");
+        }
+        return executar(corrigir);
+    }
+
+    // Só quem ganhou o compareAndSet de emExecucao chega aqui; a marca é liberada ao fim
+    private ConciliacaoSaldosDTO executar(boolean corrigir) {
+        try {
+            long inicio = System.nanoTime();
+            ConciliacaoSaldosDTO resultado = conciliarEmParalelo(instituicaoRepository.listarIds(), corrigir);
+            long decorrido = System.nanoTime() - inicio;
+            duracao.record(decorrido, TimeUnit.NANOSECONDS);
+            resultado.setDuracaoMs(TimeUnit.NANOSECONDS.toMillis(decorrido));
+            return resultado;
+        } finally {
+            emExecucao.set(false);
+        }
+    }
+
+    private ConciliacaoSaldosDTO conciliarEmParalelo(List<Long> instituicaoIds, boolean corrigir) {
+        List<Callable<Resultado>> tarefas = new ArrayList<>();
+        for (Long instituicaoId : instituicaoIds) {
+            tarefas.add(() -> conciliarInstituicao(instituicaoId, corrigir));
+        }
+
+        List<Future<Resultado>> futuros;
+        try (ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads))) {
+            futuros = pool.invokeAll(tarefas);
+        }
+
+        long transacoes = 0;
+        long diferencaTotal = 0;
+        int falhas = 0;
+        List<Divergencia> divergencias = new ArrayList<>();
+        for (int i = 0; i < futuros.size(); i++) {
+            try {
+                Resultado resultado = futuros.get(i).get();
+                transacoes += resultado.transacoes();
+                if (resultado.divergencia() != null) {
+                    divergencias.add(resultado.divergencia());
+                    diferencaTotal += Math.abs(centavos(resultado.divergencia().getDiferenca()));
+                }
+            } catch (ExecutionException e) {
+                falhas++;
+                log.warn("Falha ao conciliar o saldo da instituição {}", instituicaoIds.get(i), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrompido conciliando os saldos", e);
+            }
+        }
+        divergentesUltimaExecucao.set(divergencias.size());
+        diferencaUltimaExecucao.set(diferencaTotal);
+
+        return ConciliacaoSaldosDTO.builder()
+                .instituicoesVerificadas(futuros.size() - falhas)
+                .transacoesProcessadas(transacoes)
+                .falhas(falhas)
+                .divergencias(divergencias)
+                .build();
+    }
+
+    private Resultado conciliarInstituicao(Long instituicaoId, boolean corrigir) {
+        TransactionTemplate leitura = new TransactionTemplate(transactionManager);
+        leitura.setReadOnly(true);
+        Soma soma = leitura.execute(status -> instituicaoRepository.findById(instituicaoId)
+                .map(this::somar)
+                .orElse(null));
+        if (soma == null) {
+            // Excluída depois da listagem
+            return new Resultado(0, null);
+        }
+        instituicoesVerificadas.increment();
+        if (soma.diferencaEmCentavos() == 0) {
+            return new Resultado(soma.transacoes(), null);
+        }
+
+        // Confirma com a instituição bloqueada: as escritas em andamento terminam antes
+        // e as seguintes esperam até o fim da correção
+        Divergencia divergencia = new TransactionTemplate(transactionManager).execute(status -> {
+            List<Instituicao> bloqueadas = instituicaoRepository.bloquearEmOrdem(List.of(instituicaoId));
+            if (bloqueadas.isEmpty()) {
+                return null;
+            }
+            Soma confirmada = somar(bloqueadas.get(0));
+            long diferenca = confirmada.diferencaEmCentavos();
+            if (diferenca == 0) {
+                return null;
+            }
+            if (corrigir) {
+                instituicaoRepository.ajustarSaldo(instituicaoId, reais(-diferenca));
+            }
+            return new Divergencia(instituicaoId, confirmada.instituicao().getSaldoAtual(),
+                    reais(confirmada.calculadoEmCentavos()), reais(diferenca), corrigir);
+        });
+
+        if (divergencia != null) {
+            divergenciasDetectadas.increment();
+            if (divergencia.isCorrigida()) {
+                divergenciasCorrigidas.increment();
+            }
+            log.warn("Saldo divergente na instituição {}: atual {}, calculado {}{}", instituicaoId,
+                    divergencia.getSaldoAtual(), divergencia.getSaldoCalculado(),
+                    divergencia.isCorrigida() ? " (corrigido)" : "");
+        }
+        return new Resultado(soma.transacoes(), divergencia);
+    }
+
+    // Deve ser chamado dentro de uma transação, que mantém o cursor aberto
+    private Soma somar(Instituicao instituicao) {
+        long transacoes = 0;
+        long centavos = 0;
+        try (Stream<BigDecimal> valores = transacaoRepository.streamValoresLancados(instituicao.getId())) {
+            for (BigDecimal valor : (Iterable<BigDecimal>) valores::iterator) {
+                centavos = Math.addExact(centavos, centavos(valor));
+                transacoes++;
+            }
+        }
+        transacoesProcessadas.increment(transacoes);
+        return new Soma(instituicao, transacoes, centavos);
+    }
+
+    // Valores monetários têm duas casas; mais casas ou estouro do long lançam ArithmeticException
+    private static long centavos(BigDecimal valor) {
+        return valor.movePointRight(2).longValueExact();
+    }
+
+    private static BigDecimal reais(long centavos) {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+}
@@ -0,0 +1,190 @@
+package com.financeiro.service;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.financeiro.entity.Categoria;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.repository.CategoriaRepository;
+import com.financeiro.repository.InstituicaoRepository;
+import com.financeiro.repository.PerfilRepository;
+import com.financeiro.repository.SubcategoriaRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache de leitura dos cadastros usados em toda escrita de transação: categorias,
+ * subcategorias, perfis e instituições. Guarda apenas identificação, nome e vínculos
+ * (nunca saldos), o suficiente para validar as referências, montar as associações
+ * por proxy e preencher os nomes da resposta sem consultar o banco.
+ *
+ * As escritas nos cadastros invalidam a entrada na hora e de novo após o commit;
+ * entradas dependentes (subcategorias de uma categoria, cadastros de um perfil) saem
+ * junto, pois a exclusão é propagada em cascata no banco.
+ */
+@Component
+public class DadosReferenciaCache {
+
+    public record CategoriaRef(Long id, String nome, String tipo, Long perfilId) {
+    }
+
+    public record SubcategoriaRef(Long id, String nome, Long categoriaId) {
+    }
+
+    public record PerfilRef(Long id, String nome, Long usuarioId) {
+    }
+
+    public record InstituicaoRef(Long id, String nome, String tipo, Long perfilId) {
+    }
+
+    private record NomeETipo(String nome, String tipo) {
+    }
+
+    private final CategoriaRepository categoriaRepository;
+    private final SubcategoriaRepository subcategoriaRepository;
+    private final PerfilRepository perfilRepository;
+    private final InstituicaoRepository instituicaoRepository;
+
+    private final Cache<Long, CategoriaRef> categorias;
+    private final Cache<NomeETipo, CategoriaRef> categoriasPorNome;
+    private final Cache<Long, SubcategoriaRef> subcategorias;
+    private final Cache<Long, PerfilRef> perfis;
+    private final Cache<Long, InstituicaoRef> instituicoes;
+
+    public DadosReferenciaCache(CategoriaRepository categoriaRepository,
+                                SubcategoriaRepository subcategoriaRepository,
+                                PerfilRepository perfilRepository,
+                                InstituicaoRepository instituicaoRepository,
+                                @Value("${app.cache.referencias.tamanho-maximo:10000}") long tamanhoMaximo,
+                                MeterRegistry meterRegistry) {
+        this.categoriaRepository = categoriaRepository;
+        this.subcategoriaRepository = subcategoriaRepository;
+        this.perfilRepository = perfilRepository;
+        this.instituicaoRepository = instituicaoRepository;
+        this.categorias = criar(tamanhoMaximo, meterRegistry, "referencias.categorias");
+        this.categoriasPorNome = criar(tamanhoMaximo, meterRegistry, "referencias.categoriasPorNome");
+        this.subcategorias = criar(tamanhoMaximo, meterRegistry, "referencias.subcategorias");
+        this.perfis = criar(tamanhoMaximo, meterRegistry, "referencias.perfis");
+        this.instituicoes = criar(tamanhoMaximo, meterRegistry, "referencias.instituicoes");
+    }
+
+    public Optional<CategoriaRef> categoria(Long id) {
+        return Optional.ofNullable(categorias.get(id, k -> categoriaRepository.findById(k)
+                .map(DadosReferenciaCache::categoriaRef)
+                .orElse(null)));
+    }
+
+    public Optional<CategoriaRef> categoriaPorNomeETipo(String nome, String tipo) {
+        return Optional.ofNullable(categoriasPorNome.get(new NomeETipo(nome, tipo),
+                k -> categoriaRepository.findByNomeAndTipo(k.nome(), k.tipo())
+                        .map(DadosReferenciaCache::categoriaRef)
+                        .orElse(null)));
+    }
+
+    public Optional<SubcategoriaRef> subcategoria(Long id) {
+        return Optional.ofNullable(subcategorias.get(id, k -> subcategoriaRepository.findById(k)
+                .map(s -> new SubcategoriaRef(s.getId(), s.getNome(), s.getCategoria().getId()))
+                .orElse(null)));
+    }
+
+    public Optional<PerfilRef> perfil(Long id) {
+        return Optional.ofNullable(perfis.get(id, k -> perfilRepository.findById(k)
+                .map(p -> new PerfilRef(p.getId(), p.getNome(), p.getUsuario().getId()))
+                .orElse(null)));
+    }
+
+    public Optional<InstituicaoRef> instituicao(Long id) {
+        return Optional.ofNullable(instituicoes.get(id, k -> instituicaoRepository.findById(k)
+                .map(DadosReferenciaCache::instituicaoRef)
+                .orElse(null)));
+    }
+
+    public void invalidarCategoria(Long id) {
+        executarAgoraEAposCommit(() -> removerCategorias(Set.of(id)));
+    }
+
+    public void invalidarSubcategoria(Long id) {
+        executarAgoraEAposCommit(() -> subcategorias.invalidate(id));
+    }
+
+    public void invalidarPerfil(Long id) {
+        executarAgoraEAposCommit(() -> removerPerfis(Set.of(id)));
+    }
+
+    public void invalidarPerfisDoUsuario(Long usuarioId) {
+        executarAgoraEAposCommit(() -> {
+            Set<Long> ids = new HashSet<>();
+            perfis.asMap().values().forEach(p -> {
+                if (usuarioId.equals(p.usuarioId())) {
+                    ids.add(p.id());
+                }
+            });
+            removerPerfis(ids);
+        });
+    }
+
+    public void invalidarInstituicao(Long id) {
+        executarAgoraEAposCommit(() -> instituicoes.invalidate(id));
+    }
+
+    private void removerPerfis(Set<Long> ids) {
+        perfis.invalidateAll(ids);
+        instituicoes.asMap().values().removeIf(i -> ids.contains(i.perfilId()));
+        Set<Long> categoriasDosPerfis = new HashSet<>();
+        categorias.asMap().values().forEach(c -> {
+            if (ids.contains(c.perfilId())) {
+                categoriasDosPerfis.add(c.id());
+            }
+        });
+        removerCategorias(categoriasDosPerfis);
+    }
+
+    private void removerCategorias(Set<Long> ids) {
+        categorias.invalidateAll(ids);
+        // Poucas entradas; nome e tipo podem ter mudado, então o índice é descartado inteiro
+        categoriasPorNome.invalidateAll();
+        subcategorias.asMap().values().removeIf(s -> ids.contains(s.categoriaId()));
+    }
+
+    // Só agora, uma leitura concorrente poderia regravar o dado antigo antes do commit;
+    // só após o commit, a própria transação continuaria lendo o dado antigo
+    private void executarAgoraEAposCommit(Runnable invalidacao) {
+        invalidacao.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidacao.run();
+                }
+            });
+        }
+    }
+
+    private static CategoriaRef categoriaRef(Categoria categoria) {
+        return new CategoriaRef(categoria.getId(), categoria.getNome(), categoria.getTipo(),
+                categoria.getPerfil() != null ? categoria.getPerfil().getId() : null);
+    }
+
+    private static InstituicaoRef instituicaoRef(Instituicao instituicao) {
+        return new InstituicaoRef(instituicao.getId(), instituicao.getNome(), instituicao.getTipo(),
+                instituicao.getPerfil() != null ? instituicao.getPerfil().getId() : null);
+    }
+
+    private static <K, V> Cache<K, V> criar(long tamanhoMaximo, MeterRegistry meterRegistry, String nome) {
+        Cache<K, V> cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, nome);
+        return cache;
+    }
+}
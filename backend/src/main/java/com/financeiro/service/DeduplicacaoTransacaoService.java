@@ -0,0 +1,246 @@
+package com.financeiro.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.financeiro.dto.ContagemHashView;
+import com.financeiro.entity.Transacao;
+import com.financeiro.repository.TransacaoRepository;
+import com.financeiro.util.FiltroBloom;
+import com.financeiro.util.HashConteudoTransacao;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Reconhece transações já existentes pelo hash de conteúdo. Cada perfil tem um filtro
+ * de Bloom carregado do banco no primeiro uso: um hash que o filtro descarta certamente
+ * não existe e dispensa a consulta; os demais são confirmados no banco, em lote.
+ */
+@Service
+public class DeduplicacaoTransacaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeduplicacaoTransacaoService.class);
+
+    private static final double TAXA_FALSO_POSITIVO = 0.01;
+    private static final long CAPACIDADE_MINIMA = 10_000;
+    private static final int TAMANHO_BLOCO_PREENCHIMENTO = 1000;
+    // Chave dos hashes gravados na transação corrente, incluídos nos filtros após o commit
+    private static final Object HASHES_DA_TRANSACAO = new Object();
+
+    private static class FiltroPerfil {
+        private final FiltroBloom filtro;
+        private volatile boolean carregado;
+
+        private FiltroPerfil(long capacidade) {
+            this.filtro = new FiltroBloom(capacidade, TAXA_FALSO_POSITIVO);
+        }
+    }
+
+    private record HashGravado(Long perfilId, String hash) { }
+
+    private final Map<Long, FiltroPerfil> filtros = new ConcurrentHashMap<>();
+    // Enquanto houver transações antigas sem hash os filtros não são confiáveis
+    private volatile boolean hashesPendentes = true;
+
+    private final Counter descartadasPeloFiltro;
+    private final Counter confirmadas;
+    private final Counter falsosPositivos;
+    private final Timer consulta;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public DeduplicacaoTransacaoService(MeterRegistry meterRegistry) {
+        descartadasPeloFiltro = Counter.builder("transacoes.deduplicacao.verificacoes")
+                .tag("resultado", "descartada_pelo_filtro").register(meterRegistry);
+        confirmadas = Counter.builder("transacoes.deduplicacao.verificacoes")
+                .tag("resultado", "existente").register(meterRegistry);
+        falsosPositivos = Counter.builder("transacoes.deduplicacao.verificacoes")
+                .tag("resultado", "falso_positivo").register(meterRegistry);
+        consulta = Timer.builder("transacoes.deduplicacao.consulta")
+                .description("Consulta ao banco dos hashes que o filtro não descartou")
+                .register(meterRegistry);
+        Gauge.builder("transacoes.deduplicacao.perfis_carregados", filtros, Map::size).register(meterRegistry);
+        this.meterRegistry = meterRegistry;
+    }
+
+    // O gauge guarda uma referência ao serviço: registrado só depois da construção
+    @PostConstruct
+    void registrarMetricas() {
+        Gauge.builder("transacoes.deduplicacao.taxa_falso_positivo", this, DeduplicacaoTransacaoService::taxaFalsoPositivo)
+                .description("Fração dos hashes inexistentes que o filtro não descartou")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica se o hash pode já existir no perfil. {@code false} é definitivo; {@code true}
+     * precisa ser confirmado com {@link #contarExistentes}.
+     */
+    public boolean podeExistir(Long perfilId, String hash) {
+        if (hashesPendentes) {
+            return true;
+        }
+        FiltroPerfil filtroPerfil = obterFiltro(perfilId);
+        if (!filtroPerfil.carregado) {
+            return true;
+        }
+        boolean podeExistir = filtroPerfil.filtro.podeConter(HashConteudoTransacao.primeiraMetade(hash),
+                HashConteudoTransacao.segundaMetade(hash));
+        if (!podeExistir) {
+            descartadasPeloFiltro.increment();
+        }
+        return podeExistir;
+    }
+
+    /**
+     * Quantas transações do perfil existem com cada hash, sem contar as criadas pela
+     * importação informada. Hashes sem transação não aparecem no mapa.
+     */
+    public Map<String, Long> contarExistentes(Long perfilId, Collection<String> hashes, Long registroImportacaoId) {
+        List<ContagemHashView> contagens = consulta.record(
+                () -> transacaoRepository.contarPorHash(perfilId, hashes, registroImportacaoId));
+        confirmadas.increment(contagens.size());
+        falsosPositivos.increment(hashes.size() - contagens.size());
+        return contagens.stream().collect(Collectors.toMap(ContagemHashView::hash, ContagemHashView::quantidade));
+    }
+
+    /**
+     * Chamado a cada transação gravada. Dentro de uma transação o hash só entra no filtro
+     * após o commit, e o filtro do perfil é procurado nesse momento: como a carga publica
+     * o filtro antes de ler o banco, cada transação confirmada ou já está na leitura ou
+     * encontra o filtro publicado. Perfis ainda não carregados leem o hash do banco depois.
+     */
+    public void registrar(Long perfilId, String hash) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            incluir(perfilId, hash);
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<HashGravado> gravados = (List<HashGravado>) TransactionSynchronizationManager.getResource(HASHES_DA_TRANSACAO);
+        if (gravados == null) {
+            // Uma sincronização por transação, com todos os hashes gravados nela
+            List<HashGravado> novos = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(HASHES_DA_TRANSACAO, novos);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    novos.forEach(gravado -> incluir(gravado.perfilId(), gravado.hash()));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(HASHES_DA_TRANSACAO);
+                }
+            });
+            gravados = novos;
+        }
+        gravados.add(new HashGravado(perfilId, hash));
+    }
+
+    /**
+     * Calcula o hash das transações gravadas antes da coluna existir, em blocos, e só
+     * então libera o uso dos filtros.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preencherHashesPendentes() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Long idCursor = 0L;
+        long total = 0;
+
+        while (true) {
+            Long idAtual = idCursor;
+            List<Long> ids = transactionTemplate.execute(status -> {
+                List<Transacao> bloco = transacaoRepository.buscarSemHashConteudo(idAtual,
+                        Limit.of(TAMANHO_BLOCO_PREENCHIMENTO));
+                bloco.forEach(Transacao::atualizarHashConteudo);
+                return bloco.stream().map(Transacao::getId).toList();
+            });
+
+            total += ids.size();
+            if (ids.size() < TAMANHO_BLOCO_PREENCHIMENTO) {
+                break;
+            }
+            idCursor = ids.get(ids.size() - 1);
+        }
+
+        hashesPendentes = false;
+        if (total > 0) {
+            log.info("Hash de conteúdo calculado para {} transação(ões) existentes", total);
+        }
+    }
+
+    private void incluir(Long perfilId, String hash) {
+        FiltroPerfil filtroPerfil = filtros.get(perfilId);
+        if (filtroPerfil == null) {
+            return;
+        }
+        filtroPerfil.filtro.incluir(HashConteudoTransacao.primeiraMetade(hash), HashConteudoTransacao.segundaMetade(hash));
+        if (filtroPerfil.filtro.isSaturado()) {
+            // Acima da capacidade a taxa de falso positivo cresce; o filtro é refeito maior no próximo uso
+            filtros.remove(perfilId, filtroPerfil);
+        }
+    }
+
+    private FiltroPerfil obterFiltro(Long perfilId) {
+        FiltroPerfil existente = filtros.get(perfilId);
+        if (existente != null) {
+            return existente;
+        }
+
+        long quantidade = transacaoRepository.countByPerfilIdAndHashConteudoIsNotNull(perfilId);
+        FiltroPerfil novo = new FiltroPerfil(Math.max(CAPACIDADE_MINIMA, quantidade * 2));
+        existente = filtros.putIfAbsent(perfilId, novo);
+        if (existente != null) {
+            return existente;
+        }
+
+        // Publicado antes da carga: transações confirmadas durante a leitura entram no filtro
+        // pelo registro após o commit
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                try (Stream<String> hashes = transacaoRepository.streamHashesPorPerfil(perfilId)) {
+                    hashes.forEach(hash -> novo.filtro.incluir(HashConteudoTransacao.primeiraMetade(hash),
+                            HashConteudoTransacao.segundaMetade(hash)));
+                }
+            });
+            novo.carregado = true;
+        } catch (RuntimeException e) {
+            filtros.remove(perfilId, novo);
+            throw e;
+        }
+        return novo;
+    }
+
+    private double taxaFalsoPositivo() {
+        double positivos = falsosPositivos.count();
+        double negativos = positivos + descartadasPeloFiltro.count();
+        return negativos == 0 ? 0 : positivos / negativos;
+    }
+}
@@ -0,0 +1,355 @@
+package com.financeiro.service;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.financeiro.dto.ResultadoImportacaoDTO;
+import com.financeiro.dto.ResultadoLoteDTO.ResultadoLinha;
+import com.financeiro.dto.TransacaoDTO;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.entity.Perfil;
+import com.financeiro.entity.RegistroImportacao;
+import com.financeiro.enums.FormatoExtrato;
+import com.financeiro.enums.StatusImportacao;
+import com.financeiro.exception.NegocioException;
+import com.financeiro.exception.RecursoNaoEncontradoException;
+import com.financeiro.repository.CategoriaRepository;
+import com.financeiro.repository.InstituicaoRepository;
+import com.financeiro.repository.PerfilRepository;
+import com.financeiro.repository.RegistroImportacaoRepository;
+import com.financeiro.util.ClassificadorTransacoes;
+import com.financeiro.util.HashConteudoTransacao;
+import com.financeiro.util.LancamentoExtrato;
+import com.financeiro.util.LeitorExtrato;
+import com.financeiro.util.ModeloSugestaoCategoria;
+
+/**
+ * Importa extratos bancários (CSV ou OFX) como transações de um perfil e instituição.
+ * O arquivo enviado fica em disco e é lido em streaming; os lançamentos são gravados em
+ * blocos por {@link TransacaoLoteService}, então a memória usada não depende do tamanho
+ * do arquivo. Todas as transações criadas ficam vinculadas ao RegistroImportacao e
+ * lançamentos que já existem no perfil são reportados como duplicados, sem gravação.
+ */
+@Service
+public class ImportacaoExtratoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportacaoExtratoService.class);
+
+    private static final int TAMANHO_BLOCO = 500;
+    private static final int MAXIMO_ERROS_REPORTADOS = 100;
+    private static final int TAMANHO_MAXIMO_DESCRICAO = 255;
+    private static final DateTimeFormatter FORMATO_PERIODO = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    @Autowired
+    private PerfilRepository perfilRepository;
+
+    @Autowired
+    private InstituicaoRepository instituicaoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private RegistroImportacaoRepository registroImportacaoRepository;
+
+    @Autowired
+    private TransacaoLoteService transacaoLoteService;
+
+    @Autowired
+    private DeduplicacaoTransacaoService deduplicacaoTransacaoService;
+
+    @Autowired
+    private CategorizacaoAutomaticaService categorizacaoAutomaticaService;
+
+    @Autowired
+    private SugestaoCategoriaService sugestaoCategoriaService;
+
+    /**
+     * Importa o extrato para o perfil e a instituição, que devem pertencer ao usuário. Um
+     * arquivo cuja importação falhou pode ser enviado de novo: a importação é retomada no
+     * mesmo registro a partir da primeira linha depois do último bloco gravado.
+     */
+    public ResultadoImportacaoDTO importar(MultipartFile arquivo, Long usuarioId, Long perfilId, Long instituicaoId,
+                                           Long categoriaId, Long subcategoriaId,
+                                           FormatoExtrato formato, Charset charset) throws IOException {
+        Perfil perfil = perfilRepository.findById(perfilId)
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Perfil", perfilId));
+        if (!perfil.getUsuario().getId().equals(usuarioId)) {
+            throw new NegocioException("O perfil informado não pertence ao usuário autenticado");
+        }
+        Instituicao instituicao = instituicaoRepository.findById(instituicaoId)
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Instituição", instituicaoId));
+        if (instituicao.getPerfil() == null || !instituicao.getPerfil().getId().equals(perfilId)) {
+            throw new NegocioException("A instituição informada não pertence ao perfil");
+        }
+        if (categoriaId != null && !categoriaRepository.existsById(categoriaId)) {
+            throw new RecursoNaoEncontradoException("Categoria", categoriaId);
+        }
+
+        String nomeArquivo = arquivo.getOriginalFilename();
+        if (nomeArquivo == null || nomeArquivo.isBlank()) {
+            throw new NegocioException("O nome do arquivo é obrigatório");
+        }
+        FormatoExtrato formatoArquivo = formato != null ? formato : FormatoExtrato.deNomeArquivo(nomeArquivo);
+
+        RegistroImportacao registro = iniciarRegistro(nomeArquivo, instituicao);
+        long retomarAposLinha = registro.getUltimaLinhaGravada() != null ? registro.getUltimaLinhaGravada() : 0;
+        long importadasAntes = registro.getLinhasImportadas() != null ? registro.getLinhasImportadas() : 0;
+
+        Importacao importacao = new Importacao(perfil, registro, instituicaoId, categoriaId, subcategoriaId,
+                categorizacaoAutomaticaService.obter(perfilId), sugestaoCategoriaService.obter(perfilId));
+        long inicio = System.nanoTime();
+
+        try (LeitorExtrato leitor = LeitorExtrato.abrir(formatoArquivo, arquivo.getInputStream(), charset)) {
+            LancamentoExtrato lancamento;
+            while ((lancamento = leitor.proximo()) != null) {
+                // Linhas de blocos gravados por uma tentativa anterior
+                if (lancamento.linha() <= retomarAposLinha) {
+                    continue;
+                }
+                importacao.adicionar(lancamento);
+            }
+            importacao.gravarBloco();
+        } catch (IOException | RuntimeException e) {
+            // Os blocos já gravados continuam gravados; o registro guarda até onde chegaram
+            registrarFalha(registro.getId(), System.nanoTime() - inicio);
+            log.warn("Importação do extrato {} interrompida; pode ser retomada enviando o arquivo de novo", nomeArquivo, e);
+            throw e;
+        }
+
+        long duracaoMs = Math.max(1, (System.nanoTime() - inicio) / 1_000_000);
+        long linhasPorSegundo = importacao.lidas * 1000 / duracaoMs;
+        log.info("Extrato {} importado: {} linha(s) lida(s), {} inserida(s), {} duplicada(s), {} rejeitada(s) em {} ms ({} linhas/s)",
+                nomeArquivo, importacao.lidas, importacao.inseridas, importacao.duplicadas, importacao.rejeitadas,
+                duracaoMs, linhasPorSegundo);
+
+        // O registro é lido de novo: a última linha gravada foi atualizada junto com cada bloco
+        registro = registroImportacaoRepository.findById(registro.getId()).orElseThrow();
+        if (importacao.dataInicial != null) {
+            registro.setPeriodo(importacao.dataInicial.format(FORMATO_PERIODO) + " a "
+                    + importacao.dataFinal.format(FORMATO_PERIODO));
+        } else if (importadasAntes == 0) {
+            registro.setPeriodo("Sem lançamentos");
+        }
+        registro.setLinhasImportadas(importadasAntes + importacao.inseridas);
+        registro.setLinhasRejeitadas(importacao.rejeitadas);
+        registro.setLinhasDuplicadas(importacao.duplicadas);
+        registro.setDuracaoMs(duracaoMs);
+        registro.setStatus(StatusImportacao.CONCLUIDA);
+        registroImportacaoRepository.save(registro);
+
+        return ResultadoImportacaoDTO.builder()
+                .registroImportacaoId(registro.getId())
+                .lidas(importacao.lidas)
+                .inseridas(importacao.inseridas)
+                .rejeitadas(importacao.rejeitadas)
+                .duplicadas(importacao.duplicadas)
+                .duracaoMs(duracaoMs)
+                .linhasPorSegundo(linhasPorSegundo)
+                .erros(importacao.erros)
+                .build();
+    }
+
+    /**
+     * Cria o registro da importação ou reabre o de uma importação do mesmo arquivo que
+     * falhou. Arquivos já importados por completo, ou em importação, são recusados.
+     */
+    private RegistroImportacao iniciarRegistro(String nomeArquivo, Instituicao instituicao) {
+        RegistroImportacao registro = registroImportacaoRepository.findFirstByNomeArquivoOrderByIdDesc(nomeArquivo)
+                .orElse(null);
+        if (registro != null && registro.getStatus() != StatusImportacao.FALHOU) {
+            throw new NegocioException(registro.getStatus() == StatusImportacao.EM_ANDAMENTO
+                    ? "Este arquivo já está sendo importado: " + nomeArquivo
+                    : "Este arquivo já foi importado: " + nomeArquivo);
+        }
+        if (registro == null) {
+            registro = new RegistroImportacao();
+            registro.setNomeArquivo(nomeArquivo);
+            registro.setBanco(instituicao.getNome());
+            registro.setPeriodo("Em importação");
+        }
+        registro.setDataExtracao(LocalDate.now());
+        registro.setStatus(StatusImportacao.EM_ANDAMENTO);
+        return registroImportacaoRepository.save(registro);
+    }
+
+    private void registrarFalha(Long registroId, long decorridoNanos) {
+        try {
+            registroImportacaoRepository.findById(registroId).ifPresent(registro -> {
+                registro.setStatus(StatusImportacao.FALHOU);
+                registro.setDuracaoMs(decorridoNanos / 1_000_000);
+                registroImportacaoRepository.save(registro);
+            });
+        } catch (RuntimeException e) {
+            log.error("Não foi possível marcar como falha a importação {}", registroId, e);
+        }
+    }
+
+    // Estado de uma importação em andamento: o bloco atual e os totais acumulados
+    private class Importacao {
+        private final Perfil perfil;
+        private final RegistroImportacao registro;
+        private final Long instituicaoId;
+        private final Long categoriaId;
+        private final Long subcategoriaId;
+        // Mesmas regras do início ao fim do arquivo, mesmo que sejam alteradas durante a importação
+        private final ClassificadorTransacoes classificador;
+        private final ModeloSugestaoCategoria modeloSugestao;
+
+        private final List<TransacaoDTO> bloco = new ArrayList<>(TAMANHO_BLOCO);
+        private final List<Long> linhasDoBloco = new ArrayList<>(TAMANHO_BLOCO);
+        private final List<String> hashesDoBloco = new ArrayList<>(TAMANHO_BLOCO);
+        // Transações anteriores à importação ainda não pareadas com uma linha do arquivo, por hash.
+        // Só contém hashes que o filtro de Bloom não descartou
+        private final Map<String, Long> existentes = new HashMap<>();
+        private final List<ResultadoLinha> erros = new ArrayList<>();
+        private long lidas;
+        private long inseridas;
+        private long rejeitadas;
+        private long duplicadas;
+        private LocalDate dataInicial;
+        private LocalDate dataFinal;
+
+        private Importacao(Perfil perfil, RegistroImportacao registro, Long instituicaoId,
+                           Long categoriaId, Long subcategoriaId, ClassificadorTransacoes classificador,
+                           ModeloSugestaoCategoria modeloSugestao) {
+            this.perfil = perfil;
+            this.registro = registro;
+            this.instituicaoId = instituicaoId;
+            this.categoriaId = categoriaId;
+            this.subcategoriaId = subcategoriaId;
+            this.classificador = classificador;
+            this.modeloSugestao = modeloSugestao;
+        }
+
+        private void adicionar(LancamentoExtrato lancamento) {
+            lidas++;
+            if (!lancamento.isValido()) {
+                rejeitar(lancamento.linha(), lancamento.erro());
+                return;
+            }
+            if (lancamento.centavos() == 0) {
+                rejeitar(lancamento.linha(), "Lançamento com valor zero");
+                return;
+            }
+
+            TransacaoDTO dto = new TransacaoDTO();
+            dto.setData(lancamento.data());
+            String descricao = lancamento.descricao();
+            dto.setDescricao(descricao != null && descricao.length() > TAMANHO_MAXIMO_DESCRICAO
+                    ? descricao.substring(0, TAMANHO_MAXIMO_DESCRICAO) : descricao);
+            dto.setValor(lancamento.valorAbsoluto());
+            dto.setTipo(lancamento.centavos() > 0 ? "Receita" : "Despesa");
+            dto.setInstituicaoId(instituicaoId);
+            // Precedência: regra do perfil, sugestão confiável do modelo aprendido e só então a
+            // categoria informada na importação
+            if (!categorizacaoAutomaticaService.categorizar(dto, classificador)
+                    && !sugestaoCategoriaService.categorizar(dto, modeloSugestao)) {
+                if (categoriaId == null) {
+                    rejeitar(lancamento.linha(), "Nenhuma regra de categorização se aplica e não foi informada categoria padrão");
+                    return;
+                }
+                dto.setCategoriaId(categoriaId);
+                dto.setSubcategoriaId(subcategoriaId);
+            }
+            bloco.add(dto);
+            linhasDoBloco.add(lancamento.linha());
+            hashesDoBloco.add(HashConteudoTransacao.calcular(perfil.getId(), instituicaoId, dto.getData(),
+                    dto.getValor(), dto.getTipo(), dto.getDescricao()));
+
+            if (bloco.size() == TAMANHO_BLOCO) {
+                gravarBloco();
+            }
+        }
+
+        private void gravarBloco() {
+            if (bloco.isEmpty()) {
+                return;
+            }
+            removerDuplicadas();
+            if (bloco.isEmpty()) {
+                return;
+            }
+            List<ResultadoLinha> resultado = transacaoLoteService.gravarBloco(perfil, bloco, 0, registro,
+                    linhasDoBloco.getLast());
+            for (ResultadoLinha linha : resultado) {
+                if (linha.getId() != null) {
+                    inseridas++;
+                    LocalDate data = bloco.get(linha.getIndice()).getData();
+                    dataInicial = dataInicial == null || data.isBefore(dataInicial) ? data : dataInicial;
+                    dataFinal = dataFinal == null || data.isAfter(dataFinal) ? data : dataFinal;
+                } else {
+                    rejeitar(linhasDoBloco.get(linha.getIndice()), linha.getErro());
+                }
+            }
+            bloco.clear();
+            linhasDoBloco.clear();
+            hashesDoBloco.clear();
+        }
+
+        /**
+         * Retira do bloco as linhas que já existem no perfil. Se o perfil tem k transações
+         * com o mesmo conteúdo, as k primeiras ocorrências no arquivo são duplicadas e as
+         * seguintes são lançamentos novos (compras iguais no mesmo dia, por exemplo).
+         */
+        private void removerDuplicadas() {
+            Set<String> consultar = new LinkedHashSet<>();
+            for (String hash : hashesDoBloco) {
+                if (!existentes.containsKey(hash) && deduplicacaoTransacaoService.podeExistir(perfil.getId(), hash)) {
+                    consultar.add(hash);
+                }
+            }
+            if (!consultar.isEmpty()) {
+                Map<String, Long> contagens = deduplicacaoTransacaoService.contarExistentes(perfil.getId(),
+                        consultar, registro.getId());
+                for (String hash : consultar) {
+                    existentes.put(hash, contagens.getOrDefault(hash, 0L));
+                }
+            }
+
+            int mantidas = 0;
+            for (int i = 0; i < bloco.size(); i++) {
+                String hash = hashesDoBloco.get(i);
+                Long restantes = existentes.get(hash);
+                if (restantes != null && restantes > 0) {
+                    existentes.put(hash, restantes - 1);
+                    duplicadas++;
+                    reportar(linhasDoBloco.get(i), "Lançamento já existente no perfil");
+                    continue;
+                }
+                bloco.set(mantidas, bloco.get(i));
+                linhasDoBloco.set(mantidas, linhasDoBloco.get(i));
+                hashesDoBloco.set(mantidas, hash);
+                mantidas++;
+            }
+            bloco.subList(mantidas, bloco.size()).clear();
+            linhasDoBloco.subList(mantidas, linhasDoBloco.size()).clear();
+            hashesDoBloco.subList(mantidas, hashesDoBloco.size()).clear();
+        }
+
+        private void rejeitar(long linha, String erro) {
+            rejeitadas++;
+            reportar(linha, erro);
+        }
+
+        private void reportar(long linha, String erro) {
+            if (erros.size() < MAXIMO_ERROS_REPORTADOS) {
+                erros.add(new ResultadoLinha((int) linha, null, erro));
+            }
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package com.financeiro.service;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.financeiro.dto.InstituicaoDTO;
 import com.financeiro.entity.Instituicao;
@@ -12,6 +15,9 @@ import com.financeiro.entity.Perfil;
 import com.financeiro.repository.InstituicaoRepository;
 import com.financeiro.repository.PerfilRepository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
 @Service
 public class InstituicaoService {
 
@@ -21,6 +27,12 @@ public class InstituicaoService {
     @Autowired
     private PerfilRepository perfilRepository;
     
+    @Autowired
+    private DadosReferenciaCache dadosReferencia;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     public List<InstituicaoDTO> listarTodas() {
         return instituicaoRepository.findAll().stream()
                 .map(this::converterParaDTO)
@@ -73,6 +85,7 @@ public class InstituicaoService {
         return converterParaDTO(instituicao);
     }
     
+    @Transactional
     public InstituicaoDTO atualizar(Long id, InstituicaoDTO dto) {
         Instituicao instituicao = instituicaoRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Instituição não encontrada"));
@@ -86,25 +99,33 @@ public class InstituicaoService {
         instituicao.setTipo(dto.getTipo());
         
         // Se o saldo inicial for alterado, ajustar o saldo atual proporcionalmente
-        if (!instituicao.getSaldoInicial().equals(dto.getSaldoInicial())) {
-            // Calcula a diferença entre o novo saldo inicial e o antigo
-            var diferenca = dto.getSaldoInicial().subtract(instituicao.getSaldoInicial());
-            // Adiciona a diferença ao saldo atual
-            instituicao.setSaldoAtual(instituicao.getSaldoAtual().add(diferenca));
-            instituicao.setSaldoInicial(dto.getSaldoInicial());
-        }
+        var diferenca = dto.getSaldoInicial().subtract(instituicao.getSaldoInicial());
+        instituicao.setSaldoInicial(dto.getSaldoInicial());
         
         instituicao = instituicaoRepository.save(instituicao);
+        dadosReferencia.invalidarInstituicao(id);
+        
+        if (diferenca.signum() != 0) {
+            // Adiciona a diferença ao saldo atual no banco, sem sobrescrever lançamentos concorrentes
+            ajustarSaldo(id, diferenca);
+        }
         
         return converterParaDTO(instituicao);
     }
     
-    public void atualizarSaldo(Long id, java.math.BigDecimal novoSaldo) {
-        Instituicao instituicao = instituicaoRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Instituição não encontrada"));
+    @Transactional
+    public void ajustarSaldo(Long id, BigDecimal delta) {
+        if (instituicaoRepository.ajustarSaldo(id, delta) == 0) {
+            throw new RuntimeException("Instituição não encontrada");
+        }
         
-        instituicao.setSaldoAtual(novoSaldo);
-        instituicaoRepository.save(instituicao);
+        // O UPDATE em massa não passa pelo contexto de persistência: a instância já carregada
+        // nesta transação recebe o mesmo delta para não ficar com o saldo antigo. Como saldoAtual
+        // não é updatable, a alteração não gera outro UPDATE no flush
+        Instituicao carregada = entityManager.getReference(Instituicao.class, id);
+        if (Hibernate.isInitialized(carregada)) {
+            carregada.setSaldoAtual(carregada.getSaldoAtual().add(delta));
+        }
     }
     
     public void excluir(Long id) {
@@ -113,6 +134,7 @@ public class InstituicaoService {
         }
         
         instituicaoRepository.deleteById(id);
+        dadosReferencia.invalidarInstituicao(id);
     }
     
     private InstituicaoDTO converterParaDTO(Instituicao instituicao) {
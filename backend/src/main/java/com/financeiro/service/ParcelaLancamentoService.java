@@ -0,0 +1,203 @@
+package com.financeiro.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.financeiro.dto.ParcelaPendenteView;
+import com.financeiro.entity.PlanoParcelamento;
+import com.financeiro.entity.Transacao;
+import com.financeiro.repository.PlanoParcelamentoRepository;
+import com.financeiro.repository.TransacaoRepository;
+import com.financeiro.service.SaldoDiarioService.Dia;
+
+/**
+ * Lança no saldo das instituições as parcelas que venceram: primeiro as parcelas ainda
+ * virtuais dos planos de parcelamento, depois as linhas pendentes. Ambas são percorridas
+ * por cursor em blocos; cada bloco grava ou marca as parcelas e aplica um único delta por
+ * instituição na mesma transação, de modo que uma execução interrompida pode ser repetida.
+ * Uma alteração concorrente afeta só o bloco ou as linhas em que ocorreu.
+ */
+@Service
+public class ParcelaLancamentoService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ParcelaLancamentoService.class);
+    
+    private static final int TAMANHO_BLOCO = 1000;
+    private static final int TAMANHO_BLOCO_PLANOS = 200;
+    private static final int TENTATIVAS = 3;
+    private static final LocalDate DATA_INICIAL = LocalDate.of(1900, 1, 1);
+    
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+    
+    @Autowired
+    private PlanoParcelamentoRepository planoParcelamentoRepository;
+    
+    @Autowired
+    private PlanoParcelamentoService planoParcelamentoService;
+    
+    @Autowired
+    private InstituicaoService instituicaoService;
+    
+    @Autowired
+    private SaldoDiarioService saldoDiarioService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Scheduled(cron = "${app.parcelas.cron:0 0 2 * * *}")
+    public void lancarParcelasAgendado() {
+        int lancadas = lancarParcelasVencidas(LocalDate.now());
+        log.info("Lançamento de parcelas vencidas concluído: {} parcela(s) lançada(s)", lancadas);
+    }
+    
+    public int lancarParcelasVencidas(LocalDate hoje) {
+        return lancarParcelasDosPlanos(hoje) + lancarParcelasPendentes(hoje);
+    }
+    
+    /**
+     * Grava e lança as parcelas vencidas que ainda são virtuais nos planos de parcelamento.
+     * Cada bloco de planos avança a próxima parcela de cada plano na mesma transação em
+     * que grava as parcelas; o controle de versão do plano impede lançamento duplo. Um
+     * bloco desfeito por alteração concorrente de um dos planos é lido e lançado de novo,
+     * já com a alteração; só depois de {@code TENTATIVAS} conflitos seguidos ele fica para
+     * a próxima execução e o lançamento segue com os blocos seguintes.
+     */
+    private int lancarParcelasDosPlanos(LocalDate hoje) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        LocalDate dataCursor = DATA_INICIAL;
+        Long idCursor = 0L;
+        int total = 0;
+        int conflitos = 0;
+        
+        while (true) {
+            LocalDate dataAtual = dataCursor;
+            Long idAtual = idCursor;
+            // Posição lida antes das escritas, para pular o bloco se os conflitos persistirem
+            AtomicReference<BlocoPlanos> lido = new AtomicReference<>();
+            BlocoPlanos bloco;
+            try {
+                bloco = transactionTemplate.execute(status -> {
+                    List<PlanoParcelamento> planos = planoParcelamentoRepository.buscarComParcelaVencida(
+                            hoje, dataAtual, idAtual, Limit.of(TAMANHO_BLOCO_PLANOS));
+                    if (planos.isEmpty()) {
+                        return null;
+                    }
+                    PlanoParcelamento ultimo = planos.get(planos.size() - 1);
+                    BlocoPlanos resultado = new BlocoPlanos(planos.size(), ultimo.getDataProximaParcela(), ultimo.getId());
+                    lido.set(resultado);
+                    
+                    List<Transacao> lancadas = new ArrayList<>();
+                    planoParcelamentoService.lancarParcelasVencidas(planos, hoje, lancadas)
+                            .forEach(instituicaoService::ajustarSaldo);
+                    saldoDiarioService.registrarLote(lancadas);
+                    resultado.lancadas = lancadas.size();
+                    return resultado;
+                });
+                conflitos = 0;
+            } catch (OptimisticLockingFailureException e) {
+                if (++conflitos < TENTATIVAS) {
+                    log.debug("Bloco de planos alterado por outra operação; nova tentativa {}", conflitos + 1);
+                    continue;
+                }
+                log.warn("Bloco de {} plano(s) a partir de ({}, {}) alterado por outra operação em {} tentativas; "
+                        + "fica para a próxima execução", lido.get().tamanho, dataAtual, idAtual, TENTATIVAS, e);
+                bloco = lido.get();
+                conflitos = 0;
+            }
+            
+            if (bloco == null) {
+                break;
+            }
+            total += bloco.lancadas;
+            dataCursor = bloco.dataCursor;
+            idCursor = bloco.idCursor;
+            if (bloco.tamanho < TAMANHO_BLOCO_PLANOS) {
+                break;
+            }
+        }
+        
+        return total;
+    }
+    
+    /**
+     * Linhas de parcelas já gravadas e ainda não lançadas (parcelas editadas e parcelamentos
+     * antigos). Cada bloco relê as linhas com bloqueio antes de marcá-las e lança só as que
+     * continuam pendentes, com os valores atuais; as que outra operação lançou, excluiu ou
+     * adiou no intervalo ficam de fora sem desfazer o resto do bloco.
+     */
+    private int lancarParcelasPendentes(LocalDate hoje) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        LocalDate dataCursor = DATA_INICIAL;
+        Long idCursor = 0L;
+        int total = 0;
+        
+        while (true) {
+            List<ParcelaPendenteView> bloco = transacaoRepository.buscarParcelasPendentes(
+                    hoje, dataCursor, idCursor, Limit.of(TAMANHO_BLOCO));
+            if (bloco.isEmpty()) {
+                break;
+            }
+            
+            Integer lancadas = transactionTemplate.execute(status -> {
+                List<ParcelaPendenteView> pendentes = transacaoRepository.bloquearParcelasPendentes(
+                        bloco.stream().map(ParcelaPendenteView::id).toList(), hoje);
+                if (pendentes.isEmpty()) {
+                    return 0;
+                }
+                transacaoRepository.marcarComoLancadas(pendentes.stream().map(ParcelaPendenteView::id).toList());
+                
+                // Em ordem de id: os saldos são bloqueados sempre na mesma ordem
+                Map<Long, BigDecimal> deltasPorInstituicao = new TreeMap<>();
+                Map<Dia, BigDecimal> deltasPorDia = new HashMap<>();
+                for (ParcelaPendenteView parcela : pendentes) {
+                    BigDecimal delta = "Receita".equals(parcela.tipo()) ? parcela.valor() : parcela.valor().negate();
+                    deltasPorInstituicao.merge(parcela.instituicaoId(), delta, BigDecimal::add);
+                    deltasPorDia.merge(new Dia(parcela.instituicaoId(), parcela.data()), delta, BigDecimal::add);
+                }
+                deltasPorInstituicao.forEach(instituicaoService::ajustarSaldo);
+                saldoDiarioService.acumular(deltasPorDia);
+                return pendentes.size();
+            });
+            total += lancadas;
+            
+            ParcelaPendenteView ultima = bloco.get(bloco.size() - 1);
+            dataCursor = ultima.data();
+            idCursor = ultima.id();
+            if (bloco.size() < TAMANHO_BLOCO) {
+                break;
+            }
+        }
+        
+        return total;
+    }
+    
+    private static class BlocoPlanos {
+        private final int tamanho;
+        private final LocalDate dataCursor;
+        private final Long idCursor;
+        private int lancadas;
+        
+        private BlocoPlanos(int tamanho, LocalDate dataCursor, Long idCursor) {
+            this.tamanho = tamanho;
+            this.dataCursor = dataCursor;
+            this.idCursor = idCursor;
+        }
+    }
+}
@@ -31,6 +31,9 @@ public class PerfilService {
     @Autowired
     private InstituicaoRepository instituicaoRepository;
     
+    @Autowired
+    private DadosReferenciaCache dadosReferencia;
+    
     public List<PerfilDTO> listarPorUsuario(Long usuarioId) {
         return perfilRepository.findByUsuarioId(usuarioId).stream()
                 .map(this::converterParaDTO)
@@ -57,6 +60,7 @@ public class PerfilService {
         Perfil perfil = converterParaEntidade(perfilDTO);
         perfil.setId(id);
         perfil = perfilRepository.save(perfil);
+        dadosReferencia.invalidarPerfil(id);
         return converterParaDTO(perfil);
     }
     
@@ -65,6 +69,7 @@ public class PerfilService {
             throw new RuntimeException("Perfil não encontrado");
         }
         perfilRepository.deleteById(id);
+        dadosReferencia.invalidarPerfil(id);
     }
     
     private PerfilDTO converterParaDTO(Perfil perfil) {
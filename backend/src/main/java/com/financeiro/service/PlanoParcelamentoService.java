@@ -0,0 +1,390 @@
+package com.financeiro.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.financeiro.dto.FiltroTransacaoDTO;
+import com.financeiro.dto.ParcelaMaterializadaView;
+import com.financeiro.dto.SomaCategoriaView;
+import com.financeiro.dto.TransacaoView;
+import com.financeiro.entity.PlanoParcelamento;
+import com.financeiro.entity.Transacao;
+import com.financeiro.exception.NegocioException;
+import com.financeiro.exception.RecursoNaoEncontradoException;
+import com.financeiro.repository.PlanoParcelamentoRepository;
+import com.financeiro.repository.PlanoParcelamentoSpecifications;
+import com.financeiro.repository.TransacaoRepository;
+import com.financeiro.util.CursorTransacao;
+
+/**
+ * Gera as parcelas virtuais dos planos de parcelamento: as que ainda não foram lançadas,
+ * editadas ou excluídas e por isso não existem como linhas em transacoes.
+ */
+@Service
+public class PlanoParcelamentoService {
+
+    // Planos lidos por consulta na listagem; o mesmo tamanho do @BatchSize das parcelas excluídas
+    private static final int LOTE_PLANOS = 100;
+
+    @Autowired
+    private PlanoParcelamentoRepository planoParcelamentoRepository;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    /**
+     * Monta a parcela informada do plano como uma transação ainda não persistida e não
+     * lançada no saldo, com os mesmos dados que o parcelamento gravava antes linha a linha.
+     */
+    public Transacao gerarParcela(PlanoParcelamento plano, int numero) {
+        Transacao transacao = new Transacao();
+        transacao.setData(plano.dataParcela(numero));
+        transacao.setDescricao(plano.getDescricao() + " (" + numero + "/" + plano.getTotalParcelas() + ")");
+        transacao.setValor(plano.getValorParcela());
+        transacao.setTipo(plano.getTipo());
+        transacao.setCategoria(plano.getCategoria());
+        transacao.setSubcategoria(plano.getSubcategoria());
+        transacao.setInstituicao(plano.getInstituicao());
+        transacao.setUsuario(plano.getUsuario());
+        transacao.setPerfil(plano.getPerfil());
+        transacao.setParcelaAtual(numero);
+        transacao.setTotalParcelas(plano.getTotalParcelas());
+        transacao.setGrupoParcelamento(plano.getGrupoParcelamento());
+        transacao.setEhParcelada(true);
+        transacao.setLancada(false);
+        return transacao;
+    }
+
+    /**
+     * Parcelas virtuais do plano com vencimento no período. As parcelas em
+     * {@code materializadas} já existem em transacoes e são ignoradas.
+     */
+    public List<Transacao> parcelasVirtuais(PlanoParcelamento plano, Set<Integer> materializadas,
+                                            LocalDate dataInicio, LocalDate dataFim) {
+        List<Transacao> parcelas = new ArrayList<>();
+        for (int numero = plano.getProximaParcela(); numero <= plano.getTotalParcelas(); numero++) {
+            LocalDate data = plano.dataParcela(numero);
+            if (data.isAfter(dataFim)) {
+                break;
+            }
+            if (!data.isBefore(dataInicio) && !materializadas.contains(numero)
+                    && !plano.getParcelasExcluidas().contains(numero)) {
+                parcelas.add(gerarParcela(plano, numero));
+            }
+        }
+        return parcelas;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Transacao> listarParcelasVirtuais(Long usuarioId, Long perfilId, LocalDate dataInicio, LocalDate dataFim) {
+        List<PlanoParcelamento> planos = perfilId != null
+                ? planoParcelamentoRepository.buscarAbertosPorPerfilEPeriodo(perfilId, dataInicio, dataFim)
+                : planoParcelamentoRepository.buscarAbertosPorUsuarioEPeriodo(usuarioId, dataInicio, dataFim);
+        return expandir(planos, dataInicio, dataFim);
+    }
+
+    /**
+     * Parcelas virtuais que atendem ao filtro da listagem de transações, na ordem da
+     * listagem e a partir do cursor, limitadas a {@code limite} itens. São mescladas
+     * pela listagem e pela exportação com as transações gravadas.
+     *
+     * Os planos vêm em lotes, da última parcela mais recente para a mais antiga, e cada um
+     * contribui com no máximo {@code limite} parcelas, contadas para trás a partir da
+     * última que vence até o cursor. A busca para quando as parcelas já escolhidas vêm
+     * todas antes da última parcela do próximo plano, que não teria mais nada a acrescentar.
+     */
+    @Transactional(readOnly = true)
+    public List<TransacaoView> listarVisoesVirtuais(FiltroTransacaoDTO filtro, CursorTransacao cursor, int limite) {
+        LocalDate dataInicio = filtro.getDataInicio() != null ? filtro.getDataInicio() : LocalDate.MIN;
+        LocalDate dataFim = filtro.getDataFim() != null && filtro.getDataFim().isBefore(cursor.data())
+                ? filtro.getDataFim() : cursor.data();
+        if (dataFim.isBefore(dataInicio) || limite <= 0) {
+            return List.of();
+        }
+
+        // Em ordem inversa à da listagem: a primeira da fila é a que sai quando passar do limite
+        PriorityQueue<TransacaoView> escolhidas = new PriorityQueue<>(
+                Comparator.comparing(CursorTransacao::de, CursorTransacao.ORDEM).reversed());
+        Specification<PlanoParcelamento> especificacao = PlanoParcelamentoSpecifications.comFiltro(filtro, dataFim);
+        PlanoParcelamento ultimoPlano = null;
+        while (true) {
+            List<PlanoParcelamento> planos = planoParcelamentoRepository.buscarPorUltimaParcela(
+                    especificacao.and(PlanoParcelamentoSpecifications.depoisDe(ultimoPlano)), LOTE_PLANOS);
+            Map<String, Set<Integer>> materializadas = carregarMaterializadas(planos);
+
+            for (PlanoParcelamento plano : planos) {
+                LocalDate ultimaData = plano.getDataUltimaParcela().isBefore(dataFim) ? plano.getDataUltimaParcela() : dataFim;
+                if (escolhidas.size() == limite && ultimaData.isBefore(escolhidas.peek().data())) {
+                    return ordenar(escolhidas);
+                }
+                for (Transacao parcela : parcelasAnteriores(plano,
+                        materializadas.getOrDefault(plano.getGrupoParcelamento(), Set.of()), cursor, dataInicio, dataFim, limite)) {
+                    escolhidas.add(converterParaVisao(parcela));
+                    if (escolhidas.size() > limite) {
+                        escolhidas.poll();
+                    }
+                }
+            }
+
+            if (planos.size() < LOTE_PLANOS) {
+                return ordenar(escolhidas);
+            }
+            ultimoPlano = planos.get(planos.size() - 1);
+        }
+    }
+
+    /**
+     * Parcelas virtuais dos planos do perfil em ordem crescente de (data, grupo), geradas à
+     * medida que são consumidas: em memória fica só a próxima parcela de cada plano. Deve
+     * ser consumido dentro de uma transação, que carrega as parcelas excluídas dos planos.
+     */
+    public Iterator<TransacaoView> iterarVisoesVirtuais(Long perfilId) {
+        List<PlanoParcelamento> planos = planoParcelamentoRepository.findByPerfilIdAndDataProximaParcelaIsNotNull(perfilId);
+        Map<String, Set<Integer>> materializadas = carregarMaterializadas(planos);
+
+        PriorityQueue<ParcelasDoPlano> fila = new PriorityQueue<>(Comparator.comparing(ParcelasDoPlano::data)
+                .thenComparing(parcelas -> parcelas.plano.getGrupoParcelamento()));
+        for (PlanoParcelamento plano : planos) {
+            ParcelasDoPlano parcelas = new ParcelasDoPlano(plano,
+                    materializadas.getOrDefault(plano.getGrupoParcelamento(), Set.of()));
+            if (parcelas.avancar()) {
+                fila.add(parcelas);
+            }
+        }
+
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !fila.isEmpty();
+            }
+
+            @Override
+            public TransacaoView next() {
+                ParcelasDoPlano parcelas = fila.poll();
+                if (parcelas == null) {
+                    throw new NoSuchElementException();
+                }
+                TransacaoView visao = converterParaVisao(gerarParcela(parcelas.plano, parcelas.numero));
+                if (parcelas.avancar()) {
+                    fila.add(parcelas);
+                }
+                return visao;
+            }
+        };
+    }
+
+    /**
+     * Soma das parcelas virtuais do período por tipo, categoria e subcategoria, no mesmo
+     * formato das somas feitas sobre a tabela de transações.
+     */
+    @Transactional(readOnly = true)
+    public List<SomaCategoriaView> somarParcelasVirtuais(Long usuarioId, Long perfilId, LocalDate dataInicio, LocalDate dataFim) {
+        Map<List<Object>, SomaCategoriaView> somas = new LinkedHashMap<>();
+        for (Transacao parcela : listarParcelasVirtuais(usuarioId, perfilId, dataInicio, dataFim)) {
+            Long subcategoriaId = parcela.getSubcategoria() != null ? parcela.getSubcategoria().getId() : null;
+            somas.merge(Arrays.asList(parcela.getTipo(), parcela.getCategoria().getId(), subcategoriaId),
+                    new SomaCategoriaView(parcela.getTipo(), parcela.getCategoria().getId(), parcela.getCategoria().getNome(),
+                            subcategoriaId, parcela.getSubcategoria() != null ? parcela.getSubcategoria().getNome() : null,
+                            parcela.getValor()),
+                    (atual, nova) -> new SomaCategoriaView(atual.tipo(), atual.categoriaId(), atual.categoriaNome(),
+                            atual.subcategoriaId(), atual.subcategoriaNome(), atual.valor().add(nova.valor())));
+        }
+        return new ArrayList<>(somas.values());
+    }
+
+    // Usado na reconstrução do resumo mensal
+    @Transactional(readOnly = true)
+    public List<Transacao> listarTodasParcelasVirtuais() {
+        return expandir(planoParcelamentoRepository.findByDataProximaParcelaIsNotNull(), LocalDate.MIN, LocalDate.MAX);
+    }
+
+    /**
+     * Devolve a linha da parcela, gravando-a a partir do plano se ainda for virtual. A
+     * parcela gravada fica pendente (lancada = false) e já está contabilizada no resumo
+     * mensal, então nem o saldo nem o resumo mudam aqui.
+     */
+    @Transactional
+    public Transacao materializar(String grupoParcelamento, Integer numero) {
+        Optional<Transacao> existente = transacaoRepository.findByGrupoParcelamentoAndParcelaAtual(grupoParcelamento, numero);
+        if (existente.isPresent()) {
+            return existente.get();
+        }
+
+        PlanoParcelamento plano = planoParcelamentoRepository.findByGrupoParcelamento(grupoParcelamento)
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Parcelamento não encontrado: " + grupoParcelamento));
+        if (numero < plano.getProximaParcela() || numero > plano.getTotalParcelas()
+                || plano.getParcelasExcluidas().contains(numero)) {
+            throw new NegocioException("A parcela " + numero + " não existe neste parcelamento");
+        }
+
+        return transacaoRepository.save(gerarParcela(plano, numero));
+    }
+
+    // Impede que uma parcela excluída volte a ser gerada pelo plano
+    @Transactional
+    public void registrarExclusao(Transacao transacao) {
+        if (transacao.getGrupoParcelamento() == null) {
+            return;
+        }
+        planoParcelamentoRepository.findByGrupoParcelamento(transacao.getGrupoParcelamento())
+                .ifPresent(plano -> plano.getParcelasExcluidas().add(transacao.getParcelaAtual()));
+    }
+
+    /**
+     * Grava como linhas já lançadas todas as parcelas vencidas dos planos, avançando a
+     * próxima parcela de cada um. Devolve o delta de saldo por instituição a aplicar.
+     */
+    public Map<Long, BigDecimal> lancarParcelasVencidas(List<PlanoParcelamento> planos, LocalDate hoje, List<Transacao> lancadas) {
+        Map<String, Set<Integer>> materializadas = carregarMaterializadas(planos);
+        // Em ordem de id: os saldos são bloqueados sempre na mesma ordem
+        Map<Long, BigDecimal> deltasPorInstituicao = new TreeMap<>();
+
+        for (PlanoParcelamento plano : planos) {
+            Set<Integer> jaGravadas = materializadas.getOrDefault(plano.getGrupoParcelamento(), Set.of());
+            int numero = plano.getProximaParcela();
+            while (numero <= plano.getTotalParcelas() && !plano.dataParcela(numero).isAfter(hoje)) {
+                // Parcelas editadas já são linhas pendentes e seguem o lançamento das linhas
+                if (!jaGravadas.contains(numero) && !plano.getParcelasExcluidas().contains(numero)) {
+                    Transacao parcela = gerarParcela(plano, numero);
+                    parcela.setLancada(true);
+                    lancadas.add(parcela);
+                    deltasPorInstituicao.merge(plano.getInstituicao().getId(),
+                            "Receita".equals(plano.getTipo()) ? plano.getValorParcela() : plano.getValorParcela().negate(),
+                            BigDecimal::add);
+                }
+                numero++;
+            }
+
+            plano.setProximaParcela(numero);
+            plano.setDataProximaParcela(numero <= plano.getTotalParcelas() ? plano.dataParcela(numero) : null);
+        }
+
+        transacaoRepository.saveAll(lancadas);
+        return deltasPorInstituicao;
+    }
+
+    /**
+     * Até {@code limite} parcelas virtuais do plano posteriores ao cursor na ordem da
+     * listagem, da mais recente para a mais antiga, começando pela última que vence até
+     * {@code dataFim}.
+     */
+    private List<Transacao> parcelasAnteriores(PlanoParcelamento plano, Set<Integer> materializadas, CursorTransacao cursor,
+                                               LocalDate dataInicio, LocalDate dataFim, int limite) {
+        // Estimativa pela diferença em meses, acertada porque plusMonths ajusta o fim do mês
+        long meses = ChronoUnit.MONTHS.between(plano.getDataInicio(), dataFim);
+        int numero = (int) Math.min(plano.getTotalParcelas(), meses + 1);
+        while (numero >= plano.getProximaParcela() && plano.dataParcela(numero).isAfter(dataFim)) {
+            numero--;
+        }
+        while (numero < plano.getTotalParcelas() && !plano.dataParcela(numero + 1).isAfter(dataFim)) {
+            numero++;
+        }
+
+        List<Transacao> parcelas = new ArrayList<>();
+        for (; numero >= plano.getProximaParcela() && parcelas.size() < limite; numero--) {
+            if (plano.dataParcela(numero).isBefore(dataInicio)) {
+                break;
+            }
+            if (materializadas.contains(numero) || plano.getParcelasExcluidas().contains(numero)) {
+                continue;
+            }
+            Transacao parcela = gerarParcela(plano, numero);
+            if (cursor.antecede(converterParaVisao(parcela))) {
+                parcelas.add(parcela);
+            }
+        }
+        return parcelas;
+    }
+
+    private static List<TransacaoView> ordenar(PriorityQueue<TransacaoView> escolhidas) {
+        List<TransacaoView> visoes = new ArrayList<>(escolhidas);
+        visoes.sort(Comparator.comparing(CursorTransacao::de, CursorTransacao.ORDEM));
+        return visoes;
+    }
+
+    private List<Transacao> expandir(List<PlanoParcelamento> planos, LocalDate dataInicio, LocalDate dataFim) {
+        if (planos.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Set<Integer>> materializadas = carregarMaterializadas(planos);
+        List<Transacao> parcelas = new ArrayList<>();
+        for (PlanoParcelamento plano : planos) {
+            parcelas.addAll(parcelasVirtuais(plano,
+                    materializadas.getOrDefault(plano.getGrupoParcelamento(), Set.of()), dataInicio, dataFim));
+        }
+        parcelas.sort(Comparator.comparing(Transacao::getData).thenComparing(Transacao::getGrupoParcelamento));
+        return parcelas;
+    }
+
+    // As referências do plano vêm carregadas pelo grafo PlanoParcelamento.referencias
+    private TransacaoView converterParaVisao(Transacao parcela) {
+        return new TransacaoView(null, parcela.getData(), parcela.getDescricao(), parcela.getValor(), parcela.getTipo(),
+                parcela.getCategoria().getId(), parcela.getCategoria().getNome(),
+                parcela.getSubcategoria() != null ? parcela.getSubcategoria().getId() : null,
+                parcela.getSubcategoria() != null ? parcela.getSubcategoria().getNome() : null,
+                parcela.getInstituicao().getId(), parcela.getInstituicao().getNome(),
+                parcela.getPerfil().getId(), parcela.getPerfil().getNome(),
+                false, null, null, null,
+                parcela.getParcelaAtual(), parcela.getTotalParcelas(), parcela.getGrupoParcelamento(), true);
+    }
+
+    // Posição de um plano na geração das parcelas virtuais em ordem crescente
+    private static final class ParcelasDoPlano {
+
+        private final PlanoParcelamento plano;
+        private final Set<Integer> materializadas;
+        private int numero;
+
+        ParcelasDoPlano(PlanoParcelamento plano, Set<Integer> materializadas) {
+            this.plano = plano;
+            this.materializadas = materializadas;
+            this.numero = plano.getProximaParcela() - 1;
+        }
+
+        // Vai para a próxima parcela ainda virtual; falso quando o plano acabou
+        boolean avancar() {
+            do {
+                numero++;
+            } while (numero <= plano.getTotalParcelas()
+                    && (materializadas.contains(numero) || plano.getParcelasExcluidas().contains(numero)));
+            return numero <= plano.getTotalParcelas();
+        }
+
+        LocalDate data() {
+            return plano.dataParcela(numero);
+        }
+    }
+
+    private Map<String, Set<Integer>> carregarMaterializadas(List<PlanoParcelamento> planos) {
+        Map<String, Set<Integer>> materializadas = new HashMap<>();
+        if (planos.isEmpty()) {
+            return materializadas;
+        }
+        List<String> grupos = planos.stream().map(PlanoParcelamento::getGrupoParcelamento).toList();
+        for (ParcelaMaterializadaView parcela : transacaoRepository.buscarParcelasMaterializadas(grupos)) {
+            materializadas.computeIfAbsent(parcela.grupoParcelamento(), grupo -> new HashSet<>()).add(parcela.parcelaAtual());
+        }
+        return materializadas;
+    }
+}
@@ -91,6 +91,12 @@ public class RegistroImportacaoService {
         dto.setBanco(registro.getBanco());
         dto.setPeriodo(registro.getPeriodo());
         dto.setNomeArquivo(registro.getNomeArquivo());
+        dto.setLinhasImportadas(registro.getLinhasImportadas());
+        dto.setLinhasRejeitadas(registro.getLinhasRejeitadas());
+        dto.setLinhasDuplicadas(registro.getLinhasDuplicadas());
+        dto.setDuracaoMs(registro.getDuracaoMs());
+        dto.setStatus(registro.getStatus());
+        dto.setUltimaLinhaGravada(registro.getUltimaLinhaGravada());
         return dto;
     }
 }
\ No newline at end of file
@@ -0,0 +1,147 @@
+package com.financeiro.service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.financeiro.dto.RegraCategorizacaoDTO;
+import com.financeiro.entity.Categoria;
+import com.financeiro.entity.Perfil;
+import com.financeiro.entity.RegraCategorizacao;
+import com.financeiro.entity.Subcategoria;
+import com.financeiro.exception.NegocioException;
+import com.financeiro.exception.RecursoNaoEncontradoException;
+import com.financeiro.repository.CategoriaRepository;
+import com.financeiro.repository.InstituicaoRepository;
+import com.financeiro.repository.PerfilRepository;
+import com.financeiro.repository.RegraCategorizacaoRepository;
+import com.financeiro.repository.SubcategoriaRepository;
+
+@Service
+public class RegraCategorizacaoService {
+
+    @Autowired
+    private RegraCategorizacaoRepository regraCategorizacaoRepository;
+    
+    @Autowired
+    private PerfilRepository perfilRepository;
+    
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+    
+    @Autowired
+    private SubcategoriaRepository subcategoriaRepository;
+    
+    @Autowired
+    private InstituicaoRepository instituicaoRepository;
+    
+    @Autowired
+    private CategorizacaoAutomaticaService categorizacaoAutomaticaService;
+    
+    public List<RegraCategorizacaoDTO> listarPorPerfil(Long perfilId) {
+        return regraCategorizacaoRepository.findByPerfilIdOrderByPrioridadeDescIdAsc(perfilId).stream()
+                .map(this::converterParaDTO)
+                .collect(Collectors.toList());
+    }
+    
+    public RegraCategorizacaoDTO buscarPorId(Long id) {
+        return regraCategorizacaoRepository.findById(id)
+                .map(this::converterParaDTO)
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Regra de categorização", id));
+    }
+    
+    @Transactional
+    public RegraCategorizacaoDTO salvar(RegraCategorizacaoDTO dto) {
+        RegraCategorizacao regra = new RegraCategorizacao();
+        preencher(regra, dto);
+        regra = regraCategorizacaoRepository.save(regra);
+        categorizacaoAutomaticaService.invalidar(regra.getPerfil().getId());
+        return converterParaDTO(regra);
+    }
+    
+    @Transactional
+    public RegraCategorizacaoDTO atualizar(Long id, RegraCategorizacaoDTO dto) {
+        RegraCategorizacao regra = regraCategorizacaoRepository.findById(id)
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Regra de categorização", id));
+        Long perfilAnteriorId = regra.getPerfil().getId();
+        
+        preencher(regra, dto);
+        regra = regraCategorizacaoRepository.save(regra);
+        
+        categorizacaoAutomaticaService.invalidar(perfilAnteriorId);
+        if (!perfilAnteriorId.equals(regra.getPerfil().getId())) {
+            categorizacaoAutomaticaService.invalidar(regra.getPerfil().getId());
+        }
+        return converterParaDTO(regra);
+    }
+    
+    @Transactional
+    public void excluir(Long id) {
+        RegraCategorizacao regra = regraCategorizacaoRepository.findById(id)
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Regra de categorização", id));
+        regraCategorizacaoRepository.delete(regra);
+        categorizacaoAutomaticaService.invalidar(regra.getPerfil().getId());
+    }
+    
+    private void preencher(RegraCategorizacao regra, RegraCategorizacaoDTO dto) {
+        if (dto.getValorMinimo() != null && dto.getValorMaximo() != null
+                && dto.getValorMinimo().compareTo(dto.getValorMaximo()) > 0) {
+            throw new NegocioException("O valor mínimo não pode ser maior que o valor máximo");
+        }
+        
+        Perfil perfil = perfilRepository.findById(dto.getPerfilId())
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Perfil", dto.getPerfilId()));
+        Categoria categoria = categoriaRepository.findById(dto.getCategoriaId())
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Categoria", dto.getCategoriaId()));
+        
+        Subcategoria subcategoria = null;
+        if (dto.getSubcategoriaId() != null) {
+            subcategoria = subcategoriaRepository.findById(dto.getSubcategoriaId())
+                    .orElseThrow(() -> new RecursoNaoEncontradoException("Subcategoria", dto.getSubcategoriaId()));
+            if (!subcategoria.getCategoria().getId().equals(categoria.getId())) {
+                throw new NegocioException("A subcategoria informada não pertence à categoria da regra");
+            }
+        }
+        
+        regra.setPerfil(perfil);
+        regra.setPalavraChave(dto.getPalavraChave() != null && !dto.getPalavraChave().isBlank()
+                ? dto.getPalavraChave().trim() : null);
+        regra.setValorMinimo(dto.getValorMinimo());
+        regra.setValorMaximo(dto.getValorMaximo());
+        regra.setTipo(dto.getTipo());
+        regra.setInstituicao(dto.getInstituicaoId() != null
+                ? instituicaoRepository.findById(dto.getInstituicaoId())
+                        .orElseThrow(() -> new RecursoNaoEncontradoException("Instituição", dto.getInstituicaoId()))
+                : null);
+        regra.setCategoria(categoria);
+        regra.setSubcategoria(subcategoria);
+        regra.setPrioridade(dto.getPrioridade() != null ? dto.getPrioridade() : 0);
+        regra.setAtiva(dto.getAtiva() == null || dto.getAtiva());
+    }
+    
+    private RegraCategorizacaoDTO converterParaDTO(RegraCategorizacao regra) {
+        RegraCategorizacaoDTO dto = new RegraCategorizacaoDTO();
+        dto.setId(regra.getId());
+        dto.setPerfilId(regra.getPerfil().getId());
+        dto.setPalavraChave(regra.getPalavraChave());
+        dto.setValorMinimo(regra.getValorMinimo());
+        dto.setValorMaximo(regra.getValorMaximo());
+        dto.setTipo(regra.getTipo());
+        if (regra.getInstituicao() != null) {
+            dto.setInstituicaoId(regra.getInstituicao().getId());
+            dto.setInstituicaoNome(regra.getInstituicao().getNome());
+        }
+        dto.setCategoriaId(regra.getCategoria().getId());
+        dto.setCategoriaNome(regra.getCategoria().getNome());
+        if (regra.getSubcategoria() != null) {
+            dto.setSubcategoriaId(regra.getSubcategoria().getId());
+            dto.setSubcategoriaNome(regra.getSubcategoria().getNome());
+        }
+        dto.setPrioridade(regra.getPrioridade());
+        dto.setAtiva(regra.getAtiva());
+        return dto;
+    }
+}
@@ -0,0 +1,127 @@
+package com.financeiro.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.financeiro.dto.ResumoFinanceiroDTO;
+import com.financeiro.dto.ResumoFinanceiroDTO.ResumoCategoria;
+import com.financeiro.dto.ResumoFinanceiroDTO.ResumoSubcategoria;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache dos resumos financeiros por (usuário, perfil, período). Cada perfil e cada
+ * usuário têm uma versão incrementada a cada escrita de transação; uma entrada só
+ * é usada enquanto a versão gravada com ela for a versão atual do seu escopo. Quem
+ * consulta recebe uma cópia do resumo, que pode alterar sem afetar a entrada do cache.
+ */
+@Component
+public class ResumoFinanceiroCache {
+    
+    // A versão faz parte da chave: após uma escrita as entradas antigas deixam de ser
+    // encontradas (contam como miss) e saem do cache pela política de tamanho
+    private record Chave(Long usuarioId, Long perfilId, LocalDate dataInicio, LocalDate dataFim, long versao,
+                         long geracao) {
+    }
+    
+    private final Cache<Chave, ResumoFinanceiroDTO> cache;
+    private final Map<Long, AtomicLong> versoesPorPerfil = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> versoesPorUsuario = new ConcurrentHashMap<>();
+    // Incrementada por invalidarTudo: vale como versão de todos os escopos
+    private final AtomicLong geracao = new AtomicLong();
+    
+    public ResumoFinanceiroCache(@Value("${app.cache.resumo.tamanho-maximo:10000}") long tamanhoMaximo,
+                                 MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "resumoFinanceiro");
+    }
+    
+    public ResumoFinanceiroDTO obter(Long usuarioId, Long perfilId, LocalDate dataInicio, LocalDate dataFim,
+                                     Supplier<ResumoFinanceiroDTO> calcular) {
+        // A versão é lida antes do cálculo: se uma escrita for confirmada no meio dele,
+        // o resultado fica sob a versão anterior e não é mais consultado
+        Chave chave = new Chave(usuarioId, perfilId, dataInicio, dataFim, versaoAtual(usuarioId, perfilId),
+                geracao.get());
+        return copiar(cache.get(chave, k -> calcular.get()));
+    }
+    
+    /**
+     * Invalida os resumos do perfil e do usuário. Dentro de uma transação a versão só
+     * é incrementada após o commit, para que nenhuma leitura concorrente grave no
+     * cache dados ainda não confirmados sob a nova versão.
+     */
+    public void invalidar(Long usuarioId, Long perfilId) {
+        aposCommit(() -> incrementarVersao(usuarioId, perfilId));
+    }
+    
+    /**
+     * Invalida todos os resumos, como invalidar(): as entradas atuais são descartadas
+     * já e as calculadas até o commit deixam de valer quando ele acontece.
+     */
+    public void invalidarTudo() {
+        cache.invalidateAll();
+        aposCommit(() -> {
+            geracao.incrementAndGet();
+            cache.invalidateAll();
+        });
+    }
+    
+    private void aposCommit(Runnable invalidacao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidacao.run();
+                }
+            });
+        } else {
+            invalidacao.run();
+        }
+    }
+    
+    private long versaoAtual(Long usuarioId, Long perfilId) {
+        AtomicLong versao = perfilId != null ? versoesPorPerfil.get(perfilId) : versoesPorUsuario.get(usuarioId);
+        return versao != null ? versao.get() : 0L;
+    }
+    
+    private void incrementarVersao(Long usuarioId, Long perfilId) {
+        versoesPorPerfil.computeIfAbsent(perfilId, id -> new AtomicLong()).incrementAndGet();
+        versoesPorUsuario.computeIfAbsent(usuarioId, id -> new AtomicLong()).incrementAndGet();
+    }
+    
+    // Cópia profunda: as listas e os itens são novos, BigDecimal e String são imutáveis
+    private static ResumoFinanceiroDTO copiar(ResumoFinanceiroDTO resumo) {
+        return new ResumoFinanceiroDTO(resumo.getTotalReceitas(), resumo.getTotalDespesas(), resumo.getSaldoTotal(),
+                copiarLista(resumo.getResumoPorCategoria(), categoria -> new ResumoCategoria(
+                        categoria.getCategoriaId(), categoria.getCategoriaNome(), categoria.getTipo(),
+                        categoria.getValor(), copiarLista(categoria.getSubcategorias(), subcategoria ->
+                                new ResumoSubcategoria(subcategoria.getSubcategoriaId(),
+                                        subcategoria.getSubcategoriaNome(), subcategoria.getValor())))));
+    }
+    
+    private static <T> List<T> copiarLista(List<T> itens, UnaryOperator<T> copiar) {
+        if (itens == null) {
+            return null;
+        }
+        List<T> copia = new ArrayList<>(itens.size());
+        itens.forEach(item -> copia.add(copiar.apply(item)));
+        return copia;
+    }
+}
@@ -0,0 +1,232 @@
+package com.financeiro.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.financeiro.dto.SomaCategoriaView;
+import com.financeiro.entity.ResumoMensal;
+import com.financeiro.entity.Transacao;
+import com.financeiro.exception.RecursoNaoEncontradoException;
+import com.financeiro.repository.PerfilRepository;
+import com.financeiro.repository.ResumoMensalRepository;
+import com.financeiro.repository.TransacaoRepository;
+import com.financeiro.service.DadosReferenciaCache.PerfilRef;
+
+/**
+ * Mantém a tabela resumo_mensal e responde os resumos por período combinando os
+ * meses completos já agregados com as transações dos meses parciais das bordas.
+ *
+ * As escritas bloqueiam o perfil antes de tocar nas linhas dele: sem isso, duas
+ * transações que não encontram a linha de uma chave (UPDATE sem efeito) inseririam
+ * as duas, violando uk_resumo_mensal_chave ou, sem subcategoria, duplicando a linha.
+ * O perfil é bloqueado depois das instituições, que as escritas de transação já
+ * bloquearam antes.
+ */
+@Service
+public class ResumoMensalService {
+    
+    private static final Comparator<SomaCategoriaView> ORDEM_CATEGORIA = Comparator
+            .comparing(SomaCategoriaView::categoriaId)
+            .thenComparing(SomaCategoriaView::subcategoriaId, Comparator.nullsFirst(Comparator.naturalOrder()));
+    
+    private record Chave(Long perfilId, Integer anoMes, String tipo, Long categoriaId, Long subcategoriaId) {
+    }
+    
+    // Escritas concorrentes bloqueiam as linhas do resumo sempre nesta ordem e não se travam mutuamente
+    private static final Comparator<Chave> ORDEM_CHAVE = Comparator
+            .comparing(Chave::perfilId)
+            .thenComparing(Chave::anoMes)
+            .thenComparing(Chave::tipo)
+            .thenComparing(Chave::categoriaId)
+            .thenComparing(Chave::subcategoriaId, Comparator.nullsFirst(Comparator.naturalOrder()));
+    
+    @Autowired
+    private ResumoMensalRepository resumoMensalRepository;
+    
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+    
+    @Autowired
+    private PerfilRepository perfilRepository;
+    
+    @Autowired
+    private PlanoParcelamentoService planoParcelamentoService;
+    
+    @Autowired
+    private ResumoFinanceiroCache resumoFinanceiroCache;
+    
+    @Autowired
+    private DadosReferenciaCache dadosReferencia;
+    
+    /**
+     * Aplica o efeito de uma transação no resumo do mês: sinal 1 ao incluir e -1 ao
+     * remover. Deve ser chamado na mesma transação da escrita em transacoes.
+     */
+    @Transactional
+    public void registrar(Transacao transacao, int sinal) {
+        BigDecimal valor = sinal < 0 ? transacao.getValor().negate() : transacao.getValor();
+        bloquearPerfil(transacao.getPerfil().getId());
+        acumular(transacao, valor, sinal);
+        invalidarCache(transacao);
+    }
+    
+    /**
+     * Aplica de uma vez a inclusão de várias transações, com um único UPDATE por chave
+     * (perfil, mês, tipo, categoria, subcategoria) em vez de um por transação.
+     */
+    @Transactional
+    public void registrarLote(Collection<Transacao> transacoes) {
+        Map<Chave, List<Transacao>> porChave = transacoes.stream()
+                .collect(Collectors.groupingBy(this::chave, () -> new TreeMap<>(ORDEM_CHAVE), Collectors.toList()));
+        
+        Set<List<Long>> escoposInvalidados = new HashSet<>();
+        Long perfilBloqueado = null;
+        for (List<Transacao> grupo : porChave.values()) {
+            Transacao modelo = grupo.get(0);
+            // As chaves começam pelo perfil: cada um é bloqueado uma vez, em ordem de id
+            if (!modelo.getPerfil().getId().equals(perfilBloqueado)) {
+                perfilBloqueado = modelo.getPerfil().getId();
+                bloquearPerfil(perfilBloqueado);
+            }
+            BigDecimal valor = grupo.stream().map(Transacao::getValor).reduce(BigDecimal.ZERO, BigDecimal::add);
+            acumular(modelo, valor, grupo.size());
+            
+            if (escoposInvalidados.add(List.of(modelo.getUsuario().getId(), modelo.getPerfil().getId()))) {
+                invalidarCache(modelo);
+            }
+        }
+    }
+    
+    /**
+     * Recalcula todo o resumo a partir das transações. Usado para a carga inicial e
+     * para corrigir divergências.
+     */
+    @Transactional
+    public int reconstruir() {
+        resumoMensalRepository.excluirTodos();
+        int linhas = resumoMensalRepository.reconstruirAPartirDasTransacoes();
+        // As parcelas ainda virtuais dos planos de parcelamento também compõem o resumo
+        registrarLote(planoParcelamentoService.listarTodasParcelasVirtuais());
+        resumoFinanceiroCache.invalidarTudo();
+        return linhas;
+    }
+    
+    @Transactional(readOnly = true)
+    public List<SomaCategoriaView> somarPorCategoria(Long usuarioId, Long perfilId, LocalDate dataInicio, LocalDate dataFim) {
+        YearMonth primeiroMesCompleto = dataInicio.getDayOfMonth() == 1
+                ? YearMonth.from(dataInicio)
+                : YearMonth.from(dataInicio).plusMonths(1);
+        YearMonth ultimoMesCompleto = dataFim.equals(YearMonth.from(dataFim).atEndOfMonth())
+                ? YearMonth.from(dataFim)
+                : YearMonth.from(dataFim).minusMonths(1);
+        
+        if (primeiroMesCompleto.isAfter(ultimoMesCompleto)) {
+            return combinar(somarTransacoes(usuarioId, perfilId, dataInicio, dataFim));
+        }
+        
+        List<SomaCategoriaView> somas = new ArrayList<>(perfilId != null
+                ? resumoMensalRepository.somarPorPerfilECategoria(perfilId,
+                        anoMes(primeiroMesCompleto), anoMes(ultimoMesCompleto))
+                : resumoMensalRepository.somarPorCategoria(usuarioId,
+                        anoMes(primeiroMesCompleto), anoMes(ultimoMesCompleto)));
+        
+        // Apenas os dias fora dos meses completos são lidos da tabela de transações
+        if (dataInicio.isBefore(primeiroMesCompleto.atDay(1))) {
+            somas.addAll(somarTransacoes(usuarioId, perfilId, dataInicio, primeiroMesCompleto.atDay(1).minusDays(1)));
+        }
+        if (dataFim.isAfter(ultimoMesCompleto.atEndOfMonth())) {
+            somas.addAll(somarTransacoes(usuarioId, perfilId, ultimoMesCompleto.atEndOfMonth().plusDays(1), dataFim));
+        }
+        
+        return combinar(somas);
+    }
+    
+    private void bloquearPerfil(Long perfilId) {
+        perfilRepository.bloquear(perfilId).orElseThrow(() -> new RecursoNaoEncontradoException("Perfil", perfilId));
+    }
+    
+    // Soma valor e quantidade na linha da chave da transação, criando-a se for a primeira do mês.
+    // Com o perfil bloqueado, nenhuma outra transação cria a mesma linha entre o UPDATE e o INSERT
+    private void acumular(Transacao modelo, BigDecimal valor, long quantidade) {
+        Long perfilId = modelo.getPerfil().getId();
+        Integer anoMes = anoMes(modelo.getData());
+        Long categoriaId = modelo.getCategoria().getId();
+        Long subcategoriaId = modelo.getSubcategoria() != null ? modelo.getSubcategoria().getId() : null;
+        
+        int atualizados = subcategoriaId != null
+                ? resumoMensalRepository.acumular(perfilId, anoMes, modelo.getTipo(), categoriaId,
+                        subcategoriaId, valor, quantidade)
+                : resumoMensalRepository.acumularSemSubcategoria(perfilId, anoMes, modelo.getTipo(),
+                        categoriaId, valor, quantidade);
+        
+        if (atualizados == 0) {
+            // Primeira transação desta chave no mês
+            resumoMensalRepository.save(new ResumoMensal(null, modelo.getPerfil(), modelo.getCategoria(),
+                    modelo.getSubcategoria(), modelo.getTipo(), anoMes, valor, quantidade));
+        }
+    }
+    
+    private void invalidarCache(Transacao transacao) {
+        Long perfilId = transacao.getPerfil().getId();
+        Long usuarioId = transacao.getUsuario().getId();
+        resumoFinanceiroCache.invalidar(usuarioId, perfilId);
+        // Dono do perfil pelo cache de cadastros, sem carregar o perfil da transação
+        Long donoPerfilId = dadosReferencia.perfil(perfilId).map(PerfilRef::usuarioId).orElse(usuarioId);
+        if (!usuarioId.equals(donoPerfilId)) {
+            resumoFinanceiroCache.invalidar(donoPerfilId, perfilId);
+        }
+    }
+    
+    private Chave chave(Transacao transacao) {
+        return new Chave(transacao.getPerfil().getId(), anoMes(transacao.getData()), transacao.getTipo(),
+                transacao.getCategoria().getId(),
+                transacao.getSubcategoria() != null ? transacao.getSubcategoria().getId() : null);
+    }
+    
+    // Transações gravadas mais as parcelas virtuais dos planos no período; combinar() junta as chaves repetidas
+    private List<SomaCategoriaView> somarTransacoes(Long usuarioId, Long perfilId, LocalDate dataInicio, LocalDate dataFim) {
+        List<SomaCategoriaView> somas = new ArrayList<>(perfilId != null
+                ? transacaoRepository.somarPorPerfilCategoriaEPeriodo(perfilId, dataInicio, dataFim)
+                : transacaoRepository.somarPorCategoriaEPeriodo(usuarioId, dataInicio, dataFim));
+        somas.addAll(planoParcelamentoService.somarParcelasVirtuais(usuarioId, perfilId, dataInicio, dataFim));
+        return somas;
+    }
+    
+    private List<SomaCategoriaView> combinar(List<SomaCategoriaView> somas) {
+        Map<List<Object>, SomaCategoriaView> porChave = new LinkedHashMap<>();
+        for (SomaCategoriaView soma : somas) {
+            porChave.merge(List.of(soma.tipo(), soma.categoriaId(), Objects.requireNonNullElse(soma.subcategoriaId(), 0L)),
+                    soma,
+                    (atual, nova) -> new SomaCategoriaView(atual.tipo(), atual.categoriaId(), atual.categoriaNome(),
+                            atual.subcategoriaId(), atual.subcategoriaNome(), atual.valor().add(nova.valor())));
+        }
+        
+        List<SomaCategoriaView> combinadas = new ArrayList<>(porChave.values());
+        combinadas.sort(ORDEM_CATEGORIA);
+        return combinadas;
+    }
+    
+    private static Integer anoMes(LocalDate data) {
+        return data.getYear() * 100 + data.getMonthValue();
+    }
+    
+    private static Integer anoMes(YearMonth mes) {
+        return mes.getYear() * 100 + mes.getMonthValue();
+    }
+}
@@ -0,0 +1,273 @@
+package com.financeiro.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.financeiro.dto.MovimentoDiarioView;
+import com.financeiro.dto.SaldoDiarioDTO;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.entity.SaldoDiario;
+import com.financeiro.entity.Transacao;
+import com.financeiro.exception.NegocioException;
+import com.financeiro.exception.RecursoNaoEncontradoException;
+import com.financeiro.repository.InstituicaoRepository;
+import com.financeiro.repository.SaldoDiarioRepository;
+
+/**
+ * Mantém a tabela saldos_diarios a cada escrita de transação lançada e responde a partir
+ * dela o saldo de uma instituição em uma data (uma busca no índice) ou dia a dia em um
+ * período. As instituições que ainda não têm saldos diários são carregadas a partir das
+ * transações na inicialização, em paralelo.
+ */
+@Service
+public class SaldoDiarioService {
+
+    private static final Logger log = LoggerFactory.getLogger(SaldoDiarioService.class);
+
+    // Cerca de dez anos de saldos por consulta da série
+    private static final long MAXIMO_DIAS_SERIE = 3660;
+
+    /**
+     * Dia de uma instituição: chave dos deltas aplicados de uma vez por {@link #acumular(Map)}.
+     */
+    public record Dia(Long instituicaoId, LocalDate data) {
+    }
+
+    @Autowired
+    private SaldoDiarioRepository saldoDiarioRepository;
+
+    @Autowired
+    private InstituicaoRepository instituicaoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.saldos-diarios.threads-reconstrucao:4}")
+    private int threadsReconstrucao;
+
+    /**
+     * Aplica o efeito de uma transação no saldo diário: sinal 1 ao incluir e -1 ao
+     * remover. Parcelas ainda não lançadas não afetam o saldo e são ignoradas. Deve ser
+     * chamado na mesma transação da escrita em transacoes.
+     */
+    @Transactional
+    public void registrar(Transacao transacao, int sinal) {
+        if (!Boolean.TRUE.equals(transacao.getLancada())) {
+            return;
+        }
+        BigDecimal delta = delta(transacao);
+        acumular(Map.of(dia(transacao), sinal < 0 ? delta.negate() : delta));
+    }
+
+    /**
+     * Aplica a inclusão de várias transações com um único delta por instituição e dia.
+     */
+    @Transactional
+    public void registrarLote(Collection<Transacao> transacoes) {
+        acumular(transacoes.stream()
+                .filter(transacao -> Boolean.TRUE.equals(transacao.getLancada()))
+                .collect(Collectors.toMap(this::dia, this::delta, BigDecimal::add)));
+    }
+
+    /**
+     * Soma cada delta no dia e nos dias seguintes da instituição. As instituições são
+     * bloqueadas antes, em ordem de id, o que serializa as escritas de uma mesma conta
+     * entre si e com a reconstrução dos seus saldos.
+     */
+    @Transactional
+    public void acumular(Map<Dia, BigDecimal> deltas) {
+        Map<Long, NavigableMap<LocalDate, BigDecimal>> porInstituicao = new TreeMap<>();
+        deltas.forEach((dia, delta) -> {
+            if (delta.signum() != 0) {
+                porInstituicao.computeIfAbsent(dia.instituicaoId(), id -> new TreeMap<>()).put(dia.data(), delta);
+            }
+        });
+        if (porInstituicao.isEmpty()) {
+            return;
+        }
+        instituicaoRepository.bloquearEmOrdem(porInstituicao.keySet());
+        porInstituicao.forEach(this::aplicar);
+    }
+
+    @Transactional(readOnly = true)
+    public SaldoDiarioDTO buscarSaldo(Long instituicaoId, LocalDate data) {
+        Instituicao instituicao = buscarInstituicao(instituicaoId);
+        BigDecimal acumulado = saldoDiarioRepository.buscarAcumuladoAte(instituicaoId, data).orElse(BigDecimal.ZERO);
+        return new SaldoDiarioDTO(instituicaoId, data, instituicao.getSaldoInicial().add(acumulado));
+    }
+
+    /**
+     * Saldo ao fim de cada dia do período: o acumulado anterior ao início mais as linhas
+     * do período, repetindo o último valor nos dias sem movimento.
+     */
+    @Transactional(readOnly = true)
+    public List<SaldoDiarioDTO> listarSaldos(Long instituicaoId, LocalDate dataInicio, LocalDate dataFim) {
+        if (dataFim.isBefore(dataInicio)) {
+            throw new NegocioException("A data final não pode ser anterior à data inicial");
+        }
+        if (ChronoUnit.DAYS.between(dataInicio, dataFim) >= MAXIMO_DIAS_SERIE) {
+            throw new NegocioException("O período da série de saldos não pode passar de " + MAXIMO_DIAS_SERIE + " dias");
+        }
+
+        Instituicao instituicao = buscarInstituicao(instituicaoId);
+        BigDecimal acumulado = saldoDiarioRepository.buscarAcumuladoAntesDe(instituicaoId, dataInicio)
+                .orElse(BigDecimal.ZERO);
+        List<SaldoDiario> linhas = saldoDiarioRepository.findByInstituicaoIdAndDataBetweenOrderByDataAsc(
+                instituicaoId, dataInicio, dataFim);
+
+        List<SaldoDiarioDTO> saldos = new ArrayList<>();
+        int proxima = 0;
+        for (LocalDate data = dataInicio; !data.isAfter(dataFim); data = data.plusDays(1)) {
+            if (proxima < linhas.size() && linhas.get(proxima).getData().equals(data)) {
+                acumulado = linhas.get(proxima++).getMovimentoAcumulado();
+            }
+            saldos.add(new SaldoDiarioDTO(instituicaoId, data, instituicao.getSaldoInicial().add(acumulado)));
+        }
+        return saldos;
+    }
+
+    /**
+     * Refaz os saldos diários da instituição a partir das transações lançadas. A
+     * instituição fica bloqueada até o commit: escritas concorrentes esperam e aplicam
+     * seus deltas sobre as linhas já refeitas.
+     */
+    public int reconstruir(Long instituicaoId) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            List<Instituicao> bloqueadas = instituicaoRepository.bloquearEmOrdem(List.of(instituicaoId));
+            if (bloqueadas.isEmpty()) {
+                return 0;
+            }
+
+            saldoDiarioRepository.excluirPorInstituicao(instituicaoId);
+            BigDecimal acumulado = BigDecimal.ZERO;
+            List<SaldoDiario> linhas = new ArrayList<>();
+            for (MovimentoDiarioView movimento : saldoDiarioRepository.somarMovimentoDiario(instituicaoId)) {
+                acumulado = acumulado.add(movimento.valor());
+                linhas.add(new SaldoDiario(null, bloqueadas.get(0), movimento.data(), acumulado));
+            }
+            saldoDiarioRepository.saveAll(linhas);
+            return linhas.size();
+        });
+    }
+
+    // Recalcula os saldos diários de todas as instituições (correção de divergências)
+    public int reconstruirTodas() {
+        return reconstruirEmParalelo(instituicaoRepository.listarIds());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preencherSaldosPendentes() {
+        List<Long> pendentes = saldoDiarioRepository.buscarInstituicoesSemSaldoDiario();
+        if (!pendentes.isEmpty()) {
+            int linhas = reconstruirEmParalelo(pendentes);
+            log.info("Saldos diários carregados para {} instituição(ões): {} linha(s)", pendentes.size(), linhas);
+        }
+    }
+
+    /**
+     * Reconstrói as instituições em um pool próprio. Cada tarefa ocupa uma conexão do
+     * pool do banco durante toda a reconstrução, por isso o número de threads é limitado.
+     * Falhas de uma instituição são registradas e não interrompem as demais.
+     */
+    private int reconstruirEmParalelo(List<Long> instituicaoIds) {
+        if (instituicaoIds.isEmpty()) {
+            return 0;
+        }
+
+        int threads = Math.max(1, Math.min(threadsReconstrucao, instituicaoIds.size()));
+        List<Future<Integer>> resultados = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new CustomizableThreadFactory("saldos-diarios-"))) {
+            for (Long instituicaoId : instituicaoIds) {
+                resultados.add(executor.submit(() -> reconstruir(instituicaoId)));
+            }
+        }
+
+        int linhas = 0;
+        for (int i = 0; i < resultados.size(); i++) {
+            try {
+                linhas += resultados.get(i).get();
+            } catch (ExecutionException e) {
+                log.warn("Falha ao reconstruir os saldos diários da instituição {}", instituicaoIds.get(i), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrompido reconstruindo os saldos diários", e);
+            }
+        }
+        return linhas;
+    }
+
+    /**
+     * Aplica os deltas de uma instituição, em ordem de data. Os dias ainda sem linha são
+     * criados antes, com o acumulado do dia anterior; depois cada trecho entre dois dias com
+     * movimento recebe a soma dos deltas até ele. Assim cada linha é atualizada uma vez,
+     * e não uma vez por dia do lote que a antecede.
+     */
+    private void aplicar(Long instituicaoId, NavigableMap<LocalDate, BigDecimal> deltas) {
+        Set<LocalDate> existentes = new HashSet<>(
+                saldoDiarioRepository.buscarDatasExistentes(instituicaoId, deltas.keySet()));
+        for (LocalDate data : deltas.keySet()) {
+            if (!existentes.contains(data)) {
+                // Primeiro movimento do dia. O acumulado anterior é lido por consulta, que faz
+                // antes o flush das linhas criadas para os dias anteriores deste mesmo lote
+                BigDecimal anterior = saldoDiarioRepository.buscarAcumuladoAntesDe(instituicaoId, data)
+                        .orElse(BigDecimal.ZERO);
+                saldoDiarioRepository.save(new SaldoDiario(null, instituicaoRepository.getReferenceById(instituicaoId),
+                        data, anterior));
+            }
+        }
+
+        BigDecimal soma = BigDecimal.ZERO;
+        for (Map.Entry<LocalDate, BigDecimal> entrada : deltas.entrySet()) {
+            soma = soma.add(entrada.getValue());
+            if (soma.signum() == 0) {
+                continue;
+            }
+            LocalDate proxima = deltas.higherKey(entrada.getKey());
+            if (proxima != null) {
+                saldoDiarioRepository.acumularNoPeriodo(instituicaoId, entrada.getKey(), proxima, soma);
+            } else {
+                saldoDiarioRepository.acumularAPartirDe(instituicaoId, entrada.getKey(), soma);
+            }
+        }
+    }
+
+    private Instituicao buscarInstituicao(Long instituicaoId) {
+        return instituicaoRepository.findById(instituicaoId)
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Instituição", instituicaoId));
+    }
+
+    private Dia dia(Transacao transacao) {
+        return new Dia(transacao.getInstituicao().getId(), transacao.getData());
+    }
+
+    private BigDecimal delta(Transacao transacao) {
+        return "Receita".equals(transacao.getTipo()) ? transacao.getValor() : transacao.getValor().negate();
+    }
+}
@@ -21,6 +21,9 @@ public class SubcategoriaService {
     @Autowired
     private CategoriaRepository categoriaRepository;
     
+    @Autowired
+    private DadosReferenciaCache dadosReferencia;
+    
     public List<SubcategoriaDTO> listarTodas() {
         return subcategoriaRepository.findAll().stream()
                 .map(this::converterParaDTO)
@@ -72,6 +75,7 @@ public class SubcategoriaService {
         subcategoria.setCategoria(categoria);
         
         subcategoria = subcategoriaRepository.save(subcategoria);
+        dadosReferencia.invalidarSubcategoria(id);
         
         return converterParaDTO(subcategoria);
     }
@@ -82,9 +86,10 @@ public class SubcategoriaService {
         }
         
         subcategoriaRepository.deleteById(id);
+        dadosReferencia.invalidarSubcategoria(id);
     }
     
-    private SubcategoriaDTO converterParaDTO(Subcategoria subcategoria) {
+    SubcategoriaDTO converterParaDTO(Subcategoria subcategoria) {
         SubcategoriaDTO dto = new SubcategoriaDTO();
         dto.setId(subcategoria.getId());
         dto.setNome(subcategoria.getNome());
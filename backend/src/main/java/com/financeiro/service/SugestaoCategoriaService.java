@@ -0,0 +1,331 @@
+package com.financeiro.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.financeiro.dto.ExemploCategoriaView;
+import com.financeiro.dto.SugestaoCategoriaDTO;
+import com.financeiro.dto.TransacaoDTO;
+import com.financeiro.entity.ModeloSugestao;
+import com.financeiro.entity.Transacao;
+import com.financeiro.exception.RecursoNaoEncontradoException;
+import com.financeiro.repository.CategoriaRepository;
+import com.financeiro.repository.ModeloSugestaoRepository;
+import com.financeiro.repository.PerfilRepository;
+import com.financeiro.repository.SubcategoriaRepository;
+import com.financeiro.repository.TransacaoRepository;
+import com.financeiro.util.ClassificadorTransacoes;
+import com.financeiro.util.ModeloSugestaoCategoria;
+import com.financeiro.util.ModeloSugestaoCategoria.Exemplo;
+import com.financeiro.util.ModeloSugestaoCategoria.Sugestao;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Sugere categorias com o modelo aprendido do histórico de cada perfil. O modelo é
+ * carregado da última versão gravada (ou treinado uma única vez com o histórico, se
+ * não houver) e depois acompanha as inclusões, alterações e exclusões de transações.
+ * Os modelos alterados são gravados periodicamente.
+ *
+ * Os modelos em memória ficam em um cache limitado pelo tamanho somado deles e que
+ * descarta os que não são usados há algum tempo; um modelo alterado que sai do cache
+ * é gravado antes, e até a gravação terminar é dele que uma nova carga do perfil parte.
+ */
+@Service
+public class SugestaoCategoriaService {
+
+    private static final Logger log = LoggerFactory.getLogger(SugestaoCategoriaService.class);
+
+    // Abaixo disso o modelo ainda não conhece o perfil o bastante para categorizar sozinho
+    private static final long EXEMPLOS_MINIMOS_IMPORTACAO = 20;
+
+    private static class ModeloPerfil {
+        private final ModeloSugestaoCategoria modelo;
+        // Treinado agora com o histórico, que já inclui a escrita cujo commit provocou a carga
+        private final boolean treinadoComHistorico;
+        private final AtomicBoolean alterado;
+
+        private ModeloPerfil(ModeloSugestaoCategoria modelo, boolean treinadoComHistorico) {
+            this(modelo, treinadoComHistorico, new AtomicBoolean(treinadoComHistorico));
+        }
+
+        private ModeloPerfil(ModeloSugestaoCategoria modelo, boolean treinadoComHistorico, AtomicBoolean alterado) {
+            this.modelo = modelo;
+            this.treinadoComHistorico = treinadoComHistorico;
+            this.alterado = alterado;
+        }
+    }
+
+    private final Cache<Long, ModeloPerfil> modelos;
+    // Modelos alterados que saíram do cache e ainda não foram gravados
+    private final Map<Long, ModeloPerfil> gravacoesPendentes = new ConcurrentHashMap<>();
+
+    @Value("${app.categorizacao.sugestao.confianca-minima:0.9}")
+    private double confiancaMinima;
+
+    @Autowired
+    private ModeloSugestaoRepository modeloSugestaoRepository;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private PerfilRepository perfilRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private SubcategoriaRepository subcategoriaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public SugestaoCategoriaService(
+            @Value("${app.cache.modelos-sugestao.tamanho-maximo-mb:256}") long tamanhoMaximoMb,
+            @Value("${app.cache.modelos-sugestao.expiracao-min:120}") long expiracaoMin,
+            MeterRegistry meterRegistry) {
+        // Peso em KB, calculado quando o modelo entra no cache
+        this.modelos = Caffeine.newBuilder()
+                .maximumWeight(tamanhoMaximoMb * 1024)
+                .<Long, ModeloPerfil>weigher((perfilId, modeloPerfil) ->
+                        (int) Math.min(Integer.MAX_VALUE, modeloPerfil.modelo.getTamanhoBytes() / 1024))
+                .expireAfterAccess(Duration.ofMinutes(expiracaoMin))
+                // Executado junto com a remoção: uma carga do perfil já encontra o modelo pendente
+                .evictionListener((Long perfilId, ModeloPerfil modeloPerfil, RemovalCause causa) -> {
+                    if (modeloPerfil.alterado.get()) {
+                        gravacoesPendentes.put(perfilId, modeloPerfil);
+                    }
+                })
+                // Executado depois, fora dos bloqueios do cache
+                .removalListener((Long perfilId, ModeloPerfil modeloPerfil, RemovalCause causa) -> {
+                    if (causa.wasEvicted() && gravacoesPendentes.get(perfilId) == modeloPerfil) {
+                        gravarPendente(perfilId, modeloPerfil);
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, modelos, "modelosSugestao");
+    }
+
+    public ModeloSugestaoCategoria obter(Long perfilId) {
+        return obterModeloPerfil(perfilId).modelo;
+    }
+
+    public SugestaoCategoriaDTO sugerir(Long perfilId, String descricao, BigDecimal valor, String tipo, Long instituicaoId) {
+        if (!perfilRepository.existsById(perfilId)) {
+            throw new RecursoNaoEncontradoException("Perfil", perfilId);
+        }
+        ModeloSugestaoCategoria modelo = obter(perfilId);
+
+        SugestaoCategoriaDTO dto = new SugestaoCategoriaDTO();
+        dto.setExemplos(modelo.getExemplos());
+        Sugestao sugestao = modelo.sugerir(descricao, valor != null ? ClassificadorTransacoes.centavos(valor) : 0,
+                tipo, instituicaoId);
+        if (sugestao == null) {
+            return dto;
+        }
+
+        dto.setCategoriaId(sugestao.categoriaId());
+        dto.setConfianca(sugestao.confianca());
+        categoriaRepository.findById(sugestao.categoriaId()).ifPresent(categoria -> dto.setCategoriaNome(categoria.getNome()));
+        if (sugestao.subcategoriaId() != null) {
+            dto.setSubcategoriaId(sugestao.subcategoriaId());
+            subcategoriaRepository.findById(sugestao.subcategoriaId())
+                    .ifPresent(subcategoria -> dto.setSubcategoriaNome(subcategoria.getNome()));
+        }
+        return dto;
+    }
+
+    /**
+     * Preenche categoria e subcategoria do DTO sem categoria com a sugestão do modelo,
+     * se ele já tiver exemplos suficientes e a confiança atingir o mínimo configurado.
+     */
+    public boolean categorizar(TransacaoDTO dto, ModeloSugestaoCategoria modelo) {
+        if (dto.getCategoriaId() != null) {
+            return true;
+        }
+        if (dto.getValor() == null || modelo.getExemplos() < EXEMPLOS_MINIMOS_IMPORTACAO) {
+            return false;
+        }
+        Sugestao sugestao = modelo.sugerir(dto.getDescricao(), ClassificadorTransacoes.centavos(dto.getValor()),
+                dto.getTipo(), dto.getInstituicaoId());
+        if (sugestao == null || sugestao.confianca() < confiancaMinima) {
+            return false;
+        }
+        dto.setCategoriaId(sugestao.categoriaId());
+        dto.setSubcategoriaId(sugestao.subcategoriaId());
+        return true;
+    }
+
+    /**
+     * Exemplo de treino da transação, a capturar antes de qualquer alteração. Transferências
+     * e parcelas ficam fora do modelo: a categoria delas não vem da escolha do usuário
+     * para aquela descrição, ou se repete em cada parcela.
+     */
+    public Exemplo exemplo(Transacao transacao) {
+        if (Boolean.TRUE.equals(transacao.getTransferenciaEntrePerfis()) || transacao.getGrupoParcelamento() != null
+                || transacao.getCategoria() == null) {
+            return null;
+        }
+        return new Exemplo(transacao.getDescricao(), ClassificadorTransacoes.centavos(transacao.getValor()),
+                transacao.getTipo(), transacao.getInstituicao() != null ? transacao.getInstituicao().getId() : null,
+                transacao.getCategoria().getId(),
+                transacao.getSubcategoria() != null ? transacao.getSubcategoria().getId() : null);
+    }
+
+    /**
+     * Esquece o exemplo anterior e aprende o novo (qualquer um pode ser null) no modelo
+     * do perfil. Dentro de uma transação isso só acontece após o commit.
+     */
+    public void treinar(Long perfilId, Exemplo esquecer, Exemplo aprender) {
+        if (esquecer == null && aprender == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicarTreino(perfilId, esquecer, aprender);
+                }
+            });
+        } else {
+            aplicarTreino(perfilId, esquecer, aprender);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.categorizacao.sugestao.intervalo-gravacao-ms:60000}")
+    public void gravarModelosAlterados() {
+        modelos.asMap().forEach(this::gravarSeAlterado);
+        gravacoesPendentes.forEach(this::gravarPendente);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        gravarModelosAlterados();
+    }
+
+    private void aplicarTreino(Long perfilId, Exemplo esquecer, Exemplo aprender) {
+        ModeloPerfil modeloPerfil = modelos.getIfPresent(perfilId);
+        if (modeloPerfil == null) {
+            modeloPerfil = admitir(perfilId, carregar(perfilId));
+            if (modeloPerfil.treinadoComHistorico) {
+                return;
+            }
+        }
+        if (esquecer != null) {
+            modeloPerfil.modelo.esquecer(esquecer);
+        }
+        if (aprender != null) {
+            modeloPerfil.modelo.aprender(aprender);
+        }
+        modeloPerfil.alterado.set(true);
+    }
+
+    private ModeloPerfil obterModeloPerfil(Long perfilId) {
+        ModeloPerfil modeloPerfil = modelos.getIfPresent(perfilId);
+        return modeloPerfil != null ? modeloPerfil : admitir(perfilId, carregar(perfilId));
+    }
+
+    // A carga (e o treino com o histórico) acontece fora do cache, sem bloquear o perfil;
+    // se duas threads carregarem o mesmo perfil, fica o primeiro modelo admitido
+    private ModeloPerfil admitir(Long perfilId, ModeloPerfil carregado) {
+        ModeloPerfil existente = modelos.asMap().putIfAbsent(perfilId, carregado);
+        return existente != null ? existente : carregado;
+    }
+
+    // Também é chamado após o commit de outra transação, por isso sempre usa uma transação nova
+    private ModeloPerfil carregar(Long perfilId) {
+        ModeloPerfil pendente = gravacoesPendentes.get(perfilId);
+        if (pendente != null) {
+            // A versão gravada ainda não tem as últimas alterações; o indicador é o mesmo
+            // para que só uma das duas entradas grave cada alteração
+            return new ModeloPerfil(pendente.modelo, false, pendente.alterado);
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> {
+            ModeloSugestaoCategoria gravado = modeloSugestaoRepository.findByPerfilId(perfilId)
+                    .map(modelo -> ModeloSugestaoCategoria.desserializar(modelo.getDados()))
+                    .orElse(null);
+            if (gravado != null) {
+                return new ModeloPerfil(gravado, false);
+            }
+
+            long inicio = System.nanoTime();
+            ModeloSugestaoCategoria modelo = new ModeloSugestaoCategoria();
+            try (Stream<ExemploCategoriaView> exemplos = transacaoRepository.streamExemplosCategoria(perfilId)) {
+                exemplos.forEach(exemplo -> modelo.aprender(new Exemplo(exemplo.descricao(),
+                        ClassificadorTransacoes.centavos(exemplo.valor()), exemplo.tipo(), exemplo.instituicaoId(),
+                        exemplo.categoriaId(), exemplo.subcategoriaId())));
+            }
+            log.info("Modelo de sugestão de categorias do perfil {} treinado com {} transação(ões) em {} ms",
+                    perfilId, modelo.getExemplos(), (System.nanoTime() - inicio) / 1_000_000);
+            return new ModeloPerfil(modelo, true);
+        });
+    }
+
+    private void gravarPendente(Long perfilId, ModeloPerfil modeloPerfil) {
+        if (gravarSeAlterado(perfilId, modeloPerfil)) {
+            gravacoesPendentes.remove(perfilId, modeloPerfil);
+        }
+    }
+
+    /**
+     * Grava o modelo se houver alteração ainda não gravada. Devolve false se a gravação
+     * falhou; o modelo continua marcado como alterado. As gravações do mesmo modelo (pelo
+     * cache, pela entrada pendente ou pela tarefa periódica) são feitas uma de cada vez.
+     */
+    private boolean gravarSeAlterado(Long perfilId, ModeloPerfil modeloPerfil) {
+        synchronized (modeloPerfil.alterado) {
+            if (!modeloPerfil.alterado.getAndSet(false)) {
+                return true;
+            }
+            try {
+                new TransactionTemplate(transactionManager)
+                        .executeWithoutResult(status -> gravar(perfilId, modeloPerfil.modelo));
+                return true;
+            } catch (RuntimeException e) {
+                modeloPerfil.alterado.set(true);
+                log.warn("Falha ao gravar o modelo de sugestão de categorias do perfil {}", perfilId, e);
+                return false;
+            }
+        }
+    }
+
+    private void gravar(Long perfilId, ModeloSugestaoCategoria modelo) {
+        ModeloSugestao gravado = modeloSugestaoRepository.findByPerfilId(perfilId).orElseGet(() -> {
+            ModeloSugestao novo = new ModeloSugestao();
+            novo.setPerfil(perfilRepository.getReferenceById(perfilId));
+            return novo;
+        });
+        gravado.setDados(modelo.serializar());
+        gravado.setExemplos(modelo.getExemplos());
+        gravado.setDataAtualizacao(LocalDateTime.now());
+        modeloSugestaoRepository.save(gravado);
+    }
+}
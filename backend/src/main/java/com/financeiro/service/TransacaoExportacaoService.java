@@ -0,0 +1,203 @@
+package com.financeiro.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financeiro.dto.TransacaoView;
+import com.financeiro.enums.FormatoExportacao;
+import com.financeiro.exception.RecursoNaoEncontradoException;
+import com.financeiro.repository.PerfilRepository;
+import com.financeiro.repository.TransacaoRepository;
+
+/**
+ * Exporta as transações de um perfil escrevendo cada linha na resposta assim que
+ * ela sai do cursor do banco, sem montar o resultado em memória. As linhas são lidas
+ * como TransacaoView, então o contexto de persistência não acumula entidades.
+ *
+ * As parcelas virtuais dos planos de parcelamento do perfil são geradas plano a plano,
+ * à medida que a escrita avança, e intercaladas com as linhas lidas, sem id, na mesma
+ * ordem por data.
+ */
+@Service
+public class TransacaoExportacaoService {
+
+    private static final String CABECALHO_CSV =
+            "id;data;descricao;valor;tipo;categoria;subcategoria;instituicao;parcela_atual;total_parcelas\n";
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private PerfilRepository perfilRepository;
+
+    @Autowired
+    private PlanoParcelamentoService planoParcelamentoService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public StreamingResponseBody exportarPorPerfil(Long perfilId, FormatoExportacao formato) {
+        if (!perfilRepository.existsById(perfilId)) {
+            throw new RecursoNaoEncontradoException("Perfil", perfilId);
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        return saida -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    // Fechar o stream encerra o ResultSet; se o cliente desconectar, a escrita
+                    // lança IOException, o stream é fechado e a consulta é cancelada no banco
+                    Iterator<TransacaoView> virtuais = planoParcelamentoService.iterarVisoesVirtuais(perfilId);
+
+                    try (Stream<TransacaoView> gravadas = transacaoRepository.streamVisoesPorPerfil(perfilId)) {
+                        Iterable<TransacaoView> transacoes = () -> new Intercalacao(gravadas.iterator(), virtuais);
+                        if (formato == FormatoExportacao.CSV) {
+                            escreverCsv(transacoes, saida);
+                        } else {
+                            escreverNdjson(transacoes, saida);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    private void escreverCsv(Iterable<TransacaoView> transacoes, OutputStream saida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        writer.write(CABECALHO_CSV);
+
+        for (TransacaoView transacao : transacoes) {
+            writer.write(transacao.id() != null ? transacao.id().toString() : "");
+            writer.write(';');
+            writer.write(transacao.data().toString());
+            writer.write(';');
+            writer.write(escaparCsv(transacao.descricao()));
+            writer.write(';');
+            writer.write(transacao.valor().toPlainString());
+            writer.write(';');
+            writer.write(transacao.tipo());
+            writer.write(';');
+            writer.write(escaparCsv(transacao.categoriaNome()));
+            writer.write(';');
+            writer.write(transacao.subcategoriaId() != null ? escaparCsv(transacao.subcategoriaNome()) : "");
+            writer.write(';');
+            writer.write(escaparCsv(transacao.instituicaoNome()));
+            writer.write(';');
+            writer.write(transacao.parcelaAtual() != null ? transacao.parcelaAtual().toString() : "");
+            writer.write(';');
+            writer.write(transacao.totalParcelas() != null ? transacao.totalParcelas().toString() : "");
+            writer.write('\n');
+        }
+
+        writer.flush();
+    }
+
+    private void escreverNdjson(Iterable<TransacaoView> transacoes, OutputStream saida) throws IOException {
+        JsonGenerator gerador = objectMapper.getFactory().createGenerator(saida);
+        gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        gerador.setRootValueSeparator(null); // o separador de linhas é escrito explicitamente
+
+        for (TransacaoView transacao : transacoes) {
+            gerador.writeStartObject();
+            if (transacao.id() != null) {
+                gerador.writeNumberField("id", transacao.id());
+            } else {
+                gerador.writeNullField("id");
+            }
+            gerador.writeStringField("data", transacao.data().toString());
+            gerador.writeStringField("descricao", transacao.descricao());
+            gerador.writeNumberField("valor", transacao.valor());
+            gerador.writeStringField("tipo", transacao.tipo());
+            gerador.writeNumberField("categoriaId", transacao.categoriaId());
+            gerador.writeStringField("categoriaNome", transacao.categoriaNome());
+            if (transacao.subcategoriaId() != null) {
+                gerador.writeNumberField("subcategoriaId", transacao.subcategoriaId());
+                gerador.writeStringField("subcategoriaNome", transacao.subcategoriaNome());
+            }
+            gerador.writeNumberField("instituicaoId", transacao.instituicaoId());
+            gerador.writeStringField("instituicaoNome", transacao.instituicaoNome());
+            if (transacao.parcelaAtual() != null) {
+                gerador.writeNumberField("parcelaAtual", transacao.parcelaAtual());
+                gerador.writeNumberField("totalParcelas", transacao.totalParcelas());
+                gerador.writeStringField("grupoParcelamento", transacao.grupoParcelamento());
+            }
+            gerador.writeEndObject();
+            gerador.writeRaw('\n');
+        }
+
+        gerador.close();
+    }
+
+    /**
+     * Intercala as linhas lidas do banco, em ordem (data, id), com as parcelas virtuais
+     * em ordem de data: a parcela virtual vem depois das transações gravadas do mesmo dia.
+     */
+    private static final class Intercalacao implements Iterator<TransacaoView> {
+
+        private final Iterator<TransacaoView> gravadas;
+        private final Iterator<TransacaoView> virtuais;
+        private TransacaoView proximaGravada;
+        private TransacaoView proximaVirtual;
+
+        Intercalacao(Iterator<TransacaoView> gravadas, Iterator<TransacaoView> virtuais) {
+            this.gravadas = gravadas;
+            this.virtuais = virtuais;
+            proximaGravada = gravadas.hasNext() ? gravadas.next() : null;
+            proximaVirtual = virtuais.hasNext() ? virtuais.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return proximaGravada != null || proximaVirtual != null;
+        }
+
+        @Override
+        public TransacaoView next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            TransacaoView atual;
+            if (proximaVirtual == null
+                    || (proximaGravada != null && !proximaGravada.data().isAfter(proximaVirtual.data()))) {
+                atual = proximaGravada;
+                proximaGravada = gravadas.hasNext() ? gravadas.next() : null;
+            } else {
+                atual = proximaVirtual;
+                proximaVirtual = virtuais.hasNext() ? virtuais.next() : null;
+            }
+            return atual;
+        }
+    }
+
+    private String escaparCsv(String valor) {
+        if (valor.indexOf(';') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,324 @@
+package com.financeiro.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financeiro.dto.ResultadoLoteDTO;
+import com.financeiro.dto.ResultadoLoteDTO.ResultadoLinha;
+import com.financeiro.dto.TransacaoDTO;
+import com.financeiro.entity.Categoria;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.entity.Perfil;
+import com.financeiro.entity.RegistroImportacao;
+import com.financeiro.entity.Subcategoria;
+import com.financeiro.entity.Transacao;
+import com.financeiro.exception.NegocioException;
+import com.financeiro.exception.RecursoNaoEncontradoException;
+import com.financeiro.repository.CategoriaRepository;
+import com.financeiro.repository.InstituicaoRepository;
+import com.financeiro.repository.PerfilRepository;
+import com.financeiro.repository.RegistroImportacaoRepository;
+import com.financeiro.repository.SubcategoriaRepository;
+import com.financeiro.util.ClassificadorTransacoes;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Inclusão de transações em lote. O array JSON é lido elemento a elemento e gravado
+ * em blocos, cada um na sua própria transação: referências carregadas uma vez por
+ * bloco, inserts agrupados em batch pelo Hibernate e um único ajuste de saldo por
+ * instituição e de resumo mensal por chave.
+ */
+@Service
+public class TransacaoLoteService {
+
+    private static final int TAMANHO_BLOCO = 500;
+    private static final int MAXIMO_ERROS_REPORTADOS = 1000;
+
+    @Autowired
+    private PerfilRepository perfilRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private SubcategoriaRepository subcategoriaRepository;
+
+    @Autowired
+    private InstituicaoRepository instituicaoRepository;
+
+    @Autowired
+    private RegistroImportacaoRepository registroImportacaoRepository;
+
+    @Autowired
+    private InstituicaoService instituicaoService;
+
+    @Autowired
+    private ResumoMensalService resumoMensalService;
+
+    @Autowired
+    private SaldoDiarioService saldoDiarioService;
+
+    @Autowired
+    private CategorizacaoAutomaticaService categorizacaoAutomaticaService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Lê e grava o array em blocos. O resultado traz as contagens e só as linhas rejeitadas
+     * (até MAXIMO_ERROS_REPORTADOS), de modo que a memória não cresce com o tamanho do lote.
+     */
+    public ResultadoLoteDTO importar(Long perfilId, InputStream corpo) throws IOException {
+        Perfil perfil = perfilRepository.findById(perfilId)
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Perfil", perfilId));
+
+        Contagem contagem = new Contagem();
+        List<TransacaoDTO> bloco = new ArrayList<>(TAMANHO_BLOCO);
+        String erroLeitura = null;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(corpo)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new NegocioException("O corpo da requisição deve ser um array JSON de transações");
+            }
+
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                bloco.add(objectMapper.readValue(parser, TransacaoDTO.class));
+                if (bloco.size() == TAMANHO_BLOCO) {
+                    contagem.somar(gravarBloco(perfil, bloco, contagem.recebidas));
+                    bloco.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // O restante do array não pode ser lido; o que veio antes ainda é gravado
+            erroLeitura = "JSON inválido: " + e.getOriginalMessage();
+        }
+
+        if (!bloco.isEmpty()) {
+            contagem.somar(gravarBloco(perfil, bloco, contagem.recebidas));
+        }
+        if (erroLeitura != null) {
+            contagem.somar(List.of(new ResultadoLinha(contagem.recebidas, null, erroLeitura)));
+        }
+
+        return ResultadoLoteDTO.builder()
+                .recebidas(contagem.recebidas)
+                .inseridas(contagem.inseridas)
+                .rejeitadas(contagem.recebidas - contagem.inseridas)
+                .erros(contagem.erros)
+                .build();
+    }
+
+    private static final class Contagem {
+        private int recebidas;
+        private int inseridas;
+        private final List<ResultadoLinha> erros = new ArrayList<>();
+
+        private void somar(List<ResultadoLinha> linhas) {
+            recebidas += linhas.size();
+            for (ResultadoLinha linha : linhas) {
+                if (linha.getId() != null) {
+                    inseridas++;
+                } else if (erros.size() < MAXIMO_ERROS_REPORTADOS) {
+                    erros.add(linha);
+                }
+            }
+        }
+    }
+
+    /**
+     * Valida e grava um bloco de transações do perfil em uma única transação do banco.
+     * Linhas inválidas são reportadas e ignoradas; uma falha na gravação rejeita o bloco.
+     */
+    public List<ResultadoLinha> gravarBloco(Perfil perfil, List<TransacaoDTO> bloco, int indiceInicial) {
+        List<ResultadoLinha> linhas = linhasDoBloco(bloco, indiceInicial);
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(
+                    status -> gravar(perfil, bloco, linhas, null));
+        } catch (RuntimeException e) {
+            for (ResultadoLinha linha : linhas) {
+                if (linha.getErro() == null) {
+                    linha.setId(null);
+                    linha.setErro("Falha ao gravar o bloco: " + e.getMessage());
+                }
+            }
+        }
+        return linhas;
+    }
+    
+    /**
+     * Como {@link #gravarBloco(Perfil, List, int)}, vinculando as transações criadas à
+     * importação de extrato informada. Na mesma transação o registro passa a apontar a
+     * última linha do arquivo coberta pelo bloco, de onde uma retomada continua. Aqui a
+     * falha na gravação é lançada: ela interrompe a importação em vez de rejeitar o bloco.
+     */
+    public List<ResultadoLinha> gravarBloco(Perfil perfil, List<TransacaoDTO> bloco, int indiceInicial,
+                                            RegistroImportacao registroImportacao, long ultimaLinhaArquivo) {
+        List<ResultadoLinha> linhas = linhasDoBloco(bloco, indiceInicial);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            gravar(perfil, bloco, linhas, registroImportacao);
+            long inseridas = linhas.stream().filter(linha -> linha.getId() != null).count();
+            registroImportacaoRepository.registrarProgresso(registroImportacao.getId(), ultimaLinhaArquivo, inseridas);
+        });
+        return linhas;
+    }
+
+    private List<ResultadoLinha> linhasDoBloco(List<TransacaoDTO> bloco, int indiceInicial) {
+        List<ResultadoLinha> linhas = new ArrayList<>(bloco.size());
+        for (int i = 0; i < bloco.size(); i++) {
+            linhas.add(new ResultadoLinha(indiceInicial + i, null, null));
+        }
+        return linhas;
+    }
+
+    private void gravar(Perfil perfil, List<TransacaoDTO> bloco, List<ResultadoLinha> linhas,
+                        RegistroImportacao registroImportacao) {
+        // Linhas sem categoria recebem a da regra do perfil que se aplica, se houver
+        ClassificadorTransacoes classificador = categorizacaoAutomaticaService.obter(perfil.getId());
+        for (TransacaoDTO dto : bloco) {
+            categorizacaoAutomaticaService.categorizar(dto, classificador);
+        }
+        
+        Map<Long, Categoria> categorias = carregar(bloco, TransacaoDTO::getCategoriaId,
+                categoriaRepository::findAllById, Categoria::getId);
+        Map<Long, Subcategoria> subcategorias = carregar(bloco, TransacaoDTO::getSubcategoriaId,
+                subcategoriaRepository::findAllById, Subcategoria::getId);
+        Map<Long, Instituicao> instituicoes = carregar(bloco, TransacaoDTO::getInstituicaoId,
+                instituicaoRepository::findAllById, Instituicao::getId);
+
+        List<Transacao> gravadas = new ArrayList<>(bloco.size());
+        List<ResultadoLinha> linhasGravadas = new ArrayList<>(bloco.size());
+        // Em ordem de id, como nas transferências: os saldos são bloqueados sempre na mesma ordem
+        Map<Long, BigDecimal> deltasPorInstituicao = new TreeMap<>();
+
+        for (int i = 0; i < bloco.size(); i++) {
+            TransacaoDTO dto = bloco.get(i);
+            String erro = validar(dto, perfil, categorias, subcategorias, instituicoes);
+            if (erro != null) {
+                linhas.get(i).setErro(erro);
+                continue;
+            }
+
+            Transacao transacao = new Transacao();
+            transacao.setData(dto.getData());
+            transacao.setDescricao(dto.getDescricao());
+            transacao.setValor(dto.getValor());
+            transacao.setTipo(dto.getTipo());
+            transacao.setCategoria(categorias.get(dto.getCategoriaId()));
+            transacao.setSubcategoria(dto.getSubcategoriaId() != null ? subcategorias.get(dto.getSubcategoriaId()) : null);
+            transacao.setInstituicao(instituicoes.get(dto.getInstituicaoId()));
+            transacao.setUsuario(perfil.getUsuario());
+            transacao.setPerfil(perfil);
+            if (registroImportacao != null) {
+                transacao.setRegistroImportacao(entityManager.getReference(RegistroImportacao.class,
+                        registroImportacao.getId()));
+            }
+
+            entityManager.persist(transacao);
+            gravadas.add(transacao);
+            linhasGravadas.add(linhas.get(i));
+            deltasPorInstituicao.merge(dto.getInstituicaoId(),
+                    "Receita".equals(dto.getTipo()) ? dto.getValor() : dto.getValor().negate(), BigDecimal::add);
+        }
+
+        // Os inserts vão ao banco de uma vez e o contexto é liberado antes dos UPDATEs por
+        // chave: cada um faz auto-flush, que com as transações do bloco ainda gerenciadas
+        // repetiria o dirty checking de todas elas (custo chaves x linhas)
+        entityManager.flush();
+        entityManager.clear();
+
+        deltasPorInstituicao.forEach(instituicaoService::ajustarSaldo);
+        resumoMensalService.registrarLote(gravadas);
+        saldoDiarioService.registrarLote(gravadas);
+
+        entityManager.flush();
+        for (int i = 0; i < gravadas.size(); i++) {
+            linhasGravadas.get(i).setId(gravadas.get(i).getId());
+        }
+        // As entidades do bloco não são mais usadas; liberar o contexto mantém a memória constante
+        entityManager.clear();
+    }
+
+    private String validar(TransacaoDTO dto, Perfil perfil, Map<Long, Categoria> categorias,
+                           Map<Long, Subcategoria> subcategorias, Map<Long, Instituicao> instituicoes) {
+        Set<ConstraintViolation<TransacaoDTO>> violacoes = validator.validate(dto);
+        if (!violacoes.isEmpty()) {
+            return violacoes.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+        }
+        if (Boolean.TRUE.equals(dto.getTransferenciaEntrePerfis())
+                || (dto.getNumeroParcelas() != null && dto.getNumeroParcelas() > 1)) {
+            return "Transferências e parcelamentos não são aceitos na inclusão em lote";
+        }
+        if (dto.getCategoriaId() == null) {
+            return "Categoria não informada e nenhuma regra de categorização do perfil se aplica";
+        }
+        Categoria categoria = categorias.get(dto.getCategoriaId());
+        if (categoria == null) {
+            return new RecursoNaoEncontradoException("Categoria", dto.getCategoriaId()).getMessage();
+        }
+        // Os ids dos donos vêm das chaves estrangeiras, sem carregar as associações LAZY
+        if (!categoria.getPerfil().getId().equals(perfil.getId())) {
+            return new NegocioException("A categoria " + categoria.getId() + " não pertence ao perfil "
+                    + perfil.getId()).getMessage();
+        }
+        if (dto.getSubcategoriaId() != null) {
+            Subcategoria subcategoria = subcategorias.get(dto.getSubcategoriaId());
+            if (subcategoria == null) {
+                return new RecursoNaoEncontradoException("Subcategoria", dto.getSubcategoriaId()).getMessage();
+            }
+            if (!subcategoria.getCategoria().getId().equals(categoria.getId())) {
+                return new NegocioException("A subcategoria " + subcategoria.getId() + " não pertence à categoria "
+                        + categoria.getId()).getMessage();
+            }
+        }
+        Instituicao instituicao = instituicoes.get(dto.getInstituicaoId());
+        if (instituicao == null) {
+            return new RecursoNaoEncontradoException("Instituição", dto.getInstituicaoId()).getMessage();
+        }
+        if (!instituicao.getPerfil().getId().equals(perfil.getId())) {
+            return new NegocioException("A instituição " + instituicao.getId() + " não pertence ao perfil "
+                    + perfil.getId()).getMessage();
+        }
+        return null;
+    }
+
+    // Busca de uma vez todas as entidades referenciadas pelo bloco
+    private <T> Map<Long, T> carregar(List<TransacaoDTO> bloco, Function<TransacaoDTO, Long> idReferencia,
+                                      Function<Set<Long>, List<T>> buscar, Function<T, Long> id) {
+        Set<Long> ids = bloco.stream().map(idReferencia).filter(Objects::nonNull).collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return buscar.apply(ids).stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+}
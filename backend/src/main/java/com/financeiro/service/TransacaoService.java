@@ -3,33 +3,59 @@ package com.financeiro.service;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.financeiro.dto.FiltroTransacaoDTO;
+import com.financeiro.dto.PaginaDTO;
 import com.financeiro.dto.ResumoFinanceiroDTO;
 import com.financeiro.dto.ResumoFinanceiroDTO.ResumoCategoria;
+import com.financeiro.dto.ResumoFinanceiroDTO.ResumoSubcategoria;
+import com.financeiro.dto.SomaCategoriaView;
 import com.financeiro.dto.TransacaoDTO;
+import com.financeiro.dto.TransacaoView;
 import com.financeiro.entity.Categoria;
 import com.financeiro.entity.Instituicao;
 import com.financeiro.entity.Perfil;
+import com.financeiro.entity.PlanoParcelamento;
 import com.financeiro.entity.Subcategoria;
 import com.financeiro.entity.Transacao;
 import com.financeiro.entity.Usuario;
+import com.financeiro.exception.NegocioException;
 import com.financeiro.exception.RecursoNaoEncontradoException;
 import com.financeiro.repository.CategoriaRepository;
 import com.financeiro.repository.InstituicaoRepository;
 import com.financeiro.repository.PerfilRepository;
+import com.financeiro.repository.PlanoParcelamentoRepository;
 import com.financeiro.repository.SubcategoriaRepository;
 import com.financeiro.repository.TransacaoRepository;
+import com.financeiro.repository.TransacaoSpecifications;
 import com.financeiro.repository.UsuarioRepository;
+import com.financeiro.service.DadosReferenciaCache.CategoriaRef;
+import com.financeiro.service.DadosReferenciaCache.InstituicaoRef;
+import com.financeiro.service.DadosReferenciaCache.PerfilRef;
+import com.financeiro.service.DadosReferenciaCache.SubcategoriaRef;
+import com.financeiro.util.CursorTransacao;
+import com.financeiro.util.ModeloSugestaoCategoria.Exemplo;
 
 @Service
 public class TransacaoService {
 
+    private static final int TAMANHO_PAGINA_PADRAO = 50;
+    private static final int TAMANHO_PAGINA_MAXIMO = 500;
+
     @Autowired
     private TransacaoRepository transacaoRepository;
     
@@ -48,53 +74,70 @@ public class TransacaoService {
     @Autowired
     private InstituicaoService instituicaoService;
     
-    public List<TransacaoDTO> listarTodas() {
-        return transacaoRepository.findAll().stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
-    }
+    @Autowired
+    private ResumoMensalService resumoMensalService;
     
-    public List<TransacaoDTO> listarPorUsuario(Long usuarioId) {
-        Usuario usuario = usuarioRepository.findById(usuarioId)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-        
-        return transacaoRepository.findByUsuario(usuario).stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
-    }
+    @Autowired
+    private SaldoDiarioService saldoDiarioService;
     
-    public List<TransacaoDTO> listarPorTipo(String tipo) {
-        return transacaoRepository.findByTipo(tipo).stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
-    }
+    @Autowired
+    private ResumoFinanceiroCache resumoFinanceiroCache;
     
-    public List<TransacaoDTO> listarPorPeriodo(LocalDate dataInicio, LocalDate dataFim) {
-        return transacaoRepository.findByDataBetween(dataInicio, dataFim).stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
-    }
+    @Autowired
+    private PlanoParcelamentoRepository planoParcelamentoRepository;
     
-    public List<TransacaoDTO> listarPorUsuarioETipo(Long usuarioId, String tipo) {
-        Usuario usuario = usuarioRepository.findById(usuarioId)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-        
-        return transacaoRepository.findByUsuarioAndTipo(usuario, tipo).stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
+    @Autowired
+    private PlanoParcelamentoService planoParcelamentoService;
+    
+    @Autowired
+    private CategorizacaoAutomaticaService categorizacaoAutomaticaService;
+    
+    @Autowired
+    private SugestaoCategoriaService sugestaoCategoriaService;
+    
+    @Autowired
+    private DadosReferenciaCache dadosReferencia;
+    
+    /**
+     * Lista uma página de transações aplicando todos os filtros informados em uma
+     * única consulta, ordenada por (data, id) decrescente a partir do cursor. As
+     * parcelas virtuais dos planos de parcelamento que atendem ao filtro entram na
+     * mesma página, sem id e identificadas pelo grupo e pelo número da parcela.
+     */
+    public PaginaDTO<TransacaoDTO> listar(FiltroTransacaoDTO filtro, String cursor, Integer tamanho) {
+        CursorTransacao posicao = CursorTransacao.decodificar(cursor);
+        int limite = limitarTamanhoPagina(tamanho);
+        
+        Specification<Transacao> especificacao = TransacaoSpecifications.comFiltro(filtro)
+                .and(TransacaoSpecifications.aposCursor(posicao));
+        
+        List<TransacaoView> gravadas = transacaoRepository.buscarVisoes(especificacao, limite + 1);
+        List<TransacaoView> virtuais = planoParcelamentoService.listarVisoesVirtuais(filtro, posicao, limite + 1);
+        
+        return montarPagina(mesclar(gravadas, virtuais, limite + 1), limite);
     }
     
-    public List<TransacaoDTO> listarPorUsuarioEPeriodo(Long usuarioId, LocalDate dataInicio, LocalDate dataFim) {
-        Usuario usuario = usuarioRepository.findById(usuarioId)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-        
-        return transacaoRepository.findByUsuarioAndDataBetween(usuario, dataInicio, dataFim).stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
+    // Intercala duas listas já na ordem da listagem, parando em limite itens
+    private List<TransacaoView> mesclar(List<TransacaoView> gravadas, List<TransacaoView> virtuais, int limite) {
+        if (virtuais.isEmpty()) {
+            return gravadas;
+        }
+        List<TransacaoView> transacoes = new ArrayList<>(limite);
+        int i = 0;
+        int j = 0;
+        while (transacoes.size() < limite && (i < gravadas.size() || j < virtuais.size())) {
+            if (j == virtuais.size() || (i < gravadas.size() && CursorTransacao.ORDEM.compare(
+                    CursorTransacao.de(gravadas.get(i)), CursorTransacao.de(virtuais.get(j))) < 0)) {
+                transacoes.add(gravadas.get(i++));
+            } else {
+                transacoes.add(virtuais.get(j++));
+            }
+        }
+        return transacoes;
     }
     
     public TransacaoDTO buscarPorId(Long id) {
-        return transacaoRepository.findById(id)
+        return transacaoRepository.findDetalhadaById(id)
                 .map(this::converterParaDTO)
                 .orElseThrow(() -> new RecursoNaoEncontradoException("Transação", id));
     }
@@ -109,17 +152,24 @@ public class TransacaoService {
             return criarTransferenciaEntrePerfis(dto, usuario);
         }
         
-        Categoria categoria = categoriaRepository.findById(dto.getCategoriaId())
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Categoria", dto.getCategoriaId()));
-        
-        Subcategoria subcategoria = null;
-        if (dto.getSubcategoriaId() != null) {
-            subcategoria = subcategoriaRepository.findById(dto.getSubcategoriaId())
-                    .orElseThrow(() -> new RecursoNaoEncontradoException("Subcategoria", dto.getSubcategoriaId()));
+        // Adicionar informações de perfil
+        Perfil perfil;
+        if (dto.getPerfilId() != null) {
+            perfil = perfilRepository.getReferenceById(referenciaPerfil(dto.getPerfilId(), "Perfil").id());
+        } else {
+            // Se não foi especificado um perfil, usar o primeiro perfil do usuário
+            List<Perfil> perfis = perfilRepository.findByUsuario(usuario);
+            if (perfis.isEmpty()) {
+                throw new RuntimeException("Usuário não possui perfis configurados");
+            }
+            perfil = perfis.get(0); // Usar o primeiro perfil como padrão
         }
+        categorizar(dto, perfil.getId());
         
-        Instituicao instituicao = instituicaoRepository.findById(dto.getInstituicaoId())
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Instituição", dto.getInstituicaoId()));
+        Categoria categoria = referenciaCategoria(dto.getCategoriaId(), perfil.getId());
+        Subcategoria subcategoria = dto.getSubcategoriaId() != null
+                ? referenciaSubcategoria(dto.getSubcategoriaId(), dto.getCategoriaId()) : null;
+        Instituicao instituicao = referenciaInstituicao(dto.getInstituicaoId(), perfil.getId());
         
         Transacao transacao = new Transacao();
         transacao.setData(dto.getData());
@@ -131,22 +181,12 @@ public class TransacaoService {
         transacao.setInstituicao(instituicao);
         transacao.setUsuario(usuario);
         
-        // Adicionar informações de perfil
-        Perfil perfil;
-        if (dto.getPerfilId() != null) {
-            perfil = perfilRepository.findById(dto.getPerfilId())
-                    .orElseThrow(() -> new RecursoNaoEncontradoException("Perfil", dto.getPerfilId()));
-        } else {
-            // Se não foi especificado um perfil, usar o primeiro perfil do usuário
-            List<Perfil> perfis = perfilRepository.findByUsuario(usuario);
-            if (perfis.isEmpty()) {
-                throw new RuntimeException("Usuário não possui perfis configurados");
-            }
-            perfil = perfis.get(0); // Usar o primeiro perfil como padrão
-        }
         transacao.setPerfil(perfil);
         
         transacao = transacaoRepository.save(transacao);
+        saldoDiarioService.registrar(transacao, 1);
+        resumoMensalService.registrar(transacao, 1);
+        sugestaoCategoriaService.treinar(transacao.getPerfil().getId(), null, sugestaoCategoriaService.exemplo(transacao));
         
         // Atualizar o saldo da instituição
         atualizarSaldoInstituicao(instituicao, dto.getValor(), dto.getTipo());
@@ -156,32 +196,26 @@ public class TransacaoService {
     
     @Transactional
     public TransacaoDTO salvarPorPerfil(TransacaoDTO dto, Long perfilId) {
-        Perfil perfil = perfilRepository.findById(perfilId)
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Perfil", perfilId));
-        
-        Usuario usuario = perfil.getUsuario();
+        PerfilRef perfilRef = referenciaPerfil(perfilId, "Perfil");
+        Perfil perfil = perfilRepository.getReferenceById(perfilId);
+        Usuario usuario = usuarioRepository.getReferenceById(perfilRef.usuarioId());
         
         // Se for uma transferência entre perfis, criar duas transações vinculadas
         if (Boolean.TRUE.equals(dto.getTransferenciaEntrePerfis()) && dto.getPerfilDestinoId() != null) {
             return criarTransferenciaEntrePerfis(dto, usuario);
         }
         
+        categorizar(dto, perfilId);
+        
         // Se for uma transação parcelada, criar múltiplas transações
         if (dto.getNumeroParcelas() != null && dto.getNumeroParcelas() > 1) {
             return criarTransacaoParcelada(dto, usuario, perfil);
         }
         
-        Categoria categoria = categoriaRepository.findById(dto.getCategoriaId())
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Categoria", dto.getCategoriaId()));
-        
-        Subcategoria subcategoria = null;
-        if (dto.getSubcategoriaId() != null) {
-            subcategoria = subcategoriaRepository.findById(dto.getSubcategoriaId())
-                    .orElseThrow(() -> new RecursoNaoEncontradoException("Subcategoria", dto.getSubcategoriaId()));
-        }
-        
-        Instituicao instituicao = instituicaoRepository.findById(dto.getInstituicaoId())
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Instituição", dto.getInstituicaoId()));
+        Categoria categoria = referenciaCategoria(dto.getCategoriaId(), perfilId);
+        Subcategoria subcategoria = dto.getSubcategoriaId() != null
+                ? referenciaSubcategoria(dto.getSubcategoriaId(), dto.getCategoriaId()) : null;
+        Instituicao instituicao = referenciaInstituicao(dto.getInstituicaoId(), perfilId);
         
         Transacao transacao = new Transacao();
         transacao.setData(dto.getData());
@@ -195,6 +229,9 @@ public class TransacaoService {
         transacao.setPerfil(perfil);
         
         transacao = transacaoRepository.save(transacao);
+        saldoDiarioService.registrar(transacao, 1);
+        resumoMensalService.registrar(transacao, 1);
+        sugestaoCategoriaService.treinar(transacao.getPerfil().getId(), null, sugestaoCategoriaService.exemplo(transacao));
         
         // Atualizar o saldo da instituição
         atualizarSaldoInstituicao(instituicao, dto.getValor(), dto.getTipo());
@@ -204,24 +241,30 @@ public class TransacaoService {
     
     @Transactional
     public TransacaoDTO atualizar(Long id, TransacaoDTO dto) {
-        Transacao transacao = transacaoRepository.findById(id)
+        Transacao transacao = transacaoRepository.findDetalhadaById(id)
                 .orElseThrow(() -> new RecursoNaoEncontradoException("Transação", id));
+        Exemplo anterior = sugestaoCategoriaService.exemplo(transacao);
         
-        // Reverter o efeito da transação anterior no saldo
-        atualizarSaldoInstituicao(transacao.getInstituicao(), transacao.getValor(), 
-                transacao.getTipo().equals("Receita") ? "Despesa" : "Receita");
-        
-        Categoria categoria = categoriaRepository.findById(dto.getCategoriaId())
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Categoria", dto.getCategoriaId()));
+        // A troca de instituição altera o saldo das duas: bloqueia ambas em ordem de id antes
+        if (Boolean.TRUE.equals(transacao.getLancada())
+                && !transacao.getInstituicao().getId().equals(dto.getInstituicaoId())) {
+            bloquearInstituicoes(transacao.getInstituicao().getId(), dto.getInstituicaoId());
+        }
         
-        Subcategoria subcategoria = null;
-        if (dto.getSubcategoriaId() != null) {
-            subcategoria = subcategoriaRepository.findById(dto.getSubcategoriaId())
-                    .orElseThrow(() -> new RecursoNaoEncontradoException("Subcategoria", dto.getSubcategoriaId()));
+        // Reverter o efeito da transação anterior no saldo (se já lançada) e no resumo mensal
+        if (Boolean.TRUE.equals(transacao.getLancada())) {
+            atualizarSaldoInstituicao(transacao.getInstituicao(), transacao.getValor(), 
+                    transacao.getTipo().equals("Receita") ? "Despesa" : "Receita");
         }
+        saldoDiarioService.registrar(transacao, -1);
+        resumoMensalService.registrar(transacao, -1);
+        
+        categorizar(dto, transacao.getPerfil().getId());
         
-        Instituicao instituicao = instituicaoRepository.findById(dto.getInstituicaoId())
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Instituição", dto.getInstituicaoId()));
+        Categoria categoria = referenciaCategoria(dto.getCategoriaId(), transacao.getPerfil().getId());
+        Subcategoria subcategoria = dto.getSubcategoriaId() != null
+                ? referenciaSubcategoria(dto.getSubcategoriaId(), dto.getCategoriaId()) : null;
+        Instituicao instituicao = referenciaInstituicao(dto.getInstituicaoId(), transacao.getPerfil().getId());
         
         transacao.setData(dto.getData());
         transacao.setDescricao(dto.getDescricao());
@@ -232,9 +275,14 @@ public class TransacaoService {
         transacao.setInstituicao(instituicao);
         
         transacao = transacaoRepository.save(transacao);
+        saldoDiarioService.registrar(transacao, 1);
+        resumoMensalService.registrar(transacao, 1);
+        sugestaoCategoriaService.treinar(transacao.getPerfil().getId(), anterior, sugestaoCategoriaService.exemplo(transacao));
         
-        // Aplicar o efeito da nova transação no saldo
-        atualizarSaldoInstituicao(instituicao, dto.getValor(), dto.getTipo());
+        // Aplicar o efeito da nova transação no saldo; parcelas pendentes serão lançadas no vencimento
+        if (Boolean.TRUE.equals(transacao.getLancada())) {
+            atualizarSaldoInstituicao(instituicao, dto.getValor(), dto.getTipo());
+        }
         
         return converterParaDTO(transacao);
     }
@@ -244,77 +292,54 @@ public class TransacaoService {
         Transacao transacao = transacaoRepository.findById(id)
                 .orElseThrow(() -> new RecursoNaoEncontradoException("Transação", id));
         
-        // Reverter o efeito da transação no saldo
-        atualizarSaldoInstituicao(transacao.getInstituicao(), transacao.getValor(), 
-                transacao.getTipo().equals("Receita") ? "Despesa" : "Receita");
+        // Reverter o efeito da transação no saldo (se já lançada) e no resumo mensal
+        if (Boolean.TRUE.equals(transacao.getLancada())) {
+            atualizarSaldoInstituicao(transacao.getInstituicao(), transacao.getValor(), 
+                    transacao.getTipo().equals("Receita") ? "Despesa" : "Receita");
+        }
+        saldoDiarioService.registrar(transacao, -1);
+        resumoMensalService.registrar(transacao, -1);
+        planoParcelamentoService.registrarExclusao(transacao);
+        sugestaoCategoriaService.treinar(transacao.getPerfil().getId(), sugestaoCategoriaService.exemplo(transacao), null);
         
         transacaoRepository.deleteById(id);
     }
     
     private void atualizarSaldoInstituicao(Instituicao instituicao, BigDecimal valor, String tipo) {
-        BigDecimal novoSaldo;
-        
-        if (tipo.equals("Receita")) {
-            novoSaldo = instituicao.getSaldoAtual().add(valor);
-        } else {
-            novoSaldo = instituicao.getSaldoAtual().subtract(valor);
-        }
-        
-        instituicaoService.atualizarSaldo(instituicao.getId(), novoSaldo);
+        // Aplica apenas o delta; o saldo atual é somado pelo banco e não a partir da entidade carregada
+        BigDecimal delta = tipo.equals("Receita") ? valor : valor.negate();
+        instituicaoService.ajustarSaldo(instituicao.getId(), delta);
     }
     
     @Autowired
     private PerfilRepository perfilRepository;
     
-    public List<TransacaoDTO> listarPorPerfil(Long perfilId) {
-        Perfil perfil = perfilRepository.findById(perfilId)
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Perfil", perfilId));
-        
-        return transacaoRepository.findByPerfil(perfil).stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
-    }
-    
-    public List<TransacaoDTO> listarPorPerfilETipo(Long perfilId, String tipo) {
-        Perfil perfil = perfilRepository.findById(perfilId)
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Perfil", perfilId));
-        
-        return transacaoRepository.findByPerfilAndTipo(perfil, tipo).stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
-    }
-    
-    public List<TransacaoDTO> listarPorPerfilEPeriodo(Long perfilId, LocalDate dataInicio, LocalDate dataFim) {
-        Perfil perfil = perfilRepository.findById(perfilId)
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Perfil", perfilId));
-        
-        return transacaoRepository.findByPerfilAndDataBetween(perfil, dataInicio, dataFim).stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
-    }
-    
-    public List<TransacaoDTO> listarPorPerfilECategoria(Long perfilId, Long categoriaId) {
-        Perfil perfil = perfilRepository.findById(perfilId)
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Perfil", perfilId));
-        
-        Categoria categoria = categoriaRepository.findById(categoriaId)
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Categoria", categoriaId));
-        
-        return transacaoRepository.findByPerfilAndCategoria(perfil, categoria).stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
+    private int limitarTamanhoPagina(Integer tamanho) {
+        if (tamanho == null || tamanho <= 0) {
+            return TAMANHO_PAGINA_PADRAO;
+        }
+        return Math.min(tamanho, TAMANHO_PAGINA_MAXIMO);
     }
     
-    public List<TransacaoDTO> listarPorPerfilTipoECategoria(Long perfilId, String tipo, Long categoriaId) {
-        Perfil perfil = perfilRepository.findById(perfilId)
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Perfil", perfilId));
-        
-        Categoria categoria = categoriaRepository.findById(categoriaId)
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Categoria", categoriaId));
+    /**
+     * Monta a página a partir de uma consulta que trouxe até {@code limite + 1} linhas:
+     * a linha excedente indica apenas que existe uma próxima página.
+     */
+    private PaginaDTO<TransacaoDTO> montarPagina(List<TransacaoView> transacoes, int limite) {
+        boolean possuiMais = transacoes.size() > limite;
+        List<TransacaoView> itens = possuiMais ? transacoes.subList(0, limite) : transacoes;
+        
+        String proximoCursor = null;
+        if (possuiMais) {
+            TransacaoView ultima = itens.getLast();
+            proximoCursor = CursorTransacao.de(ultima).codificar();
+        }
         
-        return transacaoRepository.findByPerfilAndTipoAndCategoria(perfil, tipo, categoria).stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
+        return PaginaDTO.<TransacaoDTO>builder()
+                .itens(itens.stream().map(this::converterParaDTO).collect(Collectors.toList()))
+                .proximoCursor(proximoCursor)
+                .possuiMais(possuiMais)
+                .build();
     }
     
     private TransacaoDTO converterParaDTO(Transacao transacao) {
@@ -324,27 +349,30 @@ public class TransacaoService {
         dto.setDescricao(transacao.getDescricao());
         dto.setValor(transacao.getValor());
         dto.setTipo(transacao.getTipo());
+        // Os nomes vêm do cache de cadastros: as associações podem ser proxies não carregados
         dto.setCategoriaId(transacao.getCategoria().getId());
-        dto.setCategoriaNome(transacao.getCategoria().getNome());
+        dto.setCategoriaNome(dadosReferencia.categoria(dto.getCategoriaId()).map(CategoriaRef::nome).orElse(null));
         
         if (transacao.getSubcategoria() != null) {
             dto.setSubcategoriaId(transacao.getSubcategoria().getId());
-            dto.setSubcategoriaNome(transacao.getSubcategoria().getNome());
+            dto.setSubcategoriaNome(dadosReferencia.subcategoria(dto.getSubcategoriaId())
+                    .map(SubcategoriaRef::nome).orElse(null));
         }
         
         dto.setInstituicaoId(transacao.getInstituicao().getId());
-        dto.setInstituicaoNome(transacao.getInstituicao().getNome());
+        dto.setInstituicaoNome(dadosReferencia.instituicao(dto.getInstituicaoId())
+                .map(InstituicaoRef::nome).orElse(null));
         
         if (transacao.getPerfil() != null) {
             dto.setPerfilId(transacao.getPerfil().getId());
-            dto.setPerfilNome(transacao.getPerfil().getNome());
+            dto.setPerfilNome(dadosReferencia.perfil(dto.getPerfilId()).map(PerfilRef::nome).orElse(null));
         }
         
         dto.setTransferenciaEntrePerfis(transacao.getTransferenciaEntrePerfis());
         
         if (transacao.getPerfilDestino() != null) {
             dto.setPerfilDestinoId(transacao.getPerfilDestino().getId());
-            dto.setPerfilDestinoNome(transacao.getPerfilDestino().getNome());
+            dto.setPerfilDestinoNome(dadosReferencia.perfil(dto.getPerfilDestinoId()).map(PerfilRef::nome).orElse(null));
         }
         
         if (transacao.getTransacaoRelacionada() != null) {
@@ -360,168 +388,318 @@ public class TransacaoService {
         return dto;
     }
     
-    @Transactional
+    private TransacaoDTO converterParaDTO(TransacaoView view) {
+        TransacaoDTO dto = new TransacaoDTO();
+        dto.setId(view.id());
+        dto.setData(view.data());
+        dto.setDescricao(view.descricao());
+        dto.setValor(view.valor());
+        dto.setTipo(view.tipo());
+        dto.setCategoriaId(view.categoriaId());
+        dto.setCategoriaNome(view.categoriaNome());
+        dto.setSubcategoriaId(view.subcategoriaId());
+        dto.setSubcategoriaNome(view.subcategoriaNome());
+        dto.setInstituicaoId(view.instituicaoId());
+        dto.setInstituicaoNome(view.instituicaoNome());
+        dto.setPerfilId(view.perfilId());
+        dto.setPerfilNome(view.perfilNome());
+        dto.setTransferenciaEntrePerfis(view.transferenciaEntrePerfis());
+        dto.setPerfilDestinoId(view.perfilDestinoId());
+        dto.setPerfilDestinoNome(view.perfilDestinoNome());
+        dto.setTransacaoRelacionadaId(view.transacaoRelacionadaId());
+        dto.setParcelaAtual(view.parcelaAtual());
+        dto.setTotalParcelas(view.totalParcelas());
+        dto.setGrupoParcelamento(view.grupoParcelamento());
+        dto.setEhParcelada(view.ehParcelada());
+        return dto;
+    }
+    
+    // Referências validadas pelo cache de cadastros (existência e dono) e montadas como
+    // proxies, sem consulta ao banco
+    private Categoria referenciaCategoria(Long id, Long perfilId) {
+        CategoriaRef categoria = dadosReferencia.categoria(id)
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Categoria", id));
+        if (!categoria.perfilId().equals(perfilId)) {
+            throw new NegocioException("A categoria " + id + " não pertence ao perfil " + perfilId);
+        }
+        return categoriaRepository.getReferenceById(id);
+    }
+    
+    private Subcategoria referenciaSubcategoria(Long id, Long categoriaId) {
+        SubcategoriaRef subcategoria = dadosReferencia.subcategoria(id)
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Subcategoria", id));
+        if (!subcategoria.categoriaId().equals(categoriaId)) {
+            throw new NegocioException("A subcategoria " + id + " não pertence à categoria " + categoriaId);
+        }
+        return subcategoriaRepository.getReferenceById(id);
+    }
+    
+    private Instituicao referenciaInstituicao(Long id, Long perfilId) {
+        InstituicaoRef instituicao = dadosReferencia.instituicao(id)
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Instituição", id));
+        if (!instituicao.perfilId().equals(perfilId)) {
+            throw new NegocioException("A instituição " + id + " não pertence ao perfil " + perfilId);
+        }
+        return instituicaoRepository.getReferenceById(id);
+    }
+    
+    private PerfilRef referenciaPerfil(Long id, String recurso) {
+        return dadosReferencia.perfil(id).orElseThrow(() -> new RecursoNaoEncontradoException(recurso, id));
+    }
+    
+    // Sem categoria informada, aplica as regras de categorização do perfil
+    private void categorizar(TransacaoDTO dto, Long perfilId) {
+        if (!categorizacaoAutomaticaService.categorizar(dto, perfilId)) {
+            throw new NegocioException("Informe a categoria: nenhuma regra de categorização do perfil se aplica à transação");
+        }
+    }
+    
+    /**
+     * Grava as duas pernas da transferência: a saída (Despesa) na instituição de origem,
+     * no perfil de origem, e a entrada (Receita) na instituição de destino, no perfil de
+     * destino. As instituições são bloqueadas antes de qualquer outra escrita e sempre em
+     * ordem de id, de modo que transferências em sentidos opostos e lotes concorrentes
+     * esperam umas pelas outras em vez de se travarem mutuamente. Roda na transação de
+     * salvar ou salvarPorPerfil, que torna as duas pernas e os saldos atômicos.
+     */
     private TransacaoDTO criarTransferenciaEntrePerfis(TransacaoDTO dto, Usuario usuario) {
+        exigirTransacao();
         // Buscar perfis de origem e destino
-        Perfil perfilOrigem = perfilRepository.findById(dto.getPerfilId())
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Perfil de origem", dto.getPerfilId()));
-        
-        Perfil perfilDestino = perfilRepository.findById(dto.getPerfilDestinoId())
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Perfil de destino", dto.getPerfilDestinoId()));
+        PerfilRef perfilOrigem = referenciaPerfil(dto.getPerfilId(), "Perfil de origem");
+        PerfilRef perfilDestino = referenciaPerfil(dto.getPerfilDestinoId(), "Perfil de destino");
         
-        // Buscar categorias para transferência entre perfis
-        Categoria categoriaDespesa = categoriaRepository.findByNomeAndTipo("Transferência entre Perfis", "Despesa")
+        // Categorias de sistema, procuradas por nome: são as mesmas para todos os perfis e
+        // por isso ficam fora da verificação de dono feita nas demais escritas
+        CategoriaRef categoriaDespesa = dadosReferencia.categoriaPorNomeETipo("Transferência entre Perfis", "Despesa")
                 .orElseThrow(() -> new RuntimeException("Categoria 'Transferência entre Perfis' do tipo Despesa não encontrada"));
         
-        Categoria categoriaReceita = categoriaRepository.findByNomeAndTipo("Transferência entre Perfis", "Receita")
+        CategoriaRef categoriaReceita = dadosReferencia.categoriaPorNomeETipo("Transferência entre Perfis", "Receita")
                 .orElseThrow(() -> new RuntimeException("Categoria 'Transferência entre Perfis' do tipo Receita não encontrada"));
         
-        // Buscar instituições
-        Instituicao instituicaoOrigem = instituicaoRepository.findById(dto.getInstituicaoId())
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Instituição", dto.getInstituicaoId()));
+        // Sem instituição de destino, a entrada fica na própria instituição de origem
+        Long origemId = dto.getInstituicaoId();
+        Long destinoId = dto.getInstituicaoDestinoId() != null ? dto.getInstituicaoDestinoId() : origemId;
+        referenciaInstituicao(origemId, perfilOrigem.id());
+        if (dto.getInstituicaoDestinoId() != null) {
+            referenciaInstituicao(destinoId, perfilDestino.id());
+        }
+        bloquearInstituicoes(origemId, destinoId);
         
-        // 1. Criar transação de saída (Despesa) no perfil de origem
+        // 1. Transação de saída (Despesa) no perfil de origem
         Transacao transacaoSaida = new Transacao();
         transacaoSaida.setData(dto.getData());
-        transacaoSaida.setDescricao(dto.getDescricao() + " (Saída para " + perfilDestino.getNome() + ")");
+        transacaoSaida.setDescricao(dto.getDescricao() + " (Saída para " + perfilDestino.nome() + ")");
         transacaoSaida.setValor(dto.getValor());
         transacaoSaida.setTipo("Despesa");
-        transacaoSaida.setCategoria(categoriaDespesa);
-        transacaoSaida.setInstituicao(instituicaoOrigem);
+        transacaoSaida.setCategoria(categoriaRepository.getReferenceById(categoriaDespesa.id()));
+        transacaoSaida.setInstituicao(instituicaoRepository.getReferenceById(origemId));
         transacaoSaida.setUsuario(usuario);
-        transacaoSaida.setPerfil(perfilOrigem);
+        transacaoSaida.setPerfil(perfilRepository.getReferenceById(perfilOrigem.id()));
         transacaoSaida.setTransferenciaEntrePerfis(true);
-        transacaoSaida.setPerfilDestino(perfilDestino);
-        
-        transacaoSaida = transacaoRepository.save(transacaoSaida);
-        
-        // Atualizar o saldo da instituição de origem (reduzir)
-        atualizarSaldoInstituicao(instituicaoOrigem, dto.getValor(), "Despesa");
+        transacaoSaida.setPerfilDestino(perfilRepository.getReferenceById(perfilDestino.id()));
         
-        // 2. Criar transação de entrada (Receita) no perfil de destino
+        // 2. Transação de entrada (Receita) no perfil de destino
         Transacao transacaoEntrada = new Transacao();
         transacaoEntrada.setData(dto.getData());
-        transacaoEntrada.setDescricao(dto.getDescricao() + " (Entrada de " + perfilOrigem.getNome() + ")");
+        transacaoEntrada.setDescricao(dto.getDescricao() + " (Entrada de " + perfilOrigem.nome() + ")");
         transacaoEntrada.setValor(dto.getValor());
         transacaoEntrada.setTipo("Receita");
-        transacaoEntrada.setCategoria(categoriaReceita);
-        transacaoEntrada.setInstituicao(instituicaoOrigem); // Mesma instituição ou poderia ser outra
+        transacaoEntrada.setCategoria(categoriaRepository.getReferenceById(categoriaReceita.id()));
+        transacaoEntrada.setInstituicao(instituicaoRepository.getReferenceById(destinoId));
         transacaoEntrada.setUsuario(usuario);
-        transacaoEntrada.setPerfil(perfilDestino);
+        transacaoEntrada.setPerfil(perfilRepository.getReferenceById(perfilDestino.id()));
         transacaoEntrada.setTransferenciaEntrePerfis(true);
+        
+        // Com os ids já alocados pela sequence, a entrada é gravada apontando para a saída,
+        // que vem antes no mesmo batch de inserts; só o vínculo da saída para a entrada,
+        // que ainda não existe quando a saída é inserida, fica para um update no commit
         transacaoEntrada.setTransacaoRelacionada(transacaoSaida);
+        List<Transacao> pernas = transacaoRepository.saveAllAndFlush(List.of(transacaoSaida, transacaoEntrada));
+        transacaoSaida = pernas.get(0);
+        transacaoEntrada = pernas.get(1);
+        transacaoSaida.setTransacaoRelacionada(transacaoEntrada);
         
-        transacaoEntrada = transacaoRepository.save(transacaoEntrada);
+        saldoDiarioService.registrarLote(pernas);
+        resumoMensalService.registrarLote(pernas);
         
-        // Atualizar a transação de saída para referenciar a de entrada
-        transacaoSaida.setTransacaoRelacionada(transacaoEntrada);
-        transacaoRepository.save(transacaoSaida);
+        // Saldos ajustados em ordem de id; com origem e destino iguais o saldo não muda
+        Map<Long, BigDecimal> deltasPorInstituicao = new TreeMap<>();
+        deltasPorInstituicao.merge(origemId, dto.getValor().negate(), BigDecimal::add);
+        deltasPorInstituicao.merge(destinoId, dto.getValor(), BigDecimal::add);
+        deltasPorInstituicao.forEach((instituicaoId, delta) -> {
+            if (delta.signum() != 0) {
+                instituicaoService.ajustarSaldo(instituicaoId, delta);
+            }
+        });
         
         // Retornar a transação de saída como resultado
-        return converterParaDTO(transacaoSaida);
+        TransacaoDTO resposta = converterParaDTO(transacaoSaida);
+        resposta.setInstituicaoDestinoId(destinoId);
+        return resposta;
     }
     
-    @Transactional
+    /**
+     * SELECT ... FOR UPDATE das instituições em ordem de id; falha se alguma não existir.
+     * As escritas de transação bloqueiam as instituições (aqui, no saldo diário ou no ajuste
+     * do saldo) antes de tocar no resumo mensal, para que a ordem dos bloqueios seja a mesma
+     * em todas elas.
+     */
+    private void bloquearInstituicoes(Long... ids) {
+        Set<Long> distintas = new TreeSet<>(Arrays.asList(ids));
+        List<Instituicao> bloqueadas = instituicaoRepository.bloquearEmOrdem(distintas);
+        if (bloqueadas.size() != distintas.size()) {
+            bloqueadas.forEach(instituicao -> distintas.remove(instituicao.getId()));
+            throw new RecursoNaoEncontradoException("Instituição", distintas.iterator().next());
+        }
+    }
+    
+    // @Transactional em método privado é ignorado pelo proxy: quem chama precisa ter aberto a transação
+    private static void exigirTransacao() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Operação deve ser executada dentro de uma transação");
+        }
+    }
+    
+    // Roda na transação de salvar ou salvarPorPerfil, que grava o plano e a primeira parcela juntos
     private TransacaoDTO criarTransacaoParcelada(TransacaoDTO dto, Usuario usuario, Perfil perfil) {
+        exigirTransacao();
         String grupoParcelamento = java.util.UUID.randomUUID().toString();
         BigDecimal valorParcela = dto.getValor().divide(new BigDecimal(dto.getNumeroParcelas()), 2, java.math.RoundingMode.HALF_UP);
         
-        Categoria categoria = categoriaRepository.findById(dto.getCategoriaId())
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Categoria", dto.getCategoriaId()));
-        
-        Subcategoria subcategoria = null;
-        if (dto.getSubcategoriaId() != null) {
-            subcategoria = subcategoriaRepository.findById(dto.getSubcategoriaId())
-                    .orElseThrow(() -> new RecursoNaoEncontradoException("Subcategoria", dto.getSubcategoriaId()));
-        }
-        
-        Instituicao instituicao = instituicaoRepository.findById(dto.getInstituicaoId())
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Instituição", dto.getInstituicaoId()));
-        
-        Transacao primeiraParcela = null;
-        
-        for (int i = 1; i <= dto.getNumeroParcelas(); i++) {
-            Transacao transacao = new Transacao();
-            transacao.setData(dto.getData().plusMonths(i - 1)); // Cada parcela no mês seguinte
-            transacao.setDescricao(dto.getDescricao() + " (" + i + "/" + dto.getNumeroParcelas() + ")");
-            transacao.setValor(valorParcela);
-            transacao.setTipo(dto.getTipo());
-            transacao.setCategoria(categoria);
-            transacao.setSubcategoria(subcategoria);
-            transacao.setInstituicao(instituicao);
-            transacao.setUsuario(usuario);
-            transacao.setPerfil(perfil);
-            transacao.setParcelaAtual(i);
-            transacao.setTotalParcelas(dto.getNumeroParcelas());
-            transacao.setGrupoParcelamento(grupoParcelamento);
-            transacao.setEhParcelada(true);
-            
-            transacao = transacaoRepository.save(transacao);
-            
-            // Atualizar o saldo da instituição apenas para a primeira parcela
-            // (as outras serão processadas quando vencerem)
-            if (i == 1) {
-                atualizarSaldoInstituicao(instituicao, valorParcela, dto.getTipo());
-                primeiraParcela = transacao;
-            }
-        }
+        Categoria categoria = referenciaCategoria(dto.getCategoriaId(), perfil.getId());
+        Subcategoria subcategoria = dto.getSubcategoriaId() != null
+                ? referenciaSubcategoria(dto.getSubcategoriaId(), dto.getCategoriaId()) : null;
+        Instituicao instituicao = referenciaInstituicao(dto.getInstituicaoId(), perfil.getId());
+        
+        // Apenas o plano e a primeira parcela são gravados; as demais são geradas a partir
+        // do plano até vencerem, serem editadas ou excluídas
+        PlanoParcelamento plano = new PlanoParcelamento();
+        plano.setGrupoParcelamento(grupoParcelamento);
+        plano.setDescricao(dto.getDescricao());
+        plano.setValorTotal(dto.getValor());
+        plano.setValorParcela(valorParcela);
+        plano.setTotalParcelas(dto.getNumeroParcelas());
+        plano.setDataInicio(dto.getData());
+        plano.setTipo(dto.getTipo());
+        plano.setCategoria(categoria);
+        plano.setSubcategoria(subcategoria);
+        plano.setInstituicao(instituicao);
+        plano.setUsuario(usuario);
+        plano.setPerfil(perfil);
+        plano.setProximaParcela(2);
+        plano.setDataProximaParcela(plano.dataParcela(2));
+        plano.setDataUltimaParcela(plano.dataParcela(dto.getNumeroParcelas()));
+        plano = planoParcelamentoRepository.save(plano);
+        
+        Transacao primeiraParcela = planoParcelamentoService.gerarParcela(plano, 1);
+        primeiraParcela.setLancada(true);
+        primeiraParcela = transacaoRepository.save(primeiraParcela);
+        saldoDiarioService.registrar(primeiraParcela, 1);
+        resumoMensalService.registrar(primeiraParcela, 1);
+        
+        // Atualizar o saldo da instituição apenas para a primeira parcela
+        // (as outras são lançadas por ParcelaLancamentoService quando vencerem)
+        atualizarSaldoInstituicao(instituicao, valorParcela, dto.getTipo());
+        
+        // As parcelas futuras entram no resumo mensal desde já, como antes
+        resumoMensalService.registrarLote(planoParcelamentoService.parcelasVirtuais(plano, Set.of(),
+                LocalDate.MIN, LocalDate.MAX));
         
         return converterParaDTO(primeiraParcela);
     }
     
+    /**
+     * Parcelas futuras ainda não gravadas dos parcelamentos do perfil no período. Não
+     * possuem id; para alterá-las ou excluí-las use o grupo e o número da parcela. A
+     * listagem paginada já as inclui; este endpoint devolve só elas.
+     */
+    public List<TransacaoDTO> listarParcelasFuturas(Long perfilId, LocalDate dataInicio, LocalDate dataFim) {
+        if (!perfilRepository.existsById(perfilId)) {
+            throw new RecursoNaoEncontradoException("Perfil", perfilId);
+        }
+        return planoParcelamentoService.listarParcelasVirtuais(null, perfilId, dataInicio, dataFim).stream()
+                .map(this::converterParaDTO)
+                .collect(Collectors.toList());
+    }
+    
+    @Transactional
+    public TransacaoDTO atualizarParcela(String grupoParcelamento, Integer numero, TransacaoDTO dto) {
+        Transacao parcela = planoParcelamentoService.materializar(grupoParcelamento, numero);
+        return atualizar(parcela.getId(), dto);
+    }
+    
+    @Transactional
+    public void excluirParcela(String grupoParcelamento, Integer numero) {
+        Transacao parcela = planoParcelamentoService.materializar(grupoParcelamento, numero);
+        excluir(parcela.getId());
+    }
+    
     public ResumoFinanceiroDTO gerarResumoFinanceiro(Long usuarioId, LocalDate dataInicio, LocalDate dataFim) {
         return gerarResumoFinanceiro(usuarioId, null, dataInicio, dataFim);
     }
     
     public ResumoFinanceiroDTO gerarResumoFinanceiro(Long usuarioId, Long perfilId, LocalDate dataInicio, LocalDate dataFim) {
-        Usuario usuario = usuarioRepository.findById(usuarioId)
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Usuário", usuarioId));
-        
-        Perfil perfil = null;
-        if (perfilId != null) {
-            perfil = perfilRepository.findById(perfilId)
-                    .orElseThrow(() -> new RecursoNaoEncontradoException("Perfil", perfilId));
+        return resumoFinanceiroCache.obter(usuarioId, perfilId, dataInicio, dataFim,
+                () -> calcularResumoFinanceiro(usuarioId, perfilId, dataInicio, dataFim));
+    }
+    
+    private ResumoFinanceiroDTO calcularResumoFinanceiro(Long usuarioId, Long perfilId, LocalDate dataInicio, LocalDate dataFim) {
+        if (!usuarioRepository.existsById(usuarioId)) {
+            throw new RecursoNaoEncontradoException("Usuário", usuarioId);
         }
         
-        // Calcular total de receitas
-        Double totalReceitasDouble = transacaoRepository.calcularSomaPorTipoEPeriodo(usuario, "Receita", dataInicio, dataFim);
-        BigDecimal totalReceitas = totalReceitasDouble != null ? BigDecimal.valueOf(totalReceitasDouble) : BigDecimal.ZERO;
-        
-        // Calcular total de despesas
-        Double totalDespesasDouble = transacaoRepository.calcularSomaPorTipoEPeriodo(usuario, "Despesa", dataInicio, dataFim);
-        BigDecimal totalDespesas = totalDespesasDouble != null ? BigDecimal.valueOf(totalDespesasDouble) : BigDecimal.ZERO;
-        
-        // Calcular saldo total
-        BigDecimal saldoTotal = totalReceitas.subtract(totalDespesas);
-        
-        // Buscar todas as categorias
-        List<Categoria> categorias = categoriaRepository.findAll();
+        if (perfilId != null && !perfilRepository.existsById(perfilId)) {
+            throw new RecursoNaoEncontradoException("Perfil", perfilId);
+        }
         
-        // Calcular resumo por categoria
-        List<ResumoCategoria> resumoPorCategoria = new ArrayList<>();
+        // As somas por tipo, categoria e subcategoria vêm do resumo mensal para os meses
+        // completos e da tabela de transações só para os dias das bordas do período
+        List<SomaCategoriaView> somas = resumoMensalService.somarPorCategoria(usuarioId, perfilId, dataInicio, dataFim);
         
-        for (Categoria categoria : categorias) {
-            Double valorDouble = transacaoRepository.calcularSomaPorCategoriaEPeriodo(usuario, categoria, dataInicio, dataFim);
+        return montarResumo(somas);
+    }
+    
+    private ResumoFinanceiroDTO montarResumo(List<SomaCategoriaView> somas) {
+        BigDecimal totalReceitas = BigDecimal.ZERO;
+        BigDecimal totalDespesas = BigDecimal.ZERO;
+        Map<String, ResumoCategoria> resumoPorCategoria = new LinkedHashMap<>();
+        
+        for (SomaCategoriaView soma : somas) {
+            if (soma.valor() == null || soma.valor().signum() <= 0) {
+                continue;
+            }
+            
+            if ("Receita".equals(soma.tipo())) {
+                totalReceitas = totalReceitas.add(soma.valor());
+            } else {
+                totalDespesas = totalDespesas.add(soma.valor());
+            }
+            
+            ResumoCategoria resumoCategoria = resumoPorCategoria.computeIfAbsent(
+                    soma.tipo() + ":" + soma.categoriaId(),
+                    chave -> ResumoCategoria.builder()
+                            .categoriaId(soma.categoriaId())
+                            .categoriaNome(soma.categoriaNome())
+                            .tipo(soma.tipo())
+                            .valor(BigDecimal.ZERO)
+                            .subcategorias(new ArrayList<>())
+                            .build());
+            resumoCategoria.setValor(resumoCategoria.getValor().add(soma.valor()));
             
-            if (valorDouble != null && valorDouble > 0) {
-                BigDecimal valor = BigDecimal.valueOf(valorDouble);
-                
-                ResumoCategoria resumoCategoria = ResumoCategoria.builder()
-                        .categoriaId(categoria.getId())
-                        .categoriaNome(categoria.getNome())
-                        .tipo(categoria.getTipo())
-                        .valor(valor)
-                        .build();
-                
-                resumoPorCategoria.add(resumoCategoria);
+            if (soma.subcategoriaId() != null) {
+                resumoCategoria.getSubcategorias().add(ResumoSubcategoria.builder()
+                        .subcategoriaId(soma.subcategoriaId())
+                        .subcategoriaNome(soma.subcategoriaNome())
+                        .valor(soma.valor())
+                        .build());
             }
         }
         
         return ResumoFinanceiroDTO.builder()
                 .totalReceitas(totalReceitas)
                 .totalDespesas(totalDespesas)
-                .saldoTotal(saldoTotal)
-                .resumoPorCategoria(resumoPorCategoria)
+                .saldoTotal(totalReceitas.subtract(totalDespesas))
+                .resumoPorCategoria(new ArrayList<>(resumoPorCategoria.values()))
                 .build();
     }
 }
\ No newline at end of file
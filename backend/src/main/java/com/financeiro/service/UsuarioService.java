@@ -21,6 +21,7 @@ import com.financeiro.dto.UsuarioDTO;
 import com.financeiro.entity.Usuario;
 import com.financeiro.enums.TipoUsuario;
 import com.financeiro.repository.UsuarioRepository;
+import com.financeiro.security.CustomUserDetailsService;
 import com.financeiro.security.JwtService;
 import com.financeiro.service.PerfilService;
 
@@ -42,6 +43,12 @@ public class UsuarioService {
     @Autowired
     private JwtService jwtService;
     
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+    
+    @Autowired
+    private DadosReferenciaCache dadosReferencia;
+    
     public List<UsuarioDTO> listarTodos() {
         return usuarioRepository.findAll().stream()
                 .map(this::converterParaDTO)
@@ -117,19 +124,23 @@ public class UsuarioService {
             throw new RuntimeException("Email já cadastrado");
         }
         
+        String emailAnterior = usuario.getEmail();
         usuario.setEmail(dto.getEmail());
         
         usuario = usuarioRepository.save(usuario);
+        invalidarUsuarioAutenticado(emailAnterior, usuario);
         
         return converterParaDTO(usuario);
     }
     
     public void excluir(Long id) {
-        if (!usuarioRepository.existsById(id)) {
-            throw new RuntimeException("Usuário não encontrado");
-        }
+        Usuario usuario = usuarioRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
         
         usuarioRepository.deleteById(id);
+        userDetailsService.invalidar(usuario.getEmail());
+        // Os perfis do usuário (e seus cadastros) foram excluídos em cascata
+        dadosReferencia.invalidarPerfisDoUsuario(id);
     }
     
     public UsuarioDTO alterarPerfil(Long usuarioId, AlterarPerfilDTO dto) {
@@ -142,6 +153,7 @@ public class UsuarioService {
         }
         
         boolean alterado = false;
+        String emailAnterior = usuario.getEmail();
         
         // Alterar senha se solicitado
         if (dto.isAlteracaoSenha()) {
@@ -176,6 +188,7 @@ public class UsuarioService {
         }
         
         usuario = usuarioRepository.save(usuario);
+        invalidarUsuarioAutenticado(emailAnterior, usuario);
         return converterParaDTO(usuario);
     }
     
@@ -197,6 +210,7 @@ public class UsuarioService {
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
         usuario.setTipoUsuario(TipoUsuario.ADMINISTRADOR);
         usuario = usuarioRepository.save(usuario);
+        userDetailsService.invalidar(usuario.getEmail());
         return converterParaDTO(usuario);
     }
     
@@ -205,6 +219,7 @@ public class UsuarioService {
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
         usuario.setTipoUsuario(TipoUsuario.COMUM);
         usuario = usuarioRepository.save(usuario);
+        userDetailsService.invalidar(usuario.getEmail());
         return converterParaDTO(usuario);
     }
     
@@ -213,9 +228,18 @@ public class UsuarioService {
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
         usuario.setTipoUsuario(TipoUsuario.ADVOGADO);
         usuario = usuarioRepository.save(usuario);
+        userDetailsService.invalidar(usuario.getEmail());
         return converterParaDTO(usuario);
     }
     
+    // Tokens emitidos para o email anterior deixam de autenticar assim que ele sai do cache
+    private void invalidarUsuarioAutenticado(String emailAnterior, Usuario usuario) {
+        userDetailsService.invalidar(emailAnterior);
+        if (!emailAnterior.equals(usuario.getEmail())) {
+            userDetailsService.invalidar(usuario.getEmail());
+        }
+    }
+    
     private UsuarioDTO converterParaDTO(Usuario usuario) {
         UsuarioDTO dto = new UsuarioDTO();
         dto.setId(usuario.getId());
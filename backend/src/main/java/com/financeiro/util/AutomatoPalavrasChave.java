@@ -0,0 +1,168 @@
+package com.financeiro.util;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Autômato de Aho-Corasick sobre descrições normalizadas: letras sem acento e em
+ * minúsculas, dígitos e um único separador para qualquer sequência de espaços ou
+ * pontuação. As transições ficam resolvidas numa tabela densa (um DFA), então a busca
+ * faz uma leitura de array por caractere e não cria objetos.
+ */
+public final class AutomatoPalavrasChave {
+
+    // 0 é o separador; 1 a 26 as letras; 27 a 36 os dígitos
+    private static final int ALFABETO = 37;
+    private static final byte[] SIMBOLOS = new byte[Character.MAX_VALUE + 1];
+
+    static {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            char base = (char) c;
+            if (c > 127 && Character.isLetter(c)) {
+                // Remove o acento: "É" vira "E" + marca combinante
+                base = Normalizer.normalize(String.valueOf((char) c), Normalizer.Form.NFD).charAt(0);
+            }
+            base = Character.toLowerCase(base);
+            if (base >= 'a' && base <= 'z') {
+                SIMBOLOS[c] = (byte) (base - 'a' + 1);
+            } else if (base >= '0' && base <= '9') {
+                SIMBOLOS[c] = (byte) (base - '0' + 27);
+            }
+        }
+    }
+
+    private final int[] transicoes;
+    private final int[][] saidas;
+
+    /**
+     * Compila as palavras-chave; a saída de cada estado traz, em ordem crescente, os
+     * índices (na lista recebida) de todas as palavras que terminam nele.
+     */
+    public AutomatoPalavrasChave(List<String> palavras) {
+        int capacidade = 1;
+        for (String palavra : palavras) {
+            capacidade += palavra.length();
+        }
+        int[] proximo = new int[capacidade * ALFABETO];
+        Arrays.fill(proximo, -1);
+        int[][] saidasDiretas = new int[capacidade][];
+        int estados = 1;
+
+        for (int indice = 0; indice < palavras.size(); indice++) {
+            int estado = 0;
+            for (byte simbolo : normalizar(palavras.get(indice))) {
+                int destino = proximo[estado * ALFABETO + simbolo];
+                if (destino < 0) {
+                    destino = estados++;
+                    proximo[estado * ALFABETO + simbolo] = destino;
+                }
+                estado = destino;
+            }
+            if (estado != 0) {
+                saidasDiretas[estado] = adicionar(saidasDiretas[estado], indice);
+            }
+        }
+
+        // Ligações de falha em largura; transições ausentes herdam as do estado de falha
+        int[] falha = new int[estados];
+        int[][] saidasCompletas = new int[estados][];
+        Queue<Integer> fila = new ArrayDeque<>();
+        for (int simbolo = 0; simbolo < ALFABETO; simbolo++) {
+            int destino = proximo[simbolo];
+            if (destino < 0) {
+                proximo[simbolo] = 0;
+            } else {
+                falha[destino] = 0;
+                fila.add(destino);
+            }
+        }
+        saidasCompletas[0] = new int[0];
+        while (!fila.isEmpty()) {
+            int estado = fila.poll();
+            saidasCompletas[estado] = unir(saidasDiretas[estado], saidasCompletas[falha[estado]]);
+            for (int simbolo = 0; simbolo < ALFABETO; simbolo++) {
+                int posicao = estado * ALFABETO + simbolo;
+                int destino = proximo[posicao];
+                if (destino < 0) {
+                    proximo[posicao] = proximo[falha[estado] * ALFABETO + simbolo];
+                } else {
+                    falha[destino] = proximo[falha[estado] * ALFABETO + simbolo];
+                    fila.add(destino);
+                }
+            }
+        }
+
+        this.transicoes = Arrays.copyOf(proximo, estados * ALFABETO);
+        this.saidas = saidasCompletas;
+    }
+
+    public static int estadoInicial() {
+        return 0;
+    }
+
+    /**
+     * Avança o autômato com o caractere. Separadores seguidos devem ser ignorados pelo
+     * chamador com {@link #ehSeparador(char)}, para equivaler à descrição normalizada.
+     */
+    public int avancar(int estado, char caractere) {
+        return transicoes[estado * ALFABETO + SIMBOLOS[caractere]];
+    }
+
+    public static boolean ehSeparador(char caractere) {
+        return SIMBOLOS[caractere] == 0;
+    }
+
+    /**
+     * Símbolo do caractere na normalização usada pelo autômato: 0 para separadores,
+     * 1 a 26 para as letras e 27 a 36 para os dígitos.
+     */
+    public static int simbolo(char caractere) {
+        return SIMBOLOS[caractere];
+    }
+
+    // Índices das palavras que terminam no estado, em ordem crescente (vazio se nenhuma)
+    public int[] saidas(int estado) {
+        return saidas[estado];
+    }
+
+    /**
+     * Símbolos da palavra normalizada, sem separadores no início, no fim ou repetidos.
+     * Uma palavra sem letras nem dígitos resulta vazia e nunca é encontrada.
+     */
+    public static byte[] normalizar(String palavra) {
+        byte[] simbolos = new byte[palavra.length()];
+        int tamanho = 0;
+        for (int i = 0; i < palavra.length(); i++) {
+            byte simbolo = SIMBOLOS[palavra.charAt(i)];
+            if (simbolo != 0 || (tamanho > 0 && simbolos[tamanho - 1] != 0)) {
+                simbolos[tamanho++] = simbolo;
+            }
+        }
+        if (tamanho > 0 && simbolos[tamanho - 1] == 0) {
+            tamanho--;
+        }
+        return Arrays.copyOf(simbolos, tamanho);
+    }
+
+    private static int[] adicionar(int[] atual, int valor) {
+        if (atual == null) {
+            return new int[] {valor};
+        }
+        int[] novo = Arrays.copyOf(atual, atual.length + 1);
+        novo[atual.length] = valor;
+        return novo;
+    }
+
+    private static int[] unir(int[] proprias, int[] herdadas) {
+        if (proprias == null) {
+            return herdadas;
+        }
+        int[] unidas = Arrays.copyOf(proprias, proprias.length + herdadas.length);
+        System.arraycopy(herdadas, 0, unidas, proprias.length, herdadas.length);
+        Arrays.sort(unidas);
+        return unidas;
+    }
+}
@@ -0,0 +1,187 @@
+package com.financeiro.util;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+import com.financeiro.entity.RegraCategorizacao;
+
+/**
+ * Regras de categorização de um perfil compiladas para consulta: as palavras-chave
+ * num único autômato de Aho-Corasick e as regras sem palavra-chave numa tabela de
+ * faixas de valor. Uma descrição é lida uma única vez, qualquer que seja o número de
+ * regras, e a consulta não cria objetos. É imutável; mudanças nas regras geram uma
+ * nova instância.
+ *
+ * As regras ficam ordenadas por precedência (prioridade maior, depois as com
+ * palavra-chave, depois a palavra mais longa e por fim o id), e a posição nessa ordem
+ * é o que {@link #classificar} devolve.
+ */
+public final class ClassificadorTransacoes {
+
+    public static final ClassificadorTransacoes VAZIO = new ClassificadorTransacoes(List.of());
+
+    public static final int NENHUMA = -1;
+
+    private static final byte QUALQUER_TIPO = 0;
+    private static final byte RECEITA = 1;
+    private static final byte DESPESA = 2;
+
+    private static final Comparator<RegraCategorizacao> PRECEDENCIA = Comparator
+            .comparing((RegraCategorizacao regra) -> regra.getPrioridade() != null ? regra.getPrioridade() : 0,
+                    Comparator.reverseOrder())
+            .thenComparing(regra -> AutomatoPalavrasChave.normalizar(textoOuVazio(regra.getPalavraChave())).length,
+                    Comparator.reverseOrder())
+            .thenComparing(RegraCategorizacao::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final long[] minimos;
+    private final long[] maximos;
+    private final byte[] tipos;
+    private final long[] instituicoes;
+    private final long[] categorias;
+    private final long[] subcategorias;
+
+    private final AutomatoPalavrasChave automato;
+
+    // Faixa j = [limites[j], limites[j + 1]); candidatosPorFaixa[j] em ordem de precedência
+    private final long[] limites;
+    private final int[][] candidatosPorFaixa;
+
+    public ClassificadorTransacoes(List<RegraCategorizacao> regras) {
+        List<RegraCategorizacao> ordenadas = new ArrayList<>(regras);
+        ordenadas.sort(PRECEDENCIA);
+        int total = ordenadas.size();
+
+        minimos = new long[total];
+        maximos = new long[total];
+        tipos = new byte[total];
+        instituicoes = new long[total];
+        categorias = new long[total];
+        subcategorias = new long[total];
+
+        // Posições sem palavra-chave recebem "" e não geram estado no autômato
+        List<String> palavras = new ArrayList<>(total);
+        List<Integer> semPalavraChave = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            RegraCategorizacao regra = ordenadas.get(i);
+            minimos[i] = regra.getValorMinimo() != null ? centavos(regra.getValorMinimo()) : Long.MIN_VALUE;
+            maximos[i] = regra.getValorMaximo() != null ? centavos(regra.getValorMaximo()) : Long.MAX_VALUE;
+            tipos[i] = codigoTipo(regra.getTipo());
+            instituicoes[i] = regra.getInstituicao() != null ? regra.getInstituicao().getId() : 0;
+            categorias[i] = regra.getCategoria().getId();
+            subcategorias[i] = regra.getSubcategoria() != null ? regra.getSubcategoria().getId() : 0;
+
+            String palavraChave = textoOuVazio(regra.getPalavraChave());
+            palavras.add(palavraChave);
+            if (AutomatoPalavrasChave.normalizar(palavraChave).length == 0) {
+                semPalavraChave.add(i);
+            }
+        }
+        automato = new AutomatoPalavrasChave(palavras);
+
+        TreeSet<Long> fronteiras = new TreeSet<>();
+        fronteiras.add(Long.MIN_VALUE);
+        for (int i : semPalavraChave) {
+            fronteiras.add(minimos[i]);
+            if (maximos[i] != Long.MAX_VALUE) {
+                fronteiras.add(maximos[i] + 1);
+            }
+        }
+        limites = fronteiras.stream().mapToLong(Long::longValue).toArray();
+        candidatosPorFaixa = new int[limites.length][];
+        for (int j = 0; j < limites.length; j++) {
+            long inicio = limites[j];
+            candidatosPorFaixa[j] = semPalavraChave.stream()
+                    .filter(i -> minimos[i] <= inicio && inicio <= maximos[i])
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+    }
+
+    public int getQuantidadeRegras() {
+        return categorias.length;
+    }
+
+    /**
+     * Posição da regra de maior precedência que se aplica à transação, ou
+     * {@link #NENHUMA}. O valor é em centavos e sempre positivo, como em transacoes.
+     */
+    public int classificar(String descricao, long centavos, String tipo, Long instituicaoId) {
+        byte codigoTipo = codigoTipo(tipo);
+        long instituicao = instituicaoId != null ? instituicaoId : 0;
+
+        int melhor = NENHUMA;
+        int[] candidatos = candidatosPorFaixa[faixa(centavos)];
+        for (int candidato : candidatos) {
+            if (atende(candidato, centavos, codigoTipo, instituicao)) {
+                melhor = candidato;
+                break;
+            }
+        }
+
+        if (descricao != null) {
+            int estado = AutomatoPalavrasChave.estadoInicial();
+            boolean separadorAnterior = true;
+            for (int i = 0; i < descricao.length(); i++) {
+                char caractere = descricao.charAt(i);
+                boolean separador = AutomatoPalavrasChave.ehSeparador(caractere);
+                if (separador && separadorAnterior) {
+                    continue;
+                }
+                separadorAnterior = separador;
+                estado = automato.avancar(estado, caractere);
+                for (int candidato : automato.saidas(estado)) {
+                    if (melhor != NENHUMA && candidato >= melhor) {
+                        break;
+                    }
+                    if (atende(candidato, centavos, codigoTipo, instituicao)) {
+                        melhor = candidato;
+                        break;
+                    }
+                }
+                if (melhor == 0) {
+                    break;
+                }
+            }
+        }
+        return melhor;
+    }
+
+    public Long getCategoriaId(int regra) {
+        return categorias[regra];
+    }
+
+    public Long getSubcategoriaId(int regra) {
+        return subcategorias[regra] != 0 ? subcategorias[regra] : null;
+    }
+
+    public static long centavos(BigDecimal valor) {
+        return valor.movePointRight(2).longValue();
+    }
+
+    private boolean atende(int regra, long centavos, byte tipo, long instituicao) {
+        return centavos >= minimos[regra] && centavos <= maximos[regra]
+                && (tipos[regra] == QUALQUER_TIPO || tipos[regra] == tipo)
+                && (instituicoes[regra] == 0 || instituicoes[regra] == instituicao);
+    }
+
+    // Última faixa cujo início não passa do valor; limites[0] é Long.MIN_VALUE
+    private int faixa(long centavos) {
+        int posicao = Arrays.binarySearch(limites, centavos);
+        return posicao >= 0 ? posicao : -posicao - 2;
+    }
+
+    private static byte codigoTipo(String tipo) {
+        if ("Receita".equals(tipo)) {
+            return RECEITA;
+        }
+        return "Despesa".equals(tipo) ? DESPESA : QUALQUER_TIPO;
+    }
+
+    private static String textoOuVazio(String texto) {
+        return texto != null ? texto : "";
+    }
+}
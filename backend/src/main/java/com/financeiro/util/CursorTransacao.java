@@ -0,0 +1,67 @@
+package com.financeiro.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Comparator;
+
+import com.financeiro.dto.TransacaoView;
+import com.financeiro.exception.NegocioException;
+
+/**
+ * Posição de uma página na listagem de transações, ordenada por (data, id) decrescente.
+ * O cliente recebe o cursor como um token opaco e o devolve para buscar a página seguinte.
+ *
+ * As parcelas virtuais dos planos de parcelamento não têm id: ocupam a posição
+ * (data, Long.MAX_VALUE, grupo), à frente das transações gravadas do mesmo dia e
+ * ordenadas entre si pelo grupo de parcelamento.
+ */
+public record CursorTransacao(LocalDate data, Long id, String grupoParcelamento) {
+
+    /**
+     * Cursor que antecede a transação mais recente possível, usado na primeira página.
+     */
+    public static final CursorTransacao INICIAL = new CursorTransacao(LocalDate.of(9999, 12, 31), Long.MAX_VALUE);
+
+    /**
+     * Ordem da listagem: um item vem depois do cursor quando {@code ORDEM.compare(cursor, item) < 0}.
+     */
+    public static final Comparator<CursorTransacao> ORDEM = Comparator.comparing(CursorTransacao::data)
+            .thenComparing(CursorTransacao::id)
+            .thenComparing(CursorTransacao::grupoParcelamento, Comparator.nullsLast(Comparator.naturalOrder()))
+            .reversed();
+
+    public CursorTransacao(LocalDate data, Long id) {
+        this(data, id, null);
+    }
+
+    public static CursorTransacao de(TransacaoView transacao) {
+        return transacao.id() != null
+                ? new CursorTransacao(transacao.data(), transacao.id())
+                : new CursorTransacao(transacao.data(), Long.MAX_VALUE, transacao.grupoParcelamento());
+    }
+
+    public boolean antecede(TransacaoView transacao) {
+        return ORDEM.compare(this, de(transacao)) < 0;
+    }
+
+    public static CursorTransacao decodificar(String token) {
+        if (token == null || token.isBlank()) {
+            return INICIAL;
+        }
+
+        try {
+            String[] partes = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":", 3);
+            return new CursorTransacao(LocalDate.parse(partes[0]), Long.valueOf(partes[1]),
+                    partes.length > 2 ? partes[2] : null);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new NegocioException("Cursor de paginação inválido");
+        }
+    }
+
+    public String codificar() {
+        String valor = data + ":" + id + (grupoParcelamento != null ? ":" + grupoParcelamento : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,70 @@
+package com.financeiro.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom sobre hashes de 128 bits já distribuídos uniformemente (como os de
+ * {@link HashConteudoTransacao}): as k posições vêm da combinação h1 + i·h2 das duas
+ * metades, sem recalcular hash. Inclusões concorrentes são seguras e sem bloqueio.
+ */
+public class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long tamanhoBits;
+    private final int funcoes;
+    private final long capacidade;
+    private final AtomicLong elementos = new AtomicLong();
+
+    /**
+     * @param capacidade número de elementos previsto
+     * @param taxaFalsoPositivo taxa de falso positivo desejada com a capacidade cheia
+     */
+    public FiltroBloom(long capacidade, double taxaFalsoPositivo) {
+        long m = (long) Math.ceil(-capacidade * Math.log(taxaFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        this.tamanhoBits = Math.max(64, (m + 63) / 64 * 64);
+        this.funcoes = Math.max(1, (int) Math.round((double) tamanhoBits / capacidade * Math.log(2)));
+        this.capacidade = capacidade;
+        this.bits = new AtomicLongArray((int) (tamanhoBits / 64));
+    }
+
+    public void incluir(long h1, long h2) {
+        long combinado = h1;
+        for (int i = 0; i < funcoes; i++) {
+            long indice = Long.remainderUnsigned(combinado, tamanhoBits);
+            long mascara = 1L << indice;
+            int palavra = (int) (indice >>> 6);
+            if ((bits.get(palavra) & mascara) == 0) {
+                bits.getAndAccumulate(palavra, mascara, (atual, m) -> atual | m);
+            }
+            combinado += h2;
+        }
+        elementos.incrementAndGet();
+    }
+
+    // false garante que o hash nunca foi incluído; true pode ser um falso positivo
+    public boolean podeConter(long h1, long h2) {
+        long combinado = h1;
+        for (int i = 0; i < funcoes; i++) {
+            long indice = Long.remainderUnsigned(combinado, tamanhoBits);
+            if ((bits.get((int) (indice >>> 6)) & (1L << indice)) == 0) {
+                return false;
+            }
+            combinado += h2;
+        }
+        return true;
+    }
+
+    public long getElementos() {
+        return elementos.get();
+    }
+
+    public boolean isSaturado() {
+        return elementos.get() > capacidade;
+    }
+
+    // Taxa de falso positivo esperada para a quantidade atual de elementos
+    public double getTaxaFalsoPositivoEstimada() {
+        return Math.pow(1 - Math.exp(-(double) funcoes * elementos.get() / tamanhoBits), funcoes);
+    }
+}
@@ -0,0 +1,232 @@
+package com.financeiro.util;
+
+/**
+ * Conversão de valores monetários ("1.234,56", "-45.90", "R$ 10,00") e datas
+ * ("31/12/2024", "31-12-24", "2024-12-31", "20241231120000[-3:BRT]") lidos de extratos,
+ * diretamente sobre o trecho de bytes da linha. Os resultados são primitivos (centavos
+ * e dia desde 1970-01-01) e nenhum objeto é criado por campo; valores inválidos são
+ * sinalizados por {@link #VALOR_INVALIDO} e {@link #DATA_INVALIDA} em vez de exceções.
+ * Supõe um charset compatível com ASCII (UTF-8, ISO-8859-1, windows-1252).
+ */
+public final class FormatoBrasileiro {
+
+    public static final long VALOR_INVALIDO = Long.MIN_VALUE;
+    public static final int DATA_INVALIDA = Integer.MIN_VALUE;
+
+    // Mais dígitos que isso podem estourar o long ao multiplicar por 100
+    private static final int MAXIMO_DIGITOS_INTEIROS = 16;
+
+    private FormatoBrasileiro() {
+    }
+
+    /**
+     * Valor em centavos do trecho {@code [inicio, fim)}. A vírgula é o separador decimal
+     * e o ponto o de milhar; sem vírgula, um único ponto seguido de 1 ou 2 dígitos é
+     * tratado como decimal (formato do OFX). Aceita sinal à esquerda ou à direita, o
+     * prefixo "R$" e o negativo entre parênteses dos extratos contábeis, "(45,90)".
+     */
+    public static long lerCentavos(byte[] bytes, int inicio, int fim) {
+        int i = pularEspacos(bytes, inicio, fim);
+        int f = voltarEspacos(bytes, i, fim);
+        boolean negativo = false;
+
+        if (f - i >= 2 && bytes[i] == '(' && bytes[f - 1] == ')') {
+            negativo = true;
+            i = pularEspacos(bytes, i + 1, f);
+            f = voltarEspacos(bytes, i, f - 1);
+        }
+
+        if (i < f && bytes[f - 1] == '-') {
+            negativo = true;
+            f = voltarEspacos(bytes, i, f - 1);
+        }
+        if (i < f && (bytes[i] == '-' || bytes[i] == '+')) {
+            negativo |= bytes[i] == '-';
+            i = pularEspacos(bytes, i + 1, f);
+        }
+        if (i + 1 < f && bytes[i] == 'R' && bytes[i + 1] == '$') {
+            i = pularEspacos(bytes, i + 2, f);
+            if (i < f && bytes[i] == '-') {
+                negativo = true;
+                i = pularEspacos(bytes, i + 1, f);
+            }
+        }
+        if (i >= f) {
+            return VALOR_INVALIDO;
+        }
+
+        int decimal = separadorDecimal(bytes, i, f);
+        int fimInteiro = decimal >= 0 ? decimal : f;
+
+        long inteiro = 0;
+        int digitos = 0;
+        for (int k = i; k < fimInteiro; k++) {
+            byte c = bytes[k];
+            if (c >= '0' && c <= '9') {
+                if (++digitos > MAXIMO_DIGITOS_INTEIROS) {
+                    return VALOR_INVALIDO;
+                }
+                inteiro = inteiro * 10 + (c - '0');
+            } else if (c != '.') {
+                return VALOR_INVALIDO;
+            }
+        }
+
+        long fracao = 0;
+        int digitosFracao = decimal >= 0 ? f - decimal - 1 : 0;
+        if (digitosFracao > 2 || (digitos == 0 && digitosFracao == 0)) {
+            return VALOR_INVALIDO;
+        }
+        for (int k = decimal + 1; k < f && decimal >= 0; k++) {
+            byte c = bytes[k];
+            if (c < '0' || c > '9') {
+                return VALOR_INVALIDO;
+            }
+            fracao = fracao * 10 + (c - '0');
+        }
+        if (digitosFracao == 1) {
+            fracao *= 10;
+        }
+
+        long centavos = inteiro * 100 + fracao;
+        return negativo ? -centavos : centavos;
+    }
+
+    /**
+     * Dias desde 1970-01-01 (o mesmo que {@code LocalDate.toEpochDay()}) da data no trecho
+     * {@code [inicio, fim)}: dd/MM/yyyy, d/M/yyyy, dd/MM/yy (século 2000), com "/", "-"
+     * ou "." como separador, yyyy-MM-dd, ou yyyyMMdd do OFX. O que vier após a data,
+     * separado por espaço, "T" ou "[", como a hora, é ignorado.
+     */
+    public static int lerDiaEpoch(byte[] bytes, int inicio, int fim) {
+        int i = pularEspacos(bytes, inicio, fim);
+        int f = voltarEspacos(bytes, i, fim);
+
+        int ano;
+        int mes;
+        int dia;
+        int fimData;
+
+        if (f - i >= 8 && digitosSeguidos(bytes, i, f) >= 8) {
+            // AAAAMMDD[HHMMSS[.XXX]][[fuso]]
+            ano = numero(bytes, i, 4);
+            mes = numero(bytes, i + 4, 2);
+            dia = numero(bytes, i + 6, 2);
+            fimData = f;
+        } else {
+            int tamanho1 = digitosSeguidos(bytes, i, f);
+            int k = i + tamanho1;
+            if (tamanho1 == 0 || tamanho1 > 4 || k >= f) {
+                return DATA_INVALIDA;
+            }
+            byte separador = bytes[k];
+            if (separador != '/' && separador != '-' && separador != '.') {
+                return DATA_INVALIDA;
+            }
+            int inicio2 = k + 1;
+            int tamanho2 = digitosSeguidos(bytes, inicio2, f);
+            k = inicio2 + tamanho2;
+            if (tamanho2 == 0 || tamanho2 > 2 || k >= f || bytes[k] != separador) {
+                return DATA_INVALIDA;
+            }
+            int inicio3 = k + 1;
+            int tamanho3 = digitosSeguidos(bytes, inicio3, f);
+            fimData = inicio3 + tamanho3;
+            if (tamanho3 == 0 || tamanho3 > 4) {
+                return DATA_INVALIDA;
+            }
+
+            int primeiro = numero(bytes, i, tamanho1);
+            mes = numero(bytes, inicio2, tamanho2);
+            int terceiro = numero(bytes, inicio3, tamanho3);
+            if (tamanho1 == 4) {
+                ano = primeiro;
+                dia = terceiro;
+                if (tamanho3 > 2) {
+                    return DATA_INVALIDA;
+                }
+            } else {
+                if (tamanho1 > 2 || tamanho3 == 1 || tamanho3 == 3) {
+                    return DATA_INVALIDA;
+                }
+                dia = primeiro;
+                ano = tamanho3 == 2 ? 2000 + terceiro : terceiro;
+            }
+        }
+
+        if (fimData < f && bytes[fimData] != ' ' && bytes[fimData] != 'T' && bytes[fimData] != '[') {
+            return DATA_INVALIDA;
+        }
+        if (mes < 1 || mes > 12 || dia < 1 || dia > diasNoMes(ano, mes)) {
+            return DATA_INVALIDA;
+        }
+        return diasDesdeEpoca(ano, mes, dia);
+    }
+
+    // Posição do separador decimal, ou -1 se o valor for inteiro
+    private static int separadorDecimal(byte[] bytes, int inicio, int fim) {
+        int ponto = -1;
+        int pontos = 0;
+        for (int k = fim - 1; k >= inicio; k--) {
+            if (bytes[k] == ',') {
+                return k;
+            }
+            if (bytes[k] == '.') {
+                pontos++;
+                if (ponto < 0) {
+                    ponto = k;
+                }
+            }
+        }
+        int casas = fim - ponto - 1;
+        return pontos == 1 && casas >= 1 && casas <= 2 ? ponto : -1;
+    }
+
+    private static int digitosSeguidos(byte[] bytes, int inicio, int fim) {
+        int k = inicio;
+        while (k < fim && bytes[k] >= '0' && bytes[k] <= '9') {
+            k++;
+        }
+        return k - inicio;
+    }
+
+    private static int numero(byte[] bytes, int inicio, int tamanho) {
+        int valor = 0;
+        for (int k = inicio; k < inicio + tamanho; k++) {
+            valor = valor * 10 + (bytes[k] - '0');
+        }
+        return valor;
+    }
+
+    private static int pularEspacos(byte[] bytes, int inicio, int fim) {
+        while (inicio < fim && (bytes[inicio] == ' ' || bytes[inicio] == '\t')) {
+            inicio++;
+        }
+        return inicio;
+    }
+
+    private static int voltarEspacos(byte[] bytes, int inicio, int fim) {
+        while (fim > inicio && (bytes[fim - 1] == ' ' || bytes[fim - 1] == '\t' || bytes[fim - 1] == '\r')) {
+            fim--;
+        }
+        return fim;
+    }
+
+    private static int diasNoMes(int ano, int mes) {
+        return switch (mes) {
+            case 2 -> (ano % 4 == 0 && (ano % 100 != 0 || ano % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    // Calendário gregoriano proléptico, como em LocalDate (algoritmo days_from_civil)
+    private static int diasDesdeEpoca(int ano, int mes, int dia) {
+        int a = mes <= 2 ? ano - 1 : ano;
+        int era = (a >= 0 ? a : a - 399) / 400;
+        int anoDaEra = a - era * 400;
+        int diaDoAno = (153 * (mes + (mes > 2 ? -3 : 9)) + 2) / 5 + dia - 1;
+        int diaDaEra = anoDaEra * 365 + anoDaEra / 4 - anoDaEra / 100 + diaDoAno;
+        return era * 146097 + diaDaEra - 719468;
+    }
+}
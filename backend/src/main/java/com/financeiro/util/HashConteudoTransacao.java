@@ -0,0 +1,64 @@
+package com.financeiro.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Impressão digital do conteúdo de uma transação, usada para reconhecer o mesmo
+ * lançamento importado de novo: perfil, instituição, data, valor com sinal e descrição
+ * normalizada (sem acentos, caixa ou pontuação). São os 128 primeiros bits do SHA-256,
+ * em hexadecimal.
+ */
+public final class HashConteudoTransacao {
+
+    public static final int TAMANHO = 32;
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern NAO_ALFANUMERICOS = Pattern.compile("[^a-z0-9]+");
+
+    private HashConteudoTransacao() {
+    }
+
+    public static String calcular(Long perfilId, Long instituicaoId, LocalDate data, BigDecimal valor,
+                                  String tipo, String descricao) {
+        long centavos = valor.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+        String conteudo = perfilId + "|" + instituicaoId + "|" + data.toEpochDay() + "|"
+                + ("Receita".equals(tipo) ? centavos : -centavos) + "|" + normalizarDescricao(descricao);
+
+        byte[] digest = sha256().digest(conteudo.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest, 0, TAMANHO / 2);
+    }
+
+    public static String normalizarDescricao(String descricao) {
+        if (descricao == null) {
+            return "";
+        }
+        String semAcentos = MARCAS.matcher(Normalizer.normalize(descricao, Normalizer.Form.NFD)).replaceAll("");
+        return NAO_ALFANUMERICOS.matcher(semAcentos.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    // As duas metades do hash, já uniformemente distribuídas, alimentam o filtro de Bloom
+    public static long primeiraMetade(String hash) {
+        return Long.parseUnsignedLong(hash, 0, 16, 16);
+    }
+
+    public static long segundaMetade(String hash) {
+        return Long.parseUnsignedLong(hash, 16, 32, 16);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
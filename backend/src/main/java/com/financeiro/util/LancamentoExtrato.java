@@ -0,0 +1,33 @@
+package com.financeiro.util;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Lançamento lido de um extrato bancário, com data em dias desde 1970-01-01 e valor em
+ * centavos, mantendo o sinal do extrato (negativo para débitos). Linhas que não
+ * puderam ser interpretadas trazem apenas {@code erro}.
+ */
+public record LancamentoExtrato(long linha, int diaEpoch, long centavos, String descricao, String erro) {
+
+    public static LancamentoExtrato valido(long linha, int diaEpoch, long centavos, String descricao) {
+        return new LancamentoExtrato(linha, diaEpoch, centavos, descricao, null);
+    }
+
+    public static LancamentoExtrato invalido(long linha, String erro) {
+        return new LancamentoExtrato(linha, FormatoBrasileiro.DATA_INVALIDA, FormatoBrasileiro.VALOR_INVALIDO, null, erro);
+    }
+
+    public boolean isValido() {
+        return erro == null;
+    }
+
+    public LocalDate data() {
+        return LocalDate.ofEpochDay(diaEpoch);
+    }
+
+    // Valor absoluto, como gravado na transação
+    public BigDecimal valorAbsoluto() {
+        return BigDecimal.valueOf(Math.abs(centavos), 2);
+    }
+}
@@ -0,0 +1,30 @@
+package com.financeiro.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import com.financeiro.enums.FormatoExtrato;
+
+/**
+ * Lê um extrato bancário um lançamento por vez, sem carregar o arquivo em memória. Os
+ * leitores trabalham sobre os bytes do arquivo: datas e valores são convertidos por
+ * {@link FormatoBrasileiro} e só a descrição é decodificada com o charset informado.
+ */
+public interface LeitorExtrato extends Closeable {
+
+    int TAMANHO_BUFFER = 64 * 1024;
+
+    /**
+     * Próximo lançamento do extrato, ou {@code null} ao final do arquivo.
+     */
+    LancamentoExtrato proximo() throws IOException;
+
+    static LeitorExtrato abrir(FormatoExtrato formato, InputStream entrada, Charset charset) {
+        return switch (formato) {
+            case CSV -> new LeitorExtratoCsv(entrada, charset);
+            case OFX -> new LeitorExtratoOfx(entrada, charset);
+        };
+    }
+}
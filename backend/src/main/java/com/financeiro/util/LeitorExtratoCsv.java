@@ -0,0 +1,201 @@
+package com.financeiro.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Extrato em CSV com as colunas data, descrição e valor, nesta ordem, separadas por
+ * ponto e vírgula ou vírgula. Aceita os formatos de data e valor de
+ * {@link FormatoBrasileiro} e uma linha de cabeçalho opcional.
+ * <p>
+ * Cada linha é copiada para um buffer reutilizado, já sem as aspas, e os campos são
+ * guardados como intervalos desse buffer; apenas a descrição vira String.
+ */
+public class LeitorExtratoCsv implements LeitorExtrato {
+
+    private static final int COLUNAS = 3;
+    private static final int TAMANHO_MAXIMO_LINHA = 1024 * 1024;
+
+    private final InputStream entrada;
+    private final Charset charset;
+    private final byte[] buffer = new byte[TAMANHO_BUFFER];
+    private int posicao;
+    private int limite;
+
+    private byte[] linha = new byte[1024];
+    private final int[] inicioCampo = new int[COLUNAS];
+    private final int[] fimCampo = new int[COLUNAS];
+    private int campos;
+
+    private long numeroLinha;
+    private byte separador;
+
+    public LeitorExtratoCsv(InputStream entrada, Charset charset) {
+        this.entrada = entrada;
+        this.charset = charset;
+    }
+
+    @Override
+    public LancamentoExtrato proximo() throws IOException {
+        int tamanho;
+        while ((tamanho = lerLinha()) >= 0) {
+            numeroLinha++;
+            if (tamanho > TAMANHO_MAXIMO_LINHA) {
+                return LancamentoExtrato.invalido(numeroLinha, "Linha maior que o tamanho máximo permitido");
+            }
+            if (emBranco(tamanho)) {
+                continue;
+            }
+            if (separador == 0) {
+                // O separador é definido pela primeira linha, que pode ser o cabeçalho
+                separador = contem(tamanho, (byte) ';') ? (byte) ';' : (byte) ',';
+                dividir(tamanho);
+                if (FormatoBrasileiro.lerDiaEpoch(linha, inicioCampo[0], fimCampo[0]) == FormatoBrasileiro.DATA_INVALIDA) {
+                    continue;
+                }
+                return interpretar();
+            }
+            dividir(tamanho);
+            return interpretar();
+        }
+        return null;
+    }
+
+    private LancamentoExtrato interpretar() {
+        if (campos < COLUNAS) {
+            return LancamentoExtrato.invalido(numeroLinha, "Linha com menos de 3 colunas");
+        }
+
+        int dia = FormatoBrasileiro.lerDiaEpoch(linha, inicioCampo[0], fimCampo[0]);
+        if (dia == FormatoBrasileiro.DATA_INVALIDA) {
+            return LancamentoExtrato.invalido(numeroLinha, "Data inválida: " + texto(0));
+        }
+        long centavos = FormatoBrasileiro.lerCentavos(linha, inicioCampo[2], fimCampo[2]);
+        if (centavos == FormatoBrasileiro.VALOR_INVALIDO) {
+            return LancamentoExtrato.invalido(numeroLinha, "Valor inválido: " + texto(2));
+        }
+        return LancamentoExtrato.valido(numeroLinha, dia, centavos, texto(1).trim());
+    }
+
+    /**
+     * Copia a próxima linha (sem o \n) para {@code linha} e devolve seu tamanho, ou -1 ao
+     * final do arquivo. Linhas acima do limite são consumidas mas não copiadas.
+     */
+    private int lerLinha() throws IOException {
+        int tamanho = 0;
+        boolean leuAlgo = false;
+        while (true) {
+            if (posicao == limite) {
+                limite = entrada.read(buffer);
+                posicao = 0;
+                if (limite <= 0) {
+                    limite = 0;
+                    return leuAlgo ? finalizarLinha(tamanho) : -1;
+                }
+                if (numeroLinha == 0 && !leuAlgo) {
+                    pularBom();
+                }
+            }
+            leuAlgo = true;
+
+            int inicio = posicao;
+            while (posicao < limite && buffer[posicao] != '\n') {
+                posicao++;
+            }
+            int copiar = posicao - inicio;
+            if (tamanho + copiar <= TAMANHO_MAXIMO_LINHA) {
+                if (tamanho + copiar > linha.length) {
+                    linha = Arrays.copyOf(linha, Math.max(linha.length * 2, tamanho + copiar));
+                }
+                System.arraycopy(buffer, inicio, linha, tamanho, copiar);
+            }
+            tamanho += copiar;
+
+            if (posicao < limite) {
+                posicao++; // consome o \n
+                return finalizarLinha(tamanho);
+            }
+        }
+    }
+
+    private int finalizarLinha(int tamanho) {
+        if (tamanho > TAMANHO_MAXIMO_LINHA) {
+            return TAMANHO_MAXIMO_LINHA + 1;
+        }
+        return tamanho > 0 && linha[tamanho - 1] == '\r' ? tamanho - 1 : tamanho;
+    }
+
+    // Marca de ordem de bytes do UTF-8 no início do arquivo, comum em exportações do Excel
+    private void pularBom() {
+        if (limite - posicao >= 3 && buffer[posicao] == (byte) 0xEF
+                && buffer[posicao + 1] == (byte) 0xBB && buffer[posicao + 2] == (byte) 0xBF) {
+            posicao += 3;
+        }
+    }
+
+    /**
+     * Separa os campos da linha pelo separador, respeitando aspas ("" representa uma
+     * aspa). O conteúdo sem aspas é compactado no próprio buffer da linha.
+     */
+    private void dividir(int tamanho) {
+        campos = 0;
+        int escrita = 0;
+        int inicio = 0;
+        boolean entreAspas = false;
+        for (int i = 0; i < tamanho; i++) {
+            byte c = linha[i];
+            if (c == '"') {
+                if (entreAspas && i + 1 < tamanho && linha[i + 1] == '"') {
+                    linha[escrita++] = '"';
+                    i++;
+                } else {
+                    entreAspas = !entreAspas;
+                }
+            } else if (c == separador && !entreAspas) {
+                if (!fecharCampo(inicio, escrita)) {
+                    return;
+                }
+                inicio = escrita;
+            } else {
+                linha[escrita++] = c;
+            }
+        }
+        fecharCampo(inicio, escrita);
+    }
+
+    // Registra o campo; devolve false quando as colunas que interessam já foram lidas
+    private boolean fecharCampo(int inicio, int fim) {
+        inicioCampo[campos] = inicio;
+        fimCampo[campos] = fim;
+        return ++campos < COLUNAS;
+    }
+
+    private String texto(int campo) {
+        return new String(linha, inicioCampo[campo], fimCampo[campo] - inicioCampo[campo], charset);
+    }
+
+    private boolean emBranco(int tamanho) {
+        for (int i = 0; i < tamanho; i++) {
+            if (linha[i] != ' ' && linha[i] != '\t' && linha[i] != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean contem(int tamanho, byte valor) {
+        for (int i = 0; i < tamanho; i++) {
+            if (linha[i] == valor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        entrada.close();
+    }
+}
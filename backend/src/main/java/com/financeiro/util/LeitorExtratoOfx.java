@@ -0,0 +1,180 @@
+package com.financeiro.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Extrato OFX (SGML da versão 1.x ou XML da 2.x). O arquivo é percorrido byte a byte
+ * atrás dos blocos STMTTRN, sem montar a árvore do documento; tags de fechamento são
+ * opcionais, como no SGML usado pela maioria dos bancos brasileiros.
+ */
+public class LeitorExtratoOfx implements LeitorExtrato {
+
+    // Limita o texto guardado por tag em arquivos malformados
+    private static final int TAMANHO_MAXIMO_VALOR = 1024;
+
+    private static final byte[] STMTTRN = bytes("STMTTRN");
+    private static final byte[] FIM_STMTTRN = bytes("/STMTTRN");
+    private static final byte[] DTPOSTED = bytes("DTPOSTED");
+    private static final byte[] TRNAMT = bytes("TRNAMT");
+    private static final byte[] MEMO = bytes("MEMO");
+    private static final byte[] NAME = bytes("NAME");
+
+    private final InputStream entrada;
+    private final Charset charset;
+    private final byte[] buffer = new byte[TAMANHO_BUFFER];
+    private int posicao;
+    private int limite;
+
+    // Nome da última tag lida, ou o texto do último valor
+    private final byte[] token = new byte[TAMANHO_MAXIMO_VALOR];
+    private int tamanhoToken;
+
+    private long numeroLinha = 1;
+    private boolean tagPendente;
+
+    public LeitorExtratoOfx(InputStream entrada, Charset charset) {
+        this.entrada = entrada;
+        this.charset = charset;
+    }
+
+    @Override
+    public LancamentoExtrato proximo() throws IOException {
+        while (lerTag()) {
+            if (tokenIgual(STMTTRN)) {
+                return lerTransacao();
+            }
+        }
+        return null;
+    }
+
+    private LancamentoExtrato lerTransacao() throws IOException {
+        long linhaInicio = numeroLinha;
+        int dia = FormatoBrasileiro.DATA_INVALIDA;
+        long centavos = FormatoBrasileiro.VALOR_INVALIDO;
+        String textoData = null;
+        String textoValor = null;
+        String memo = null;
+        String nome = null;
+
+        while (lerTag() && !tokenIgual(FIM_STMTTRN)) {
+            if (tokenIgual(DTPOSTED)) {
+                lerValor();
+                dia = FormatoBrasileiro.lerDiaEpoch(token, 0, tamanhoToken);
+                textoData = dia == FormatoBrasileiro.DATA_INVALIDA ? textoToken() : null;
+            } else if (tokenIgual(TRNAMT)) {
+                lerValor();
+                centavos = FormatoBrasileiro.lerCentavos(token, 0, tamanhoToken);
+                textoValor = centavos == FormatoBrasileiro.VALOR_INVALIDO ? textoToken() : null;
+            } else if (tokenIgual(MEMO)) {
+                lerValor();
+                memo = decodificarEntidades(textoToken());
+            } else if (tokenIgual(NAME)) {
+                lerValor();
+                nome = decodificarEntidades(textoToken());
+            }
+        }
+
+        if (dia == FormatoBrasileiro.DATA_INVALIDA) {
+            return LancamentoExtrato.invalido(linhaInicio, "DTPOSTED inválido: " + textoData);
+        }
+        if (centavos == FormatoBrasileiro.VALOR_INVALIDO) {
+            return LancamentoExtrato.invalido(linhaInicio, "TRNAMT inválido: " + textoValor);
+        }
+        String descricao = memo != null && !memo.isEmpty() ? memo : nome;
+        return LancamentoExtrato.valido(linhaInicio, dia, centavos, descricao);
+    }
+
+    // Avança até a próxima tag e guarda seu nome em maiúsculas (com "/" se for de fechamento)
+    private boolean lerTag() throws IOException {
+        int c;
+        if (tagPendente) {
+            tagPendente = false;
+        } else {
+            while ((c = ler()) != -1 && c != '<') {
+                // ignora o conteúdo fora das tags que interessam
+            }
+            if (c == -1) {
+                return false;
+            }
+        }
+
+        tamanhoToken = 0;
+        while ((c = ler()) != -1 && c != '>') {
+            if (c > ' ' && tamanhoToken < TAMANHO_MAXIMO_VALOR) {
+                token[tamanhoToken++] = (byte) (c >= 'a' && c <= 'z' ? c - 32 : c);
+            }
+        }
+        return c != -1;
+    }
+
+    // Texto até a próxima tag, cujo "<" fica consumido para a leitura seguinte
+    private void lerValor() throws IOException {
+        tamanhoToken = 0;
+        int c;
+        while ((c = ler()) != -1 && c != '<') {
+            if (tamanhoToken < TAMANHO_MAXIMO_VALOR) {
+                token[tamanhoToken++] = (byte) c;
+            }
+        }
+        tagPendente = c == '<';
+        while (tamanhoToken > 0 && token[tamanhoToken - 1] <= ' ' && token[tamanhoToken - 1] >= 0) {
+            tamanhoToken--;
+        }
+    }
+
+    private int ler() throws IOException {
+        if (posicao == limite) {
+            limite = entrada.read(buffer);
+            posicao = 0;
+            if (limite <= 0) {
+                limite = 0;
+                return -1;
+            }
+        }
+        int c = buffer[posicao++] & 0xFF;
+        if (c == '\n') {
+            numeroLinha++;
+        }
+        return c;
+    }
+
+    private boolean tokenIgual(byte[] nome) {
+        if (tamanhoToken != nome.length) {
+            return false;
+        }
+        for (int i = 0; i < nome.length; i++) {
+            if (token[i] != nome[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String textoToken() {
+        int inicio = 0;
+        while (inicio < tamanhoToken && token[inicio] <= ' ' && token[inicio] >= 0) {
+            inicio++;
+        }
+        return new String(token, inicio, tamanhoToken - inicio, charset);
+    }
+
+    private static String decodificarEntidades(String texto) {
+        if (texto.indexOf('&') < 0) {
+            return texto;
+        }
+        return texto.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                .replace("&apos;", "'").replace("&amp;", "&");
+    }
+
+    private static byte[] bytes(String texto) {
+        return texto.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public void close() throws IOException {
+        entrada.close();
+    }
+}
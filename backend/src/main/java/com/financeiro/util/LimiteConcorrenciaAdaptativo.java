@@ -0,0 +1,157 @@
+package com.financeiro.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limite de requisições simultâneas ajustado pela latência observada, no estilo do
+ * TCP Vegas. A menor latência vista é a latência sem fila; a razão entre ela e cada
+ * amostra estima quantas requisições em andamento estão só esperando (fila =
+ * limite * (1 - mínima / latência)). Fila pequena faz o limite crescer, fila grande
+ * ou congestionamento sinalizado pelo chamador (como threads esperando conexão no
+ * pool) faz diminuir. A latência mínima é medida de novo periodicamente, para
+ * acompanhar mudanças de carga no banco.
+ *
+ * Acima do limite a requisição espera brevemente por uma vaga em uma fila também
+ * limitada; esgotada a espera ela deve ser recusada.
+ */
+public class LimiteConcorrenciaAdaptativo {
+
+    // Fila estimada aceitável, em múltiplos de log10(limite): abaixo de ALFA cresce, acima de BETA diminui
+    private static final double ALFA = 3;
+    private static final double BETA = 6;
+    // Amostras entre duas medições da latência mínima
+    private static final int AMOSTRAS_SONDAGEM = 1000;
+
+    private final int minimo;
+    private final int maximo;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition vagaLiberada = lock.newCondition();
+
+    // Protegidos pelo lock
+    private double limite;
+    private double latenciaMinima;
+    private int amostras;
+    private int emUso;
+    private int aguardando;
+    private long rejeitadas;
+
+    public LimiteConcorrenciaAdaptativo(int inicial, int minimo, int maximo) {
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.limite = Math.max(minimo, Math.min(maximo, inicial));
+    }
+
+    /**
+     * Ocupa uma vaga, esperando no máximo o tempo informado. Devolve false se não
+     * houver vaga a tempo ou se a fila de espera já estiver cheia (tantas requisições
+     * quanto o limite).
+     */
+    public boolean adquirir(long esperaMaxima, TimeUnit unidade) throws InterruptedException {
+        lock.lock();
+        try {
+            if (emUso < (int) limite) {
+                emUso++;
+                return true;
+            }
+            if (aguardando >= (int) limite) {
+                rejeitadas++;
+                return false;
+            }
+
+            long restante = unidade.toNanos(esperaMaxima);
+            aguardando++;
+            try {
+                while (emUso >= (int) limite) {
+                    if (restante <= 0) {
+                        rejeitadas++;
+                        return false;
+                    }
+                    restante = vagaLiberada.awaitNanos(restante);
+                }
+                emUso++;
+                return true;
+            } finally {
+                aguardando--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Libera a vaga. Se latencia for positiva ela é usada como amostra para ajustar o
+     * limite; congestionado indica que o recurso protegido já está saturado.
+     */
+    public void liberar(long latencia, TimeUnit unidade, boolean congestionado) {
+        lock.lock();
+        try {
+            int ocupadas = emUso;
+            emUso--;
+            if (latencia > 0) {
+                ajustar(unidade.toNanos(latencia), ocupadas, congestionado);
+            }
+            // O limite pode ter crescido mais de uma vaga
+            vagaLiberada.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimite() {
+        lock.lock();
+        try {
+            return (int) limite;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getEmUso() {
+        lock.lock();
+        try {
+            return emUso;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getAguardando() {
+        lock.lock();
+        try {
+            return aguardando;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejeitadas() {
+        lock.lock();
+        try {
+            return rejeitadas;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ajustar(double latencia, int ocupadas, boolean congestionado) {
+        if (++amostras >= AMOSTRAS_SONDAGEM) {
+            amostras = 0;
+            latenciaMinima = 0;
+        }
+        if (latenciaMinima == 0 || latencia < latenciaMinima) {
+            latenciaMinima = latencia;
+        }
+
+        double passo = Math.log10(Math.max(10, limite));
+        double fila = limite * (1 - latenciaMinima / latencia);
+        if (congestionado || fila > BETA * passo) {
+            limite = Math.max(minimo, limite - passo);
+        } else if (fila < ALFA * passo && ocupadas >= limite / 2) {
+            // Com menos da metade das vagas em uso a latência não diz nada sobre o limite
+            limite = Math.min(maximo, limite + passo);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.financeiro.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Naive Bayes multinomial que aprende a categoria das transações de um perfil a partir
+ * das que o usuário já categorizou. Os atributos são as palavras da descrição (na mesma
+ * normalização das regras de categorização), a faixa de valor, o tipo e a instituição.
+ *
+ * Cada atributo vai, por hash, para uma de um número fixo de posições, então o modelo
+ * não guarda o vocabulário; cada posição tem uma linha contígua com as contagens por
+ * categoria. Aprender ou esquecer uma transação é somar ou subtrair 1 nas linhas dos
+ * seus atributos; não há retreinamento. A sugestão não cria objetos além do resultado.
+ *
+ * Os métodos são sincronizados: o modelo é compartilhado entre as requisições do perfil.
+ */
+public final class ModeloSugestaoCategoria {
+
+    public record Sugestao(Long categoriaId, Long subcategoriaId, double confianca) {
+    }
+
+    // Uma transação já reduzida ao que o modelo usa, para aprender ou esquecer depois do commit
+    public record Exemplo(String descricao, long centavos, String tipo, Long instituicaoId,
+                          Long categoriaId, Long subcategoriaId) {
+    }
+
+    private static final int VERSAO_FORMATO = 1;
+
+    private static final int BITS_TABELA = 12;
+    private static final int TAMANHO_TABELA = 1 << BITS_TABELA;
+    // Suavização de Laplace (alfa = 1) sobre o espaço de hashes
+    private static final double LOG_VOCABULARIO = Math.log(TAMANHO_TABELA);
+
+    private static final int MAXIMO_PALAVRAS = 24;
+    private static final int MAXIMO_ATRIBUTOS = MAXIMO_PALAVRAS + 3;
+
+    private static final long SEMENTE_PALAVRA = 0x243F6A8885A308D3L;
+    private static final long SEMENTE_VALOR = 0x13198A2E03707344L;
+    private static final long SEMENTE_TIPO = 0xA4093822299F31D0L;
+    private static final long SEMENTE_INSTITUICAO = 0x082EFA98EC4E6C89L;
+    private static final long PRIMO_FNV = 0x100000001B3L;
+
+    // LOGARITMOS[n] = ln(n + 1): evita Math.log para as contagens usuais
+    private static final int TAMANHO_TABELA_LOG = 1 << 16;
+    private static final float[] LOGARITMOS = new float[TAMANHO_TABELA_LOG];
+
+    static {
+        for (int n = 0; n < TAMANHO_TABELA_LOG; n++) {
+            LOGARITMOS[n] = (float) Math.log(n + 1.0);
+        }
+    }
+
+    // contagens[posição do atributo * capacidade de categorias + categoria]
+    private int[] contagens = new int[TAMANHO_TABELA * 8];
+
+    private int quantidadeCategorias;
+    private long[] categorias = new long[8];
+    private long[] subcategorias = new long[8]; // 0 quando sem subcategoria
+    private int[] exemplosPorCategoria = new int[8];
+    private long[] atributosPorCategoria = new long[8];
+    // ln(atributos da categoria + tamanho da tabela), atualizado a cada treino da categoria
+    private double[] logDenominadores = new double[8];
+    private long exemplos;
+
+    // Áreas de trabalho de sugerir e treinar, protegidas pelo monitor do modelo
+    private final long[] atributos = new long[MAXIMO_ATRIBUTOS];
+    private double[] pontuacoes = new double[8];
+
+    public synchronized long getExemplos() {
+        return exemplos;
+    }
+
+    // Memória aproximada do modelo: a tabela de contagens e os vetores por categoria
+    public synchronized long getTamanhoBytes() {
+        return contagens.length * 4L + categorias.length * (8L + 8 + 4 + 8 + 8 + 8) + atributos.length * 8L;
+    }
+
+    public synchronized void aprender(Exemplo exemplo) {
+        treinar(exemplo, 1);
+    }
+
+    public synchronized void esquecer(Exemplo exemplo) {
+        treinar(exemplo, -1);
+    }
+
+    /**
+     * Categoria (e subcategoria) mais provável para a transação e a probabilidade que o
+     * modelo atribui a ela, ou null se o modelo ainda não aprendeu nenhuma categoria.
+     */
+    public synchronized Sugestao sugerir(String descricao, long centavos, String tipo, Long instituicaoId) {
+        int quantidadeAtributos = extrairAtributos(descricao, centavos, tipo, instituicaoId);
+
+        int melhor = -1;
+        for (int c = 0; c < quantidadeCategorias; c++) {
+            if (exemplosPorCategoria[c] == 0) {
+                pontuacoes[c] = Double.NEGATIVE_INFINITY;
+                continue;
+            }
+            pontuacoes[c] = logaritmo(exemplosPorCategoria[c] - 1) - quantidadeAtributos * logDenominadores[c];
+        }
+        int capacidade = categorias.length;
+        for (int i = 0; i < quantidadeAtributos; i++) {
+            int linha = posicao(atributos[i]) * capacidade;
+            for (int c = 0; c < quantidadeCategorias; c++) {
+                pontuacoes[c] += logaritmo(contagens[linha + c]);
+            }
+        }
+        for (int c = 0; c < quantidadeCategorias; c++) {
+            if (exemplosPorCategoria[c] > 0 && (melhor < 0 || pontuacoes[c] > pontuacoes[melhor])) {
+                melhor = c;
+            }
+        }
+        if (melhor < 0) {
+            return null;
+        }
+
+        // Normalização das probabilidades; diferenças abaixo de e^-30 não alteram o resultado
+        double soma = 0;
+        for (int c = 0; c < quantidadeCategorias; c++) {
+            double diferenca = pontuacoes[c] - pontuacoes[melhor];
+            if (diferenca > -30) {
+                soma += Math.exp(diferenca);
+            }
+        }
+        return new Sugestao(categorias[melhor], subcategorias[melhor] != 0 ? subcategorias[melhor] : null, 1 / soma);
+    }
+
+    /**
+     * Grava o modelo comprimido. A tabela de contagens é esparsa e, comprimida, ocupa
+     * poucos kilobytes para o histórico típico de um perfil.
+     */
+    public synchronized byte[] serializar() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream saida = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            saida.writeInt(VERSAO_FORMATO);
+            saida.writeInt(BITS_TABELA);
+            saida.writeLong(exemplos);
+            saida.writeInt(quantidadeCategorias);
+            for (int c = 0; c < quantidadeCategorias; c++) {
+                saida.writeLong(categorias[c]);
+                saida.writeLong(subcategorias[c]);
+                saida.writeInt(exemplosPorCategoria[c]);
+                saida.writeLong(atributosPorCategoria[c]);
+            }
+            for (int posicao = 0; posicao < TAMANHO_TABELA; posicao++) {
+                for (int c = 0; c < quantidadeCategorias; c++) {
+                    saida.writeInt(contagens[posicao * categorias.length + c]);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Lê um modelo gravado por {@link #serializar()}. Devolve null se o formato ou o
+     * tamanho da tabela mudaram; nesse caso o modelo deve ser treinado de novo.
+     */
+    public static ModeloSugestaoCategoria desserializar(byte[] dados) {
+        try (DataInputStream entrada = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(dados)))) {
+            if (entrada.readInt() != VERSAO_FORMATO || entrada.readInt() != BITS_TABELA) {
+                return null;
+            }
+            ModeloSugestaoCategoria modelo = new ModeloSugestaoCategoria();
+            modelo.exemplos = entrada.readLong();
+            int quantidade = entrada.readInt();
+            for (int c = 0; c < quantidade; c++) {
+                int indice = modelo.adicionarCategoria(entrada.readLong(), entrada.readLong());
+                modelo.exemplosPorCategoria[indice] = entrada.readInt();
+                modelo.atributosPorCategoria[indice] = entrada.readLong();
+                modelo.atualizarDenominador(indice);
+            }
+            for (int posicao = 0; posicao < TAMANHO_TABELA; posicao++) {
+                for (int c = 0; c < quantidade; c++) {
+                    modelo.contagens[posicao * modelo.categorias.length + c] = entrada.readInt();
+                }
+            }
+            return modelo;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void treinar(Exemplo exemplo, int sinal) {
+        if (exemplo.categoriaId() == null) {
+            return;
+        }
+        int categoria = indiceCategoria(exemplo.categoriaId(),
+                exemplo.subcategoriaId() != null ? exemplo.subcategoriaId() : 0);
+        if (sinal < 0 && exemplosPorCategoria[categoria] == 0) {
+            return; // esquecer algo que o modelo não aprendeu (anterior à carga, por exemplo)
+        }
+
+        int quantidadeAtributos = extrairAtributos(exemplo.descricao(), exemplo.centavos(), exemplo.tipo(),
+                exemplo.instituicaoId());
+        for (int i = 0; i < quantidadeAtributos; i++) {
+            int posicao = posicao(atributos[i]) * categorias.length + categoria;
+            contagens[posicao] = Math.max(0, contagens[posicao] + sinal);
+        }
+        exemplosPorCategoria[categoria] += sinal;
+        atributosPorCategoria[categoria] = Math.max(0, atributosPorCategoria[categoria] + (long) sinal * quantidadeAtributos);
+        exemplos += sinal;
+        atualizarDenominador(categoria);
+    }
+
+    /**
+     * Preenche {@link #atributos} com o hash de cada atributo da transação: as palavras
+     * da descrição com ao menos duas letras ou dígitos e alguma letra, a ordem de grandeza
+     * do valor, o tipo e a instituição. Devolve a quantidade.
+     */
+    private int extrairAtributos(String descricao, long centavos, String tipo, Long instituicaoId) {
+        int quantidade = 0;
+        if (descricao != null) {
+            long hash = SEMENTE_PALAVRA;
+            int tamanho = 0;
+            boolean temLetra = false;
+            for (int i = 0; i <= descricao.length() && quantidade < MAXIMO_PALAVRAS; i++) {
+                int simbolo = i < descricao.length() ? AutomatoPalavrasChave.simbolo(descricao.charAt(i)) : 0;
+                if (simbolo != 0) {
+                    hash = (hash ^ simbolo) * PRIMO_FNV;
+                    tamanho++;
+                    temLetra |= simbolo <= 26;
+                    continue;
+                }
+                if (tamanho >= 2 && temLetra) {
+                    atributos[quantidade++] = hash;
+                }
+                hash = SEMENTE_PALAVRA;
+                tamanho = 0;
+                temLetra = false;
+            }
+        }
+        atributos[quantidade++] = SEMENTE_VALOR + (64 - Long.numberOfLeadingZeros(Math.abs(centavos)));
+        atributos[quantidade++] = SEMENTE_TIPO + (tipo != null ? tipo.hashCode() : 0);
+        atributos[quantidade++] = SEMENTE_INSTITUICAO + (instituicaoId != null ? instituicaoId : 0);
+        return quantidade;
+    }
+
+    private static int posicao(long atributo) {
+        return (int) (misturar(atributo) >>> (64 - BITS_TABELA));
+    }
+
+    // Finalizador do MurmurHash3: espalha os bits antes de usar os mais altos como posição
+    private static long misturar(long valor) {
+        valor ^= valor >>> 33;
+        valor *= 0xFF51AFD7ED558CCDL;
+        valor ^= valor >>> 33;
+        valor *= 0xC4CEB9FE1A85EC53L;
+        return valor ^ (valor >>> 33);
+    }
+
+    // ln(n + 1)
+    private static double logaritmo(long n) {
+        return n < TAMANHO_TABELA_LOG ? LOGARITMOS[(int) n] : Math.log(n + 1.0);
+    }
+
+    private void atualizarDenominador(int categoria) {
+        logDenominadores[categoria] = atributosPorCategoria[categoria] == 0
+                ? LOG_VOCABULARIO
+                : Math.log(atributosPorCategoria[categoria] + (double) TAMANHO_TABELA);
+    }
+
+    private int indiceCategoria(long categoriaId, long subcategoriaId) {
+        for (int c = 0; c < quantidadeCategorias; c++) {
+            if (categorias[c] == categoriaId && subcategorias[c] == subcategoriaId) {
+                return c;
+            }
+        }
+        return adicionarCategoria(categoriaId, subcategoriaId);
+    }
+
+    private int adicionarCategoria(long categoriaId, long subcategoriaId) {
+        if (quantidadeCategorias == categorias.length) {
+            int capacidade = categorias.length * 2;
+            int[] novasContagens = new int[TAMANHO_TABELA * capacidade];
+            for (int posicao = 0; posicao < TAMANHO_TABELA; posicao++) {
+                System.arraycopy(contagens, posicao * categorias.length, novasContagens, posicao * capacidade,
+                        quantidadeCategorias);
+            }
+            contagens = novasContagens;
+            categorias = Arrays.copyOf(categorias, capacidade);
+            subcategorias = Arrays.copyOf(subcategorias, capacidade);
+            exemplosPorCategoria = Arrays.copyOf(exemplosPorCategoria, capacidade);
+            atributosPorCategoria = Arrays.copyOf(atributosPorCategoria, capacidade);
+            logDenominadores = Arrays.copyOf(logDenominadores, capacidade);
+            pontuacoes = Arrays.copyOf(pontuacoes, capacidade);
+        }
+        categorias[quantidadeCategorias] = categoriaId;
+        subcategorias[quantidadeCategorias] = subcategoriaId;
+        logDenominadores[quantidadeCategorias] = LOG_VOCABULARIO;
+        return quantidadeCategorias++;
+    }
+}
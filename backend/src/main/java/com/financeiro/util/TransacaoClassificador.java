@@ -1,5 +1,7 @@
 package com.financeiro.util;
 
+import java.math.BigDecimal;
+
 import com.financeiro.entity.Transacao;
 
 /**
@@ -8,6 +10,10 @@ import com.financeiro.entity.Transacao;
  */
 public class TransacaoClassificador {
 
+    private static final BigDecimal LIMITE_ALTO_VALOR = new BigDecimal("1000.0");
+
+    private static final String SALARIO = "salário";
+
     /**
      * Classifica uma transação com base em suas características usando Pattern Matching para switch.
      * 
@@ -17,13 +23,23 @@ public class TransacaoClassificador {
     public static String classificarTransacao(Transacao transacao) {
         return switch(transacao) {
             // Pattern matching com guardas (when)
-            case Transacao t when t.getValor().compareTo(new java.math.BigDecimal("1000.0")) > 0 -> "Alto Valor";
+            case Transacao t when t.getValor().compareTo(LIMITE_ALTO_VALOR) > 0 -> "Alto Valor";
             case Transacao t when t.getCategoria() != null && 
                                t.getCategoria().getNome().equals("Investimento") -> "Investimento";
-            case Transacao t when t.getDescricao().toLowerCase().contains("salário") -> "Renda";
+            case Transacao t when contemIgnorandoCaixa(t.getDescricao(), SALARIO) -> "Renda";
             case Transacao t when "DESPESA".equals(t.getTipo()) -> "Despesa Regular";
             // Caso padrão
             default -> "Transação Padrão";
         };
     }
-}
\ No newline at end of file
+
+    // Equivale a texto.toLowerCase().contains(trecho) sem criar uma cópia do texto
+    private static boolean contemIgnorandoCaixa(String texto, String trecho) {
+        for (int i = 0; i <= texto.length() - trecho.length(); i++) {
+            if (texto.regionMatches(true, i, trecho, 0, trecho.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,7 @@
+-- Impressão digital do conteúdo da transação, usada para não duplicar lançamentos ao
+-- importar extratos. As linhas existentes são preenchidas pela aplicação na inicialização
+-- (a normalização da descrição não é reproduzível em SQL)
+ALTER TABLE transacoes ADD COLUMN hash_conteudo VARCHAR(32);
+CREATE INDEX idx_transacoes_perfil_hash ON transacoes (perfil_id, hash_conteudo);
+
+ALTER TABLE registros_importacao ADD COLUMN linhas_duplicadas BIGINT;
@@ -0,0 +1,20 @@
+-- Regras de categorização automática por perfil
+CREATE TABLE regras_categorizacao (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    perfil_id BIGINT NOT NULL,
+    palavra_chave VARCHAR(255),
+    valor_minimo DECIMAL(19,2),
+    valor_maximo DECIMAL(19,2),
+    tipo VARCHAR(255),
+    instituicao_id BIGINT,
+    categoria_id BIGINT NOT NULL,
+    subcategoria_id BIGINT,
+    prioridade INT NOT NULL DEFAULT 0,
+    ativa BOOLEAN NOT NULL DEFAULT TRUE,
+    FOREIGN KEY (perfil_id) REFERENCES perfis(id),
+    FOREIGN KEY (instituicao_id) REFERENCES instituicoes(id),
+    FOREIGN KEY (categoria_id) REFERENCES categorias(id),
+    FOREIGN KEY (subcategoria_id) REFERENCES subcategorias(id)
+);
+
+CREATE INDEX idx_regras_categorizacao_perfil ON regras_categorizacao (perfil_id, ativa);
@@ -0,0 +1,10 @@
+-- Modelo de sugestão de categorias aprendido de cada perfil, comprimido
+CREATE TABLE modelos_sugestao_categoria (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    perfil_id BIGINT NOT NULL,
+    dados LONGBLOB NOT NULL,
+    exemplos BIGINT NOT NULL,
+    data_atualizacao DATETIME NOT NULL,
+    CONSTRAINT uk_modelos_sugestao_categoria_perfil UNIQUE (perfil_id),
+    FOREIGN KEY (perfil_id) REFERENCES perfis(id)
+);
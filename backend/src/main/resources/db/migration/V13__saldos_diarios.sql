@@ -0,0 +1,15 @@
+-- Movimento acumulado de cada instituição ao fim de cada dia com transação lançada,
+-- mantido por delta. A carga a partir das transações existentes é feita pela aplicação
+-- na inicialização, em paralelo por instituição
+CREATE TABLE saldos_diarios (
+    id BIGINT PRIMARY KEY,
+    instituicao_id BIGINT NOT NULL,
+    data DATE NOT NULL,
+    movimento_acumulado DECIMAL(19,2) NOT NULL,
+    CONSTRAINT uk_saldos_diarios_instituicao_data UNIQUE (instituicao_id, data),
+    FOREIGN KEY (instituicao_id) REFERENCES instituicoes(id) ON DELETE CASCADE
+);
+
+CREATE TABLE saldos_diarios_seq (next_val BIGINT);
+INSERT INTO saldos_diarios_seq VALUES (1);
+-- PostgreSQL: db/postgresql/sequences_ids.sql
@@ -0,0 +1,17 @@
+-- Planos de parcelamento, regras de categorização, modelos de sugestão e resumo mensal
+-- passam de AUTO_INCREMENT para sequence (pooled-lo, incremento 50), como as entidades
+-- de V6, para que os inserts dessas tabelas também entrem nos batches JDBC. As colunas
+-- AUTO_INCREMENT aceitam os ids informados pelo Hibernate e ficam como estão.
+CREATE TABLE planos_parcelamento_seq (next_val BIGINT);
+INSERT INTO planos_parcelamento_seq SELECT COALESCE(MAX(id), 0) + 1 FROM planos_parcelamento;
+
+CREATE TABLE regras_categorizacao_seq (next_val BIGINT);
+INSERT INTO regras_categorizacao_seq SELECT COALESCE(MAX(id), 0) + 1 FROM regras_categorizacao;
+
+CREATE TABLE modelos_sugestao_categoria_seq (next_val BIGINT);
+INSERT INTO modelos_sugestao_categoria_seq SELECT COALESCE(MAX(id), 0) + 1 FROM modelos_sugestao_categoria;
+
+CREATE TABLE resumo_mensal_seq (next_val BIGINT);
+INSERT INTO resumo_mensal_seq SELECT COALESCE(MAX(id), 0) + 1 FROM resumo_mensal;
+
+-- PostgreSQL: db/postgresql/sequences_ids.sql
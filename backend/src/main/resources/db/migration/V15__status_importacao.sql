@@ -0,0 +1,5 @@
+-- Situação da importação do extrato e última linha do arquivo já gravada, para que uma
+-- importação que falhou possa ser retomada. Registros antigos ficam com status nulo,
+-- tratados como concluídos
+ALTER TABLE registros_importacao ADD COLUMN status VARCHAR(20);
+ALTER TABLE registros_importacao ADD COLUMN ultima_linha_gravada BIGINT;
@@ -0,0 +1,3 @@
+-- Listagem de parcelas virtuais: planos do perfil em ordem (data da última parcela, id)
+-- decrescente, lidos em lotes a partir do último plano do lote anterior
+CREATE INDEX idx_planos_parcelamento_perfil_ultima ON planos_parcelamento (perfil_id, data_ultima_parcela, id);
@@ -0,0 +1,8 @@
+-- Índices compostos para a listagem filtrada e paginada por (data, id)
+CREATE INDEX idx_transacoes_perfil_data ON transacoes (perfil_id, data, id);
+CREATE INDEX idx_transacoes_perfil_tipo_data ON transacoes (perfil_id, tipo, data, id);
+CREATE INDEX idx_transacoes_perfil_categoria_data ON transacoes (perfil_id, categoria_id, data, id);
+CREATE INDEX idx_transacoes_usuario_data ON transacoes (usuario_id, data, id);
+CREATE INDEX idx_transacoes_instituicao_data ON transacoes (instituicao_id, data, id);
+CREATE INDEX idx_transacoes_data ON transacoes (data, id);
+CREATE INDEX idx_transacoes_grupo_parcelamento ON transacoes (grupo_parcelamento);
@@ -0,0 +1,22 @@
+-- Totais mensais por perfil, tipo, categoria e subcategoria, mantidos por delta
+CREATE TABLE resumo_mensal (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    perfil_id BIGINT NOT NULL,
+    categoria_id BIGINT NOT NULL,
+    subcategoria_id BIGINT,
+    tipo VARCHAR(255) NOT NULL,
+    ano_mes INT NOT NULL,
+    valor DECIMAL(19,2) NOT NULL,
+    quantidade BIGINT NOT NULL,
+    CONSTRAINT uk_resumo_mensal_chave UNIQUE (perfil_id, ano_mes, tipo, categoria_id, subcategoria_id),
+    FOREIGN KEY (perfil_id) REFERENCES perfis(id),
+    FOREIGN KEY (categoria_id) REFERENCES categorias(id),
+    FOREIGN KEY (subcategoria_id) REFERENCES subcategorias(id)
+);
+
+-- Carga inicial a partir das transações existentes
+INSERT INTO resumo_mensal (perfil_id, categoria_id, subcategoria_id, tipo, ano_mes, valor, quantidade)
+SELECT perfil_id, categoria_id, subcategoria_id, tipo, YEAR(data) * 100 + MONTH(data), SUM(valor), COUNT(*)
+FROM transacoes
+WHERE perfil_id IS NOT NULL
+GROUP BY perfil_id, categoria_id, subcategoria_id, tipo, YEAR(data) * 100 + MONTH(data);
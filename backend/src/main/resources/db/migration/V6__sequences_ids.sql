@@ -0,0 +1,19 @@
+-- Geração de ids por sequence (pooled-lo, incremento 50) para permitir inserts em batch.
+-- O MySQL não tem sequences: o Hibernate as emula com uma tabela de uma linha (next_val)
+-- por sequence. Cada uma começa após o maior id já existente.
+CREATE TABLE transacoes_seq (next_val BIGINT);
+INSERT INTO transacoes_seq SELECT COALESCE(MAX(id), 0) + 1 FROM transacoes;
+
+CREATE TABLE instituicoes_seq (next_val BIGINT);
+INSERT INTO instituicoes_seq SELECT COALESCE(MAX(id), 0) + 1 FROM instituicoes;
+
+CREATE TABLE categorias_seq (next_val BIGINT);
+INSERT INTO categorias_seq SELECT COALESCE(MAX(id), 0) + 1 FROM categorias;
+
+CREATE TABLE subcategorias_seq (next_val BIGINT);
+INSERT INTO subcategorias_seq SELECT COALESCE(MAX(id), 0) + 1 FROM subcategorias;
+
+CREATE TABLE casos_seq (next_val BIGINT);
+INSERT INTO casos_seq SELECT COALESCE(MAX(id), 0) + 1 FROM casos;
+
+-- PostgreSQL (sequences nativas): db/postgresql/sequences_ids.sql
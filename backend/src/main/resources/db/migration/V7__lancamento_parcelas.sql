@@ -0,0 +1,8 @@
+-- Indica se o valor da transação já foi aplicado ao saldo da instituição
+ALTER TABLE transacoes ADD COLUMN lancada BOOLEAN NOT NULL DEFAULT TRUE;
+
+-- Apenas a primeira parcela de cada parcelamento era lançada na criação; as demais
+-- ficam pendentes e as já vencidas serão lançadas na próxima execução do agendamento
+UPDATE transacoes SET lancada = FALSE WHERE eh_parcelada = TRUE AND parcela_atual > 1;
+
+CREATE INDEX idx_transacoes_pendentes ON transacoes (lancada, data, id);
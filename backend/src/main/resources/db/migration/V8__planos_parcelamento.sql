@@ -0,0 +1,40 @@
+-- Planos de parcelamento: as parcelas futuras são geradas a partir do plano e só
+-- passam a existir em transacoes quando vencem, são editadas ou excluídas
+CREATE TABLE planos_parcelamento (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    grupo_parcelamento VARCHAR(255) NOT NULL,
+    descricao VARCHAR(255) NOT NULL,
+    valor_total DECIMAL(19,2) NOT NULL,
+    valor_parcela DECIMAL(19,2) NOT NULL,
+    total_parcelas INT NOT NULL,
+    data_inicio DATE NOT NULL,
+    tipo VARCHAR(255) NOT NULL,
+    categoria_id BIGINT NOT NULL,
+    subcategoria_id BIGINT,
+    instituicao_id BIGINT NOT NULL,
+    usuario_id BIGINT NOT NULL,
+    perfil_id BIGINT NOT NULL,
+    proxima_parcela INT NOT NULL,
+    data_proxima_parcela DATE,
+    data_ultima_parcela DATE NOT NULL,
+    versao BIGINT,
+    CONSTRAINT uk_planos_parcelamento_grupo UNIQUE (grupo_parcelamento),
+    FOREIGN KEY (categoria_id) REFERENCES categorias(id),
+    FOREIGN KEY (subcategoria_id) REFERENCES subcategorias(id),
+    FOREIGN KEY (instituicao_id) REFERENCES instituicoes(id),
+    FOREIGN KEY (usuario_id) REFERENCES usuarios(id),
+    FOREIGN KEY (perfil_id) REFERENCES perfis(id)
+);
+
+CREATE INDEX idx_planos_parcelamento_proxima ON planos_parcelamento (data_proxima_parcela, id);
+CREATE INDEX idx_planos_parcelamento_perfil ON planos_parcelamento (perfil_id, data_proxima_parcela);
+
+CREATE TABLE planos_parcelamento_excluidas (
+    plano_id BIGINT NOT NULL,
+    numero_parcela INT NOT NULL,
+    PRIMARY KEY (plano_id, numero_parcela),
+    FOREIGN KEY (plano_id) REFERENCES planos_parcelamento(id)
+);
+
+-- Parcelamentos já existentes continuam como linhas em transacoes e seguem o
+-- lançamento das linhas pendentes; não é necessário criar planos para eles
@@ -0,0 +1,10 @@
+-- Vincula as transações ao extrato importado que as originou
+ALTER TABLE transacoes ADD COLUMN registro_importacao_id BIGINT;
+ALTER TABLE transacoes ADD CONSTRAINT fk_transacoes_registro_importacao
+    FOREIGN KEY (registro_importacao_id) REFERENCES registros_importacao(id);
+CREATE INDEX idx_transacoes_registro_importacao ON transacoes (registro_importacao_id);
+
+-- Resultado da importação do arquivo
+ALTER TABLE registros_importacao ADD COLUMN linhas_importadas BIGINT;
+ALTER TABLE registros_importacao ADD COLUMN linhas_rejeitadas BIGINT;
+ALTER TABLE registros_importacao ADD COLUMN duracao_ms BIGINT;
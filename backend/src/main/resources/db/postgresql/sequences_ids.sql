@@ -0,0 +1,42 @@
+-- Sequences das entidades com id por sequence (pooled-lo, allocationSize 50) no
+-- PostgreSQL de produção, que valida o esquema na inicialização (ddl-auto=validate).
+-- Equivale a db/migration/V6 e V14, que emulam as sequences com tabelas no MySQL.
+--
+-- O INCREMENT BY precisa ser igual ao allocationSize da entidade: o Hibernate usa cada
+-- valor lido como início de um bloco de 50 ids. Cada sequence continua depois do maior
+-- id já existente. O script pode ser executado de novo sem efeito nos dados.
+
+CREATE SEQUENCE IF NOT EXISTS transacoes_seq INCREMENT BY 50;
+SELECT setval('transacoes_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM transacoes), false);
+
+CREATE SEQUENCE IF NOT EXISTS instituicoes_seq INCREMENT BY 50;
+SELECT setval('instituicoes_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM instituicoes), false);
+
+CREATE SEQUENCE IF NOT EXISTS categorias_seq INCREMENT BY 50;
+SELECT setval('categorias_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM categorias), false);
+
+CREATE SEQUENCE IF NOT EXISTS subcategorias_seq INCREMENT BY 50;
+SELECT setval('subcategorias_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM subcategorias), false);
+
+CREATE SEQUENCE IF NOT EXISTS casos_seq INCREMENT BY 50;
+SELECT setval('casos_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM casos), false);
+
+CREATE SEQUENCE IF NOT EXISTS saldos_diarios_seq INCREMENT BY 50;
+SELECT setval('saldos_diarios_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM saldos_diarios), false);
+
+-- Tabelas que usavam coluna identity: o id passa a vir só da sequence
+ALTER TABLE planos_parcelamento ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS planos_parcelamento_seq INCREMENT BY 50;
+SELECT setval('planos_parcelamento_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM planos_parcelamento), false);
+
+ALTER TABLE regras_categorizacao ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS regras_categorizacao_seq INCREMENT BY 50;
+SELECT setval('regras_categorizacao_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM regras_categorizacao), false);
+
+ALTER TABLE modelos_sugestao_categoria ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS modelos_sugestao_categoria_seq INCREMENT BY 50;
+SELECT setval('modelos_sugestao_categoria_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM modelos_sugestao_categoria), false);
+
+ALTER TABLE resumo_mensal ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS resumo_mensal_seq INCREMENT BY 50;
+SELECT setval('resumo_mensal_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM resumo_mensal), false);
@@ -0,0 +1,147 @@
+package com.financeiro;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.financeiro.dto.TransacaoDTO;
+import com.financeiro.entity.Categoria;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.entity.Perfil;
+import com.financeiro.entity.Subcategoria;
+import com.financeiro.entity.Usuario;
+import com.financeiro.repository.CategoriaRepository;
+import com.financeiro.repository.InstituicaoRepository;
+import com.financeiro.repository.PerfilRepository;
+import com.financeiro.repository.SubcategoriaRepository;
+import com.financeiro.repository.UsuarioRepository;
+import com.financeiro.security.CustomUserDetailsService;
+import com.financeiro.security.JwtService;
+
+/**
+ * Base dos testes de integração. Todas as classes compartilham o mesmo contexto (perfil
+ * test, H2 em memória) e cada teste cria os próprios usuários, perfis, instituições e
+ * categorias, para não depender do que outros testes gravaram.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public abstract class IntegracaoBase {
+
+    private static final AtomicLong SEQUENCIA = new AtomicLong();
+    private static final String CATEGORIA_TRANSFERENCIA = "Transferência entre Perfis";
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    protected UsuarioRepository usuarioRepository;
+
+    @Autowired
+    protected PerfilRepository perfilRepository;
+
+    @Autowired
+    protected InstituicaoRepository instituicaoRepository;
+
+    @Autowired
+    protected CategoriaRepository categoriaRepository;
+
+    @Autowired
+    protected SubcategoriaRepository subcategoriaRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    protected static long proximo() {
+        return SEQUENCIA.incrementAndGet();
+    }
+
+    protected Usuario criarUsuario() {
+        long n = proximo();
+        Usuario usuario = new Usuario();
+        usuario.setNome("Usuário " + n);
+        usuario.setEmail("usuario" + n + "@teste.com");
+        usuario.setSenhaHash("-");
+        return usuarioRepository.save(usuario);
+    }
+
+    protected Perfil criarPerfil(Usuario usuario) {
+        Perfil perfil = new Perfil();
+        perfil.setNome("Perfil " + proximo());
+        perfil.setTipoPerfil("PF");
+        perfil.setUsuario(usuario);
+        return perfilRepository.save(perfil);
+    }
+
+    protected Instituicao criarInstituicao(Perfil perfil, String saldoInicial) {
+        Instituicao instituicao = new Instituicao();
+        instituicao.setNome("Instituição " + proximo());
+        instituicao.setTipo("Conta Corrente");
+        instituicao.setSaldoInicial(new BigDecimal(saldoInicial));
+        instituicao.setSaldoAtual(new BigDecimal(saldoInicial));
+        instituicao.setPerfil(perfil);
+        return instituicaoRepository.save(instituicao);
+    }
+
+    protected Categoria criarCategoria(Perfil perfil, String tipo) {
+        return criarCategoria(perfil, tipo, "Categoria " + proximo());
+    }
+
+    protected Categoria criarCategoria(Perfil perfil, String tipo, String nome) {
+        Categoria categoria = new Categoria();
+        categoria.setNome(nome);
+        categoria.setTipo(tipo);
+        categoria.setPerfil(perfil);
+        return categoriaRepository.save(categoria);
+    }
+
+    protected Subcategoria criarSubcategoria(Categoria categoria) {
+        Subcategoria subcategoria = new Subcategoria();
+        subcategoria.setNome("Subcategoria " + proximo());
+        subcategoria.setCategoria(categoria);
+        return subcategoriaRepository.save(subcategoria);
+    }
+
+    /**
+     * Categorias "Transferência entre Perfis" (Despesa e Receita), procuradas por nome nas
+     * transferências e não incluídas na carga inicial. Criadas uma única vez no contexto,
+     * porque a busca por nome e tipo não admite repetidas.
+     */
+    protected synchronized void garantirCategoriasTransferencia() {
+        if (categoriaRepository.findByNomeAndTipo(CATEGORIA_TRANSFERENCIA, "Despesa").isEmpty()) {
+            Perfil perfil = criarPerfil(criarUsuario());
+            criarCategoria(perfil, "Despesa", CATEGORIA_TRANSFERENCIA);
+            criarCategoria(perfil, "Receita", CATEGORIA_TRANSFERENCIA);
+        }
+    }
+
+    protected static TransacaoDTO transacao(Instituicao instituicao, Categoria categoria, String valor, LocalDate data) {
+        TransacaoDTO dto = new TransacaoDTO();
+        dto.setData(data);
+        dto.setDescricao("Transação " + proximo());
+        dto.setValor(new BigDecimal(valor));
+        dto.setTipo(categoria.getTipo());
+        dto.setCategoriaId(categoria.getId());
+        dto.setInstituicaoId(instituicao.getId());
+        dto.setPerfilId(instituicao.getPerfil().getId());
+        return dto;
+    }
+
+    // Cabeçalho Authorization com um token válido do usuário
+    protected String token(Usuario usuario) {
+        return "Bearer " + jwtService.generateToken(userDetailsService.loadUserByUsername(usuario.getEmail()));
+    }
+}
@@ -0,0 +1,80 @@
+package com.financeiro.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.financeiro.SistemaControleFinanceiroApplication;
+import com.financeiro.dto.TransacaoDTO;
+import com.financeiro.entity.Perfil;
+import com.financeiro.repository.PerfilRepository;
+import com.financeiro.service.TransacaoLoteService;
+
+/**
+ * Sobe a aplicação completa para os benchmarks que medem os serviços reais: banco H2
+ * em memória exclusivo, porta aleatória e sem o log de SQL.
+ */
+final class AplicacaoBenchmark {
+
+    // Perfil, instituições (1 a 6) e categorias (1 a 12) do data.sql
+    static final long PERFIL_ID = 1L;
+
+    private AplicacaoBenchmark() {
+    }
+
+    // As propriedades informadas substituem as padrão de mesmo nome
+    static ConfigurableApplicationContext iniciar(String... propriedades) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Map<String, String> argumentos = new LinkedHashMap<>();
+        argumentos.put("server.port", "0");
+        argumentos.put("spring.datasource.url", "jdbc:h2:mem:benchmark-" + UUID.randomUUID());
+        argumentos.put("spring.jpa.show-sql", "false");
+        argumentos.put("logging.level.root", "WARN");
+        argumentos.put("app.limite-concorrencia.habilitado", "false");
+        for (String propriedade : propriedades) {
+            int separador = propriedade.indexOf('=');
+            argumentos.put(propriedade.substring(0, separador), propriedade.substring(separador + 1));
+        }
+        return new SpringApplicationBuilder(SistemaControleFinanceiroApplication.class)
+                .run(argumentos.entrySet().stream()
+                        .map(argumento -> "--" + argumento.getKey() + "=" + argumento.getValue())
+                        .toArray(String[]::new));
+    }
+
+    /**
+     * Grava transações no perfil do data.sql pela inclusão em lote, alternando
+     * instituições, categorias e datas.
+     */
+    static void popularTransacoes(ConfigurableApplicationContext contexto, int quantidade) {
+        Perfil perfil = contexto.getBean(PerfilRepository.class).findById(PERFIL_ID).orElseThrow();
+        TransacaoLoteService loteService = contexto.getBean(TransacaoLoteService.class);
+        List<TransacaoDTO> bloco = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            bloco.add(transacao(i));
+            if (bloco.size() == 500 || i == quantidade - 1) {
+                loteService.gravarBloco(perfil, bloco, i + 1 - bloco.size());
+                bloco = new ArrayList<>();
+            }
+        }
+    }
+
+    static TransacaoDTO transacao(int i) {
+        boolean receita = i % 5 == 0;
+        TransacaoDTO dto = new TransacaoDTO();
+        dto.setData(LocalDate.of(2025, 1, 1).plusDays(i % 600));
+        dto.setDescricao((receita ? "Recebimento " : "Compra ") + i);
+        dto.setValor(BigDecimal.valueOf(1000 + i % 9000, 2));
+        dto.setTipo(receita ? "Receita" : "Despesa");
+        dto.setCategoriaId(receita ? 1L + i % 4 : 5L + i % 8);
+        dto.setInstituicaoId(1L + i % 6);
+        dto.setPerfilId(PERFIL_ID);
+        return dto;
+    }
+}
@@ -0,0 +1,114 @@
+package com.financeiro.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.financeiro.entity.Categoria;
+import com.financeiro.entity.RegraCategorizacao;
+import com.financeiro.util.ClassificadorTransacoes;
+
+/**
+ * Descrições classificadas por segundo, em uma thread, pelas regras compiladas de um
+ * perfil, e o tempo de compilação desse conjunto de regras, que é refeita por inteiro
+ * sempre que uma regra do perfil muda.
+ *
+ * Um quinto das regras não tem palavra-chave (só faixa de valor e tipo) e um terço
+ * das descrições contém alguma palavra-chave.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClassificadorTransacoesBenchmark {
+
+    static final int DESCRICOES = 1_000;
+
+    private static final String[] PALAVRAS = {
+        "PAGAMENTO", "COMPRA", "CARTAO", "DEBITO", "PIX", "TED", "LOJA", "POSTO", "MERCADO", "FARMACIA",
+        "RESTAURANTE", "PADARIA", "ASSINATURA", "TRANSFERENCIA", "SAQUE", "TARIFA", "BOLETO", "CONTA", "LUZ", "AGUA",
+    };
+
+    @Param({"10", "100", "1000"})
+    private int regras;
+
+    private List<RegraCategorizacao> regrasDoPerfil;
+    private ClassificadorTransacoes classificador;
+    private String[] descricoes;
+    private long[] valores;
+
+    @Setup
+    public void gerar() {
+        Random aleatorio = new Random(42);
+        regrasDoPerfil = new ArrayList<>(regras);
+        List<String> palavrasChave = new ArrayList<>(regras);
+        for (int i = 0; i < regras; i++) {
+            RegraCategorizacao regra = new RegraCategorizacao();
+            regra.setId((long) i + 1);
+            regra.setPrioridade(aleatorio.nextInt(5));
+            Categoria categoria = new Categoria();
+            categoria.setId((long) aleatorio.nextInt(30) + 1);
+            regra.setCategoria(categoria);
+            if (i % 5 == 0) {
+                long minimo = aleatorio.nextInt(100_000);
+                regra.setValorMinimo(BigDecimal.valueOf(minimo, 2));
+                regra.setValorMaximo(BigDecimal.valueOf(minimo + aleatorio.nextInt(50_000), 2));
+                regra.setTipo("Despesa");
+            } else {
+                String palavraChave = "ESTAB" + i + " " + PALAVRAS[aleatorio.nextInt(PALAVRAS.length)];
+                regra.setPalavraChave(palavraChave);
+                palavrasChave.add(palavraChave);
+            }
+            regrasDoPerfil.add(regra);
+        }
+        classificador = new ClassificadorTransacoes(regrasDoPerfil);
+
+        descricoes = new String[DESCRICOES];
+        valores = new long[DESCRICOES];
+        for (int i = 0; i < DESCRICOES; i++) {
+            StringBuilder descricao = new StringBuilder();
+            descricao.append(PALAVRAS[aleatorio.nextInt(PALAVRAS.length)]).append(' ')
+                    .append(PALAVRAS[aleatorio.nextInt(PALAVRAS.length)]).append(" 12/03 ");
+            if (i % 3 == 0 && !palavrasChave.isEmpty()) {
+                descricao.append(palavrasChave.get(aleatorio.nextInt(palavrasChave.size()))).append(" SAO PAULO");
+            } else {
+                descricao.append("ESTABELECIMENTO ").append(aleatorio.nextInt(100_000)).append(" BR");
+            }
+            descricoes[i] = descricao.toString();
+            valores[i] = aleatorio.nextInt(200_000) + 1;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(DESCRICOES)
+    public void classificar(Blackhole blackhole) {
+        for (int i = 0; i < DESCRICOES; i++) {
+            blackhole.consume(classificador.classificar(descricoes[i], valores[i], "Despesa", 1L));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ClassificadorTransacoes compilar() {
+        return new ClassificadorTransacoes(regrasDoPerfil);
+    }
+}
@@ -0,0 +1,114 @@
+package com.financeiro.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.financeiro.repository.UsuarioRepository;
+import com.financeiro.security.CustomUserDetailsService;
+import com.financeiro.security.JwtAuthenticationFilter;
+import com.financeiro.security.JwtService;
+import com.financeiro.security.TokensVerificadosCache;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import jakarta.servlet.FilterChain;
+
+/**
+ * Custo do filtro JWT por requisição, fora do HTTP: o filtro da aplicação (token e
+ * usuário em cache), o mesmo filtro com os dois caches desligados (assinatura conferida
+ * e usuário lido do banco a cada requisição) e a requisição sem token, que só passa
+ * pelo filtro.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FiltroJwtBenchmark {
+
+    private static final FilterChain FIM = (request, response) -> { };
+
+    private ConfigurableApplicationContext contexto;
+    private JwtAuthenticationFilter filtro;
+    private JwtAuthenticationFilter filtroSemCache;
+    private MockHttpServletRequest comToken;
+    private MockHttpServletRequest semToken;
+
+    @Setup
+    public void iniciar() {
+        contexto = AplicacaoBenchmark.iniciar();
+        JwtService jwtService = contexto.getBean(JwtService.class);
+        CustomUserDetailsService userDetailsService = contexto.getBean(CustomUserDetailsService.class);
+        filtro = contexto.getBean(JwtAuthenticationFilter.class);
+
+        SimpleMeterRegistry registro = new SimpleMeterRegistry();
+        TokensVerificadosCache tokensSemCache = new TokensVerificadosCache(1, registro) {
+            @Override
+            public TokenVerificado obter(String token, Function<String, Claims> validar) {
+                Claims claims = validar.apply(token);
+                return new TokenVerificado(claims.getSubject(), claims.getExpiration().getTime());
+            }
+        };
+        CustomUserDetailsService usuariosSemCache = new CustomUserDetailsService(
+                contexto.getBean(UsuarioRepository.class), 1, registro) {
+            @Override
+            public UserDetails carregarUsuarioAutenticado(String email) {
+                return loadUserByUsername(email);
+            }
+        };
+        filtroSemCache = new JwtAuthenticationFilter(jwtService, usuariosSemCache, tokensSemCache);
+
+        String token = jwtService.generateToken(userDetailsService.loadUserByUsername("admin@financeiro.com"));
+        comToken = new MockHttpServletRequest("GET", "/api/transacoes");
+        comToken.addHeader("Authorization", "Bearer " + token);
+        semToken = new MockHttpServletRequest("GET", "/api/transacoes");
+    }
+
+    @TearDown
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Object comCache() throws Exception {
+        return filtrar(filtro, comToken);
+    }
+
+    @Benchmark
+    public Object semCache() throws Exception {
+        return filtrar(filtroSemCache, comToken);
+    }
+
+    @Benchmark
+    public Object semToken() throws Exception {
+        return filtrar(filtro, semToken);
+    }
+
+    // O filtro só age uma vez por requisição; o atributo que marca isso é removido a cada chamada
+    private static Object filtrar(JwtAuthenticationFilter filtro, MockHttpServletRequest request) throws Exception {
+        request.clearAttributes();
+        filtro.doFilter(request, new MockHttpServletResponse(), FIM);
+        Object autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return autenticacao;
+    }
+}
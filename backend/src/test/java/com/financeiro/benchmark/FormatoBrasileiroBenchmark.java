@@ -0,0 +1,109 @@
+package com.financeiro.benchmark;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.financeiro.util.FormatoBrasileiro;
+
+/**
+ * Campos por segundo (e, com -prof gc, bytes alocados por campo) da leitura de valores
+ * "1.234,56" e datas "31/12/2024" de um extrato: por {@link FormatoBrasileiro}, sobre os
+ * bytes da linha, e pelo caminho com a biblioteca padrão, que decodifica o campo para
+ * String e usa NumberFormat (pt-BR, BigDecimal) e DateTimeFormatter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(FormatoBrasileiroBenchmark.CAMPOS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatoBrasileiroBenchmark {
+
+    static final int CAMPOS = 1_000;
+
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    // Campos lado a lado em um único buffer, como na linha lida do arquivo
+    private byte[] valores;
+    private int[] limitesValores;
+    private byte[] datas;
+    private int[] limitesDatas;
+    private NumberFormat formatoValor;
+
+    @Setup
+    public void gerarCampos() {
+        Random aleatorio = new Random(42);
+        StringBuilder textoValores = new StringBuilder();
+        StringBuilder textoDatas = new StringBuilder();
+        limitesValores = new int[CAMPOS + 1];
+        limitesDatas = new int[CAMPOS + 1];
+        NumberFormat formatador = NumberFormat.getNumberInstance(Locale.forLanguageTag("pt-BR"));
+        formatador.setMinimumFractionDigits(2);
+        for (int i = 0; i < CAMPOS; i++) {
+            double valor = (aleatorio.nextInt(2_000_000) - 1_000_000) / 100.0;
+            textoValores.append(formatador.format(valor));
+            limitesValores[i + 1] = textoValores.length();
+            textoDatas.append(LocalDate.of(2020, 1, 1).plusDays(aleatorio.nextInt(2_000)).format(FORMATO_DATA));
+            limitesDatas[i + 1] = textoDatas.length();
+        }
+        valores = textoValores.toString().getBytes(StandardCharsets.UTF_8);
+        datas = textoDatas.toString().getBytes(StandardCharsets.UTF_8);
+
+        formatoValor = NumberFormat.getNumberInstance(Locale.forLanguageTag("pt-BR"));
+        ((DecimalFormat) formatoValor).setParseBigDecimal(true);
+    }
+
+    @Benchmark
+    public void valorFormatoBrasileiro(Blackhole blackhole) {
+        for (int i = 0; i < CAMPOS; i++) {
+            blackhole.consume(FormatoBrasileiro.lerCentavos(valores, limitesValores[i], limitesValores[i + 1]));
+        }
+    }
+
+    @Benchmark
+    public void valorNumberFormat(Blackhole blackhole) throws ParseException {
+        for (int i = 0; i < CAMPOS; i++) {
+            String campo = new String(valores, limitesValores[i], limitesValores[i + 1] - limitesValores[i],
+                    StandardCharsets.UTF_8);
+            blackhole.consume(((BigDecimal) formatoValor.parse(campo)).movePointRight(2).longValueExact());
+        }
+    }
+
+    @Benchmark
+    public void dataFormatoBrasileiro(Blackhole blackhole) {
+        for (int i = 0; i < CAMPOS; i++) {
+            blackhole.consume(FormatoBrasileiro.lerDiaEpoch(datas, limitesDatas[i], limitesDatas[i + 1]));
+        }
+    }
+
+    @Benchmark
+    public void dataDateTimeFormatter(Blackhole blackhole) {
+        for (int i = 0; i < CAMPOS; i++) {
+            String campo = new String(datas, limitesDatas[i], limitesDatas[i + 1] - limitesDatas[i],
+                    StandardCharsets.UTF_8);
+            blackhole.consume(LocalDate.parse(campo, FORMATO_DATA).toEpochDay());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.financeiro.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Tempo de um hash e de uma verificação de senha por custo do BCrypt, para escolher
+ * app.senha.custo-bcrypt no hardware de produção. A faixa aceita na validação feita na
+ * inicialização (CodificadorSenhasLimitado) é de 100 a 1000 ms por hash.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashSenhasBenchmark {
+
+    @Param({"10", "11", "12", "13"})
+    private int custo;
+
+    private BCryptPasswordEncoder codificador;
+    private String hash;
+
+    @Setup
+    public void criar() {
+        codificador = new BCryptPasswordEncoder(custo);
+        hash = codificador.encode("senha-do-benchmark");
+    }
+
+    @Benchmark
+    public String codificar() {
+        return codificador.encode("senha-do-benchmark");
+    }
+
+    @Benchmark
+    public boolean verificar() {
+        return codificador.matches("senha-do-benchmark", hash);
+    }
+}
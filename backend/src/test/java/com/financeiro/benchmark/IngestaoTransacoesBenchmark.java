@@ -0,0 +1,99 @@
+package com.financeiro.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financeiro.dto.TransacaoDTO;
+import com.financeiro.security.CustomUserDetailsService;
+import com.financeiro.security.JwtService;
+
+/**
+ * Linhas por segundo gravadas pela API: uma transação por requisição em
+ * POST /api/transacoes e blocos de LOTE transações em POST /api/transacoes/lote.
+ * As duas passam pelo HTTP, pelo filtro JWT e pela gravação completa (saldo, resumo
+ * mensal, saldo diário), com descrições sempre novas para a deduplicação não descartar
+ * linhas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 10, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IngestaoTransacoesBenchmark {
+
+    static final int LOTE = 1_000;
+
+    private ConfigurableApplicationContext contexto;
+    private HttpClient cliente;
+    private ObjectMapper objectMapper;
+    private String token;
+    private String base;
+    private int proxima;
+
+    @Setup
+    public void iniciar() {
+        contexto = AplicacaoBenchmark.iniciar();
+        cliente = HttpClient.newHttpClient();
+        objectMapper = contexto.getBean(ObjectMapper.class);
+        token = "Bearer " + contexto.getBean(JwtService.class).generateToken(
+                contexto.getBean(CustomUserDetailsService.class).loadUserByUsername("admin@financeiro.com"));
+        base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port") + "/api/transacoes";
+    }
+
+    @TearDown
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public int individual() throws Exception {
+        return enviar("?perfilId=" + AplicacaoBenchmark.PERFIL_ID, objectMapper.writeValueAsBytes(proximaTransacao()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public int lote() throws Exception {
+        List<TransacaoDTO> transacoes = new ArrayList<>(LOTE);
+        for (int i = 0; i < LOTE; i++) {
+            transacoes.add(proximaTransacao());
+        }
+        return enviar("/lote?perfilId=" + AplicacaoBenchmark.PERFIL_ID, objectMapper.writeValueAsBytes(transacoes));
+    }
+
+    private TransacaoDTO proximaTransacao() {
+        return AplicacaoBenchmark.transacao(proxima++);
+    }
+
+    private int enviar(String caminho, byte[] corpo) throws Exception {
+        HttpResponse<Void> resposta = cliente.send(HttpRequest.newBuilder(URI.create(base + caminho))
+                .header("Authorization", token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(corpo))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        if (resposta.statusCode() / 100 != 2) {
+            throw new IllegalStateException("HTTP " + resposta.statusCode() + " em " + caminho);
+        }
+        return resposta.statusCode();
+    }
+}
@@ -0,0 +1,109 @@
+package com.financeiro.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.financeiro.security.CustomUserDetailsService;
+import com.financeiro.security.JwtService;
+
+/**
+ * Latência das requisições (percentis) com CLIENTES clientes simultâneos listando
+ * páginas de transações, com e sem o limite adaptativo de concorrência. O pool tem
+ * POOL conexões e espera no máximo 1 s por uma, para o banco ser o gargalo: sem o
+ * limite, as requisições se acumulam na espera por conexão e falham com 500 quando
+ * ela se esgota; com o limite, o excesso é recusado com 503 depois de no máximo
+ * app.limite-concorrencia.espera-maxima-ms. As contagens de atendidas, recusadas (503)
+ * e falhas (demais 5xx) aparecem como métricas auxiliares. Clientes e servidor
+ * dividem a mesma JVM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(LimiteConcorrenciaBenchmark.CLIENTES)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LimiteConcorrenciaBenchmark {
+
+    static final int CLIENTES = 64;
+    static final int POOL = 2;
+
+    @Param({"false", "true"})
+    private boolean limite;
+
+    private ConfigurableApplicationContext contexto;
+    private HttpClient cliente;
+    private HttpRequest listagem;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Respostas {
+        public long atendidas;
+        public long recusadas;
+        public long falhas;
+
+        @Setup(Level.Iteration)
+        public void zerar() {
+            atendidas = 0;
+            recusadas = 0;
+            falhas = 0;
+        }
+    }
+
+    @Setup
+    public void iniciar() {
+        contexto = AplicacaoBenchmark.iniciar("app.limite-concorrencia.habilitado=" + limite,
+                "spring.datasource.hikari.maximum-pool-size=" + POOL,
+                "spring.datasource.hikari.connection-timeout=1000");
+        AplicacaoBenchmark.popularTransacoes(contexto, 20_000);
+        cliente = HttpClient.newHttpClient();
+        String token = "Bearer " + contexto.getBean(JwtService.class).generateToken(
+                contexto.getBean(CustomUserDetailsService.class).loadUserByUsername("admin@financeiro.com"));
+        listagem = HttpRequest.newBuilder(URI.create("http://localhost:"
+                        + contexto.getEnvironment().getProperty("local.server.port")
+                        + "/api/transacoes?perfilId=" + AplicacaoBenchmark.PERFIL_ID + "&tamanho=200"))
+                .header("Authorization", token)
+                .GET()
+                .build();
+    }
+
+    @TearDown
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public int listar(Respostas respostas) throws Exception {
+        int status = cliente.send(listagem, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status == 503) {
+            respostas.recusadas++;
+        } else if (status / 100 == 2) {
+            respostas.atendidas++;
+        } else if (status / 100 == 5) {
+            respostas.falhas++;
+        } else {
+            throw new IllegalStateException("HTTP " + status);
+        }
+        return status;
+    }
+}
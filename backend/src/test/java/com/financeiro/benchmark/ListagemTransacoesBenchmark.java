@@ -0,0 +1,127 @@
+package com.financeiro.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.financeiro.dto.FiltroTransacaoDTO;
+import com.financeiro.dto.TransacaoDTO;
+import com.financeiro.entity.Transacao;
+import com.financeiro.service.TransacaoService;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Linhas por segundo (e, com -prof gc, bytes alocados por linha) da listagem de uma
+ * página de transações: pela projeção TransacaoView usada hoje e pelo caminho anterior,
+ * que carregava as entidades com todas as associações e montava o DTO navegando nelas.
+ *
+ * O caminho anterior é reproduzido com JOIN FETCH das associações diretas de Transacao;
+ * com elas EAGER, cada entidade associada ainda trazia as suas (perfil, usuário), então
+ * a medida do "antes" é otimista.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(ListagemTransacoesBenchmark.LINHAS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListagemTransacoesBenchmark {
+
+    static final int LINHAS = 500;
+
+    private ConfigurableApplicationContext contexto;
+    private TransacaoService transacaoService;
+    private EntityManager entityManager;
+    private TransactionTemplate leitura;
+    private FiltroTransacaoDTO filtro;
+
+    @Setup
+    public void iniciar() {
+        contexto = AplicacaoBenchmark.iniciar();
+        AplicacaoBenchmark.popularTransacoes(contexto, 5_000);
+        transacaoService = contexto.getBean(TransacaoService.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(contexto.getBean(EntityManagerFactory.class));
+        leitura = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+        leitura.setReadOnly(true);
+        filtro = new FiltroTransacaoDTO();
+        filtro.setPerfilId(AplicacaoBenchmark.PERFIL_ID);
+    }
+
+    @TearDown
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<TransacaoDTO> projecao() {
+        return transacaoService.listar(filtro, null, LINHAS).getItens();
+    }
+
+    @Benchmark
+    public List<TransacaoDTO> entidades() {
+        return leitura.execute(status -> entityManager.createQuery(
+                        "SELECT t FROM Transacao t JOIN FETCH t.categoria LEFT JOIN FETCH t.subcategoria "
+                                + "JOIN FETCH t.instituicao JOIN FETCH t.usuario LEFT JOIN FETCH t.perfil "
+                                + "LEFT JOIN FETCH t.perfilDestino LEFT JOIN FETCH t.transacaoRelacionada "
+                                + "WHERE t.perfil.id = :perfilId ORDER BY t.data DESC, t.id DESC", Transacao.class)
+                .setParameter("perfilId", AplicacaoBenchmark.PERFIL_ID)
+                .setMaxResults(LINHAS)
+                .getResultStream()
+                .map(ListagemTransacoesBenchmark::converterNavegando)
+                .toList());
+    }
+
+    // Conversão anterior à projeção: nomes lidos das entidades associadas
+    private static TransacaoDTO converterNavegando(Transacao transacao) {
+        TransacaoDTO dto = new TransacaoDTO();
+        dto.setId(transacao.getId());
+        dto.setData(transacao.getData());
+        dto.setDescricao(transacao.getDescricao());
+        dto.setValor(transacao.getValor());
+        dto.setTipo(transacao.getTipo());
+        dto.setCategoriaId(transacao.getCategoria().getId());
+        dto.setCategoriaNome(transacao.getCategoria().getNome());
+        if (transacao.getSubcategoria() != null) {
+            dto.setSubcategoriaId(transacao.getSubcategoria().getId());
+            dto.setSubcategoriaNome(transacao.getSubcategoria().getNome());
+        }
+        dto.setInstituicaoId(transacao.getInstituicao().getId());
+        dto.setInstituicaoNome(transacao.getInstituicao().getNome());
+        if (transacao.getPerfil() != null) {
+            dto.setPerfilId(transacao.getPerfil().getId());
+            dto.setPerfilNome(transacao.getPerfil().getNome());
+        }
+        dto.setTransferenciaEntrePerfis(transacao.getTransferenciaEntrePerfis());
+        if (transacao.getPerfilDestino() != null) {
+            dto.setPerfilDestinoId(transacao.getPerfilDestino().getId());
+            dto.setPerfilDestinoNome(transacao.getPerfilDestino().getNome());
+        }
+        if (transacao.getTransacaoRelacionada() != null) {
+            dto.setTransacaoRelacionadaId(transacao.getTransacaoRelacionada().getId());
+        }
+        dto.setParcelaAtual(transacao.getParcelaAtual());
+        dto.setTotalParcelas(transacao.getTotalParcelas());
+        dto.setGrupoParcelamento(transacao.getGrupoParcelamento());
+        dto.setEhParcelada(transacao.getEhParcelada());
+        return dto;
+    }
+}
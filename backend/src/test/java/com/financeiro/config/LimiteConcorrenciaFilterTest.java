@@ -0,0 +1,76 @@
+package com.financeiro.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financeiro.util.LimiteConcorrenciaAdaptativo;
+
+import jakarta.servlet.FilterChain;
+
+class LimiteConcorrenciaFilterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    // Uma única vaga, já ocupada por uma requisição em andamento
+    private final LimiteConcorrenciaAdaptativo limite = new LimiteConcorrenciaAdaptativo(1, 1, 1);
+    private final LimiteConcorrenciaFilter filtro = new LimiteConcorrenciaFilter(limite, () -> false, 20, objectMapper);
+    private final AtomicInteger atendidas = new AtomicInteger();
+    private final FilterChain cadeia = (request, response) -> atendidas.incrementAndGet();
+
+    @Test
+    void semVagaARequisicaoRecebe503ComRetryAfter() throws Exception {
+        assertThat(limite.adquirir(0, TimeUnit.MILLISECONDS)).isTrue();
+
+        MockHttpServletResponse response = filtrar("GET", "/api/transacoes");
+
+        assertThat(atendidas).hasValue(0);
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(response.getContentType()).startsWith("application/json");
+        JsonNode corpo = objectMapper.readTree(response.getContentAsByteArray());
+        assertThat(corpo.get("status").asInt()).isEqualTo(503);
+        assertThat(corpo.get("titulo").asText()).contains("sobrecarregado");
+        assertThat(limite.getRejeitadas()).isEqualTo(1);
+    }
+
+    @Test
+    void vagaEhDevolvidaAoFimDaRequisicao() throws Exception {
+        assertThat(filtrar("GET", "/api/transacoes").getStatus()).isEqualTo(200);
+        assertThat(filtrar("GET", "/api/transacoes").getStatus()).isEqualTo(200);
+
+        assertThat(atendidas).hasValue(2);
+        assertThat(limite.getEmUso()).isZero();
+    }
+
+    @ParameterizedTest(name = "{0} {1}")
+    @CsvSource({
+        "GET,  /api/transacoes/exportar",
+        "POST, /api/transacoes/lote",
+        "POST, /api/registros-importacao/importar",
+        "POST, /api/usuarios/login",
+        "POST, /api/usuarios",
+    })
+    void rotasForaDoLimiteSaoAtendidasMesmoSemVaga(String metodo, String caminho) throws Exception {
+        assertThat(limite.adquirir(0, TimeUnit.MILLISECONDS)).isTrue();
+
+        assertThat(filtrar(metodo, caminho).getStatus()).isEqualTo(200);
+        assertThat(atendidas).hasValue(1);
+        assertThat(limite.getEmUso()).isEqualTo(1);
+    }
+
+    private MockHttpServletResponse filtrar(String metodo, String caminho) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(new MockHttpServletRequest(metodo, caminho), response, cadeia);
+        return response;
+    }
+}
@@ -0,0 +1,152 @@
+package com.financeiro.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.financeiro.IntegracaoBase;
+import com.financeiro.dto.TransacaoDTO;
+import com.financeiro.entity.Categoria;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.entity.Perfil;
+import com.financeiro.entity.Subcategoria;
+import com.financeiro.entity.Usuario;
+import com.financeiro.service.TransacaoService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Quantidade de comandos SQL das consultas de transações, contada pelas estatísticas do
+ * Hibernate: a listagem, o detalhe, a exportação e o resumo financeiro de um perfil com
+ * 12 transações executam os mesmos comandos que os de um perfil com 3 (sem N+1 nas
+ * associações LAZY).
+ */
+class TransacaoControllerConsultasTest extends IntegracaoBase {
+
+    private static final LocalDate INICIO = LocalDate.of(2026, 1, 1);
+    private static final LocalDate FIM = LocalDate.of(2026, 12, 31);
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estatisticas;
+    private Usuario usuario;
+    private String token;
+
+    @BeforeEach
+    void preparar() throws Exception {
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        usuario = criarUsuario();
+        token = token(usuario);
+        garantirCategoriasTransferencia();
+
+        // Aquece os caches do filtro JWT e dos cadastros compartilhados entre os perfis
+        Cenario aquecimento = criarCenario(3);
+        contarConsultas(aquecimento);
+    }
+
+    @Test
+    void consultasNaoCrescemComAQuantidadeDeTransacoes() throws Exception {
+        Consultas poucas = contarConsultas(criarCenario(3));
+        Consultas muitas = contarConsultas(criarCenario(12));
+
+        assertThat(muitas).isEqualTo(poucas);
+        // Listagem e exportação: transações, planos, parcelas gravadas e excluídas dos planos
+        // (a exportação confere o perfil antes); detalhe: um select com o entity graph;
+        // resumo: usuário, perfil e a soma por categoria
+        assertThat(poucas.listagem()).isLessThanOrEqualTo(4);
+        assertThat(poucas.detalhe()).isLessThanOrEqualTo(1);
+        assertThat(poucas.exportacao()).isLessThanOrEqualTo(5);
+        assertThat(poucas.resumo()).isLessThanOrEqualTo(3);
+    }
+
+    private record Cenario(Perfil perfil, Long transferenciaId) { }
+
+    private record Consultas(long listagem, long detalhe, long exportacao, long resumo) { }
+
+    /**
+     * Perfil com n transações avulsas alternando duas instituições e duas categorias (com
+     * subcategoria), n / 3 transferências para outro perfil do mesmo usuário e uma compra
+     * parcelada, que traz parcelas virtuais para a listagem e a exportação.
+     */
+    private Cenario criarCenario(int n) {
+        Perfil perfil = criarPerfil(usuario);
+        Perfil destino = criarPerfil(usuario);
+        Instituicao[] instituicoes = {criarInstituicao(perfil, "5000.00"), criarInstituicao(perfil, "5000.00")};
+        Instituicao instituicaoDestino = criarInstituicao(destino, "0");
+        Categoria[] categorias = {criarCategoria(perfil, "Despesa"), criarCategoria(perfil, "Receita")};
+        Subcategoria[] subcategorias = {criarSubcategoria(categorias[0]), criarSubcategoria(categorias[1])};
+
+        for (int i = 0; i < n; i++) {
+            TransacaoDTO dto = transacao(instituicoes[i % 2], categorias[i % 2], "10.00", INICIO.plusDays(i));
+            dto.setSubcategoriaId(subcategorias[i % 2].getId());
+            transacaoService.salvarPorPerfil(dto, perfil.getId());
+        }
+
+        Long transferenciaId = null;
+        for (int i = 0; i < n / 3; i++) {
+            TransacaoDTO dto = transacao(instituicoes[0], categorias[0], "5.00", INICIO.plusDays(i));
+            dto.setCategoriaId(null);
+            dto.setTransferenciaEntrePerfis(true);
+            dto.setPerfilDestinoId(destino.getId());
+            dto.setInstituicaoDestinoId(instituicaoDestino.getId());
+            transferenciaId = transacaoService.salvarPorPerfil(dto, perfil.getId()).getId();
+        }
+
+        TransacaoDTO compra = transacao(instituicoes[1], categorias[0], "600.00", INICIO);
+        compra.setEhParcelada(true);
+        compra.setNumeroParcelas(6);
+        transacaoService.salvarPorPerfil(compra, perfil.getId());
+
+        return new Cenario(perfil, transferenciaId);
+    }
+
+    private Consultas contarConsultas(Cenario cenario) throws Exception {
+        Long perfilId = cenario.perfil().getId();
+        long listagem = contar(get("/api/transacoes")
+                .param("perfilId", perfilId.toString())
+                .param("tamanho", "100"));
+        long detalhe = contar(get("/api/transacoes/{id}", cenario.transferenciaId()));
+        long exportacao = contarExportacao(perfilId);
+        long resumo = contar(get("/api/resumo-financeiro/usuario/{usuario}/perfil/{perfil}", usuario.getId(), perfilId)
+                .param("dataInicio", INICIO.toString())
+                .param("dataFim", FIM.toString()));
+        return new Consultas(listagem, detalhe, exportacao, resumo);
+    }
+
+    private long contar(MockHttpServletRequestBuilder requisicao) throws Exception {
+        estatisticas.clear();
+        mockMvc.perform(comToken(requisicao)).andExpect(status().isOk());
+        return estatisticas.getPrepareStatementCount();
+    }
+
+    private long contarExportacao(Long perfilId) throws Exception {
+        estatisticas.clear();
+        MvcResult resultado = mockMvc.perform(comToken(get("/api/transacoes/exportar")
+                        .param("perfilId", perfilId.toString())
+                        .param("formato", "CSV")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(resultado)).andExpect(status().isOk());
+        return estatisticas.getPrepareStatementCount();
+    }
+
+    private MockHttpServletRequestBuilder comToken(MockHttpServletRequestBuilder requisicao) {
+        return requisicao.header("Authorization", token);
+    }
+}
@@ -0,0 +1,205 @@
+package com.financeiro.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financeiro.IntegracaoBase;
+import com.financeiro.dto.ResultadoLoteDTO;
+import com.financeiro.dto.ResultadoLoteDTO.ResultadoLinha;
+import com.financeiro.dto.TransacaoDTO;
+import com.financeiro.entity.Categoria;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.entity.Perfil;
+import com.financeiro.service.TransacaoService;
+
+/**
+ * POST /api/transacoes/lote com 1.200 linhas (três blocos de 500): linhas inválidas são
+ * recusadas com o erro de cada uma, uma falha na gravação desfaz só o bloco em que
+ * ocorreu, e os saldos, o resumo mensal e os saldos diários ficam iguais aos de um
+ * segundo perfil que recebeu as mesmas linhas aceitas uma a uma pelo TransacaoService.
+ */
+class TransacaoControllerLoteTest extends IntegracaoBase {
+
+    private static final int LINHAS = 1200;
+    private static final LocalDate INICIO = LocalDate.of(2025, 1, 1);
+
+    // Valor negativo, no primeiro bloco
+    private static final int LINHA_INVALIDA = 3;
+    // Descrição maior que a coluna: passa na validação e derruba o INSERT do segundo bloco
+    private static final int LINHA_QUE_FALHA_NA_GRAVACAO = 700;
+    // Instituição de outro perfil, no terceiro bloco
+    private static final int LINHA_DE_OUTRO_PERFIL = 1100;
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Cadastros lote;
+    private Cadastros umAUm;
+    private String token;
+
+    @BeforeEach
+    void criarPerfis() {
+        Perfil perfil = criarPerfil(criarUsuario());
+        token = token(perfil.getUsuario());
+        lote = cadastros(perfil);
+        umAUm = cadastros(criarPerfil(perfil.getUsuario()));
+    }
+
+    @Test
+    void resultadoTrazAsContagensESoAsLinhasRecusadasComOErroDeCada() throws Exception {
+        ResultadoLoteDTO resultado = enviar(objectMapper.writeValueAsBytes(linhas(lote)));
+
+        int bloco = 500;
+        assertThat(resultado.getRecebidas()).isEqualTo(LINHAS);
+        assertThat(resultado.getInseridas()).isEqualTo(LINHAS - bloco - 2);
+        assertThat(resultado.getRejeitadas()).isEqualTo(bloco + 2);
+        assertThat(resultado.getErros()).hasSize(bloco + 2)
+                .allSatisfy(linha -> assertThat(linha.getId()).isNull());
+
+        Map<Integer, String> erros = resultado.getErros().stream()
+                .collect(Collectors.toMap(ResultadoLinha::getIndice, ResultadoLinha::getErro));
+        assertThat(erros.get(LINHA_INVALIDA)).isEqualTo("O valor deve ser positivo");
+        assertThat(erros.get(LINHA_DE_OUTRO_PERFIL)).contains("não pertence ao perfil");
+        // Todas as linhas do segundo bloco, válidas ou não, são recusadas pela falha do bloco
+        for (int i = bloco; i < 2 * bloco; i++) {
+            assertThat(erros.get(i)).as("linha %d", i).startsWith("Falha ao gravar o bloco");
+        }
+
+        // O primeiro e o terceiro bloco foram confirmados; do segundo não sobra nada
+        assertThat(gravadas(lote, 0, bloco)).isEqualTo(bloco - 1);
+        assertThat(gravadas(lote, bloco, 2 * bloco)).isZero();
+        assertThat(gravadas(lote, 2 * bloco, LINHAS)).isEqualTo(LINHAS - 2 * bloco - 1);
+    }
+
+    @Test
+    void saldosEResumosDoLoteBatemComOsDaGravacaoUmAUm() throws Exception {
+        ResultadoLoteDTO resultado = enviar(objectMapper.writeValueAsBytes(linhas(lote)));
+
+        Set<Integer> recusadas = resultado.getErros().stream().map(ResultadoLinha::getIndice)
+                .collect(Collectors.toSet());
+        List<TransacaoDTO> aceitas = linhas(umAUm);
+        for (int i = 0; i < aceitas.size(); i++) {
+            if (!recusadas.contains(i)) {
+                transacaoService.salvarPorPerfil(aceitas.get(i), umAUm.perfil().getId());
+            }
+        }
+
+        for (int i = 0; i < lote.instituicoes().length; i++) {
+            Instituicao doLote = lote.instituicoes()[i];
+            Instituicao gravadaUmAUm = umAUm.instituicoes()[i];
+            assertThat(saldoAtual(doLote)).as("saldo atual").isEqualByComparingTo(saldoAtual(gravadaUmAUm));
+            assertThat(saldosDiarios(doLote)).as("saldos diários").isEqualTo(saldosDiarios(gravadaUmAUm));
+        }
+        assertThat(resumoMensal(lote)).isNotEmpty().isEqualTo(resumoMensal(umAUm));
+    }
+
+    @Test
+    void jsonInterrompidoGravaAsLinhasLidasAntesEReportaOErroNaLinhaSeguinte() throws Exception {
+        byte[] completo = objectMapper.writeValueAsBytes(linhas(lote).subList(0, 600));
+
+        ResultadoLoteDTO resultado = enviar(Arrays.copyOf(completo, completo.length - 20));
+
+        assertThat(resultado.getRecebidas()).isEqualTo(600);
+        assertThat(resultado.getInseridas()).isEqualTo(598); // menos a linha inválida
+        assertThat(resultado.getErros()).extracting(ResultadoLinha::getIndice)
+                .containsExactly(LINHA_INVALIDA, 599);
+        assertThat(resultado.getErros().get(1).getErro()).startsWith("JSON inválido");
+        assertThat(gravadas(lote, 0, 600)).isEqualTo(598);
+    }
+
+    private record Cadastros(Perfil perfil, Instituicao[] instituicoes, Categoria receita, Categoria despesa) { }
+
+    private Cadastros cadastros(Perfil perfil) {
+        return new Cadastros(perfil,
+                new Instituicao[] {criarInstituicao(perfil, "1000.00"), criarInstituicao(perfil, "250.00")},
+                criarCategoria(perfil, "Receita"), criarCategoria(perfil, "Despesa"));
+    }
+
+    /**
+     * As mesmas linhas para os dois perfis, nas instituições e categorias de cada um:
+     * receitas e despesas alternando as instituições ao longo de três meses.
+     */
+    private List<TransacaoDTO> linhas(Cadastros cadastros) {
+        List<TransacaoDTO> linhas = new ArrayList<>(LINHAS);
+        for (int i = 0; i < LINHAS; i++) {
+            boolean receita = i % 3 == 0;
+            TransacaoDTO dto = transacao(cadastros.instituicoes()[i % 2],
+                    receita ? cadastros.receita() : cadastros.despesa(), (i % 7 + 1) + ".25", INICIO.plusDays(i % 90));
+            dto.setDescricao("Linha " + i);
+            linhas.add(dto);
+        }
+        linhas.get(LINHA_INVALIDA).setValor(new BigDecimal("-1.00"));
+        linhas.get(LINHA_QUE_FALHA_NA_GRAVACAO).setDescricao("x".repeat(300));
+        Cadastros outro = cadastros == lote ? umAUm : lote;
+        linhas.get(LINHA_DE_OUTRO_PERFIL).setInstituicaoId(outro.instituicoes()[0].getId());
+        return linhas;
+    }
+
+    private ResultadoLoteDTO enviar(byte[] corpo) throws Exception {
+        byte[] resposta = mockMvc.perform(post("/api/transacoes/lote")
+                        .param("perfilId", lote.perfil().getId().toString())
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(corpo))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        return objectMapper.readValue(resposta, ResultadoLoteDTO.class);
+    }
+
+    // Transações do perfil cujas descrições vêm das linhas [de, ate)
+    private long gravadas(Cadastros cadastros, int de, int ate) {
+        return jdbcTemplate.queryForList("SELECT descricao FROM transacoes WHERE perfil_id = ?", String.class,
+                        cadastros.perfil().getId()).stream()
+                .map(descricao -> Integer.parseInt(descricao.substring("Linha ".length())))
+                .filter(indice -> indice >= de && indice < ate)
+                .count();
+    }
+
+    private BigDecimal saldoAtual(Instituicao instituicao) {
+        return jdbcTemplate.queryForObject("SELECT saldo_atual FROM instituicoes WHERE id = ?", BigDecimal.class,
+                instituicao.getId());
+    }
+
+    // Dias em que o acumulado muda; dias sem linha e com acumulado repetido são equivalentes
+    private List<String> saldosDiarios(Instituicao instituicao) {
+        List<String> dias = new ArrayList<>();
+        BigDecimal anterior = BigDecimal.ZERO;
+        for (Map<String, Object> linha : jdbcTemplate.queryForList(
+                "SELECT data, movimento_acumulado FROM saldos_diarios WHERE instituicao_id = ? ORDER BY data",
+                instituicao.getId())) {
+            BigDecimal acumulado = (BigDecimal) linha.get("MOVIMENTO_ACUMULADO");
+            if (acumulado.compareTo(anterior) != 0) {
+                dias.add(linha.get("DATA") + " " + acumulado.stripTrailingZeros().toPlainString());
+            }
+            anterior = acumulado;
+        }
+        return dias;
+    }
+
+    private List<String> resumoMensal(Cadastros cadastros) {
+        return jdbcTemplate.queryForList("SELECT tipo, ano_mes, quantidade, valor FROM resumo_mensal "
+                        + "WHERE perfil_id = ? AND valor <> 0 ORDER BY tipo, ano_mes", cadastros.perfil().getId()).stream()
+                .map(linha -> linha.get("TIPO") + " " + linha.get("ANO_MES") + " " + linha.get("QUANTIDADE") + " "
+                        + ((BigDecimal) linha.get("VALOR")).stripTrailingZeros().toPlainString())
+                .toList();
+    }
+}
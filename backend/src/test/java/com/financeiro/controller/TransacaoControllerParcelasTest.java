@@ -0,0 +1,114 @@
+package com.financeiro.controller;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financeiro.IntegracaoBase;
+import com.financeiro.dto.TransacaoDTO;
+import com.financeiro.entity.Categoria;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.entity.Perfil;
+import com.financeiro.service.TransacaoService;
+
+/**
+ * Contrato das parcelas virtuais na API: na listagem elas vêm sem id, identificadas por
+ * (grupoParcelamento, parcelaAtual), e são alteradas ou excluídas pelas rotas
+ * /api/transacoes/parcelamentos/{grupo}/parcelas/{numero}, que gravam a parcela e
+ * devolvem o id dela a partir daí.
+ */
+class TransacaoControllerParcelasTest extends IntegracaoBase {
+
+    private static final LocalDate INICIO = LocalDate.of(2026, 1, 15);
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Perfil perfil;
+    private Instituicao instituicao;
+    private Categoria categoria;
+    private String token;
+    private String grupo;
+
+    @BeforeEach
+    void criarCompraParcelada() {
+        perfil = criarPerfil(criarUsuario());
+        token = token(perfil.getUsuario());
+        instituicao = criarInstituicao(perfil, "1000.00");
+        categoria = criarCategoria(perfil, "Despesa");
+
+        TransacaoDTO compra = transacao(instituicao, categoria, "300.00", INICIO);
+        compra.setEhParcelada(true);
+        compra.setNumeroParcelas(3);
+        grupo = transacaoService.salvarPorPerfil(compra, perfil.getId()).getGrupoParcelamento();
+    }
+
+    @Test
+    void parcelaVirtualVemSemIdEPassaATerIdAoSerAlterada() throws Exception {
+        listar()
+                .andExpect(jsonPath("$.itens", hasSize(3)))
+                .andExpect(jsonPath("$.itens[0].id").value(nullValue()))
+                .andExpect(jsonPath("$.itens[0].grupoParcelamento").value(grupo))
+                .andExpect(jsonPath("$.itens[0].parcelaAtual").value(3))
+                .andExpect(jsonPath("$.itens[0].totalParcelas").value(3))
+                .andExpect(jsonPath("$.itens[0].ehParcelada").value(true));
+
+        TransacaoDTO alteracao = transacao(instituicao, categoria, "120.00", INICIO.plusMonths(2));
+        alteracao.setDescricao("Parcela renegociada");
+        mockMvc.perform(put("/api/transacoes/parcelamentos/{grupo}/parcelas/{numero}", grupo, 3)
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(alteracao)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(notNullValue()))
+                .andExpect(jsonPath("$.parcelaAtual").value(3));
+
+        listar()
+                .andExpect(jsonPath("$.itens", hasSize(3)))
+                .andExpect(jsonPath("$.itens[0].id").value(notNullValue()))
+                .andExpect(jsonPath("$.itens[0].descricao").value("Parcela renegociada"))
+                .andExpect(jsonPath("$.itens[0].valor").value(120.00))
+                .andExpect(jsonPath("$.itens[1].id").value(nullValue()));
+    }
+
+    @Test
+    void parcelaVirtualExcluidaPelaRotaDoParcelamentoNaoVoltaNaListagem() throws Exception {
+        mockMvc.perform(delete("/api/transacoes/parcelamentos/{grupo}/parcelas/{numero}", grupo, 2)
+                        .header("Authorization", token))
+                .andExpect(status().isNoContent());
+
+        listar()
+                .andExpect(jsonPath("$.itens", hasSize(2)))
+                .andExpect(jsonPath("$.itens[0].parcelaAtual").value(3))
+                .andExpect(jsonPath("$.itens[1].parcelaAtual").value(1));
+
+        // A parcela excluída não existe mais no parcelamento
+        mockMvc.perform(delete("/api/transacoes/parcelamentos/{grupo}/parcelas/{numero}", grupo, 2)
+                        .header("Authorization", token))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ResultActions listar() throws Exception {
+        return mockMvc.perform(get("/api/transacoes")
+                        .header("Authorization", token)
+                        .param("perfilId", perfil.getId().toString()))
+                .andExpect(status().isOk());
+    }
+}
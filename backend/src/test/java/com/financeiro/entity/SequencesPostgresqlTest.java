@@ -0,0 +1,62 @@
+package com.financeiro.entity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.SequenceGenerator;
+
+/**
+ * O PostgreSQL de produção valida o esquema: toda sequence declarada nas entidades
+ * precisa estar no script db/postgresql/sequences_ids.sql com o INCREMENT BY igual ao
+ * allocationSize.
+ */
+class SequencesPostgresqlTest {
+
+    private static final Pattern CREATE_SEQUENCE =
+            Pattern.compile("CREATE SEQUENCE IF NOT EXISTS (\\w+) INCREMENT BY (\\d+);");
+
+    @Test
+    void scriptDoPostgresqlCriaTodasAsSequencesDasEntidades() throws Exception {
+        Map<String, Integer> noScript = new HashMap<>();
+        Matcher matcher = CREATE_SEQUENCE.matcher(ler("db/postgresql/sequences_ids.sql"));
+        while (matcher.find()) {
+            noScript.put(matcher.group(1), Integer.valueOf(matcher.group(2)));
+        }
+
+        Map<String, Integer> nasEntidades = new HashMap<>();
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        for (BeanDefinition definicao : scanner.findCandidateComponents("com.financeiro.entity")) {
+            for (Field campo : Class.forName(definicao.getBeanClassName()).getDeclaredFields()) {
+                SequenceGenerator sequence = campo.getAnnotation(SequenceGenerator.class);
+                if (sequence != null) {
+                    nasEntidades.put(sequence.sequenceName(), sequence.allocationSize());
+                }
+            }
+        }
+
+        assertThat(nasEntidades).containsKeys("transacoes_seq", "resumo_mensal_seq", "planos_parcelamento_seq");
+        assertThat(noScript).isEqualTo(nasEntidades);
+    }
+
+    private static String ler(String recurso) throws IOException {
+        try (InputStream entrada = SequencesPostgresqlTest.class.getClassLoader().getResourceAsStream(recurso)) {
+            assertThat(entrada).as(recurso).isNotNull();
+            return new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.financeiro.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.financeiro.IntegracaoBase;
+import com.financeiro.dto.FiltroTransacaoDTO;
+import com.financeiro.dto.TransacaoView;
+import com.financeiro.entity.Categoria;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.entity.Perfil;
+import com.financeiro.entity.Subcategoria;
+import com.financeiro.entity.Transacao;
+import com.financeiro.entity.Usuario;
+import com.financeiro.util.CursorTransacao;
+
+/**
+ * Cada predicado de {@link TransacaoSpecifications#comFiltro} e a combinação deles com
+ * {@link TransacaoSpecifications#aposCursor}, pela consulta da listagem, contra 36
+ * transações gravadas em três perfis de dois usuários. O resultado esperado é o mesmo
+ * filtro aplicado em memória às transações gravadas, na ordem (data, id) decrescente.
+ */
+class TransacaoSpecificationsTest extends IntegracaoBase {
+
+    private static final int TRANSACOES = 36;
+    private static final LocalDate INICIO = LocalDate.of(2024, 3, 1);
+    private static final Comparator<Transacao> ORDEM_LISTAGEM = Comparator.comparing(Transacao::getData)
+            .thenComparing(Transacao::getId)
+            .reversed();
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    private Usuario usuario;
+    private Perfil perfil;
+    private Instituicao segundaInstituicao;
+    private Categoria despesa;
+    private Subcategoria subcategoria;
+    private String grupo;
+    private final List<Transacao> gravadas = new ArrayList<>();
+
+    /**
+     * Um terço das transações em cada perfil: o principal, com duas instituições, receitas
+     * e despesas (com duas subcategorias ou nenhuma); outro do mesmo usuário; e um de outro
+     * usuário. Datas repetidas a cada 9 transações, valores crescentes e dois grupos de
+     * parcelamento.
+     */
+    @BeforeEach
+    void gravarTransacoes() {
+        usuario = criarUsuario();
+        perfil = criarPerfil(usuario);
+        Instituicao instituicao = criarInstituicao(perfil, "0.00");
+        segundaInstituicao = criarInstituicao(perfil, "0.00");
+        despesa = criarCategoria(perfil, "Despesa");
+        Categoria receita = criarCategoria(perfil, "Receita");
+        subcategoria = criarSubcategoria(despesa);
+        Subcategoria outraSubcategoria = criarSubcategoria(despesa);
+
+        Perfil doMesmoUsuario = criarPerfil(usuario);
+        Instituicao instituicaoDoMesmoUsuario = criarInstituicao(doMesmoUsuario, "0.00");
+        Categoria categoriaDoMesmoUsuario = criarCategoria(doMesmoUsuario, "Despesa");
+        Perfil deOutroUsuario = criarPerfil(criarUsuario());
+        Instituicao instituicaoDeOutroUsuario = criarInstituicao(deOutroUsuario, "0.00");
+        Categoria categoriaDeOutroUsuario = criarCategoria(deOutroUsuario, "Receita");
+
+        grupo = "grupo-" + proximo();
+        String outroGrupo = "grupo-" + proximo();
+        for (int i = 0; i < TRANSACOES; i++) {
+            Transacao transacao = new Transacao();
+            transacao.setData(INICIO.plusDays(i % 9));
+            transacao.setDescricao("Transação " + i);
+            transacao.setValor(new BigDecimal(10 + 5 * i).setScale(2));
+            transacao.setGrupoParcelamento(i % 4 == 0 ? grupo : i % 4 == 1 ? outroGrupo : null);
+            switch (i % 3) {
+                case 0 -> {
+                    Categoria categoria = i % 2 == 0 ? despesa : receita;
+                    transacao.setPerfil(perfil);
+                    transacao.setInstituicao(i % 4 < 2 ? instituicao : segundaInstituicao);
+                    transacao.setCategoria(categoria);
+                    if (categoria == despesa) {
+                        transacao.setSubcategoria(i % 9 == 0 ? subcategoria : i % 9 == 3 ? outraSubcategoria : null);
+                    }
+                }
+                case 1 -> {
+                    transacao.setPerfil(doMesmoUsuario);
+                    transacao.setInstituicao(instituicaoDoMesmoUsuario);
+                    transacao.setCategoria(categoriaDoMesmoUsuario);
+                }
+                default -> {
+                    transacao.setPerfil(deOutroUsuario);
+                    transacao.setInstituicao(instituicaoDeOutroUsuario);
+                    transacao.setCategoria(categoriaDeOutroUsuario);
+                }
+            }
+            transacao.setUsuario(transacao.getPerfil().getUsuario());
+            transacao.setTipo(transacao.getCategoria().getTipo());
+            gravadas.add(transacaoRepository.save(transacao));
+        }
+    }
+
+    private record Caso(Consumer<FiltroTransacaoDTO> filtrar, Predicate<Transacao> atende) { }
+
+    private Caso caso(String campo) {
+        LocalDate meio = INICIO.plusDays(4);
+        BigDecimal valor = new BigDecimal("90.00");
+        return switch (campo) {
+            case "perfilId" -> new Caso(filtro -> filtro.setPerfilId(perfil.getId()),
+                    transacao -> transacao.getPerfil().getId().equals(perfil.getId()));
+            case "usuarioId" -> new Caso(filtro -> filtro.setUsuarioId(usuario.getId()),
+                    transacao -> transacao.getUsuario().getId().equals(usuario.getId()));
+            case "tipo" -> new Caso(filtro -> filtro.setTipo("Receita"),
+                    transacao -> transacao.getTipo().equals("Receita"));
+            case "categoriaId" -> new Caso(filtro -> filtro.setCategoriaId(despesa.getId()),
+                    transacao -> transacao.getCategoria().getId().equals(despesa.getId()));
+            case "subcategoriaId" -> new Caso(filtro -> filtro.setSubcategoriaId(subcategoria.getId()),
+                    transacao -> transacao.getSubcategoria() != null
+                            && transacao.getSubcategoria().getId().equals(subcategoria.getId()));
+            case "instituicaoId" -> new Caso(filtro -> filtro.setInstituicaoId(segundaInstituicao.getId()),
+                    transacao -> transacao.getInstituicao().getId().equals(segundaInstituicao.getId()));
+            case "dataInicio" -> new Caso(filtro -> filtro.setDataInicio(meio),
+                    transacao -> !transacao.getData().isBefore(meio));
+            case "dataFim" -> new Caso(filtro -> filtro.setDataFim(meio),
+                    transacao -> !transacao.getData().isAfter(meio));
+            case "valorMinimo" -> new Caso(filtro -> filtro.setValorMinimo(valor),
+                    transacao -> transacao.getValor().compareTo(valor) >= 0);
+            case "valorMaximo" -> new Caso(filtro -> filtro.setValorMaximo(valor),
+                    transacao -> transacao.getValor().compareTo(valor) <= 0);
+            case "grupoParcelamento" -> new Caso(filtro -> filtro.setGrupoParcelamento(grupo),
+                    transacao -> grupo.equals(transacao.getGrupoParcelamento()));
+            default -> throw new IllegalArgumentException(campo);
+        };
+    }
+
+    @ParameterizedTest(name = "[{index}] {0}")
+    @ValueSource(strings = {"perfilId", "usuarioId", "tipo", "categoriaId", "subcategoriaId", "instituicaoId",
+            "dataInicio", "dataFim", "valorMinimo", "valorMaximo", "grupoParcelamento"})
+    void cadaFiltroSozinho(String campo) {
+        Caso caso = caso(campo);
+        FiltroTransacaoDTO filtro = new FiltroTransacaoDTO();
+        caso.filtrar().accept(filtro);
+
+        List<Long> esperadas = esperadas(caso.atende());
+        // O filtro separa as transações gravadas: nem todas, nem nenhuma
+        assertThat(esperadas).isNotEmpty().hasSizeLessThan(TRANSACOES);
+        assertThat(buscar(TransacaoSpecifications.comFiltro(filtro))).isEqualTo(esperadas);
+    }
+
+    @Test
+    void filtroVazioTrazTodas() {
+        assertThat(buscar(TransacaoSpecifications.comFiltro(new FiltroTransacaoDTO())))
+                .isEqualTo(esperadas(transacao -> true));
+    }
+
+    @Test
+    void filtrosCombinadosComOCursor() {
+        FiltroTransacaoDTO filtro = new FiltroTransacaoDTO();
+        Predicate<Transacao> atende = transacao -> true;
+        for (String campo : List.of("usuarioId", "dataFim", "valorMaximo")) {
+            Caso caso = caso(campo);
+            caso.filtrar().accept(filtro);
+            atende = atende.and(caso.atende());
+        }
+        Specification<Transacao> combinado = TransacaoSpecifications.comFiltro(filtro);
+        List<Long> esperadas = esperadas(atende);
+        assertThat(esperadas).hasSizeGreaterThan(3);
+        assertThat(buscar(combinado)).isEqualTo(esperadas);
+
+        // Cursor em cada posição da listagem: a página seguinte é o restante, sem repetir
+        // nem pular transações com a mesma data
+        List<Transacao> ordenadas = gravadas.stream()
+                .filter(transacao -> esperadas.contains(transacao.getId()))
+                .sorted(ORDEM_LISTAGEM)
+                .toList();
+        for (int i = 0; i < ordenadas.size(); i++) {
+            Transacao ultimaDaPagina = ordenadas.get(i);
+            CursorTransacao cursor = new CursorTransacao(ultimaDaPagina.getData(), ultimaDaPagina.getId());
+            assertThat(buscar(combinado.and(TransacaoSpecifications.aposCursor(cursor))))
+                    .as("após a posição %d", i)
+                    .isEqualTo(esperadas.subList(i + 1, esperadas.size()));
+        }
+
+        // Cursor entre duas transações da mesma data, num id que não existe
+        Transacao primeiraDoDia = ordenadas.stream()
+                .filter(transacao -> ordenadas.stream().filter(outra -> outra.getData().equals(transacao.getData()))
+                        .count() > 1)
+                .findFirst().orElseThrow();
+        CursorTransacao entreIds = new CursorTransacao(primeiraDoDia.getData(), primeiraDoDia.getId() - 1);
+        assertThat(buscar(combinado.and(TransacaoSpecifications.aposCursor(entreIds))))
+                .isEqualTo(esperadas(atende.and(transacao -> transacao.getData().isBefore(entreIds.data())
+                        || (transacao.getData().equals(entreIds.data()) && transacao.getId() < entreIds.id()))));
+        assertThat(buscar(combinado.and(TransacaoSpecifications.aposCursor(CursorTransacao.INICIAL))))
+                .isEqualTo(esperadas);
+    }
+
+    // Ids das transações gravadas que atendem, na ordem da listagem
+    private List<Long> esperadas(Predicate<Transacao> atende) {
+        return gravadas.stream().filter(atende).sorted(ORDEM_LISTAGEM).map(Transacao::getId).toList();
+    }
+
+    // Consulta da listagem restrita às transações gravadas pelo teste
+    private List<Long> buscar(Specification<Transacao> especificacao) {
+        List<Long> ids = gravadas.stream().map(Transacao::getId).toList();
+        Specification<Transacao> doTeste = (root, query, cb) -> root.get("id").in(ids);
+        return transacaoRepository.buscarVisoes(especificacao.and(doTeste), TRANSACOES + 1).stream()
+                .map(TransacaoView::id)
+                .toList();
+    }
+}
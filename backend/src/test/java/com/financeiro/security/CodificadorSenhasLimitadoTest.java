@@ -0,0 +1,93 @@
+package com.financeiro.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.financeiro.exception.ServicoSobrecarregadoException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CodificadorSenhasLimitadoTest {
+
+    @Test
+    void medicaoDoCustoAcompanhaOFatorDoBcrypt() {
+        try (CodificadorSenhasLimitado barato = codificador(new BCryptPasswordEncoder(4), new SimpleMeterRegistry());
+             CodificadorSenhasLimitado caro = codificador(new BCryptPasswordEncoder(8), new SimpleMeterRegistry())) {
+            // Cada unidade de custo dobra as iterações: o custo 8 faz 16 vezes o trabalho do 4
+            assertThat(caro.medirCusto()).isGreaterThan(barato.medirCusto());
+        }
+    }
+
+    @Test
+    void custoMedidoNaInicializacaoEhPublicado() throws InterruptedException {
+        SimpleMeterRegistry registro = new SimpleMeterRegistry();
+        try (CodificadorSenhasLimitado codificador = codificador(new BCryptPasswordEncoder(6), registro)) {
+            assertThat(registro.get("senhas.hash.custo_medido_ms").gauge().value()).isEqualTo(-1);
+
+            codificador.onApplicationEvent(null);
+
+            long limite = System.currentTimeMillis() + 20_000;
+            while (registro.get("senhas.hash.custo_medido_ms").gauge().value() < 0
+                    && System.currentTimeMillis() < limite) {
+                Thread.sleep(20);
+            }
+            assertThat(registro.get("senhas.hash.custo_medido_ms").gauge().value()).isGreaterThanOrEqualTo(0);
+        }
+    }
+
+    @Test
+    void filaCheiaRecusaNaHora() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch ocupado = new CountDownLatch(1);
+        PasswordEncoder lento = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence senha) {
+                ocupado.countDown();
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence senha, String hash) {
+                return true;
+            }
+        };
+
+        SimpleMeterRegistry registro = new SimpleMeterRegistry();
+        try (CodificadorSenhasLimitado codificador = new CodificadorSenhasLimitado(lento, 1, 1, registro);
+             ExecutorService requisicoes = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> emExecucao = requisicoes.submit(() -> codificador.encode("a"));
+            ocupado.await();
+            Future<String> naFila = requisicoes.submit(() -> codificador.encode("b"));
+            while (registro.get("executor.queued").tag("name", "senhas").gauge().value() < 1) {
+                Thread.sleep(5);
+            }
+
+            assertThatThrownBy(() -> codificador.matches("c", "hash"))
+                    .isInstanceOf(ServicoSobrecarregadoException.class)
+                    .satisfies(e -> assertThat(((ServicoSobrecarregadoException) e).getSegundosParaNovaTentativa())
+                            .isPositive());
+
+            liberar.countDown();
+            assertThat(emExecucao.get()).isEqualTo("hash");
+            assertThat(naFila.get()).isEqualTo("hash");
+        }
+    }
+
+    private static CodificadorSenhasLimitado codificador(PasswordEncoder bcrypt, SimpleMeterRegistry registro) {
+        return new CodificadorSenhasLimitado(bcrypt, 1, 4, registro);
+    }
+}
@@ -0,0 +1,119 @@
+package com.financeiro.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.financeiro.IntegracaoBase;
+import com.financeiro.dto.AlterarPerfilDTO;
+import com.financeiro.entity.Usuario;
+import com.financeiro.service.UsuarioService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Invalidação do cache de usuários autenticados pelas alterações do UsuarioService,
+ * observada pelas buscas que deixam de encontrar a entrada (métrica cache.gets).
+ */
+class CustomUserDetailsServiceTest extends IntegracaoBase {
+
+    private static final String SENHA = "senha-atual";
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Usuario usuario;
+
+    @BeforeEach
+    void criarUsuarioComSenha() {
+        usuario = criarUsuario();
+        usuario.setSenhaHash(passwordEncoder.encode(SENHA));
+        usuario = usuarioRepository.save(usuario);
+    }
+
+    @Test
+    void alteracaoDeNomeESenhaTiraOUsuarioDoCache() {
+        assertThat(buscasForaDoCache(usuario.getEmail())).isEqualTo(1);
+        assertThat(buscasForaDoCache(usuario.getEmail())).isZero();
+
+        AlterarPerfilDTO nome = new AlterarPerfilDTO(SENHA);
+        nome.setNovoNome("Outro nome");
+        usuarioService.alterarPerfil(usuario.getId(), nome);
+        assertThat(buscasForaDoCache(usuario.getEmail())).isEqualTo(1);
+
+        usuarioService.alterarPerfil(usuario.getId(), new AlterarPerfilDTO(SENHA, "nova-senha", "nova-senha"));
+        assertThat(buscasForaDoCache(usuario.getEmail())).isEqualTo(1);
+        assertThat(buscasForaDoCache(usuario.getEmail())).isZero();
+    }
+
+    @Test
+    void emailAnteriorDeixaDeAutenticarAssimQueOEmailMuda() {
+        String anterior = usuario.getEmail();
+        String novo = "novo-" + anterior;
+        userDetailsService.carregarUsuarioAutenticado(anterior);
+
+        usuarioService.alterarPerfil(usuario.getId(), new AlterarPerfilDTO(SENHA, novo));
+
+        assertThatThrownBy(() -> userDetailsService.carregarUsuarioAutenticado(anterior))
+                .isInstanceOf(UsernameNotFoundException.class);
+        assertThat(userDetailsService.carregarUsuarioAutenticado(novo).getUsername()).isEqualTo(novo);
+    }
+
+    @Test
+    void leituraConcorrenteAntesDoCommitNaoDeixaOEmailAnteriorNoCache() throws Exception {
+        String anterior = usuario.getEmail();
+
+        try (ExecutorService outraRequisicao = Executors.newSingleThreadExecutor()) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                usuarioService.alterarPerfil(usuario.getId(), new AlterarPerfilDTO(SENHA, "novo-" + anterior));
+                usuarioRepository.flush();
+                // Uma requisição de outro thread ainda lê o cadastro confirmado, com o email
+                // anterior, e o põe de volta no cache depois da primeira invalidação
+                try {
+                    outraRequisicao.submit(() -> userDetailsService.carregarUsuarioAutenticado(anterior)).get();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+
+        // A invalidação repetida após o commit remove a entrada lida antes dele
+        assertThatThrownBy(() -> userDetailsService.carregarUsuarioAutenticado(anterior))
+                .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    // Quantas das buscas feitas por uma carga do usuário não estavam no cache (0 ou 1)
+    private long buscasForaDoCache(String email) {
+        double antes = falhas();
+        userDetailsService.carregarUsuarioAutenticado(email);
+        return Math.round(falhas() - antes);
+    }
+
+    private double falhas() {
+        return meterRegistry.get("cache.gets")
+                .tags("cache", "usuariosAutenticados", "result", "miss")
+                .functionCounter().count();
+    }
+}
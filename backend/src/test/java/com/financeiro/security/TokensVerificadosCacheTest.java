@@ -0,0 +1,98 @@
+package com.financeiro.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TokensVerificadosCacheTest {
+
+    private static final Key CHAVE = chave("chave-de-teste-dos-tokens-verificados-0123456789");
+    private static final Key OUTRA_CHAVE = chave("outra-chave-que-nao-eh-a-da-aplicacao-0123456789");
+
+    private final TokensVerificadosCache cache = new TokensVerificadosCache(100, new SimpleMeterRegistry());
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(CHAVE).build();
+    private final AtomicInteger validacoes = new AtomicInteger();
+    private final Function<String, Claims> validar = token -> {
+        validacoes.incrementAndGet();
+        return parser.parseClaimsJws(token).getBody();
+    };
+
+    @Test
+    void tokenValidoEhVerificadoUmaVezSo() {
+        String token = token(CHAVE, System.currentTimeMillis() + 60_000);
+
+        assertThat(cache.obter(token, validar).email()).isEqualTo("usuario@teste.com");
+        assertThat(cache.obter(token, validar).email()).isEqualTo("usuario@teste.com");
+        assertThat(validacoes).hasValue(1);
+    }
+
+    @Test
+    void tokenQueExpiraDepoisDeEntrarNoCacheEhRecusado() throws InterruptedException {
+        // O exp do JWT tem precisão de segundos: o token vale por 1 a 2 segundos
+        String token = token(CHAVE, System.currentTimeMillis() + 2_000);
+        long expiracao = parser.parseClaimsJws(token).getBody().getExpiration().getTime();
+        assertThat(aceito(token)).isTrue();
+
+        while (System.currentTimeMillis() <= expiracao) {
+            Thread.sleep(50);
+        }
+        // Com a entrada ainda no cache, a expiração do token é conferida no uso; se ela
+        // já saiu, a nova verificação recusa o token
+        assertThat(aceito(token)).isFalse();
+        assertThat(aceito(token)).isFalse();
+    }
+
+    @Test
+    void tokenJaExpiradoNaVerificacaoNaoAutentica() {
+        Claims expiradas = Jwts.claims().setSubject("usuario@teste.com")
+                .setExpiration(new Date(System.currentTimeMillis() - 1_000));
+
+        assertThat(cache.obter("expirado", token -> expiradas)).isNull();
+    }
+
+    @Test
+    void assinaturaInvalidaNuncaEntraNoCache() {
+        String falsificado = token(OUTRA_CHAVE, System.currentTimeMillis() + 60_000);
+
+        assertThatThrownBy(() -> cache.obter(falsificado, validar)).isInstanceOf(SignatureException.class);
+        assertThatThrownBy(() -> cache.obter(falsificado, validar)).isInstanceOf(SignatureException.class);
+        // Cada uso confere a assinatura de novo
+        assertThat(validacoes).hasValue(2);
+    }
+
+    private boolean aceito(String token) {
+        try {
+            return cache.obter(token, validar) != null;
+        } catch (JwtException e) {
+            return false;
+        }
+    }
+
+    private static String token(Key chave, long expiracao) {
+        return Jwts.builder()
+                .setSubject("usuario@teste.com")
+                .setExpiration(new Date(expiracao))
+                .signWith(chave, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private static Key chave(String segredo) {
+        return Keys.hmacShaKeyFor(segredo.getBytes(StandardCharsets.UTF_8));
+    }
+}
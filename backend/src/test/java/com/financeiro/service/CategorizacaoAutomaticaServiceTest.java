@@ -0,0 +1,78 @@
+package com.financeiro.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.financeiro.IntegracaoBase;
+import com.financeiro.dto.RegraCategorizacaoDTO;
+import com.financeiro.dto.TransacaoDTO;
+import com.financeiro.entity.Categoria;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.entity.Perfil;
+import com.financeiro.exception.NegocioException;
+
+class CategorizacaoAutomaticaServiceTest extends IntegracaoBase {
+
+    @Autowired
+    private RegraCategorizacaoService regraCategorizacaoService;
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    private Perfil perfil;
+    private Instituicao instituicao;
+    private Categoria mercado;
+
+    @BeforeEach
+    void criarCadastros() {
+        perfil = criarPerfil(criarUsuario());
+        instituicao = criarInstituicao(perfil, "0.00");
+        mercado = criarCategoria(perfil, "Despesa", "Mercado");
+    }
+
+    @Test
+    void semCategoriaENenhumaRegraATransacaoEhRecusada() {
+        assertThatThrownBy(() -> transacaoService.salvarPorPerfil(semCategoria("COMPRA PADARIA CENTRAL"), perfil.getId()))
+                .isInstanceOf(NegocioException.class)
+                .hasMessageContaining("Informe a categoria");
+    }
+
+    @Test
+    void alteracaoDaRegraRecompilaAsRegrasDoPerfil() {
+        RegraCategorizacaoDTO regra = regraCategorizacaoService.salvar(regra("supermercado"));
+
+        assertThat(transacaoService.salvarPorPerfil(semCategoria("COMPRA SUPERMERCADO BOM PRECO"), perfil.getId())
+                .getCategoriaId()).isEqualTo(mercado.getId());
+
+        regra.setPalavraChave("hortifruti");
+        regraCategorizacaoService.atualizar(regra.getId(), regra);
+
+        assertThatThrownBy(() -> transacaoService.salvarPorPerfil(semCategoria("COMPRA SUPERMERCADO BOM PRECO"),
+                perfil.getId())).isInstanceOf(NegocioException.class);
+        assertThat(transacaoService.salvarPorPerfil(semCategoria("Hortifrúti da esquina"), perfil.getId())
+                .getCategoriaId()).isEqualTo(mercado.getId());
+    }
+
+    private RegraCategorizacaoDTO regra(String palavraChave) {
+        RegraCategorizacaoDTO dto = new RegraCategorizacaoDTO();
+        dto.setPerfilId(perfil.getId());
+        dto.setPalavraChave(palavraChave);
+        dto.setCategoriaId(mercado.getId());
+        dto.setPrioridade(1);
+        dto.setAtiva(true);
+        return dto;
+    }
+
+    private TransacaoDTO semCategoria(String descricao) {
+        TransacaoDTO dto = transacao(instituicao, mercado, "35.00", LocalDate.of(2026, 9, 1));
+        dto.setCategoriaId(null);
+        dto.setDescricao(descricao);
+        return dto;
+    }
+}
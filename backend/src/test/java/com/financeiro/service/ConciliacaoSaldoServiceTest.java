@@ -0,0 +1,148 @@
+package com.financeiro.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.financeiro.IntegracaoBase;
+import com.financeiro.dto.ConciliacaoSaldosDTO;
+import com.financeiro.dto.ConciliacaoSaldosDTO.Divergencia;
+import com.financeiro.entity.Categoria;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.entity.Perfil;
+import com.financeiro.exception.NegocioException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+class ConciliacaoSaldoServiceTest extends IntegracaoBase {
+
+    // Instituição da carga inicial cujo saldo atual não inclui a receita de 350.00 lançada nela
+    private static final long INSTITUICAO_CARGA_INICIAL = 6L;
+
+    @Autowired
+    private ConciliacaoSaldoService conciliacaoSaldoService;
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void divergenciaDetectadaEhConfirmadaComBloqueioECorrigida() {
+        Instituicao instituicao = instituicaoComDiferenca("12.34");
+
+        ConciliacaoSaldosDTO deteccao = conciliacaoSaldoService.conciliar(false);
+        assertThat(divergencia(deteccao, INSTITUICAO_CARGA_INICIAL)).hasValueSatisfying(divergencia -> {
+            assertThat(divergencia.getDiferenca()).isEqualByComparingTo("-350.00");
+            assertThat(divergencia.isCorrigida()).isFalse();
+        });
+        assertThat(divergencia(deteccao, instituicao.getId())).hasValueSatisfying(divergencia -> {
+            assertThat(divergencia.getSaldoAtual()).isEqualByComparingTo("92.34");
+            assertThat(divergencia.getSaldoCalculado()).isEqualByComparingTo("80.00");
+            assertThat(divergencia.getDiferenca()).isEqualByComparingTo("12.34");
+            assertThat(divergencia.isCorrigida()).isFalse();
+        });
+        // Sem corrigir, o saldo não muda
+        assertThat(saldoAtual(instituicao.getId())).isEqualByComparingTo("92.34");
+
+        ConciliacaoSaldosDTO correcao = conciliacaoSaldoService.conciliar(true);
+        assertThat(divergencia(correcao, INSTITUICAO_CARGA_INICIAL))
+                .hasValueSatisfying(divergencia -> assertThat(divergencia.isCorrigida()).isTrue());
+        assertThat(divergencia(correcao, instituicao.getId()))
+                .hasValueSatisfying(divergencia -> assertThat(divergencia.isCorrigida()).isTrue());
+        assertThat(saldoAtual(instituicao.getId())).isEqualByComparingTo("80.00");
+        assertThat(saldoAtual(INSTITUICAO_CARGA_INICIAL)).isEqualByComparingTo("5350.00");
+
+        ConciliacaoSaldosDTO conferencia = conciliacaoSaldoService.conciliar(false);
+        assertThat(conferencia.getFalhas()).isZero();
+        assertThat(conferencia.getDivergencias()).isEmpty();
+    }
+
+    @Test
+    void conciliacaoEmAndamentoRecusaAManualEFazAAgendadaSerIgnorada() throws Exception {
+        Instituicao instituicao = instituicaoComDiferenca("0.01");
+        long execucoes = meterRegistry.get("saldos.conciliacao").timer().count();
+        double verificadas = meterRegistry.get("saldos.conciliacao.instituicoes").counter().count();
+
+        CountDownLatch bloqueada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        try (ExecutorService threads = Executors.newFixedThreadPool(2)) {
+            // A confirmação da divergência espera pelo bloqueio da instituição, mantendo a
+            // conciliação em andamento até ele ser liberado
+            Future<?> bloqueio = threads.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                instituicaoRepository.bloquearEmOrdem(List.of(instituicao.getId()));
+                bloqueada.countDown();
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            bloqueada.await();
+            Future<ConciliacaoSaldosDTO> emAndamento = threads.submit(() -> conciliacaoSaldoService.conciliar(false));
+
+            try {
+                aguardarInicio(verificadas);
+                assertThatThrownBy(() -> conciliacaoSaldoService.conciliar(false))
+                        .isInstanceOf(NegocioException.class)
+                        .hasMessage("Já existe uma conciliação de saldos em andamento");
+                conciliacaoSaldoService.conciliarAgendado();
+            } finally {
+                liberar.countDown();
+            }
+
+            bloqueio.get();
+            assertThat(divergencia(emAndamento.get(), instituicao.getId())).isPresent();
+        }
+        // Só a conciliação manual foi executada
+        assertThat(meterRegistry.get("saldos.conciliacao").timer().count()).isEqualTo(execucoes + 1);
+    }
+
+    // Instituição com uma despesa de 20.00 lançada e o saldo atual alterado direto no banco
+    private Instituicao instituicaoComDiferenca(String diferenca) {
+        Perfil perfil = criarPerfil(criarUsuario());
+        Instituicao instituicao = criarInstituicao(perfil, "100.00");
+        Categoria despesa = criarCategoria(perfil, "Despesa");
+        transacaoService.salvarPorPerfil(transacao(instituicao, despesa, "20.00", LocalDate.of(2026, 3, 1)), perfil.getId());
+        jdbcTemplate.update("UPDATE instituicoes SET saldo_atual = saldo_atual + ? WHERE id = ?",
+                new BigDecimal(diferenca), instituicao.getId());
+        return instituicao;
+    }
+
+    // A conciliação em andamento já somou alguma instituição; sem concorrer com ela pela vez
+    private void aguardarInicio(double verificadas) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (meterRegistry.get("saldos.conciliacao.instituicoes").counter().count() == verificadas) {
+            assertThat(System.currentTimeMillis()).as("início da conciliação").isLessThan(limite);
+            Thread.sleep(10);
+        }
+    }
+
+    private BigDecimal saldoAtual(long instituicaoId) {
+        return jdbcTemplate.queryForObject("SELECT saldo_atual FROM instituicoes WHERE id = ?", BigDecimal.class,
+                instituicaoId);
+    }
+
+    private static Optional<Divergencia> divergencia(ConciliacaoSaldosDTO resultado, long instituicaoId) {
+        return resultado.getDivergencias().stream()
+                .filter(divergencia -> divergencia.getInstituicaoId() == instituicaoId)
+                .findFirst();
+    }
+}
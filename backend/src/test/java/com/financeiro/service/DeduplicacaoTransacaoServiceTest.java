@@ -0,0 +1,99 @@
+package com.financeiro.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.financeiro.IntegracaoBase;
+import com.financeiro.dto.TransacaoDTO;
+import com.financeiro.entity.Categoria;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.entity.Perfil;
+import com.financeiro.repository.TransacaoRepository;
+import com.financeiro.util.HashConteudoTransacao;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+class DeduplicacaoTransacaoServiceTest extends IntegracaoBase {
+
+    @Autowired
+    private DeduplicacaoTransacaoService deduplicacaoTransacaoService;
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void transacaoGravadaEntraNoFiltroJaCarregadoPeloListenerDaEntidade() {
+        Perfil perfil = criarPerfil(criarUsuario());
+        Instituicao instituicao = criarInstituicao(perfil, "0.00");
+        Categoria categoria = criarCategoria(perfil, "Despesa");
+        TransacaoDTO dto = transacao(instituicao, categoria, "42.00", LocalDate.of(2026, 5, 4));
+        String hash = HashConteudoTransacao.calcular(perfil.getId(), instituicao.getId(), dto.getData(),
+                dto.getValor(), dto.getTipo(), dto.getDescricao());
+
+        // Perfil sem transações: o filtro é carregado vazio e descarta o hash
+        assertThat(deduplicacaoTransacaoService.podeExistir(perfil.getId(), hash)).isFalse();
+
+        transacaoService.salvarPorPerfil(dto, perfil.getId());
+
+        assertThat(deduplicacaoTransacaoService.podeExistir(perfil.getId(), hash)).isTrue();
+    }
+
+    @Test
+    void transacaoConfirmadaDepoisDaCargaDoFiltroEntraNele() throws Exception {
+        Perfil perfil = criarPerfil(criarUsuario());
+        Instituicao instituicao = criarInstituicao(perfil, "0.00");
+        Categoria categoria = criarCategoria(perfil, "Despesa");
+        TransacaoDTO dto = transacao(instituicao, categoria, "17.00", LocalDate.of(2026, 5, 5));
+        String hash = HashConteudoTransacao.calcular(perfil.getId(), instituicao.getId(), dto.getData(),
+                dto.getValor(), dto.getTipo(), dto.getDescricao());
+
+        CountDownLatch gravada = new CountDownLatch(1);
+        CountDownLatch carregado = new CountDownLatch(1);
+        try (ExecutorService threads = Executors.newSingleThreadExecutor()) {
+            // A transação é gravada enquanto o perfil não tem filtro e confirmada depois que
+            // o filtro foi carregado de uma leitura que não a enxerga
+            Future<?> gravacao = threads.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                transacaoService.salvarPorPerfil(dto, perfil.getId());
+                transacaoRepository.flush();
+                gravada.countDown();
+                try {
+                    carregado.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            gravada.await();
+            assertThat(deduplicacaoTransacaoService.podeExistir(perfil.getId(), hash)).isFalse();
+            carregado.countDown();
+            gravacao.get();
+        }
+
+        assertThat(deduplicacaoTransacaoService.podeExistir(perfil.getId(), hash)).isTrue();
+    }
+
+    @Test
+    void taxaDeFalsoPositivoPublicadaComoGauge() {
+        assertThat(meterRegistry.find("transacoes.deduplicacao.taxa_falso_positivo").gauge())
+                .isNotNull()
+                .satisfies(gauge -> assertThat(gauge.value()).isBetween(0.0, 1.0));
+    }
+}
@@ -0,0 +1,155 @@
+package com.financeiro.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+
+import com.financeiro.IntegracaoBase;
+import com.financeiro.dto.ResultadoImportacaoDTO;
+import com.financeiro.entity.Categoria;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.entity.Perfil;
+import com.financeiro.entity.RegistroImportacao;
+import com.financeiro.entity.Usuario;
+import com.financeiro.enums.StatusImportacao;
+import com.financeiro.exception.NegocioException;
+import com.financeiro.repository.RegistroImportacaoRepository;
+
+class ImportacaoExtratoServiceTest extends IntegracaoBase {
+
+    private static final int LINHAS = 1200;
+
+    @Autowired
+    private ImportacaoExtratoService importacaoExtratoService;
+
+    @Autowired
+    private RegistroImportacaoRepository registroImportacaoRepository;
+
+    private Usuario usuario;
+    private Perfil perfil;
+    private Instituicao instituicao;
+    private Categoria categoria;
+    private String nomeArquivo;
+    private byte[] conteudo;
+
+    @BeforeEach
+    void criarCadastros() {
+        usuario = criarUsuario();
+        perfil = criarPerfil(usuario);
+        instituicao = criarInstituicao(perfil, "0.00");
+        categoria = criarCategoria(perfil, "Despesa");
+        nomeArquivo = "extrato-" + proximo() + ".csv";
+
+        StringBuilder csv = new StringBuilder("data;descricao;valor\n");
+        for (int i = 1; i <= LINHAS; i++) {
+            csv.append("10/01/2026;Compra ").append(i).append(";-1,00\n");
+        }
+        conteudo = csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void falhaNoMeioMarcaORegistroEAReimportacaoRetomaDoUltimoBlocoGravado() throws IOException {
+        // A leitura falha perto do fim do arquivo, depois de dois blocos de 500 gravados
+        MockMultipartFile interrompido = new MockMultipartFile("arquivo", nomeArquivo, "text/csv", conteudo) {
+            @Override
+            public InputStream getInputStream() {
+                return new FalhaAposBytes(new ByteArrayInputStream(conteudo), conteudo.length - 500);
+            }
+        };
+        assertThatThrownBy(() -> importar(interrompido)).isInstanceOf(IOException.class);
+
+        RegistroImportacao falhou = registroImportacaoRepository.findFirstByNomeArquivoOrderByIdDesc(nomeArquivo)
+                .orElseThrow();
+        assertThat(falhou.getStatus()).isEqualTo(StatusImportacao.FALHOU);
+        assertThat(falhou.getUltimaLinhaGravada()).isEqualTo(1001); // o cabeçalho é a linha 1
+        assertThat(falhou.getLinhasImportadas()).isEqualTo(1000);
+        assertThat(vinculadas(falhou.getId())).isEqualTo(1000);
+
+        ResultadoImportacaoDTO retomada = importar(new MockMultipartFile("arquivo", nomeArquivo, "text/csv", conteudo));
+
+        assertThat(retomada.getRegistroImportacaoId()).isEqualTo(falhou.getId());
+        assertThat(retomada.getInseridas()).isEqualTo(200);
+        assertThat(retomada.getDuplicadas()).isZero();
+        RegistroImportacao concluida = registroImportacaoRepository.findById(falhou.getId()).orElseThrow();
+        assertThat(concluida.getStatus()).isEqualTo(StatusImportacao.CONCLUIDA);
+        assertThat(concluida.getLinhasImportadas()).isEqualTo(LINHAS);
+        assertThat(vinculadas(falhou.getId())).isEqualTo(LINHAS);
+        assertThat(instituicaoRepository.findById(instituicao.getId()).orElseThrow().getSaldoAtual())
+                .isEqualByComparingTo("-1200.00");
+    }
+
+    @Test
+    void arquivoJaImportadoPorCompletoContinuaRecusado() throws IOException {
+        importar(new MockMultipartFile("arquivo", nomeArquivo, "text/csv", conteudo));
+
+        assertThatThrownBy(() -> importar(new MockMultipartFile("arquivo", nomeArquivo, "text/csv", conteudo)))
+                .isInstanceOf(NegocioException.class)
+                .hasMessageContaining("já foi importado");
+        assertThat(vinculadas(registroImportacaoRepository.findFirstByNomeArquivoOrderByIdDesc(nomeArquivo)
+                .orElseThrow().getId())).isEqualTo(LINHAS);
+    }
+
+    @Test
+    void perfilEInstituicaoPrecisamSerDoUsuarioAutenticado() {
+        MockMultipartFile arquivo = new MockMultipartFile("arquivo", nomeArquivo, "text/csv", conteudo);
+        Usuario outro = criarUsuario();
+        Instituicao deOutroPerfil = criarInstituicao(criarPerfil(usuario), "0.00");
+
+        assertThatThrownBy(() -> importacaoExtratoService.importar(arquivo, outro.getId(), perfil.getId(),
+                instituicao.getId(), categoria.getId(), null, null, StandardCharsets.UTF_8))
+                .isInstanceOf(NegocioException.class)
+                .hasMessageContaining("perfil");
+        assertThatThrownBy(() -> importacaoExtratoService.importar(arquivo, usuario.getId(), perfil.getId(),
+                deOutroPerfil.getId(), categoria.getId(), null, null, StandardCharsets.UTF_8))
+                .isInstanceOf(NegocioException.class)
+                .hasMessageContaining("instituição");
+        assertThat(registroImportacaoRepository.existsByNomeArquivo(nomeArquivo)).isFalse();
+    }
+
+    private ResultadoImportacaoDTO importar(MockMultipartFile arquivo) throws IOException {
+        return importacaoExtratoService.importar(arquivo, usuario.getId(), perfil.getId(), instituicao.getId(),
+                categoria.getId(), null, null, StandardCharsets.UTF_8);
+    }
+
+    private long vinculadas(Long registroId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transacoes WHERE registro_importacao_id = ?",
+                Long.class, registroId);
+    }
+
+    // Simula a perda da conexão com o cliente durante o upload
+    private static class FalhaAposBytes extends FilterInputStream {
+
+        private long restantes;
+
+        FalhaAposBytes(InputStream entrada, long bytes) {
+            super(entrada);
+            restantes = bytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] um = new byte[1];
+            return read(um, 0, 1) < 0 ? -1 : um[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] destino, int inicio, int tamanho) throws IOException {
+            if (restantes <= 0) {
+                throw new IOException("Conexão encerrada durante o envio");
+            }
+            int lidos = super.read(destino, inicio, (int) Math.min(tamanho, restantes));
+            restantes -= Math.max(0, lidos);
+            return lidos;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.financeiro.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.financeiro.IntegracaoBase;
+import com.financeiro.dto.InstituicaoDTO;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.entity.Perfil;
+
+class InstituicaoServiceTest extends IntegracaoBase {
+
+    @Autowired
+    private InstituicaoService instituicaoService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void ajustesConcorrentesNaMesmaInstituicaoNaoSePerdem() throws Exception {
+        Instituicao instituicao = criarInstituicao(criarPerfil(criarUsuario()), "1000.00");
+        int ajustes = 400;
+
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> resultados = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < ajustes; i++) {
+                // Metade credita 2,50 e metade debita 1,25
+                BigDecimal delta = new BigDecimal(i % 2 == 0 ? "2.50" : "-1.25");
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    instituicaoService.ajustarSaldo(instituicao.getId(), delta);
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> resultado : resultados) {
+                resultado.get();
+            }
+        }
+
+        BigDecimal saldo = jdbcTemplate.queryForObject("SELECT saldo_atual FROM instituicoes WHERE id = ?",
+                BigDecimal.class, instituicao.getId());
+        assertThat(saldo).isEqualByComparingTo("1250.00");
+    }
+
+    @Test
+    void instanciaCarregadaNaTransacaoVeOSaldoAjustado() {
+        Instituicao instituicao = criarInstituicao(criarPerfil(criarUsuario()), "100.00");
+
+        BigDecimal saldoLido = new TransactionTemplate(transactionManager).execute(status -> {
+            Instituicao carregada = instituicaoRepository.findById(instituicao.getId()).orElseThrow();
+            instituicaoService.ajustarSaldo(instituicao.getId(), new BigDecimal("-30.00"));
+            // Sem a sincronização, a instância carregada antes do UPDATE manteria 100,00
+            return carregada.getSaldoAtual();
+        });
+
+        assertThat(saldoLido).isEqualByComparingTo("70.00");
+        assertThat(instituicaoRepository.findById(instituicao.getId()).orElseThrow().getSaldoAtual())
+                .isEqualByComparingTo("70.00");
+    }
+
+    @Test
+    void alterarSaldoInicialSomaADiferencaUmaSoVez() {
+        Perfil perfil = criarPerfil(criarUsuario());
+        Instituicao instituicao = criarInstituicao(perfil, "100.00");
+        instituicaoService.ajustarSaldo(instituicao.getId(), new BigDecimal("40.00"));
+
+        InstituicaoDTO dto = new InstituicaoDTO();
+        dto.setNome(instituicao.getNome());
+        dto.setTipo(instituicao.getTipo());
+        dto.setSaldoInicial(new BigDecimal("150.00"));
+        InstituicaoDTO atualizada = instituicaoService.atualizar(instituicao.getId(), dto);
+
+        assertThat(atualizada.getSaldoAtual()).isEqualByComparingTo("190.00");
+        assertThat(instituicaoRepository.findById(instituicao.getId()).orElseThrow().getSaldoAtual())
+                .isEqualByComparingTo("190.00");
+    }
+}
@@ -0,0 +1,176 @@
+package com.financeiro.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.financeiro.IntegracaoBase;
+import com.financeiro.dto.TransacaoDTO;
+import com.financeiro.entity.Categoria;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.entity.Perfil;
+
+/**
+ * Lançamento das parcelas vencidas. O motor percorre os planos e as linhas pendentes de
+ * todos os perfis, então cada teste usa datas em que só os próprios planos têm parcelas
+ * e confere apenas as próprias instituições.
+ */
+class ParcelaLancamentoServiceTest extends IntegracaoBase {
+
+    @Autowired
+    private ParcelaLancamentoService parcelaLancamentoService;
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private SaldoDiarioService saldoDiarioService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void parcelasVencidasSaoLancadasUmaVezMesmoComExecucoesRepetidas() {
+        Perfil perfil = criarPerfil(criarUsuario());
+        Instituicao instituicao = criarInstituicao(perfil, "1000.00");
+        Categoria despesa = criarCategoria(perfil, "Despesa");
+        String grupo = comprarParcelado(instituicao, despesa, "600.00", 6, LocalDate.of(2031, 1, 10));
+        // A parcela 5 editada vira linha pendente, lançada pelo segundo passo do motor
+        TransacaoDTO editada = transacao(instituicao, despesa, "150.00", LocalDate.of(2031, 5, 10));
+        transacaoService.atualizarParcela(grupo, 5, editada);
+        assertThat(saldoAtual(instituicao)).isEqualByComparingTo("900.00");
+
+        for (int execucao = 0; execucao < 2; execucao++) {
+            parcelaLancamentoService.lancarParcelasVencidas(LocalDate.of(2031, 3, 15));
+            assertThat(saldoAtual(instituicao)).isEqualByComparingTo("700.00");
+            assertThat(lancadas(grupo)).containsExactly(1, 2, 3);
+        }
+
+        for (int execucao = 0; execucao < 2; execucao++) {
+            parcelaLancamentoService.lancarParcelasVencidas(LocalDate.of(2031, 6, 1));
+            assertThat(saldoAtual(instituicao)).isEqualByComparingTo("450.00");
+            assertThat(lancadas(grupo)).containsExactly(1, 2, 3, 4, 5);
+            assertThat(linhasPorParcela(grupo)).isEqualTo(5);
+        }
+
+        // O saldo diário acompanha o saldo atual, como numa reconstrução
+        assertThat(saldoDiarioService.buscarSaldo(instituicao.getId(), LocalDate.of(2031, 6, 1)).getSaldo())
+                .isEqualByComparingTo("450.00");
+        saldoDiarioService.reconstruir(instituicao.getId());
+        assertThat(saldoDiarioService.buscarSaldo(instituicao.getId(), LocalDate.of(2031, 6, 1)).getSaldo())
+                .isEqualByComparingTo("450.00");
+    }
+
+    @Test
+    void conflitoDeVersaoEmUmPlanoRefazOBlocoSemLancarEmDobroNemDeixarOsDemais() throws Exception {
+        Perfil perfil = criarPerfil(criarUsuario());
+        Instituicao instituicao = criarInstituicao(perfil, "1000.00");
+        Categoria despesa = criarCategoria(perfil, "Despesa");
+        String alterado = comprarParcelado(instituicao, despesa, "400.00", 4, LocalDate.of(2032, 1, 10));
+        String outro = comprarParcelado(instituicao, despesa, "400.00", 4, LocalDate.of(2032, 1, 20));
+
+        // Outra transação altera o plano depois da leitura do bloco pelo motor e antes da gravação
+        concorrerComOMotor(LocalDate.of(2032, 3, 31),
+                "UPDATE planos_parcelamento SET versao = versao + 1 WHERE grupo_parcelamento = '" + alterado + "'");
+
+        assertThat(lancadas(alterado)).containsExactly(1, 2, 3);
+        assertThat(lancadas(outro)).containsExactly(1, 2, 3);
+        assertThat(linhasPorParcela(alterado)).isEqualTo(3);
+        assertThat(saldoAtual(instituicao)).isEqualByComparingTo("400.00");
+    }
+
+    @Test
+    void linhaLancadaPorOutraOperacaoFicaDeForaSemDesfazerAsDemaisDoBloco() throws Exception {
+        Perfil perfil = criarPerfil(criarUsuario());
+        Instituicao instituicao = criarInstituicao(perfil, "1000.00");
+        Categoria despesa = criarCategoria(perfil, "Despesa");
+        String grupo = comprarParcelado(instituicao, despesa, "300.00", 3, LocalDate.of(2033, 1, 10));
+        transacaoService.atualizarParcela(grupo, 2, transacao(instituicao, despesa, "90.00", LocalDate.of(2033, 2, 10)));
+        transacaoService.atualizarParcela(grupo, 3, transacao(instituicao, despesa, "90.00", LocalDate.of(2033, 3, 10)));
+
+        // A parcela 2 é lançada por outra operação enquanto o motor trata o bloco que a contém
+        concorrerComOMotor(LocalDate.of(2033, 3, 31),
+                "UPDATE transacoes SET lancada = true WHERE grupo_parcelamento = '" + grupo + "' AND parcela_atual = 2",
+                "UPDATE instituicoes SET saldo_atual = saldo_atual - 90 WHERE id = " + instituicao.getId());
+
+        assertThat(lancadas(grupo)).containsExactly(1, 2, 3);
+        assertThat(saldoAtual(instituicao)).isEqualByComparingTo("720.00");
+    }
+
+    /**
+     * Executa os comandos em uma transação que fica aberta até o motor ficar bloqueado
+     * esperando pelas linhas alteradas, e então confirma a transação.
+     */
+    private void concorrerComOMotor(LocalDate hoje, String... comandos) throws Exception {
+        CountDownLatch alteradas = new CountDownLatch(1);
+        CountDownLatch confirmar = new CountDownLatch(1);
+        try (ExecutorService threads = Executors.newFixedThreadPool(2)) {
+            Future<?> concorrente = threads.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                for (String comando : comandos) {
+                    jdbcTemplate.update(comando);
+                }
+                alteradas.countDown();
+                try {
+                    confirmar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            alteradas.await();
+            Future<Integer> motor = threads.submit(() -> parcelaLancamentoService.lancarParcelasVencidas(hoje));
+
+            try {
+                aguardarBloqueio();
+            } finally {
+                confirmar.countDown();
+            }
+            concorrente.get();
+            motor.get();
+        }
+    }
+
+    private void aguardarBloqueio() throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS WHERE BLOCKER_ID IS NOT NULL", Integer.class) == 0) {
+            assertThat(System.currentTimeMillis()).as("bloqueio do motor").isLessThan(limite);
+            Thread.sleep(10);
+        }
+    }
+
+    private String comprarParcelado(Instituicao instituicao, Categoria categoria, String valor, int parcelas, LocalDate inicio) {
+        TransacaoDTO compra = transacao(instituicao, categoria, valor, inicio);
+        compra.setEhParcelada(true);
+        compra.setNumeroParcelas(parcelas);
+        return transacaoService.salvarPorPerfil(compra, instituicao.getPerfil().getId()).getGrupoParcelamento();
+    }
+
+    private List<Integer> lancadas(String grupo) {
+        return jdbcTemplate.queryForList("SELECT parcela_atual FROM transacoes WHERE grupo_parcelamento = ? "
+                + "AND lancada = true ORDER BY parcela_atual", Integer.class, grupo);
+    }
+
+    // Linhas do grupo, que seriam mais que as parcelas distintas se alguma fosse gravada em dobro
+    private int linhasPorParcela(String grupo) {
+        List<Integer> parcelas = jdbcTemplate.queryForList(
+                "SELECT parcela_atual FROM transacoes WHERE grupo_parcelamento = ?", Integer.class, grupo);
+        assertThat(parcelas).doesNotHaveDuplicates();
+        return parcelas.size();
+    }
+
+    private BigDecimal saldoAtual(Instituicao instituicao) {
+        return jdbcTemplate.queryForObject("SELECT saldo_atual FROM instituicoes WHERE id = ?", BigDecimal.class,
+                instituicao.getId());
+    }
+}
@@ -0,0 +1,124 @@
+package com.financeiro.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.financeiro.IntegracaoBase;
+import com.financeiro.dto.ResumoFinanceiroDTO;
+import com.financeiro.dto.TransacaoDTO;
+import com.financeiro.entity.Categoria;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.entity.Perfil;
+import com.financeiro.entity.Usuario;
+
+class ResumoMensalServiceTest extends IntegracaoBase {
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private ResumoMensalService resumoMensalService;
+
+    @Test
+    void primeirasTransacoesConcorrentesDaMesmaChaveGravamUmaSoLinha() throws Exception {
+        Perfil perfil = criarPerfil(criarUsuario());
+        int escritas = 8;
+        List<Instituicao> instituicoes = new ArrayList<>();
+        for (int i = 0; i < escritas; i++) {
+            // Uma instituição por escrita: o bloqueio das instituições não as serializa
+            instituicoes.add(criarInstituicao(perfil, "0"));
+        }
+
+        // Threads de plataforma: com o H2 em memória as virtuais não cedem a vez no meio
+        // da transação e as escritas acabariam em série. Várias rodadas, uma chave nova
+        // (categoria sem subcategoria) por rodada, para a disputa de fato acontecer
+        ExecutorService executor = Executors.newFixedThreadPool(escritas);
+        try {
+            for (int rodada = 0; rodada < 10; rodada++) {
+                Categoria categoria = criarCategoria(perfil, "Despesa");
+                CountDownLatch largada = new CountDownLatch(1);
+                List<Future<TransacaoDTO>> resultados = new ArrayList<>();
+                for (Instituicao instituicao : instituicoes) {
+                    TransacaoDTO dto = transacao(instituicao, categoria, "10.00", LocalDate.of(2026, 3, 15));
+                    resultados.add(executor.submit(() -> {
+                        largada.await();
+                        return transacaoService.salvarPorPerfil(dto, perfil.getId());
+                    }));
+                }
+                largada.countDown();
+                for (Future<TransacaoDTO> resultado : resultados) {
+                    resultado.get();
+                }
+
+                Map<String, Object> linhas = jdbcTemplate.queryForMap(
+                        "SELECT COUNT(*) AS linhas, SUM(quantidade) AS quantidade, SUM(valor) AS valor FROM resumo_mensal "
+                                + "WHERE perfil_id = ? AND ano_mes = 202603 AND categoria_id = ? AND subcategoria_id IS NULL",
+                        perfil.getId(), categoria.getId());
+                assertThat(((Number) linhas.get("LINHAS")).longValue()).isEqualTo(1);
+                assertThat(((Number) linhas.get("QUANTIDADE")).longValue()).isEqualTo(escritas);
+                assertThat((BigDecimal) linhas.get("VALOR")).isEqualByComparingTo("80.00");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void resumoDoUsuarioUsaOMesmoDonoNosMesesCompletosENasBordas() {
+        Usuario dono = criarUsuario();
+        Usuario outro = criarUsuario();
+        Perfil perfil = criarPerfil(dono);
+        Instituicao instituicao = criarInstituicao(perfil, "0");
+        Categoria categoria = criarCategoria(perfil, "Despesa");
+
+        // Transações lançadas por outro usuário no perfil do dono contam para o dono,
+        // tanto no mês completo (resumo_mensal) quanto nos dias da borda (transacoes)
+        transacaoService.salvar(transacao(instituicao, categoria, "100.00", LocalDate.of(2026, 2, 10)), outro.getId());
+        transacaoService.salvar(transacao(instituicao, categoria, "30.00", LocalDate.of(2026, 3, 5)), outro.getId());
+        transacaoService.salvar(transacao(instituicao, categoria, "50.00", LocalDate.of(2026, 2, 20)), dono.getId());
+        transacaoService.salvar(transacao(instituicao, categoria, "20.00", LocalDate.of(2026, 3, 6)), dono.getId());
+
+        LocalDate inicio = LocalDate.of(2026, 2, 1);
+        LocalDate fim = LocalDate.of(2026, 3, 10);
+        ResumoFinanceiroDTO doDono = transacaoService.gerarResumoFinanceiro(dono.getId(), inicio, fim);
+        ResumoFinanceiroDTO doOutro = transacaoService.gerarResumoFinanceiro(outro.getId(), inicio, fim);
+        ResumoFinanceiroDTO doPerfil = transacaoService.gerarResumoFinanceiro(dono.getId(), perfil.getId(), inicio, fim);
+
+        assertThat(doDono.getTotalDespesas()).isEqualByComparingTo("200.00");
+        assertThat(doPerfil.getTotalDespesas()).isEqualByComparingTo("200.00");
+        assertThat(doOutro.getTotalDespesas()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void reconstrucaoGeraIdsPelaSequenceSemColidirComOsSeguintes() {
+        Perfil perfil = criarPerfil(criarUsuario());
+        Instituicao instituicao = criarInstituicao(perfil, "0");
+        Categoria categoria = criarCategoria(perfil, "Despesa");
+        transacaoService.salvarPorPerfil(transacao(instituicao, categoria, "15.00", LocalDate.of(2026, 4, 2)), perfil.getId());
+
+        String somaPorPerfil = "SELECT SUM(valor) FROM resumo_mensal WHERE perfil_id = ?";
+        BigDecimal antes = jdbcTemplate.queryForObject(somaPorPerfil, BigDecimal.class, perfil.getId());
+        resumoMensalService.reconstruir();
+
+        // INSERT ... SELECT da reconstrução com ids da resumo_mensal_seq, seguido de inserts
+        // do Hibernate na mesma tabela
+        assertThat(jdbcTemplate.queryForObject(somaPorPerfil, BigDecimal.class, perfil.getId()))
+                .isEqualByComparingTo(antes);
+        transacaoService.salvarPorPerfil(transacao(instituicao, criarCategoria(perfil, "Despesa"), "5.00",
+                LocalDate.of(2026, 4, 3)), perfil.getId());
+        assertThat(jdbcTemplate.queryForObject(somaPorPerfil, BigDecimal.class, perfil.getId()))
+                .isEqualByComparingTo("20.00");
+    }
+}
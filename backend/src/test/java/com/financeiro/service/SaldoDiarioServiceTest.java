@@ -0,0 +1,169 @@
+package com.financeiro.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.financeiro.IntegracaoBase;
+import com.financeiro.dto.SaldoDiarioDTO;
+import com.financeiro.dto.TransacaoDTO;
+import com.financeiro.entity.Categoria;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.entity.Perfil;
+import com.financeiro.exception.NegocioException;
+import com.financeiro.exception.RecursoNaoEncontradoException;
+
+class SaldoDiarioServiceTest extends IntegracaoBase {
+
+    @Autowired
+    private SaldoDiarioService saldoDiarioService;
+
+    @Autowired
+    private TransacaoLoteService transacaoLoteService;
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Test
+    void lotesEEscritasRetroativasChegamAosMesmosSaldosDaReconstrucao() {
+        Perfil perfil = criarPerfil(criarUsuario());
+        Instituicao instituicao = criarInstituicao(perfil, "0");
+        Categoria receita = criarCategoria(perfil, "Receita");
+        Categoria despesa = criarCategoria(perfil, "Despesa");
+
+        // Dois lotes com dias repetidos, intercalados e anteriores aos já gravados, e
+        // deltas que se anulam no mesmo dia
+        transacaoLoteService.gravarBloco(perfil, List.of(
+                transacao(instituicao, receita, "1000.00", LocalDate.of(2026, 1, 10)),
+                transacao(instituicao, despesa, "120.00", LocalDate.of(2026, 1, 20)),
+                transacao(instituicao, despesa, "30.00", LocalDate.of(2026, 1, 10)),
+                transacao(instituicao, despesa, "45.50", LocalDate.of(2026, 2, 3))), 0);
+        transacaoLoteService.gravarBloco(perfil, List.of(
+                transacao(instituicao, receita, "200.00", LocalDate.of(2026, 1, 15)),
+                transacao(instituicao, despesa, "200.00", LocalDate.of(2026, 1, 15)),
+                transacao(instituicao, despesa, "10.00", LocalDate.of(2026, 1, 5)),
+                transacao(instituicao, receita, "60.00", LocalDate.of(2026, 1, 20)),
+                transacao(instituicao, receita, "5.25", LocalDate.of(2026, 3, 1))), 0);
+        transacaoService.salvarPorPerfil(transacao(instituicao, despesa, "7.75", LocalDate.of(2026, 1, 12)), perfil.getId());
+
+        List<Map<String, Object>> incrementais = saldos(instituicao);
+        saldoDiarioService.reconstruir(instituicao.getId());
+
+        assertThat(incrementais).isEqualTo(saldos(instituicao));
+        assertThat(saldoDiarioService.buscarSaldo(instituicao.getId(), LocalDate.of(2026, 3, 31)).getSaldo())
+                .isEqualByComparingTo("852.00");
+    }
+
+    @Test
+    void serieHistoricaRepeteOSaldoNosDiasSemMovimentoETerminaNoSaldoAtual() {
+        Perfil perfil = criarPerfil(criarUsuario());
+        Instituicao instituicao = criarInstituicao(perfil, "100.00");
+        Categoria receita = criarCategoria(perfil, "Receita");
+        Categoria despesa = criarCategoria(perfil, "Despesa");
+        transacaoService.salvarPorPerfil(transacao(instituicao, receita, "50.00", LocalDate.of(2026, 5, 3)), perfil.getId());
+        transacaoService.salvarPorPerfil(transacao(instituicao, despesa, "30.00", LocalDate.of(2026, 5, 6)), perfil.getId());
+        transacaoService.salvarPorPerfil(transacao(instituicao, despesa, "5.00", LocalDate.of(2026, 5, 6)), perfil.getId());
+
+        List<SaldoDiarioDTO> serie = saldoDiarioService.listarSaldos(instituicao.getId(),
+                LocalDate.of(2026, 5, 1), LocalDate.of(2026, 5, 8));
+
+        assertThat(serie).extracting(SaldoDiarioDTO::getData)
+                .containsExactlyElementsOf(LocalDate.of(2026, 5, 1).datesUntil(LocalDate.of(2026, 5, 9)).toList());
+        assertThat(serie).extracting(saldo -> saldo.getSaldo().toPlainString())
+                .containsExactly("100.00", "100.00", "150.00", "150.00", "150.00", "115.00", "115.00", "115.00");
+        // Uma série que começa depois do primeiro movimento parte do acumulado anterior
+        assertThat(saldoDiarioService.listarSaldos(instituicao.getId(), LocalDate.of(2026, 5, 4), LocalDate.of(2026, 5, 4)))
+                .singleElement().satisfies(saldo -> assertThat(saldo.getSaldo()).isEqualByComparingTo("150.00"));
+        assertThat(saldoDiarioService.buscarSaldo(instituicao.getId(), LocalDate.of(2026, 4, 30)).getSaldo())
+                .isEqualByComparingTo("100.00");
+        assertThat(saldoDiarioService.buscarSaldo(instituicao.getId(), LocalDate.of(2030, 1, 1)).getSaldo())
+                .isEqualByComparingTo(instituicaoRepository.findById(instituicao.getId()).orElseThrow().getSaldoAtual());
+    }
+
+    @Test
+    void edicaoTrocaDeInstituicaoEExclusaoDesfazemOEfeitoNosDiasCertos() {
+        Perfil perfil = criarPerfil(criarUsuario());
+        Instituicao origem = criarInstituicao(perfil, "0");
+        Instituicao destino = criarInstituicao(perfil, "0");
+        Categoria despesa = criarCategoria(perfil, "Despesa");
+        TransacaoDTO gravada = transacaoService.salvarPorPerfil(
+                transacao(origem, despesa, "80.00", LocalDate.of(2026, 6, 10)), perfil.getId());
+        TransacaoDTO outra = transacaoService.salvarPorPerfil(
+                transacao(origem, despesa, "20.00", LocalDate.of(2026, 6, 12)), perfil.getId());
+
+        // Mesma transação movida para outra instituição, outro dia e outro valor
+        TransacaoDTO alterada = transacao(destino, despesa, "25.00", LocalDate.of(2026, 6, 5));
+        transacaoService.atualizar(gravada.getId(), alterada);
+        transacaoService.excluir(outra.getId());
+
+        assertThat(saldoDiarioService.buscarSaldo(origem.getId(), LocalDate.of(2026, 6, 30)).getSaldo())
+                .isEqualByComparingTo("0");
+        assertThat(saldoDiarioService.buscarSaldo(destino.getId(), LocalDate.of(2026, 6, 4)).getSaldo())
+                .isEqualByComparingTo("0");
+        assertThat(saldoDiarioService.buscarSaldo(destino.getId(), LocalDate.of(2026, 6, 5)).getSaldo())
+                .isEqualByComparingTo("-25.00");
+
+        List<Map<String, Object>> incrementaisOrigem = saldos(origem);
+        List<Map<String, Object>> incrementaisDestino = saldos(destino);
+        saldoDiarioService.reconstruir(origem.getId());
+        saldoDiarioService.reconstruir(destino.getId());
+        assertThat(incrementaisOrigem).isEqualTo(saldos(origem));
+        assertThat(incrementaisDestino).isEqualTo(saldos(destino));
+    }
+
+    @Test
+    void parcelasAindaNaoLancadasNaoEntramNoSaldo() {
+        Perfil perfil = criarPerfil(criarUsuario());
+        Instituicao instituicao = criarInstituicao(perfil, "1000.00");
+        Categoria despesa = criarCategoria(perfil, "Despesa");
+        TransacaoDTO compra = transacao(instituicao, despesa, "300.00", LocalDate.of(2026, 7, 15));
+        compra.setEhParcelada(true);
+        compra.setNumeroParcelas(3);
+        transacaoService.salvarPorPerfil(compra, perfil.getId());
+
+        assertThat(saldoDiarioService.buscarSaldo(instituicao.getId(), LocalDate.of(2026, 12, 31)).getSaldo())
+                .isEqualByComparingTo("900.00");
+        List<Map<String, Object>> incrementais = saldos(instituicao);
+        saldoDiarioService.reconstruir(instituicao.getId());
+        assertThat(incrementais).isEqualTo(saldos(instituicao));
+    }
+
+    @Test
+    void periodoInvertidoOuLongoDemaisEhRecusado() {
+        Instituicao instituicao = criarInstituicao(criarPerfil(criarUsuario()), "0");
+
+        assertThatThrownBy(() -> saldoDiarioService.listarSaldos(instituicao.getId(),
+                LocalDate.of(2026, 2, 1), LocalDate.of(2026, 1, 31)))
+                .isInstanceOf(NegocioException.class);
+        assertThatThrownBy(() -> saldoDiarioService.listarSaldos(instituicao.getId(),
+                LocalDate.of(2000, 1, 1), LocalDate.of(2026, 1, 1)))
+                .isInstanceOf(NegocioException.class);
+        assertThatThrownBy(() -> saldoDiarioService.buscarSaldo(-1L, LocalDate.of(2026, 1, 1)))
+                .isInstanceOf(RecursoNaoEncontradoException.class);
+    }
+
+    private List<Map<String, Object>> saldos(Instituicao instituicao) {
+        List<Map<String, Object>> linhas = new ArrayList<>();
+        // Dias sem linha e dias com linha de acumulado igual ao anterior (zero antes da
+        // primeira) são equivalentes
+        BigDecimal anterior = BigDecimal.ZERO;
+        for (Map<String, Object> linha : jdbcTemplate.queryForList(
+                "SELECT data, movimento_acumulado FROM saldos_diarios WHERE instituicao_id = ? ORDER BY data",
+                instituicao.getId())) {
+            BigDecimal acumulado = (BigDecimal) linha.get("MOVIMENTO_ACUMULADO");
+            if (acumulado.compareTo(anterior) != 0) {
+                linhas.add(linha);
+            }
+            anterior = acumulado;
+        }
+        return linhas;
+    }
+}
@@ -0,0 +1,70 @@
+package com.financeiro.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import com.financeiro.IntegracaoBase;
+import com.financeiro.entity.Categoria;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.entity.ModeloSugestao;
+import com.financeiro.entity.Perfil;
+import com.financeiro.repository.ModeloSugestaoRepository;
+
+// Cabem 8 modelos de até 8 categorias (128 KB cada) no cache
+@TestPropertySource(properties = "app.cache.modelos-sugestao.tamanho-maximo-mb=1")
+class SugestaoCategoriaServiceTest extends IntegracaoBase {
+
+    private static final int PERFIS = 12;
+
+    @Autowired
+    private SugestaoCategoriaService sugestaoCategoriaService;
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private ModeloSugestaoRepository modeloSugestaoRepository;
+
+    @Test
+    void modeloAlteradoQueSaiDoCacheEhGravadoENaoPerdeOTreino() throws InterruptedException {
+        List<Long> perfis = new ArrayList<>();
+        for (int i = 0; i < PERFIS; i++) {
+            Perfil perfil = criarPerfil(criarUsuario());
+            Instituicao instituicao = criarInstituicao(perfil, "0.00");
+            Categoria categoria = criarCategoria(perfil, "Despesa");
+            // Após o commit o modelo do perfil é treinado com o histórico e fica alterado
+            transacaoService.salvarPorPerfil(transacao(instituicao, categoria, "10.00", LocalDate.of(2026, 9, 1)),
+                    perfil.getId());
+            perfis.add(perfil.getId());
+        }
+
+        // A gravação dos que saíram do cache acontece fora da thread que provocou a saída
+        long limite = System.currentTimeMillis() + 20_000;
+        while (gravados(perfis).size() < PERFIS - 8 && System.currentTimeMillis() < limite) {
+            Thread.sleep(50);
+        }
+        List<ModeloSugestao> gravados = gravados(perfis);
+        assertThat(gravados).hasSizeGreaterThanOrEqualTo(PERFIS - 8)
+                .allSatisfy(modelo -> assertThat(modelo.getExemplos()).isEqualTo(1));
+
+        for (Long perfilId : perfis) {
+            assertThat(sugestaoCategoriaService.obter(perfilId).getExemplos()).as("perfil %d", perfilId).isEqualTo(1);
+        }
+
+        sugestaoCategoriaService.gravarModelosAlterados();
+        assertThat(gravados(perfis)).hasSize(PERFIS);
+    }
+
+    private List<ModeloSugestao> gravados(List<Long> perfis) {
+        return perfis.stream()
+                .flatMap(perfilId -> modeloSugestaoRepository.findByPerfilId(perfilId).stream())
+                .toList();
+    }
+}
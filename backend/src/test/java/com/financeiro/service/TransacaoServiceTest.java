@@ -0,0 +1,244 @@
+package com.financeiro.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financeiro.IntegracaoBase;
+import com.financeiro.dto.FiltroTransacaoDTO;
+import com.financeiro.dto.PaginaDTO;
+import com.financeiro.dto.ResultadoLoteDTO.ResultadoLinha;
+import com.financeiro.dto.TransacaoDTO;
+import com.financeiro.entity.Categoria;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.entity.Perfil;
+import com.financeiro.entity.Subcategoria;
+import com.financeiro.enums.FormatoExportacao;
+import com.financeiro.exception.NegocioException;
+
+class TransacaoServiceTest extends IntegracaoBase {
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private TransacaoExportacaoService transacaoExportacaoService;
+
+    @Autowired
+    private TransacaoLoteService transacaoLoteService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Perfil perfil;
+    private Instituicao instituicao;
+    private Categoria categoriaCompra;
+    private String grupo;
+
+    @BeforeEach
+    void criarCompraParcelada() {
+        perfil = criarPerfil(criarUsuario());
+        instituicao = criarInstituicao(perfil, "10000.00");
+        categoriaCompra = criarCategoria(perfil, "Despesa");
+        Categoria outra = criarCategoria(perfil, "Despesa");
+
+        TransacaoDTO compra = transacao(instituicao, categoriaCompra, "4800.00", LocalDate.of(2026, 1, 10));
+        compra.setEhParcelada(true);
+        compra.setNumeroParcelas(48);
+        grupo = transacaoService.salvarPorPerfil(compra, perfil.getId()).getGrupoParcelamento();
+
+        // Transações avulsas no mesmo dia de vencimento de algumas parcelas
+        transacaoService.salvarPorPerfil(transacao(instituicao, outra, "10.00", LocalDate.of(2026, 3, 10)), perfil.getId());
+        transacaoService.salvarPorPerfil(transacao(instituicao, outra, "20.00", LocalDate.of(2027, 6, 10)), perfil.getId());
+    }
+
+    @Test
+    void listagemPaginadaTrazTodasAsParcelasDoPlanoSemRepetir() {
+        // Uma parcela editada vira linha gravada e não pode aparecer também como virtual
+        transacaoService.atualizarParcela(grupo, 5, parcelaEditada(5));
+
+        FiltroTransacaoDTO filtro = new FiltroTransacaoDTO();
+        filtro.setPerfilId(perfil.getId());
+        List<TransacaoDTO> itens = listarTudo(filtro, 7);
+
+        assertThat(itens).hasSize(50);
+        assertThat(itens).extracting(TransacaoDTO::getData)
+                .isSortedAccordingTo((a, b) -> b.compareTo(a));
+        assertThat(itens).filteredOn(item -> grupo.equals(item.getGrupoParcelamento()))
+                .extracting(TransacaoDTO::getParcelaAtual)
+                .containsExactlyInAnyOrderElementsOf(IntStream.rangeClosed(1, 48).boxed().toList());
+        assertThat(itens).filteredOn(item -> item.getId() == null)
+                .hasSize(46)
+                .allSatisfy(item -> {
+                    assertThat(item.getValor()).isEqualByComparingTo("100.00");
+                    assertThat(item.getCategoriaNome()).isEqualTo(categoriaCompra.getNome());
+                    assertThat(item.getPerfilNome()).isEqualTo(perfil.getNome());
+                });
+    }
+
+    @Test
+    void listagemMesclaAsParcelasDeVariosPlanosNaOrdemDaListagem() {
+        // Vencimentos em dias diferentes, um no fim do mês (plusMonths ajusta para 28/02) e um
+        // no mesmo dia do plano criado antes, que empata pela data e é ordenado pelo grupo
+        for (LocalDate inicio : List.of(LocalDate.of(2026, 1, 31), LocalDate.of(2026, 2, 10), LocalDate.of(2025, 11, 20))) {
+            TransacaoDTO compra = transacao(instituicao, categoriaCompra, "1200.00", inicio);
+            compra.setEhParcelada(true);
+            compra.setNumeroParcelas(12);
+            transacaoService.salvarPorPerfil(compra, perfil.getId());
+        }
+
+        FiltroTransacaoDTO filtro = new FiltroTransacaoDTO();
+        filtro.setPerfilId(perfil.getId());
+        filtro.setCategoriaId(categoriaCompra.getId());
+        List<TransacaoDTO> umaPagina = listarTudo(filtro, 100);
+        List<TransacaoDTO> paginado = listarTudo(filtro, 7);
+
+        assertThat(umaPagina).hasSize(84);
+        assertThat(umaPagina).extracting(TransacaoDTO::getData).isSortedAccordingTo((a, b) -> b.compareTo(a));
+        assertThat(umaPagina).extracting(item -> item.getGrupoParcelamento() + "/" + item.getParcelaAtual())
+                .doesNotHaveDuplicates();
+        assertThat(umaPagina).extracting(TransacaoDTO::getData).contains(LocalDate.of(2026, 2, 28));
+        assertThat(paginado).extracting(item -> item.getGrupoParcelamento() + "/" + item.getParcelaAtual())
+                .containsExactlyElementsOf(umaPagina.stream()
+                        .map(item -> item.getGrupoParcelamento() + "/" + item.getParcelaAtual()).toList());
+    }
+
+    @Test
+    void buscaFiltradaIncluiAsParcelasVirtuaisQueAtendemAoFiltro() {
+        FiltroTransacaoDTO porCategoria = new FiltroTransacaoDTO();
+        porCategoria.setPerfilId(perfil.getId());
+        porCategoria.setCategoriaId(categoriaCompra.getId());
+        assertThat(listarTudo(porCategoria, 20)).hasSize(48)
+                .allSatisfy(item -> assertThat(item.getGrupoParcelamento()).isEqualTo(grupo));
+
+        FiltroTransacaoDTO porPeriodo = new FiltroTransacaoDTO();
+        porPeriodo.setPerfilId(perfil.getId());
+        porPeriodo.setDataInicio(LocalDate.of(2027, 1, 1));
+        porPeriodo.setDataFim(LocalDate.of(2027, 12, 31));
+        List<TransacaoDTO> em2027 = listarTudo(porPeriodo, 5);
+        assertThat(em2027).hasSize(13);
+        assertThat(em2027).filteredOn(item -> item.getGrupoParcelamento() != null)
+                .extracting(TransacaoDTO::getParcelaAtual)
+                .containsExactly(24, 23, 22, 21, 20, 19, 18, 17, 16, 15, 14, 13);
+
+        FiltroTransacaoDTO porValor = new FiltroTransacaoDTO();
+        porValor.setPerfilId(perfil.getId());
+        porValor.setValorMaximo(new BigDecimal("50.00"));
+        assertThat(listarTudo(porValor, 10)).hasSize(2);
+    }
+
+    @Test
+    void exportacaoIncluiAsParcelasVirtuaisEmOrdemDeData() throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        transacaoExportacaoService.exportarPorPerfil(perfil.getId(), FormatoExportacao.CSV).writeTo(saida);
+
+        List<String> linhas = saida.toString(StandardCharsets.UTF_8).lines().skip(1).toList();
+        assertThat(linhas).hasSize(50);
+        assertThat(linhas).extracting(linha -> linha.split(";")[1]).isSorted();
+        // No dia 10/03/2026 a transação gravada vem antes da parcela virtual
+        assertThat(linhas.get(2)).doesNotStartWith(";").contains("2026-03-10");
+        assertThat(linhas.get(3)).startsWith(";2026-03-10;").endsWith(";3;48");
+        assertThat(linhas.getLast()).startsWith(";2029-12-10;").endsWith(";48;48");
+    }
+
+    @Test
+    void exportacaoSegueAOrdemInversaDaListagemComVariosPlanos() throws Exception {
+        for (LocalDate inicio : List.of(LocalDate.of(2026, 1, 31), LocalDate.of(2026, 1, 10), LocalDate.of(2025, 11, 20))) {
+            TransacaoDTO compra = transacao(instituicao, categoriaCompra, "600.00", inicio);
+            compra.setEhParcelada(true);
+            compra.setNumeroParcelas(6);
+            transacaoService.salvarPorPerfil(compra, perfil.getId());
+        }
+        transacaoService.excluirParcela(grupo, 7);
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        transacaoExportacaoService.exportarPorPerfil(perfil.getId(), FormatoExportacao.NDJSON).writeTo(saida);
+        List<String> exportadas = new ArrayList<>();
+        for (String linha : saida.toString(StandardCharsets.UTF_8).lines().toList()) {
+            JsonNode item = objectMapper.readTree(linha);
+            exportadas.add(item.get("id").isNull()
+                    ? item.get("grupoParcelamento").asText() + "/" + item.get("parcelaAtual").asText()
+                    : item.get("id").asText());
+        }
+
+        FiltroTransacaoDTO filtro = new FiltroTransacaoDTO();
+        filtro.setPerfilId(perfil.getId());
+        List<String> listadas = listarTudo(filtro, 9).stream()
+                .map(item -> item.getId() == null
+                        ? item.getGrupoParcelamento() + "/" + item.getParcelaAtual()
+                        : item.getId().toString())
+                .toList();
+        assertThat(exportadas).hasSize(67).containsExactlyElementsOf(listadas.reversed());
+    }
+
+    @Test
+    void cadastrosDeOutroPerfilOuCategoriaSaoRecusados() {
+        Perfil outro = criarPerfil(perfil.getUsuario());
+        Categoria categoriaAlheia = criarCategoria(outro, "Despesa");
+        Instituicao instituicaoAlheia = criarInstituicao(outro, "0");
+        Subcategoria subcategoriaDeOutraCategoria = criarSubcategoria(criarCategoria(perfil, "Despesa"));
+        LocalDate data = LocalDate.of(2026, 4, 1);
+
+        TransacaoDTO comCategoriaAlheia = transacao(instituicao, categoriaAlheia, "1.00", data);
+        TransacaoDTO comInstituicaoAlheia = transacao(instituicaoAlheia, categoriaCompra, "1.00", data);
+        comInstituicaoAlheia.setPerfilId(perfil.getId());
+        TransacaoDTO comSubcategoriaTrocada = transacao(instituicao, categoriaCompra, "1.00", data);
+        comSubcategoriaTrocada.setSubcategoriaId(subcategoriaDeOutraCategoria.getId());
+
+        for (TransacaoDTO dto : List.of(comCategoriaAlheia, comInstituicaoAlheia, comSubcategoriaTrocada)) {
+            assertThatThrownBy(() -> transacaoService.salvarPorPerfil(dto, perfil.getId()))
+                    .isInstanceOf(NegocioException.class)
+                    .hasMessageContaining("não pertence");
+        }
+        assertThat(transacaoService.salvarPorPerfil(transacao(instituicao, categoriaCompra, "1.00", data), perfil.getId())
+                .getId()).isNotNull();
+
+        // No lote as linhas com cadastros de outro dono são recusadas uma a uma
+        List<ResultadoLinha> linhas = transacaoLoteService.gravarBloco(perfil, List.of(
+                comCategoriaAlheia, comInstituicaoAlheia, comSubcategoriaTrocada,
+                transacao(instituicao, categoriaCompra, "2.00", data)), 0);
+        assertThat(linhas).extracting(ResultadoLinha::getErro).satisfiesExactly(
+                erro -> assertThat(erro).contains("categoria " + categoriaAlheia.getId() + " não pertence"),
+                erro -> assertThat(erro).contains("instituição " + instituicaoAlheia.getId() + " não pertence"),
+                erro -> assertThat(erro).contains("subcategoria " + subcategoriaDeOutraCategoria.getId() + " não pertence"),
+                erro -> assertThat(erro).isNull());
+        assertThat(linhas.getLast().getId()).isNotNull();
+    }
+
+    private TransacaoDTO parcelaEditada(int numero) {
+        TransacaoDTO dto = new TransacaoDTO();
+        dto.setData(LocalDate.of(2026, 1, 10).plusMonths(numero - 1));
+        dto.setDescricao("Parcela editada");
+        dto.setValor(new BigDecimal("90.00"));
+        dto.setTipo("Despesa");
+        dto.setCategoriaId(categoriaCompra.getId());
+        dto.setInstituicaoId(instituicao.getId());
+        dto.setPerfilId(perfil.getId());
+        return dto;
+    }
+
+    private List<TransacaoDTO> listarTudo(FiltroTransacaoDTO filtro, int tamanho) {
+        List<TransacaoDTO> itens = new ArrayList<>();
+        String cursor = null;
+        do {
+            PaginaDTO<TransacaoDTO> pagina = transacaoService.listar(filtro, cursor, tamanho);
+            assertThat(pagina.getItens().size()).isLessThanOrEqualTo(tamanho);
+            itens.addAll(pagina.getItens());
+            cursor = pagina.getProximoCursor();
+        } while (cursor != null);
+        return itens;
+    }
+}
@@ -0,0 +1,166 @@
+package com.financeiro.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.financeiro.IntegracaoBase;
+import com.financeiro.dto.ConciliacaoSaldosDTO.Divergencia;
+import com.financeiro.dto.ResultadoLoteDTO.ResultadoLinha;
+import com.financeiro.dto.TransacaoDTO;
+import com.financeiro.entity.Categoria;
+import com.financeiro.entity.Instituicao;
+import com.financeiro.entity.Perfil;
+import com.financeiro.entity.Transacao;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Transferências em sentidos opostos, lotes e trocas de instituição concorrentes sobre as
+ * mesmas instituições. Todas as operações somam zero no total das instituições, que por
+ * isso não pode mudar; um deadlock ou uma escrita perdida aparece como falha de alguma
+ * operação, como total diferente ou como divergência na conciliação.
+ */
+class TransferenciaEntrePerfisTest extends IntegracaoBase {
+
+    // Threads de plataforma em várias rodadas: com 1 CPU, as rodadas multiplicam as intercalações
+    private static final int THREADS = 8;
+    private static final int RODADAS = 10;
+    private static final LocalDate DATA = LocalDate.of(2026, 8, 1);
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private TransacaoLoteService transacaoLoteService;
+
+    @Autowired
+    private ConciliacaoSaldoService conciliacaoSaldoService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void operacoesConcorrentesNaoTravamNemAlteramOTotalDasInstituicoes() throws Exception {
+        garantirCategoriasTransferencia();
+        Perfil perfilA = criarPerfil(criarUsuario());
+        Perfil perfilB = criarPerfil(perfilA.getUsuario());
+        Instituicao a1 = criarInstituicao(perfilA, "1000.00");
+        Instituicao a2 = criarInstituicao(perfilA, "1000.00");
+        Instituicao b1 = criarInstituicao(perfilB, "1000.00");
+        Instituicao b2 = criarInstituicao(perfilB, "1000.00");
+        Categoria receitaA = criarCategoria(perfilA, "Receita");
+        Categoria despesaA = criarCategoria(perfilA, "Despesa");
+        Categoria despesaB = criarCategoria(perfilB, "Despesa");
+        List<Long> ids = List.of(a1.getId(), a2.getId(), b1.getId(), b2.getId());
+
+        try (ExecutorService threads = Executors.newFixedThreadPool(THREADS)) {
+            for (int rodada = 0; rodada < RODADAS; rodada++) {
+                // Transações que serão movidas de instituição durante a rodada
+                TransacaoDTO daA = transacaoService.salvarPorPerfil(transacao(a1, despesaA, "3.00", DATA), perfilA.getId());
+                TransacaoDTO daB = transacaoService.salvarPorPerfil(transacao(b2, despesaB, "4.00", DATA), perfilB.getId());
+                BigDecimal totalAntes = total(ids);
+
+                CountDownLatch largada = new CountDownLatch(1);
+                List<Callable<?>> operacoes = List.of(
+                        () -> transferir(a1, b1, perfilB, "7.00"),
+                        () -> transferir(b1, a1, perfilA, "5.00"),
+                        () -> transferir(a2, b2, perfilB, "11.00"),
+                        () -> transferir(b2, a2, perfilA, "13.00"),
+                        () -> transferir(b1, a2, perfilA, "2.50"),
+                        () -> transferir(a1, b2, perfilB, "1.50"),
+                        () -> gravarLote(perfilA, a1, a2, receitaA, despesaA),
+                        () -> gravarLote(perfilA, a2, a1, receitaA, despesaA),
+                        () -> mover(daA, a2, despesaA),
+                        () -> mover(daB, b1, despesaB));
+                List<Future<?>> futuros = new ArrayList<>();
+                for (Callable<?> operacao : operacoes) {
+                    futuros.add(threads.submit(() -> {
+                        largada.await();
+                        return operacao.call();
+                    }));
+                }
+                largada.countDown();
+                for (Future<?> futuro : futuros) {
+                    futuro.get();
+                }
+                assertThat(total(ids)).as("total após a rodada %d", rodada).isEqualByComparingTo(totalAntes);
+            }
+        }
+
+        List<Divergencia> divergencias = conciliacaoSaldoService.conciliar(false).getDivergencias();
+        assertThat(divergencias).filteredOn(divergencia -> ids.contains(divergencia.getInstituicaoId())).isEmpty();
+    }
+
+    @Test
+    void pernasVaoNoMesmoBatchDeInsertsESoOVinculoDaSaidaFicaParaUmUpdate() {
+        garantirCategoriasTransferencia();
+        Perfil origem = criarPerfil(criarUsuario());
+        Perfil destino = criarPerfil(origem.getUsuario());
+        Instituicao instituicaoOrigem = criarInstituicao(origem, "100.00");
+        Instituicao instituicaoDestino = criarInstituicao(destino, "0");
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        estatisticas.clear();
+        TransacaoDTO saida = transferir(instituicaoOrigem, instituicaoDestino, destino, "10.00");
+        EntityStatistics transacoes = estatisticas.getEntityStatistics(Transacao.class.getName());
+        assertThat(transacoes.getInsertCount()).isEqualTo(2);
+        assertThat(transacoes.getUpdateCount()).isEqualTo(1);
+
+        Long entradaId = saida.getTransacaoRelacionadaId();
+        assertThat(entradaId).isNotNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT transacao_relacionada_id FROM transacoes WHERE id = ?",
+                Long.class, entradaId)).isEqualTo(saida.getId());
+    }
+
+    private TransacaoDTO transferir(Instituicao origem, Instituicao destino, Perfil perfilDestino, String valor) {
+        TransacaoDTO dto = new TransacaoDTO();
+        dto.setData(DATA);
+        dto.setDescricao("Transferência " + proximo());
+        dto.setValor(new BigDecimal(valor));
+        dto.setTipo("Despesa");
+        dto.setInstituicaoId(origem.getId());
+        dto.setPerfilId(origem.getPerfil().getId());
+        dto.setTransferenciaEntrePerfis(true);
+        dto.setPerfilDestinoId(perfilDestino.getId());
+        dto.setInstituicaoDestinoId(destino.getId());
+        return transacaoService.salvarPorPerfil(dto, origem.getPerfil().getId());
+    }
+
+    // Receita numa instituição e despesa de mesmo valor na outra, em ordem de id invertida entre os lotes
+    private List<ResultadoLinha> gravarLote(Perfil perfil, Instituicao entrada, Instituicao saida,
+                                            Categoria receita, Categoria despesa) {
+        List<ResultadoLinha> linhas = transacaoLoteService.gravarBloco(perfil, List.of(
+                transacao(entrada, receita, "9.00", DATA),
+                transacao(saida, despesa, "9.00", DATA),
+                transacao(saida, receita, "0.75", DATA.plusDays(1)),
+                transacao(entrada, despesa, "0.75", DATA.plusDays(1))), 0);
+        assertThat(linhas).extracting(ResultadoLinha::getErro).containsOnlyNulls();
+        return linhas;
+    }
+
+    private TransacaoDTO mover(TransacaoDTO gravada, Instituicao destino, Categoria categoria) {
+        return transacaoService.atualizar(gravada.getId(), transacao(destino, categoria, gravada.getValor().toPlainString(), DATA));
+    }
+
+    private BigDecimal total(List<Long> ids) {
+        return instituicaoRepository.findAllById(Set.copyOf(ids)).stream()
+                .map(Instituicao::getSaldoAtual)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
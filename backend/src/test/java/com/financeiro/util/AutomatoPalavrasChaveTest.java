@@ -0,0 +1,119 @@
+package com.financeiro.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class AutomatoPalavrasChaveTest {
+
+    @Test
+    void palavrasSobrepostasSaoEncontradasJuntas() {
+        AutomatoPalavrasChave automato = new AutomatoPalavrasChave(List.of("pix", "pix transf"));
+
+        assertThat(encontradas(automato, "PIX TRANSF JOAO")).containsExactly(0, 1);
+        assertThat(encontradas(automato, "PIX RECEBIDO")).containsExactly(0);
+        assertThat(encontradas(automato, "PIX TRANSFERENCIA")).containsExactly(0, 1);
+        assertThat(encontradas(automato, "TED TRANSF")).isEmpty();
+    }
+
+    @Test
+    void sufixosSaoEncontradosPelasLigacoesDeFalha() {
+        // Exemplo clássico: "she" termina em "he", e "hers" só continua de "he"
+        AutomatoPalavrasChave automato = new AutomatoPalavrasChave(List.of("hers", "he", "she", "his"));
+
+        assertThat(encontradas(automato, "ushers")).containsExactly(0, 1, 2);
+        assertThat(saidasApos(automato, "ushe")).containsExactly(1, 2);
+        assertThat(encontradas(automato, "ahishers")).containsExactly(0, 1, 2, 3);
+
+        // A palavra mais curta que é sufixo de outra entra na saída do estado da mais longa
+        AutomatoPalavrasChave transferencias = new AutomatoPalavrasChave(List.of("pix transf", "transf"));
+        assertThat(saidasApos(transferencias, "pix transf")).containsExactly(0, 1);
+        assertThat(encontradas(transferencias, "SUPERMERCADO")).isEmpty();
+        assertThat(encontradas(new AutomatoPalavrasChave(List.of("mercado")), "SUPERMERCADO")).containsExactly(0);
+    }
+
+    @ParameterizedTest(name = "[{index}] ''{0}'' em ''{1}''")
+    @CsvSource({
+        "café,      CAFE DA MANHA",
+        "cafe,      Café da manhã",
+        "CAFÉ,      cafe",
+        "açougue,   ACOUGUE BOM PRECO",
+        "acougue,   Açougue Bom Preço",
+        "pão,       PADARIA PAO QUENTE",
+        "educação,  MENSALIDADE EDUCACAO",
+        "ônibus,    RECARGA ONIBUS",
+        "über,      UBER TRIP",
+    })
+    void letrasAcentuadasEquivalemASemAcento(String palavra, String descricao) {
+        assertThat(encontradas(new AutomatoPalavrasChave(List.of(palavra)), descricao)).containsExactly(0);
+    }
+
+    @Test
+    void tabelaDeSimbolos() {
+        assertThat(AutomatoPalavrasChave.simbolo('a')).isEqualTo(1);
+        assertThat(AutomatoPalavrasChave.simbolo('z')).isEqualTo(26);
+        assertThat(AutomatoPalavrasChave.simbolo('0')).isEqualTo(27);
+        assertThat(AutomatoPalavrasChave.simbolo('9')).isEqualTo(36);
+        for (char acentuada : "áàâãäÁÀÂÃÄ".toCharArray()) {
+            assertThat(AutomatoPalavrasChave.simbolo(acentuada)).as("%s", acentuada).isEqualTo(1);
+        }
+        assertThat(AutomatoPalavrasChave.simbolo('Ç')).isEqualTo(AutomatoPalavrasChave.simbolo('c'));
+        assertThat(AutomatoPalavrasChave.simbolo('É')).isEqualTo(AutomatoPalavrasChave.simbolo('e'));
+        for (char separador : " -./*;,\t º$".toCharArray()) {
+            assertThat(AutomatoPalavrasChave.ehSeparador(separador)).as("'%s'", separador).isTrue();
+        }
+    }
+
+    @Test
+    void separadoresRepetidosEquivalemAUmSo() {
+        byte[] normalizada = AutomatoPalavrasChave.normalizar("pix transf");
+        assertThat(AutomatoPalavrasChave.normalizar("  PIX -- transf.  ")).isEqualTo(normalizada);
+        assertThat(AutomatoPalavrasChave.normalizar("pix/*/transf")).isEqualTo(normalizada);
+        assertThat(normalizada).hasSize(10);
+        // Sem letras nem dígitos, a palavra fica vazia
+        assertThat(AutomatoPalavrasChave.normalizar(" -- ")).isEmpty();
+
+        AutomatoPalavrasChave automato = new AutomatoPalavrasChave(List.of("pix transf", "--"));
+        assertThat(encontradas(automato, "PIX   -  TRANSF")).containsExactly(0);
+        assertThat(encontradas(automato, "PIX*TRANSF")).containsExactly(0);
+        // Um separador na palavra exige ao menos um na descrição
+        assertThat(encontradas(automato, "PIXTRANSF")).isEmpty();
+        assertThat(encontradas(automato, "-- -- --")).isEmpty();
+    }
+
+    /**
+     * Índices de todas as palavras encontradas na descrição, percorrida como no
+     * ClassificadorTransacoes: separadores seguidos contam como um só.
+     */
+    private static SortedSet<Integer> encontradas(AutomatoPalavrasChave automato, String descricao) {
+        SortedSet<Integer> indices = new TreeSet<>();
+        int estado = AutomatoPalavrasChave.estadoInicial();
+        boolean separadorAnterior = true;
+        for (char caractere : descricao.toCharArray()) {
+            boolean separador = AutomatoPalavrasChave.ehSeparador(caractere);
+            if (separador && separadorAnterior) {
+                continue;
+            }
+            separadorAnterior = separador;
+            estado = automato.avancar(estado, caractere);
+            for (int indice : automato.saidas(estado)) {
+                indices.add(indice);
+            }
+        }
+        return indices;
+    }
+
+    private static int[] saidasApos(AutomatoPalavrasChave automato, String texto) {
+        int estado = AutomatoPalavrasChave.estadoInicial();
+        for (char caractere : texto.toCharArray()) {
+            estado = automato.avancar(estado, caractere);
+        }
+        return automato.saidas(estado);
+    }
+}
@@ -0,0 +1,118 @@
+package com.financeiro.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class FormatoBrasileiroTest {
+
+    @ParameterizedTest(name = "[{index}] ''{0}'' = {1}")
+    @CsvSource(delimiter = '|', value = {
+        // separadores decimal e de milhar
+        "'1.234,56'           | 123456",
+        "'1.234.567,8'        | 123456780",
+        "'1234,56'            | 123456",
+        "'0,5'                | 50",
+        "',50'                | 50",
+        "'10'                 | 1000",
+        "'1.234'              | 123400",
+        "'1.234.567'          | 123456700",
+        "'45.90'              | 4590",
+        "'45.9'               | 4590",
+        // sinal
+        "'-45,90'             | -4590",
+        "'+45,90'             | 4590",
+        "'45,90-'             | -4590",
+        "'- 45,90'            | -4590",
+        "'R$ 10,00'           | 1000",
+        "'R$ -10,00'          | -1000",
+        "'-R$ 10,00'          | -1000",
+        "'R$10,00'            | 1000",
+        // parênteses dos extratos contábeis
+        "'(45,90)'            | -4590",
+        "'( 1.234,56 )'       | -123456",
+        "'(R$ 10,00)'         | -1000",
+        // espaços, tabulações e o \\r do fim de linha
+        "'  12,30  '          | 1230",
+        "'\t12,30\t'          | 1230",
+        "'12,30\r'            | 1230",
+        "'9999999999999999'   | 999999999999999900",
+    })
+    void lerCentavos(String texto, long esperado) {
+        assertThat(centavos(texto)).isEqualTo(esperado);
+    }
+
+    @ParameterizedTest(name = "[{index}] ''{0}''")
+    @ValueSource(strings = {
+        "", "   ", "-", "R$", "()", "abc", "12a", "1,234", "1,2,3", "12,3x", "1.2.3,4,5",
+        "(45,90", "45,90)", "10 00", "99999999999999999",
+    })
+    void valorInvalido(String texto) {
+        assertThat(centavos(texto)).isEqualTo(FormatoBrasileiro.VALOR_INVALIDO);
+    }
+
+    @Test
+    void lerCentavosRespeitaOTrechoInformado() {
+        byte[] linha = "10/01/2026;Mercado;-1.234,56;fim".getBytes(StandardCharsets.US_ASCII);
+        assertThat(FormatoBrasileiro.lerCentavos(linha, 19, 28)).isEqualTo(-123456);
+    }
+
+    @ParameterizedTest(name = "[{index}] ''{0}'' = {1}")
+    @CsvSource(delimiter = '|', value = {
+        "'31/12/2024'                 | 2024-12-31",
+        "'1/2/2024'                   | 2024-02-01",
+        "'01/02/2024'                 | 2024-02-01",
+        "'31-12-24'                   | 2024-12-31",
+        "'31.12.2024'                 | 2024-12-31",
+        "'2024-12-31'                 | 2024-12-31",
+        "'20241231'                   | 2024-12-31",
+        "'20241231120000[-3:BRT]'     | 2024-12-31",
+        "'20241231120000.000'         | 2024-12-31",
+        "'31/12/2024 23:59'           | 2024-12-31",
+        "'2024-12-31T23:59:59'        | 2024-12-31",
+        "'  31/12/2024\r'             | 2024-12-31",
+        "'29/02/2024'                 | 2024-02-29",
+        "'29/02/2000'                 | 2000-02-29",
+        "'01/01/1970'                 | 1970-01-01",
+        "'31/12/1969'                 | 1969-12-31",
+        "'01/03/1600'                 | 1600-03-01",
+    })
+    void lerDiaEpoch(String texto, LocalDate esperada) {
+        assertThat(dia(texto)).isEqualTo(esperada.toEpochDay());
+    }
+
+    @ParameterizedTest(name = "[{index}] ''{0}''")
+    @ValueSource(strings = {
+        "", "abc", "29/02/2023", "29/02/1900", "31/04/2024", "32/01/2024", "00/01/2024", "31/00/2024",
+        "31/13/2024", "31/12/202", "1/1/1", "31/12-2024", "31/12/2024x", "123/12/2024", "2024123",
+        "20241331", "2024-12-310", "31/12",
+    })
+    void dataInvalida(String texto) {
+        assertThat(dia(texto)).isEqualTo(FormatoBrasileiro.DATA_INVALIDA);
+    }
+
+    @Test
+    void lerDiaEpochConcordaComLocalDateEmTodosOsDiasDeDoisSeculos() {
+        DateTimeFormatter formato = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+        for (LocalDate data = LocalDate.of(1901, 1, 1); data.getYear() < 2101; data = data.plusDays(1)) {
+            assertThat(dia(data.format(formato))).as(data.toString()).isEqualTo(data.toEpochDay());
+        }
+    }
+
+    private static long centavos(String texto) {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        return FormatoBrasileiro.lerCentavos(bytes, 0, bytes.length);
+    }
+
+    private static long dia(String texto) {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        return FormatoBrasileiro.lerDiaEpoch(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,124 @@
+package com.financeiro.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+import com.financeiro.util.ModeloSugestaoCategoria.Exemplo;
+import com.financeiro.util.ModeloSugestaoCategoria.Sugestao;
+
+class ModeloSugestaoCategoriaTest {
+
+    private static final long MERCADO = 10;
+    private static final long COMBUSTIVEL = 20;
+    private static final long PADARIA = 30;
+    private static final long HORTIFRUTI = 31; // subcategoria de MERCADO
+
+    @Test
+    void treinoComOHistoricoSugereACategoriaDasDescricoesParecidas() {
+        ModeloSugestaoCategoria modelo = new ModeloSugestaoCategoria();
+        assertThat(modelo.sugerir("SUPERMERCADO EXTRA", 8_990, "Despesa", 1L)).isNull();
+
+        for (int i = 0; i < 5; i++) {
+            modelo.aprender(exemplo("SUPERMERCADO EXTRA LOJA " + i, 12_000 + i, MERCADO, null));
+            modelo.aprender(exemplo("POSTO IPIRANGA " + i, 20_000 + i, COMBUSTIVEL, null));
+        }
+        modelo.aprender(exemplo("Hortifrúti Sacolão", 3_500, MERCADO, HORTIFRUTI));
+        modelo.aprender(exemplo("HORTIFRUTI SACOLAO CENTRO", 4_200, MERCADO, HORTIFRUTI));
+        // Sem categoria a transação não ensina nada
+        modelo.aprender(exemplo("SUPERMERCADO EXTRA", 12_000, null, null));
+
+        assertThat(modelo.getExemplos()).isEqualTo(12);
+        Sugestao mercado = modelo.sugerir("supermercado extra", 9_990, "Despesa", 1L);
+        assertThat(mercado.categoriaId()).isEqualTo(MERCADO);
+        assertThat(mercado.subcategoriaId()).isNull();
+        assertThat(mercado.confianca()).isGreaterThan(0.9).isLessThanOrEqualTo(1.0);
+        assertThat(modelo.sugerir("POSTO IPIRANGA BR 116", 18_000, "Despesa", 1L).categoriaId()).isEqualTo(COMBUSTIVEL);
+        // Acentos e caixa seguem a normalização das regras de categorização
+        Sugestao hortifruti = modelo.sugerir("hortifruti sacolão", 3_000, "Despesa", 1L);
+        assertThat(hortifruti.categoriaId()).isEqualTo(MERCADO);
+        assertThat(hortifruti.subcategoriaId()).isEqualTo(HORTIFRUTI);
+    }
+
+    @Test
+    void aprenderEEsquecerAtualizamOModeloSemRetreinar() {
+        ModeloSugestaoCategoria modelo = new ModeloSugestaoCategoria();
+        ModeloSugestaoCategoria referencia = new ModeloSugestaoCategoria();
+        for (ModeloSugestaoCategoria m : new ModeloSugestaoCategoria[] {modelo, referencia}) {
+            m.aprender(exemplo("PADARIA PAO QUENTE", 1_500, PADARIA, null));
+            m.aprender(exemplo("POSTO SHELL", 15_000, COMBUSTIVEL, null));
+        }
+        assertThat(modelo.sugerir("PADARIA PAO QUENTE", 1_500, "Despesa", 1L).categoriaId()).isEqualTo(PADARIA);
+
+        // A recategorização de transações da padaria como mercado muda a sugestão na hora
+        for (int i = 0; i < 3; i++) {
+            modelo.esquecer(exemplo("PADARIA PAO QUENTE", 1_500, PADARIA, null));
+            modelo.aprender(exemplo("PADARIA PAO QUENTE", 1_500, MERCADO, null));
+            modelo.aprender(exemplo("PADARIA PAO QUENTE", 1_500, PADARIA, null));
+        }
+        assertThat(modelo.sugerir("PADARIA PAO QUENTE", 1_500, "Despesa", 1L).categoriaId()).isEqualTo(MERCADO);
+        assertThat(modelo.getExemplos()).isEqualTo(5);
+
+        // Esquecer as transações aprendidas volta ao modelo anterior, contagem a contagem
+        for (int i = 0; i < 3; i++) {
+            modelo.esquecer(exemplo("PADARIA PAO QUENTE", 1_500, MERCADO, null));
+        }
+        assertThat(modelo.getExemplos()).isEqualTo(referencia.getExemplos());
+        assertThat(modelo.sugerir("PADARIA PAO QUENTE", 1_500, "Despesa", 1L))
+                .isEqualTo(referencia.sugerir("PADARIA PAO QUENTE", 1_500, "Despesa", 1L));
+
+        // Esquecer o que o modelo não aprendeu (anterior à carga) não deixa contagens negativas
+        modelo.esquecer(exemplo("SUPERMERCADO", 30_000, MERCADO, null));
+        modelo.esquecer(exemplo("OUTRA", 10, 99L, null));
+        assertThat(modelo.getExemplos()).isEqualTo(2);
+        assertThat(modelo.sugerir("PADARIA PAO QUENTE", 1_500, "Despesa", 1L).categoriaId()).isEqualTo(PADARIA);
+    }
+
+    @Test
+    void serializacaoPreservaAsSugestoes() {
+        ModeloSugestaoCategoria modelo = new ModeloSugestaoCategoria();
+        // Mais categorias que a capacidade inicial (8), para a tabela crescer antes de gravar
+        for (long categoria = 1; categoria <= 12; categoria++) {
+            modelo.aprender(exemplo("LOJA " + "ABCDEFGHIJKL".charAt((int) categoria - 1) + "X", categoria * 100,
+                    categoria, categoria % 2 == 0 ? categoria * 10 : null));
+        }
+
+        ModeloSugestaoCategoria lido = ModeloSugestaoCategoria.desserializar(modelo.serializar());
+
+        assertThat(lido.getExemplos()).isEqualTo(12);
+        for (char loja = 'A'; loja <= 'L'; loja++) {
+            String descricao = "LOJA " + loja + "X";
+            assertThat(lido.sugerir(descricao, 500, "Despesa", 1L)).as(descricao)
+                    .isEqualTo(modelo.sugerir(descricao, 500, "Despesa", 1L));
+        }
+        assertThat(lido.serializar()).isEqualTo(modelo.serializar());
+    }
+
+    @Test
+    void empateFicaComACategoriaAprendidaPrimeiro() {
+        ModeloSugestaoCategoria mercadoPrimeiro = new ModeloSugestaoCategoria();
+        mercadoPrimeiro.aprender(exemplo("ATACADAO", 5_000, MERCADO, null));
+        mercadoPrimeiro.aprender(exemplo("ATACADAO", 5_000, PADARIA, null));
+        ModeloSugestaoCategoria padariaPrimeiro = new ModeloSugestaoCategoria();
+        padariaPrimeiro.aprender(exemplo("ATACADAO", 5_000, PADARIA, null));
+        padariaPrimeiro.aprender(exemplo("ATACADAO", 5_000, MERCADO, null));
+
+        Sugestao empate = mercadoPrimeiro.sugerir("ATACADAO", 5_000, "Despesa", 1L);
+        assertThat(empate.categoriaId()).isEqualTo(MERCADO);
+        assertThat(empate.confianca()).isCloseTo(0.5, within(1e-9));
+        assertThat(padariaPrimeiro.sugerir("ATACADAO", 5_000, "Despesa", 1L).categoriaId()).isEqualTo(PADARIA);
+
+        // A mesma categoria com e sem subcategoria são classes distintas; a com mais exemplos vence
+        mercadoPrimeiro.aprender(exemplo("ATACADAO", 5_000, MERCADO, HORTIFRUTI));
+        mercadoPrimeiro.aprender(exemplo("ATACADAO", 5_000, MERCADO, HORTIFRUTI));
+        Sugestao desempate = mercadoPrimeiro.sugerir("ATACADAO", 5_000, "Despesa", 1L);
+        assertThat(desempate.categoriaId()).isEqualTo(MERCADO);
+        assertThat(desempate.subcategoriaId()).isEqualTo(HORTIFRUTI);
+        assertThat(desempate.confianca()).isGreaterThan(0.5);
+    }
+
+    private static Exemplo exemplo(String descricao, long centavos, Long categoriaId, Long subcategoriaId) {
+        return new Exemplo(descricao, centavos, "Despesa", 1L, categoriaId, subcategoriaId);
+    }
+}
@@ -6,7 +6,7 @@ import { SubcategoriaService } from '../../services/subcategoria.service';
 import { InstituicaoService } from '../../services/instituicao.service';
 import { AuthService } from '../../services/auth.service';
 import { PerfilService, Perfil } from '../../services/perfil.service';
-import { Transacao } from '../../models/transacao.model';
+import { PaginaTransacoes, Transacao } from '../../models/transacao.model';
 import { Categoria } from '../../models/categoria.model';
 import { Subcategoria } from '../../models/subcategoria.model';
 import { Instituicao } from '../../models/instituicao.model';
@@ -31,6 +31,11 @@ export class TransacaoComponent implements OnInit {
   filtroTipo = '';
   filtroCategoria = '';
   
+  // Paginação por cursor da lista de lançamentos
+  proximoCursor?: string;
+  possuiMais = false;
+  carregandoMais = false;
+  
   // Perfil do usuário
   perfilAtual: Perfil | null = null;
   
@@ -174,12 +179,10 @@ export class TransacaoComponent implements OnInit {
 
   carregarTransacoes(): void {
     this.loading = true;
-    // Usar o mesmo método de filtro, mas sem filtros específicos
-    this.transacaoService.listarComFiltros(this.perfilAtual?.id).subscribe({
-      next: (transacoes) => {
-        this.transacoes = transacoes.sort((a, b) => 
-          new Date(b.data).getTime() - new Date(a.data).getTime()
-        );
+    // Primeira página sem filtros; as seguintes vêm por carregarMais()
+    this.transacaoService.listarPagina(this.perfilAtual?.id).subscribe({
+      next: (pagina) => {
+        this.exibirPagina(pagina);
         this.loading = false;
       },
       error: (error) => {
@@ -190,6 +193,40 @@ export class TransacaoComponent implements OnInit {
     });
   }
 
+  carregarMais(): void {
+    if (!this.possuiMais || !this.proximoCursor || this.carregandoMais) {
+      return;
+    }
+    this.carregandoMais = true;
+    this.transacaoService.listarPagina(this.perfilAtual?.id, this.tipoFiltroAtual(), this.categoriaFiltroAtual(),
+      this.proximoCursor).subscribe({
+      next: (pagina) => {
+        this.exibirPagina(pagina, true);
+        this.carregandoMais = false;
+      },
+      error: (error) => {
+        this.errorMessage = 'Erro ao carregar mais lançamentos';
+        this.carregandoMais = false;
+        console.error('Erro:', error);
+      }
+    });
+  }
+
+  // A API já devolve as páginas da data mais recente para a mais antiga
+  private exibirPagina(pagina: PaginaTransacoes, acrescentar = false): void {
+    this.transacoes = acrescentar ? this.transacoes.concat(pagina.itens) : pagina.itens;
+    this.proximoCursor = pagina.proximoCursor;
+    this.possuiMais = pagina.possuiMais;
+  }
+
+  private tipoFiltroAtual(): string | undefined {
+    return this.filtroTipo && this.filtroTipo !== '' ? this.filtroTipo : undefined;
+  }
+
+  private categoriaFiltroAtual(): string | undefined {
+    return this.filtroCategoria && this.filtroCategoria !== '' ? this.filtroCategoria : undefined;
+  }
+
   onSubmit(): void {
     if (this.transacaoForm.invalid) {
       return;
@@ -226,7 +263,11 @@ export class TransacaoComponent implements OnInit {
 
     if (this.editingTransacao) {
       // Atualizar lançamento existente
-      this.transacaoService.atualizar(this.editingTransacao.id!, transacaoData).subscribe({
+      const atualizacao = this.editingTransacao.id != null
+        ? this.transacaoService.atualizar(this.editingTransacao.id, transacaoData)
+        : this.transacaoService.atualizarParcela(this.editingTransacao.grupoParcelamento!,
+            this.editingTransacao.parcelaAtual!, transacaoData);
+      atualizacao.subscribe({
         next: () => {
           this.successMessage = 'Lançamento atualizado com sucesso!';
           this.resetForm();
@@ -286,7 +327,10 @@ export class TransacaoComponent implements OnInit {
 
   excluirTransacao(transacao: Transacao): void {
     if (confirm(`Tem certeza que deseja excluir o lançamento "${transacao.descricao}"?`)) {
-      this.transacaoService.excluir(transacao.id!).subscribe({
+      const exclusao = transacao.id != null
+        ? this.transacaoService.excluir(transacao.id)
+        : this.transacaoService.excluirParcela(transacao.grupoParcelamento!, transacao.parcelaAtual!);
+      exclusao.subscribe({
         next: () => {
           this.successMessage = 'Lançamento excluído com sucesso!';
           this.carregarTransacoes();
@@ -387,16 +431,10 @@ export class TransacaoComponent implements OnInit {
       return;
     }
 
-    // Preparar parâmetros para o filtro
-    const tipoFiltro = this.filtroTipo && this.filtroTipo !== '' ? this.filtroTipo : undefined;
-    const categoriaFiltro = this.filtroCategoria && this.filtroCategoria !== '' ? this.filtroCategoria : undefined;
-
     // Usar o endpoint principal com parâmetros de query
-    this.transacaoService.listarComFiltros(this.perfilAtual.id, tipoFiltro, categoriaFiltro).subscribe({
-      next: (transacoes) => {
-        this.transacoes = transacoes.sort((a, b) => 
-          new Date(b.data).getTime() - new Date(a.data).getTime()
-        );
+    this.transacaoService.listarPagina(this.perfilAtual.id, this.tipoFiltroAtual(), this.categoriaFiltroAtual()).subscribe({
+      next: (pagina) => {
+        this.exibirPagina(pagina);
         this.loading = false;
       },
       error: (error) => {
@@ -1,8 +1,15 @@
+export interface ResumoSubcategoria {
+    subcategoriaId: number;
+    subcategoriaNome: string;
+    valor: number;
+}
+
 export interface ResumoCategoria {
     categoriaId: number;
     categoriaNome: string;
     tipo: 'Receita' | 'Despesa';
     valor: number;
+    subcategorias?: ResumoSubcategoria[];
 }
 
 export interface ResumoFinanceiro {
@@ -20,4 +20,10 @@ export interface Transacao {
     grupoParcelamento?: string;
     ehParcelada?: boolean;
     numeroParcelas?: number; // Usado apenas na criação
+}
+
+export interface PaginaTransacoes {
+    itens: Transacao[];
+    proximoCursor?: string;
+    possuiMais: boolean;
 }
\ No newline at end of file
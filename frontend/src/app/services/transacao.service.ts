@@ -1,7 +1,8 @@
 import { Injectable } from '@angular/core';
 import { HttpClient, HttpParams } from '@angular/common/http';
-import { Observable } from 'rxjs';
-import { Transacao } from '../models/transacao.model';
+import { EMPTY, Observable } from 'rxjs';
+import { expand, map, reduce } from 'rxjs/operators';
+import { PaginaTransacoes, Transacao } from '../models/transacao.model';
 import { environment } from '../../environments/environment';
 
 @Injectable({
@@ -12,8 +13,9 @@ export class TransacaoService {
 
   constructor(private http: HttpClient) { }
 
+  // Todas as transações: segue o proximoCursor até a última página
   listar(): Observable<Transacao[]> {
-    return this.http.get<Transacao[]>(this.apiUrl);
+    return this.listarTodas();
   }
 
   listarPorTipo(tipo: 'Receita' | 'Despesa'): Observable<Transacao[]> {
@@ -25,6 +27,10 @@ export class TransacaoService {
   }
 
   listarComFiltros(perfilId?: number, tipo?: string, categoriaId?: string): Observable<Transacao[]> {
+    return this.listarTodas(perfilId, tipo, categoriaId);
+  }
+
+  listarPagina(perfilId?: number, tipo?: string, categoriaId?: string, cursor?: string): Observable<PaginaTransacoes> {
     let params = new HttpParams();
     
     if (perfilId) {
@@ -39,7 +45,21 @@ export class TransacaoService {
       params = params.set('categoriaId', categoriaId);
     }
     
-    return this.http.get<Transacao[]>(this.apiUrl, { params });
+    if (cursor) {
+      params = params.set('cursor', cursor);
+    }
+    
+    return this.http.get<PaginaTransacoes>(this.apiUrl, { params });
+  }
+
+  private listarTodas(perfilId?: number, tipo?: string, categoriaId?: string): Observable<Transacao[]> {
+    return this.listarPagina(perfilId, tipo, categoriaId).pipe(
+      expand(pagina => pagina.possuiMais && pagina.proximoCursor
+        ? this.listarPagina(perfilId, tipo, categoriaId, pagina.proximoCursor)
+        : EMPTY),
+      map(pagina => pagina.itens),
+      reduce((todas, itens) => todas.concat(itens), [] as Transacao[])
+    );
   }
 
   listarPorInstituicao(instituicaoId: number): Observable<Transacao[]> {
@@ -79,4 +99,13 @@ export class TransacaoService {
   excluir(id: number): Observable<void> {
     return this.http.delete<void>(`${this.apiUrl}/${id}`);
   }
+
+  // Parcelas futuras de um parcelamento ainda não têm id; são identificadas pelo grupo e pelo número
+  atualizarParcela(grupoParcelamento: string, numero: number, transacao: Transacao): Observable<Transacao> {
+    return this.http.put<Transacao>(`${this.apiUrl}/parcelamentos/${grupoParcelamento}/parcelas/${numero}`, transacao);
+  }
+
+  excluirParcela(grupoParcelamento: string, numero: number): Observable<void> {
+    return this.http.delete<void>(`${this.apiUrl}/parcelamentos/${grupoParcelamento}/parcelas/${numero}`);
+  }
 }
\ No newline at end of file